@@ -8,12 +8,23 @@ import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.maven.artifact.factory.ArtifactFactory;
 import org.apache.maven.artifact.installer.ArtifactInstallationException;
 import org.apache.maven.artifact.installer.ArtifactInstaller;
@@ -31,7 +42,13 @@ import org.basinmc.blackwater.artifact.ArtifactReference;
 import org.basinmc.blackwater.utility.CloseableResource;
 
 /**
- * Provides an artifact manager which is backed by a local maven repository.
+ * <p>Provides an artifact manager which is backed by a local maven repository.</p>
+ *
+ * <p>Batches of artifacts (see {@link #getArtifacts(Collection)}) are resolved in parallel when an
+ * executor is passed to the manager. Since resolution blocks on network and disk I/O, callers are
+ * expected to pass a dedicated executor rather than a shared pool (such as the common fork join
+ * pool). When no executor is given, artifacts are resolved sequentially on the calling
+ * thread.</p>
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
@@ -41,16 +58,27 @@ public class MavenArtifactManager implements ArtifactManager {
   private final ArtifactInstaller artifactInstaller;
   private final ArtifactResolver artifactResolver;
   private final ArtifactRepository localRepository;
+  private final Executor executor;
 
   public MavenArtifactManager(
       @Nonnull ArtifactFactory artifactFactory,
       @Nonnull ArtifactInstaller artifactInstaller,
       @Nonnull ArtifactResolver artifactResolver,
-      @Nonnull ArtifactRepository localRepository) {
+      @Nonnull ArtifactRepository localRepository,
+      @Nullable Executor executor) {
     this.artifactFactory = artifactFactory;
     this.artifactInstaller = artifactInstaller;
     this.artifactResolver = artifactResolver;
     this.localRepository = localRepository;
+    this.executor = executor;
+  }
+
+  public MavenArtifactManager(
+      @Nonnull ArtifactFactory artifactFactory,
+      @Nonnull ArtifactInstaller artifactInstaller,
+      @Nonnull ArtifactResolver artifactResolver,
+      @Nonnull ArtifactRepository localRepository) {
+    this(artifactFactory, artifactInstaller, artifactResolver, localRepository, null);
   }
 
   /**
@@ -172,22 +200,119 @@ public class MavenArtifactManager implements ArtifactManager {
   @Nonnull
   @Override
   public Optional<Artifact> getArtifact(@Nonnull ArtifactReference reference) throws IOException {
-    if (!(reference instanceof MavenArtifactReference)) {
-      throw new IllegalArgumentException(
-          "Illegal reference: Expected MavenArtifactReference but got " + reference.getClass()
-              .getName());
+    return this.resolveArtifact(this.toMavenReference(reference));
+  }
+
+  /**
+   * <p>Resolves all requested artifacts in parallel using the executor passed to this manager (or
+   * sequentially on the calling thread when no executor has been given).</p>
+   *
+   * <p>References are grouped by their respective group identifier, artifact identifier and
+   * version. Each group is resolved sequentially within a single job as its members share the
+   * same repository metadata (e.g. the snapshot or version metadata of the coordinate). This
+   * permits the first resolution within the group to refresh the metadata while all remaining
+   * members rely on the locally cached copy (as the repository update policy has already been
+   * satisfied) and prevents concurrent resolutions from updating the same metadata file at the
+   * same time.</p>
+   *
+   * @param references a collection of references to the desired artifacts.
+   * @return a map of references and their respective artifacts.
+   * @throws IOException when resolving or opening one or more artifacts fails.
+   */
+  @Nonnull
+  @Override
+  public Map<ArtifactReference, Artifact> getArtifacts(
+      @Nonnull Collection<? extends ArtifactReference> references) throws IOException {
+    if (this.executor == null) {
+      return ArtifactManager.super.getArtifacts(references);
     }
 
-    MavenArtifactReference artifactReference = (MavenArtifactReference) reference;
+    Map<String, Set<MavenArtifactReference>> groups = new LinkedHashMap<>();
 
+    for (ArtifactReference reference : references) {
+      MavenArtifactReference artifactReference = this.toMavenReference(reference);
+      String coordinate = artifactReference.getGroupId() + ':' + artifactReference.getArtifactId()
+          + ':' + artifactReference.getVersion();
+
+      groups.computeIfAbsent(coordinate, (k) -> new LinkedHashSet<>())
+          .add(artifactReference);
+    }
+
+    Map<ArtifactReference, Artifact> artifacts = new ConcurrentHashMap<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+    for (Set<MavenArtifactReference> group : groups.values()) {
+      futures.add(CompletableFuture.runAsync(() -> {
+        for (MavenArtifactReference reference : group) {
+          try {
+            this.resolveArtifact(reference)
+                .ifPresent((a) -> artifacts.put(reference, a));
+          } catch (IOException ex) {
+            throw new CompletionException(ex);
+          }
+        }
+      }, this.executor));
+    }
+
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException ex) {
+      // at this point all jobs have completed (either successfully or exceptionally) thus we'll
+      // release all artifacts we've opened in the process before passing on the failure
+      IOException exception = ex.getCause() instanceof IOException ? (IOException) ex.getCause()
+          : new IOException("Failed to resolve artifacts: " + ex.getCause().getMessage(),
+              ex.getCause());
+
+      for (Artifact artifact : artifacts.values()) {
+        try {
+          artifact.close();
+        } catch (IOException e) {
+          exception.addSuppressed(e);
+        }
+      }
+
+      throw exception;
+    }
+
+    return new HashMap<>(artifacts);
+  }
+
+  /**
+   * Resolves a single artifact from the local repository.
+   *
+   * @param reference a reference to the desired artifact.
+   * @return a reference to the artifact or, if no such artifact exists, an empty optional.
+   * @throws IOException when resolving the artifact fails.
+   */
+  @Nonnull
+  private Optional<Artifact> resolveArtifact(@Nonnull MavenArtifactReference reference)
+      throws IOException {
     try {
-      org.apache.maven.artifact.Artifact artifact = this.createMavenArtifact(artifactReference);
+      org.apache.maven.artifact.Artifact artifact = this.createMavenArtifact(reference);
       this.artifactResolver.resolve(artifact, Collections.emptyList(), this.localRepository);
-      return Optional.of(new MavenArtifact(artifactReference, artifact.getFile().toPath()));
+      return Optional.of(new MavenArtifact(reference, artifact.getFile().toPath()));
     } catch (ArtifactResolutionException ex) {
       throw new IOException("Failed to resolve artifact " + reference + ": " + ex.getMessage());
     } catch (ArtifactNotFoundException ex) {
       return Optional.empty();
     }
   }
+
+  /**
+   * Converts an arbitrary reference into a maven artifact reference.
+   *
+   * @param reference an arbitrary reference.
+   * @return a maven artifact reference.
+   * @throws IllegalArgumentException when the reference is not a maven artifact reference.
+   */
+  @Nonnull
+  private MavenArtifactReference toMavenReference(@Nonnull ArtifactReference reference) {
+    if (!(reference instanceof MavenArtifactReference)) {
+      throw new IllegalArgumentException(
+          "Illegal reference: Expected MavenArtifactReference but got " + reference.getClass()
+              .getName());
+    }
+
+    return (MavenArtifactReference) reference;
+  }
 }
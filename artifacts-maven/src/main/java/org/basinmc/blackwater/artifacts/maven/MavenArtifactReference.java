@@ -1,5 +1,6 @@
 package org.basinmc.blackwater.artifacts.maven;
 
+import java.io.Serializable;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -10,7 +11,9 @@ import org.basinmc.blackwater.artifact.ArtifactReference;
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
-public class MavenArtifactReference implements ArtifactReference {
+public class MavenArtifactReference implements ArtifactReference, Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   /**
    * Defines teh standard packaging value for maven.
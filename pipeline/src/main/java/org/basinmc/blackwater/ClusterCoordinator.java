@@ -0,0 +1,466 @@
+package org.basinmc.blackwater;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.PipelineResult.TaskResult;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.utility.Digests;
+import org.basinmc.blackwater.utility.RestrictedObjectInputStream;
+import org.basinmc.blackwater.utility.Serialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Distributes the execution of tasks across a set of remote {@link ClusterWorker workers}
+ * (typically located on other build nodes).</p>
+ *
+ * <p>Pipelines which have been configured with a coordinator (see {@link
+ * Pipeline.Builder#withClusterCoordinator(ClusterCoordinator)}) continue to schedule their tasks
+ * locally but hand every ready task registration to an idle worker instead of executing it on
+ * their own. Workers resolve their inputs from and publish their outputs to their own artifact
+ * manager and report the result back to the coordinator. As a result, the pipeline and all of its
+ * workers must share the same artifact backend (such as a {@link
+ * org.basinmc.blackwater.artifact.file.FileArtifactManager} on a network file system) while file
+ * inputs and outputs must be located at the same paths on all nodes. Workers which share a virtual
+ * machine with each other (or with the pipeline) may safely rely on separate manager instances for
+ * the same directory since their locks are shared within the virtual machine.</p>
+ *
+ * <p>Only registrations whose task and artifact references are {@link java.io.Serializable} and
+ * whose file parameters are located on the default file system are distributed. All other
+ * registrations are executed by the pipeline itself. When a worker disconnects (or stops
+ * reporting its progress) during an execution, its task is rescheduled on another worker.</p>
+ *
+ * <p>Workers and coordinators authenticate each other using a shared token which is never
+ * transmitted (see {@link ClusterProtocol}). Requests and responses are, however, transmitted
+ * without encryption and thus need to be tunneled through TLS (e.g. via stunnel or an SSH port
+ * forward) when workers connect from other hosts. Responses are only deserialized when their types
+ * are located within a permitted package (see {@link Builder#withAllowedPackage(String)}).</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ClusterCoordinator implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+  private final String token;
+  private final Duration workerTimeout;
+  private final List<String> allowedPackages;
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final LinkedBlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+  private final Set<Connection> connections = Collections.synchronizedSet(new HashSet<>());
+  private volatile boolean closed;
+
+  private ClusterCoordinator(
+      @Nonnull InetAddress bindAddress,
+      int port,
+      @Nullable String token,
+      @Nonnull Duration workerTimeout,
+      @Nonnull List<String> allowedPackages) throws IOException {
+    if (token == null) {
+      byte[] rawToken = new byte[32];
+      new SecureRandom().nextBytes(rawToken);
+      token = Digests.toHexString(rawToken);
+    }
+
+    this.token = token;
+    this.workerTimeout = workerTimeout;
+    this.allowedPackages = new ArrayList<>(allowedPackages);
+    this.serverSocket = new ServerSocket(port, 50, bindAddress);
+
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool((r) -> {
+      Thread thread = new Thread(r, "blackwater-coordinator-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.execute(this::accept);
+
+    logger.info("Cluster coordinator listening on {}:{}", bindAddress.getHostAddress(),
+        this.getPort());
+  }
+
+  /**
+   * Creates a new empty coordinator factory.
+   *
+   * @return a factory.
+   */
+  @Nonnull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Accepts worker connections until the coordinator is shut down.
+   */
+  private void accept() {
+    while (!this.serverSocket.isClosed()) {
+      try {
+        Socket socket = this.serverSocket.accept();
+        this.executor.execute(() -> this.handshake(socket));
+      } catch (SocketException ex) {
+        // thrown when the socket is closed while we're waiting for connections
+      } catch (IOException ex) {
+        logger.warn("Failed to accept worker connection: {}", ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+    this.serverSocket.close();
+    this.executor.shutdown();
+
+    List<Connection> connections;
+
+    synchronized (this.connections) {
+      connections = new ArrayList<>(this.connections);
+      this.connections.clear();
+    }
+
+    this.idleConnections.clear();
+    connections.forEach(Connection::close);
+  }
+
+  /**
+   * <p>Executes a task registration on an idle worker and blocks until the execution has
+   * completed.</p>
+   *
+   * <p>When the registration cannot be passed to a worker (for instance, because its task is not
+   * serializable), an empty optional is returned and the caller is expected to execute the task on
+   * its own.</p>
+   *
+   * @param registration a task registration.
+   * @param enforceExecution true if the worker shall execute the task regardless of the state of
+   * its output artifact.
+   * @return the result reported by the worker or an empty optional.
+   * @throws TaskException when the execution fails or no worker becomes available in time.
+   */
+  @Nonnull
+  Optional<TaskResult> execute(@Nonnull TaskRegistration registration, boolean enforceExecution)
+      throws TaskException {
+    ClusterRequest request;
+
+    try {
+      request = new ClusterRequest(registration, enforceExecution);
+    } catch (IllegalArgumentException ex) {
+      logger.debug("Cannot distribute task {}: {}", registration.task.getName(), ex.getMessage());
+      return Optional.empty();
+    }
+
+    if (!Serialization.isSerializable(request)) {
+      logger.debug("Cannot distribute task {}: Task or artifact references are not serializable",
+          registration.task.getName());
+      return Optional.empty();
+    }
+
+    long deadline = System.nanoTime() + this.workerTimeout.toNanos();
+    ClusterResponse response = null;
+
+    while (response == null) {
+      if (this.closed) {
+        throw new TaskExecutionException("Cluster coordinator has been closed");
+      }
+
+      Connection connection;
+
+      try {
+        connection = this.idleConnections
+            .poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new TaskExecutionException("Interrupted while waiting for cluster worker", ex);
+      }
+
+      if (connection == null) {
+        throw new TaskExecutionException(
+            "No cluster worker became available within " + this.workerTimeout);
+      }
+
+      logger.info("Dispatching task to worker {}", connection.name);
+
+      try {
+        response = connection.execute(request);
+        this.idleConnections.add(connection);
+      } catch (IOException ex) {
+        logger.warn("Lost connection to worker {} - Rescheduling task: {}", connection.name,
+            ex.getMessage());
+        this.connections.remove(connection);
+        connection.close();
+      }
+    }
+
+    if (response.failure != null) {
+      throw response.failure;
+    }
+
+    return Optional.ofNullable(response.result);
+  }
+
+  /**
+   * Retrieves the port on which this coordinator is listening for workers.
+   *
+   * @return a port number.
+   */
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Retrieves the token which workers are required to present.
+   *
+   * @return a token.
+   */
+  @Nonnull
+  public String getToken() {
+    return this.token;
+  }
+
+  /**
+   * Retrieves the total amount of execution slots which are currently provided by connected
+   * workers.
+   *
+   * @return a number of slots.
+   */
+  public int getWorkerSlots() {
+    return this.connections.size();
+  }
+
+  /**
+   * Authenticates a newly connected worker (and the coordinator to the worker) and registers it
+   * as idle.
+   *
+   * @param socket a socket.
+   */
+  private void handshake(@Nonnull Socket socket) {
+    try {
+      socket.setSoTimeout(ClusterProtocol.HANDSHAKE_TIMEOUT);
+
+      byte[] coordinatorChallenge = ClusterProtocol.createChallenge();
+      ObjectOutputStream outputStream = new ObjectOutputStream(
+          new BufferedOutputStream(socket.getOutputStream()));
+      outputStream.write(coordinatorChallenge);
+      outputStream.flush();
+      ObjectInputStream inputStream = new RestrictedObjectInputStream(
+          new BufferedInputStream(socket.getInputStream()), this.allowedPackages);
+
+      String name = inputStream.readUTF();
+      byte[] workerChallenge = ClusterProtocol.read(inputStream);
+      byte[] proof = ClusterProtocol.read(inputStream);
+
+      if (!ClusterProtocol.verify(proof, this.token, ClusterProtocol.ROLE_WORKER,
+          coordinatorChallenge, workerChallenge, name)) {
+        logger.warn("Rejected worker {} ({}): Invalid token", name,
+            socket.getRemoteSocketAddress());
+        socket.close();
+        return;
+      }
+
+      outputStream.write(ClusterProtocol.sign(this.token, ClusterProtocol.ROLE_COORDINATOR,
+          workerChallenge, coordinatorChallenge, name));
+      outputStream.flush();
+
+      // workers report their progress periodically while executing a request and are considered
+      // lost when they fail to do so in time
+      socket.setSoTimeout(ClusterProtocol.HEARTBEAT_TIMEOUT);
+      Connection connection = new Connection(name, socket, outputStream, inputStream);
+
+      synchronized (this.connections) {
+        if (this.closed) {
+          connection.close();
+          return;
+        }
+
+        this.connections.add(connection);
+      }
+
+      this.idleConnections.add(connection);
+      logger.info("Worker {} connected from {}", name, socket.getRemoteSocketAddress());
+    } catch (IOException ex) {
+      logger.warn("Failed to authenticate worker {}: {}", socket.getRemoteSocketAddress(),
+          ex.getMessage());
+
+      try {
+        socket.close();
+      } catch (IOException ignore) {
+      }
+    }
+  }
+
+  /**
+   * Represents a single execution slot of a connected worker.
+   */
+  private static final class Connection {
+
+    private final String name;
+    private final Socket socket;
+    private final ObjectOutputStream outputStream;
+    private final ObjectInputStream inputStream;
+
+    private Connection(
+        @Nonnull String name,
+        @Nonnull Socket socket,
+        @Nonnull ObjectOutputStream outputStream,
+        @Nonnull ObjectInputStream inputStream) {
+      this.name = name;
+      this.socket = socket;
+      this.outputStream = outputStream;
+      this.inputStream = inputStream;
+    }
+
+    private void close() {
+      try {
+        this.socket.close();
+      } catch (IOException ex) {
+        logger.warn("Failed to close connection to worker {}: {}", this.name, ex.getMessage());
+      }
+    }
+
+    /**
+     * Passes a request to the worker and waits for its response.
+     *
+     * @param request a request.
+     * @return a response.
+     * @throws IOException when communicating with the worker fails or the worker fails to report
+     * its progress in time.
+     */
+    @Nonnull
+    private ClusterResponse execute(@Nonnull ClusterRequest request) throws IOException {
+      this.outputStream.writeObject(request);
+      this.outputStream.flush();
+      this.outputStream.reset();
+
+      // skip heartbeats until the worker indicates that its response follows
+      while (!this.inputStream.readBoolean()) {
+        logger.trace("Worker {} is still executing its task", this.name);
+      }
+
+      try {
+        return (ClusterResponse) this.inputStream.readObject();
+      } catch (ClassNotFoundException ex) {
+        throw new IOException("Worker responded with an unknown type: " + ex.getMessage(), ex);
+      }
+    }
+  }
+
+  /**
+   * Provides a factory for cluster coordinators.
+   */
+  public static final class Builder {
+
+    private InetAddress bindAddress = InetAddress.getLoopbackAddress();
+    private int port;
+    private String token;
+    private Duration workerTimeout = Duration.ofMinutes(5);
+    private final List<String> allowedPackages = new ArrayList<>(
+        RestrictedObjectInputStream.DEFAULT_PACKAGES);
+
+    private Builder() {
+    }
+
+    /**
+     * Binds the coordinator socket and starts accepting workers.
+     *
+     * @return a coordinator.
+     * @throws IOException when binding the socket fails.
+     */
+    @Nonnull
+    public ClusterCoordinator start() throws IOException {
+      return new ClusterCoordinator(this.bindAddress, this.port, this.token, this.workerTimeout,
+          this.allowedPackages);
+    }
+
+    /**
+     * Permits the deserialization of types within the specified package (for instance, exceptions
+     * which are provided by other projects). By default, only common JDK types and types within
+     * this project are permitted (see {@link RestrictedObjectInputStream#DEFAULT_PACKAGES}).
+     *
+     * @param packageName a package name (such as "com.example.tasks").
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withAllowedPackage(@Nonnull String packageName) {
+      this.allowedPackages.add(packageName.endsWith(".") ? packageName : packageName + ".");
+      return this;
+    }
+
+    /**
+     * Selects the address to which the coordinator socket is bound. By default, the coordinator
+     * is only reachable via the loopback interface.
+     *
+     * @param bindAddress an address.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withBindAddress(@Nonnull InetAddress bindAddress) {
+      this.bindAddress = bindAddress;
+      return this;
+    }
+
+    /**
+     * Selects the port on which the coordinator listens. By default, a random free port is
+     * chosen.
+     *
+     * @param port a port number.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withPort(int port) {
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Selects the token which workers are required to present. By default, a random token is
+     * generated (see {@link ClusterCoordinator#getToken()}).
+     *
+     * @param token a token.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withToken(@Nonnull String token) {
+      this.token = token;
+      return this;
+    }
+
+    /**
+     * Selects the maximum amount of time a task waits for an idle worker before its execution
+     * fails.
+     *
+     * @param workerTimeout a timeout.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withWorkerTimeout(@Nonnull Duration workerTimeout) {
+      this.workerTimeout = workerTimeout;
+      return this;
+    }
+  }
+}
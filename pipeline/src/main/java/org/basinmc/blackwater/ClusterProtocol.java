@@ -0,0 +1,145 @@
+package org.basinmc.blackwater;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import javax.annotation.Nonnull;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * <p>Defines the protocol which is spoken between cluster coordinators and their workers.</p>
+ *
+ * <p>Both parties prove their knowledge of the shared token without ever transmitting it using a
+ * mutual challenge-response handshake:</p>
+ *
+ * <ol>
+ * <li>The coordinator sends a random challenge.</li>
+ * <li>The worker responds with its name, a challenge of its own and a signature of both
+ * challenges and its name.</li>
+ * <li>The coordinator verifies the signature and responds with a signature of both challenges in
+ * reverse order.</li>
+ * <li>The worker verifies the signature of the coordinator before accepting any requests.</li>
+ * </ol>
+ *
+ * <p>Signatures are computed using HMAC-SHA256 keyed with the shared token and include the role of
+ * their author in order to prevent reflection. Note that the handshake merely authenticates both
+ * parties: Requests and responses are neither encrypted nor integrity protected and connections
+ * which leave the local host are thus expected to be tunneled through TLS (e.g. via stunnel or an
+ * SSH port forward).</p>
+ *
+ * <p>Once authenticated, the coordinator writes one request at a time. While executing it, the
+ * worker periodically writes a heartbeat ({@code false}) followed by a single completion marker
+ * ({@code true}) and its response.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ClusterProtocol {
+
+  /**
+   * Defines the maximum amount of time (in milliseconds) either party is given to complete the
+   * handshake.
+   */
+  static final int HANDSHAKE_TIMEOUT = 10000;
+
+  /**
+   * Defines the interval (in milliseconds) at which workers report that they are still executing
+   * a request.
+   */
+  static final int HEARTBEAT_INTERVAL = 5000;
+
+  /**
+   * Defines the maximum amount of time (in milliseconds) without heartbeat after which a worker is
+   * considered lost.
+   */
+  static final int HEARTBEAT_TIMEOUT = 3 * HEARTBEAT_INTERVAL;
+
+  /**
+   * Defines the length of challenges and signatures in bytes.
+   */
+  static final int LENGTH = 32;
+
+  static final String ROLE_COORDINATOR = "coordinator";
+  static final String ROLE_WORKER = "worker";
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final SecureRandom random = new SecureRandom();
+
+  private ClusterProtocol() {
+  }
+
+  /**
+   * Generates a new random challenge.
+   *
+   * @return a challenge.
+   */
+  @Nonnull
+  static byte[] createChallenge() {
+    byte[] challenge = new byte[LENGTH];
+    random.nextBytes(challenge);
+    return challenge;
+  }
+
+  /**
+   * Reads a challenge or signature from a connection.
+   *
+   * @param inputStream an input stream.
+   * @return a challenge or signature.
+   * @throws IOException when reading fails.
+   */
+  @Nonnull
+  static byte[] read(@Nonnull ObjectInputStream inputStream) throws IOException {
+    byte[] data = new byte[LENGTH];
+    inputStream.readFully(data);
+    return data;
+  }
+
+  /**
+   * Signs the supplied handshake parameters on behalf of the specified role.
+   *
+   * @param token a shared token.
+   * @param role the role of the signing party.
+   * @param firstChallenge the challenge of the receiving party.
+   * @param secondChallenge the challenge of the signing party.
+   * @param name the name of the worker.
+   * @return a signature.
+   */
+  @Nonnull
+  static byte[] sign(@Nonnull String token, @Nonnull String role, @Nonnull byte[] firstChallenge,
+      @Nonnull byte[] secondChallenge, @Nonnull String name) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+
+      mac.update(role.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      mac.update(firstChallenge);
+      mac.update(secondChallenge);
+      mac.update(name.getBytes(StandardCharsets.UTF_8));
+
+      return mac.doFinal();
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("JVM does not support " + ALGORITHM, ex);
+    }
+  }
+
+  /**
+   * Evaluates whether a signature matches the supplied handshake parameters.
+   *
+   * @param signature a signature.
+   * @param token a shared token.
+   * @param role the role of the signing party.
+   * @param firstChallenge the challenge of the receiving party.
+   * @param secondChallenge the challenge of the signing party.
+   * @param name the name of the worker.
+   * @return true if valid, false otherwise.
+   */
+  static boolean verify(@Nonnull byte[] signature, @Nonnull String token, @Nonnull String role,
+      @Nonnull byte[] firstChallenge, @Nonnull byte[] secondChallenge, @Nonnull String name) {
+    return MessageDigest
+        .isEqual(signature, sign(token, role, firstChallenge, secondChallenge, name));
+  }
+}
@@ -0,0 +1,91 @@
+package org.basinmc.blackwater;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.utility.Serialization;
+
+/**
+ * Represents a task registration which has been scheduled for execution on a remote cluster
+ * worker.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ClusterRequest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Task task;
+  private final boolean enforceExecution;
+
+  private final ArtifactReference inputArtifact;
+  private final ArtifactReference outputArtifact;
+
+  private final String inputFile;
+  private final String outputFile;
+
+  private final Map<String, ArtifactReference> artifactParameters;
+  private final Map<String, String> pathParameters = new HashMap<>();
+
+  ClusterRequest(@Nonnull TaskRegistration registration, boolean enforceExecution) {
+    this.task = registration.task;
+    this.enforceExecution = enforceExecution;
+    this.inputArtifact = registration.inputArtifact;
+    this.outputArtifact = registration.outputArtifact;
+    this.inputFile = Serialization.toPortablePath(registration.inputFile);
+    this.outputFile = Serialization.toPortablePath(registration.outputFile);
+    this.artifactParameters = new HashMap<>(registration.artifactParameters);
+    registration.pathParameters
+        .forEach((name, path) -> this.pathParameters.put(name, Serialization.toPortablePath(path)));
+  }
+
+  @Nullable
+  private static Path toPath(@Nullable String path) {
+    return path != null ? Paths.get(path) : null;
+  }
+
+  /**
+   * Registers the requested task within a pipeline builder.
+   *
+   * @param builder a pipeline builder.
+   * @throws TaskParameterException when the task rejects its parameters.
+   */
+  void register(@Nonnull Pipeline.Builder builder) throws TaskParameterException {
+    Task.ParameterBuilder parameters = builder.withTask(this.task)
+        .withForcedExecution(this.enforceExecution);
+
+    if (this.inputArtifact != null) {
+      parameters.withInputArtifact(this.inputArtifact);
+    }
+    if (this.outputArtifact != null) {
+      parameters.withOutputArtifact(this.outputArtifact);
+    }
+    if (this.inputFile != null) {
+      parameters.withInputFile(toPath(this.inputFile));
+    }
+    if (this.outputFile != null) {
+      parameters.withOutputFile(toPath(this.outputFile));
+    }
+
+    for (Map.Entry<String, ArtifactReference> entry : this.artifactParameters.entrySet()) {
+      parameters.withParameter(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<String, String> entry : this.pathParameters.entrySet()) {
+      parameters.withParameter(entry.getKey(), toPath(entry.getValue()));
+    }
+
+    parameters.register();
+  }
+
+  @Nonnull
+  String getTaskName() {
+    return this.task.getName();
+  }
+}
@@ -0,0 +1,25 @@
+package org.basinmc.blackwater;
+
+import java.io.Serializable;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.PipelineResult.TaskResult;
+import org.basinmc.blackwater.task.error.TaskException;
+
+/**
+ * Represents the outcome of a task registration which has been executed on a remote cluster
+ * worker.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ClusterResponse implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final TaskResult result;
+  final TaskException failure;
+
+  ClusterResponse(@Nullable TaskResult result, @Nullable TaskException failure) {
+    this.result = result;
+    this.failure = failure;
+  }
+}
@@ -0,0 +1,472 @@
+package org.basinmc.blackwater;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.utility.RestrictedObjectInputStream;
+import org.basinmc.blackwater.utility.Serialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Executes tasks on behalf of a remote {@link ClusterCoordinator}.</p>
+ *
+ * <p>Each worker provides a fixed amount of execution slots (one connection to the coordinator
+ * per slot). Every task is executed within a dedicated single task pipeline which relies on the
+ * artifact manager of the worker and thus benefits from the same cache evaluation, locking and
+ * publication logic as a local execution. All task implementations (as well as their
+ * dependencies) need to be present on the class path of the worker. Since requests are
+ * deserialized, only types within the packages permitted via {@link
+ * Builder#withAllowedPackage(String)} are accepted.</p>
+ *
+ * <p>Workers and coordinators prove their knowledge of the shared token to each other without
+ * transmitting it (see {@link ClusterProtocol}). Requests and responses are, however, transmitted
+ * without encryption and thus need to be tunneled through TLS (e.g. via stunnel or an SSH port
+ * forward) when a worker connects to a coordinator on another host.</p>
+ *
+ * <p>Workers may also be started from the command line when the cluster relies on a shared
+ * {@link FileArtifactManager}:</p>
+ *
+ * <pre>
+ * java -cp pipeline.jar:tasks.jar org.basinmc.blackwater.ClusterWorker &lt;host&gt; &lt;port&gt; &lt;token&gt; &lt;artifact directory&gt; [slots]
+ * </pre>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ClusterWorker implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClusterWorker.class);
+
+  private final ArtifactManager artifactManager;
+  private final List<Socket> sockets = new ArrayList<>();
+  private final CountDownLatch shutdown;
+  private final ExecutorService executor;
+
+  private ClusterWorker(
+      @Nonnull InetAddress address,
+      int port,
+      @Nonnull String token,
+      @Nonnull String name,
+      @Nullable ArtifactManager artifactManager,
+      @Nonnull List<String> allowedPackages,
+      int slots) throws IOException {
+    this.artifactManager = artifactManager;
+    this.shutdown = new CountDownLatch(slots);
+
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = Executors.newCachedThreadPool((r) -> {
+      Thread thread = new Thread(r, "blackwater-cluster-task-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    int started = 0;
+
+    try {
+      for (int i = 0; i < slots; ++i) {
+        Socket socket = new Socket(address, port);
+        this.sockets.add(socket);
+        socket.setSoTimeout(ClusterProtocol.HANDSHAKE_TIMEOUT);
+
+        ObjectOutputStream outputStream = new ObjectOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        outputStream.flush();
+        ObjectInputStream inputStream = new RestrictedObjectInputStream(
+            new BufferedInputStream(socket.getInputStream()), allowedPackages);
+
+        this.handshake(token, name, outputStream, inputStream);
+        socket.setSoTimeout(0);
+
+        Thread thread = new Thread(() -> this.serve(socket, outputStream, inputStream),
+            "blackwater-cluster-worker-" + (i + 1));
+        thread.setDaemon(true);
+        thread.start();
+        ++started;
+      }
+    } catch (IOException ex) {
+      // slots which have never been served will not count down on their own
+      for (int i = started; i < slots; ++i) {
+        this.shutdown.countDown();
+      }
+
+      this.close();
+      throw ex;
+    }
+
+    logger.info("Worker {} connected to coordinator at {}:{} with {} slots", name,
+        address.getHostAddress(), port, slots);
+  }
+
+  /**
+   * Creates a new empty worker factory.
+   *
+   * @return a factory.
+   */
+  @Nonnull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Blocks the calling thread until all connections to the coordinator have been closed (either
+   * via {@link #close()} or by the coordinator).
+   *
+   * @throws InterruptedException when the calling thread is interrupted.
+   */
+  public void awaitShutdown() throws InterruptedException {
+    this.shutdown.await();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+    synchronized (this.sockets) {
+      for (Socket socket : this.sockets) {
+        try {
+          socket.close();
+        } catch (IOException ex) {
+          logger.warn("Failed to close coordinator connection: {}", ex.getMessage());
+        }
+      }
+    }
+
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * Awaits the response to a request while periodically notifying the coordinator that the
+   * request is still being processed.
+   *
+   * @param future a pending response.
+   * @param outputStream a stream to which heartbeats are written.
+   * @return a response.
+   * @throws IOException when writing a heartbeat fails.
+   * @throws InterruptedException when the calling thread is interrupted.
+   */
+  @Nonnull
+  private ClusterResponse await(
+      @Nonnull Future<ClusterResponse> future,
+      @Nonnull ObjectOutputStream outputStream) throws IOException, InterruptedException {
+    while (true) {
+      try {
+        return future.get(ClusterProtocol.HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException ex) {
+        outputStream.writeBoolean(false);
+        outputStream.flush();
+      } catch (ExecutionException ex) {
+        Throwable cause = ex.getCause();
+
+        return new ClusterResponse(null, Serialization.toSerializable(
+            new TaskExecutionException("Task failed unexpectedly: " + cause.getMessage(), cause)));
+      }
+    }
+  }
+
+  /**
+   * Executes a single request within a dedicated pipeline.
+   *
+   * @param request a request.
+   * @return a response.
+   */
+  @Nonnull
+  private ClusterResponse execute(@Nonnull ClusterRequest request) {
+    logger.info("Executing task {} on behalf of coordinator", request.getTaskName());
+    PipelineResult[] result = new PipelineResult[1];
+
+    try {
+      Pipeline.Builder builder = Pipeline.builder()
+          .withResultListener((r) -> result[0] = r);
+
+      if (this.artifactManager != null) {
+        builder.withArtifactManager(this.artifactManager);
+      }
+
+      request.register(builder);
+      builder.build().execute();
+
+      return new ClusterResponse(result[0].getTasks().get(0), null);
+    } catch (TaskException ex) {
+      return new ClusterResponse(null, Serialization.toSerializable(ex));
+    } catch (RuntimeException ex) {
+      return new ClusterResponse(null, Serialization.toSerializable(
+          new TaskExecutionException("Task failed unexpectedly: " + ex.getMessage(), ex)));
+    }
+  }
+
+  /**
+   * Authenticates the worker against its coordinator and verifies that the coordinator is in
+   * possession of the same token.
+   *
+   * @param token a shared token.
+   * @param name a worker name.
+   * @param outputStream a stream to which the worker proof is written.
+   * @param inputStream a stream from which the coordinator challenge and proof are read.
+   * @throws IOException when communicating with the coordinator fails or either party fails to
+   * authenticate.
+   */
+  private void handshake(
+      @Nonnull String token,
+      @Nonnull String name,
+      @Nonnull ObjectOutputStream outputStream,
+      @Nonnull ObjectInputStream inputStream) throws IOException {
+    byte[] coordinatorChallenge = ClusterProtocol.read(inputStream);
+    byte[] workerChallenge = ClusterProtocol.createChallenge();
+
+    outputStream.writeUTF(name);
+    outputStream.write(workerChallenge);
+    outputStream.write(ClusterProtocol
+        .sign(token, ClusterProtocol.ROLE_WORKER, coordinatorChallenge, workerChallenge, name));
+    outputStream.flush();
+
+    byte[] proof;
+
+    try {
+      proof = ClusterProtocol.read(inputStream);
+    } catch (EOFException ex) {
+      throw new IOException("Coordinator rejected worker token", ex);
+    }
+
+    if (!ClusterProtocol.verify(proof, token, ClusterProtocol.ROLE_COORDINATOR, workerChallenge,
+        coordinatorChallenge, name)) {
+      throw new IOException("Coordinator failed to authenticate");
+    }
+  }
+
+  /**
+   * Processes requests on a single connection until it is closed.
+   *
+   * @param socket a socket.
+   * @param outputStream a stream to which responses are written.
+   * @param inputStream a stream from which requests are read.
+   */
+  private void serve(
+      @Nonnull Socket socket,
+      @Nonnull ObjectOutputStream outputStream,
+      @Nonnull ObjectInputStream inputStream) {
+    try {
+      while (true) {
+        ClusterRequest request;
+
+        try {
+          request = (ClusterRequest) inputStream.readObject();
+        } catch (EOFException | SocketException ex) {
+          break;
+        }
+
+        Future<ClusterResponse> future = this.executor.submit(() -> this.execute(request));
+        ClusterResponse response;
+
+        try {
+          response = this.await(future, outputStream);
+        } finally {
+          future.cancel(true);
+        }
+
+        outputStream.writeBoolean(true);
+        outputStream.writeObject(response);
+        outputStream.flush();
+        outputStream.reset();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ClassNotFoundException ex) {
+      logger.error("Coordinator requested unknown task type: " + ex.getMessage(), ex);
+    } catch (IOException ex) {
+      if (!socket.isClosed()) {
+        logger.error("Failed to communicate with coordinator: " + ex.getMessage(), ex);
+      }
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException ignore) {
+      }
+
+      this.shutdown.countDown();
+    }
+  }
+
+  /**
+   * Provides a command line entry point for workers which rely on a shared file artifact
+   * manager.
+   *
+   * @param arguments a coordinator host, port and token, an artifact directory and (optionally) an
+   * amount of slots.
+   * @throws Exception when connecting to the coordinator fails.
+   */
+  public static void main(String[] arguments) throws Exception {
+    if (arguments.length != 4 && arguments.length != 5) {
+      System.err.println("Usage: <host> <port> <token> <artifact directory> [slots]");
+      System.exit(2);
+      return;
+    }
+
+    Builder builder = builder()
+        .withCoordinator(InetAddress.getByName(arguments[0]), Integer.parseInt(arguments[1]))
+        .withToken(arguments[2])
+        .withArtifactManager(new FileArtifactManager(Paths.get(arguments[3])));
+
+    if (arguments.length == 5) {
+      builder.withSlots(Integer.parseInt(arguments[4]));
+    }
+
+    try (ClusterWorker worker = builder.start()) {
+      worker.awaitShutdown();
+    }
+  }
+
+  /**
+   * Provides a factory for cluster workers.
+   */
+  public static final class Builder {
+
+    private InetAddress address = InetAddress.getLoopbackAddress();
+    private int port;
+    private String token;
+    private String name;
+    private ArtifactManager artifactManager;
+    private int slots = Runtime.getRuntime().availableProcessors();
+    private final List<String> allowedPackages = new ArrayList<>(
+        RestrictedObjectInputStream.DEFAULT_PACKAGES);
+
+    private Builder() {
+    }
+
+    /**
+     * Connects the worker to its coordinator.
+     *
+     * @return a worker.
+     * @throws IOException when connecting to the coordinator fails.
+     * @throws IllegalStateException when no coordinator port or token has been selected.
+     */
+    @Nonnull
+    public ClusterWorker start() throws IOException {
+      if (this.port == 0 || this.token == null) {
+        throw new IllegalStateException("Coordinator port and token are required");
+      }
+
+      String name = this.name;
+
+      if (name == null) {
+        try {
+          name = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+          name = "worker";
+        }
+      }
+
+      return new ClusterWorker(this.address, this.port, this.token, name, this.artifactManager,
+          this.allowedPackages, this.slots);
+    }
+
+    /**
+     * Permits the deserialization of types within the specified package (for instance, task
+     * implementations which are provided by other projects). By default, only common JDK types
+     * and types within this project are permitted (see {@link
+     * RestrictedObjectInputStream#DEFAULT_PACKAGES}).
+     *
+     * @param packageName a package name (such as "com.example.tasks").
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withAllowedPackage(@Nonnull String packageName) {
+      this.allowedPackages.add(packageName.endsWith(".") ? packageName : packageName + ".");
+      return this;
+    }
+
+    /**
+     * Selects the artifact manager from which inputs are resolved and to which outputs are
+     * published. The manager is expected to share its backend with the coordinating pipeline.
+     *
+     * @param artifactManager an artifact manager.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withArtifactManager(@Nonnull ArtifactManager artifactManager) {
+      this.artifactManager = artifactManager;
+      return this;
+    }
+
+    /**
+     * Selects the coordinator to which the worker connects.
+     *
+     * @param address a coordinator address.
+     * @param port a coordinator port.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withCoordinator(@Nonnull InetAddress address, int port) {
+      this.address = address;
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Selects the name under which the worker identifies itself. By default, the host name of
+     * the local machine is used.
+     *
+     * @param name a name.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withName(@Nonnull String name) {
+      this.name = name;
+      return this;
+    }
+
+    /**
+     * Selects the amount of tasks this worker executes concurrently. By default, one slot per
+     * available processor is provided.
+     *
+     * @param slots a number of slots.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @Nonnull
+    public Builder withSlots(int slots) {
+      if (slots < 1) {
+        throw new IllegalArgumentException("Worker requires at least one slot");
+      }
+
+      this.slots = slots;
+      return this;
+    }
+
+    /**
+     * Selects the token which is presented to the coordinator.
+     *
+     * @param token a token.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withToken(@Nonnull String token) {
+      this.token = token;
+      return this;
+    }
+  }
+}
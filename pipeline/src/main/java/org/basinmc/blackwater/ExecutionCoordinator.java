@@ -0,0 +1,160 @@
+package org.basinmc.blackwater;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+
+/**
+ * <p>Coordinates the execution of identical tasks across multiple pipelines within the same
+ * virtual machine.</p>
+ *
+ * <p>Executions are identified by the artifact manager and output artifact they write to as well as
+ * the fingerprint of their respective task registration. Artifact managers are compared using
+ * their {@link Object#equals(Object)} implementation so that distinct instances which refer to the
+ * same storage (such as {@link org.basinmc.blackwater.artifact.file.FileArtifactManager} instances
+ * which share a base directory) are coordinated as well. When a pipeline attempts to execute a
+ * task while an identical execution is already in progress, it will wait for the execution to
+ * complete and rely on its result instead of executing the task again.</p>
+ *
+ * <p>Only tasks which provide a fingerprint (see {@link
+ * org.basinmc.blackwater.task.Task#getFingerprint()}) and write to an output artifact are
+ * coordinated.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ExecutionCoordinator {
+
+  private static final ExecutionCoordinator DEFAULT = new ExecutionCoordinator();
+
+  private final ConcurrentMap<Key, CompletableFuture<Void>> executions = new ConcurrentHashMap<>();
+
+  /**
+   * Retrieves the coordinator which is shared by all pipelines within this virtual machine unless
+   * a different coordinator is selected during their construction.
+   *
+   * @return a coordinator.
+   */
+  @Nonnull
+  public static ExecutionCoordinator getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * <p>Executes the supplied execution unless an identical execution is already in progress.</p>
+   *
+   * <p>When an identical execution is in progress, this method blocks until it has completed
+   * (regardless of whether it succeeded or failed). Callers are expected to re-evaluate the
+   * artifact cache in this case.</p>
+   *
+   * @param artifactManager the artifact manager to which the output is written.
+   * @param outputArtifact the output artifact.
+   * @param fingerprint a task registration fingerprint.
+   * @param execution an execution.
+   * @return true if the execution has been performed by the caller, false if the caller awaited an
+   * identical execution instead.
+   * @throws TaskException when the execution fails.
+   * @throws TaskExecutionException when the calling thread is interrupted while waiting.
+   */
+  boolean execute(
+      @Nullable ArtifactManager artifactManager,
+      @Nonnull ArtifactReference outputArtifact,
+      @Nonnull String fingerprint,
+      @Nonnull Execution execution) throws TaskException {
+    Key key = new Key(artifactManager, outputArtifact, fingerprint);
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    CompletableFuture<Void> existing = this.executions.putIfAbsent(key, future);
+
+    if (existing != null) {
+      try {
+        existing.get();
+      } catch (ExecutionException ignore) {
+        // the owning pipeline will report the failure on its own - we'll simply let the caller
+        // re-evaluate the cache and decide what to do
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new TaskExecutionException("Interrupted while awaiting concurrent task execution",
+            ex);
+      }
+
+      return false;
+    }
+
+    try {
+      execution.execute();
+      future.complete(null);
+    } catch (TaskException | RuntimeException | Error ex) {
+      future.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      this.executions.remove(key, future);
+    }
+
+    return true;
+  }
+
+  /**
+   * Provides the logic of a coordinated execution.
+   */
+  @FunctionalInterface
+  interface Execution {
+
+    /**
+     * Performs the execution.
+     *
+     * @throws TaskException when the execution fails.
+     */
+    void execute() throws TaskException;
+  }
+
+  /**
+   * Identifies a single execution.
+   */
+  private static final class Key {
+
+    private final ArtifactManager artifactManager;
+    private final ArtifactReference outputArtifact;
+    private final String fingerprint;
+
+    private Key(
+        @Nullable ArtifactManager artifactManager,
+        @Nonnull ArtifactReference outputArtifact,
+        @Nonnull String fingerprint) {
+      this.artifactManager = artifactManager;
+      this.outputArtifact = outputArtifact;
+      this.fingerprint = fingerprint;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(this.artifactManager, key.artifactManager) &&
+          Objects.equals(this.outputArtifact, key.outputArtifact) &&
+          Objects.equals(this.fingerprint, key.fingerprint);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.artifactManager, this.outputArtifact, this.fingerprint);
+    }
+  }
+}
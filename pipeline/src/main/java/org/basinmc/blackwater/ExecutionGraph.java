@@ -0,0 +1,249 @@
+package org.basinmc.blackwater;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+
+/**
+ * <p>Represents the dependencies between the registrations of a pipeline.</p>
+ *
+ * <p>Registrations are identified by their index within the pipeline. Since dependencies are
+ * derived from the registration order (e.g. a registration may only depend on registrations which
+ * have been added before it), the graph is guaranteed to be acyclic.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ExecutionGraph {
+
+  private final List<TaskRegistration> registrations;
+  private final List<Set<Integer>> dependencies;
+  private final List<Set<Integer>> dependants;
+  private final List<Set<Integer>> producers;
+
+  ExecutionGraph(@Nonnull List<TaskRegistration> registrations) {
+    this.registrations = new ArrayList<>(registrations);
+    this.dependencies = new ArrayList<>(registrations.size());
+    this.dependants = new ArrayList<>(registrations.size());
+    this.producers = new ArrayList<>(registrations.size());
+
+    for (int i = 0; i < registrations.size(); ++i) {
+      this.dependencies.add(new LinkedHashSet<>());
+      this.dependants.add(new LinkedHashSet<>());
+      this.producers.add(new LinkedHashSet<>());
+    }
+
+    for (int i = 0; i < registrations.size(); ++i) {
+      TaskRegistration registration = registrations.get(i);
+
+      for (int j = 0; j < i; ++j) {
+        if (registration.dependsOn(registrations.get(j))) {
+          this.dependencies.get(i).add(j);
+          this.dependants.get(j).add(i);
+        }
+      }
+
+      Set<ArtifactReference> consumedArtifacts = registration.getConsumedArtifacts();
+      Set<Path> consumedFiles = registration.getConsumedFiles();
+
+      // artifacts are replaced as a whole and thus only their most recent producer is relevant
+      // while files may be written into a shared directory by any number of previous tasks
+      for (int j = i - 1; j >= 0; --j) {
+        TaskRegistration producer = registrations.get(j);
+
+        if (producer.outputArtifact != null && consumedArtifacts.remove(producer.outputArtifact)) {
+          this.producers.get(i).add(j);
+        }
+
+        if (producer.outputFile != null && consumedFiles.stream()
+            .anyMatch((f) -> TaskRegistration.overlaps(f, producer.outputFile))) {
+          this.producers.get(i).add(j);
+        }
+      }
+    }
+  }
+
+  /**
+   * <p>Computes the length of the longest path from each registration to the end of the graph
+   * (including the registration itself).</p>
+   *
+   * <p>Registrations with longer critical paths are expected to be started as early as possible
+   * as they would otherwise delay the completion of the entire pipeline.</p>
+   *
+   * @param weight a function which estimates the duration of a registration.
+   * @return an array of critical path lengths (indexed by registration).
+   */
+  @Nonnull
+  long[] getCriticalPaths(@Nonnull ToLongFunction<TaskRegistration> weight) {
+    long[] paths = new long[this.registrations.size()];
+
+    // dependants are always registered after their dependencies so we'll simply walk the graph
+    // backwards in order to visit all dependants before the registrations they depend on
+    for (int i = this.registrations.size() - 1; i >= 0; --i) {
+      long longestDependant = 0;
+
+      for (int dependant : this.dependants.get(i)) {
+        longestDependant = Math.max(longestDependant, paths[dependant]);
+      }
+
+      paths[i] = weight.applyAsLong(this.registrations.get(i)) + longestDependant;
+    }
+
+    return paths;
+  }
+
+  /**
+   * <p>Retrieves the indices of all registrations which are required in order to produce the
+   * specified artifacts.</p>
+   *
+   * <p>The result includes the most recent producer of each artifact as well as all registrations
+   * which (transitively) produce the artifacts or files they consume. Since registrations which
+   * declare neither inputs nor outputs may have arbitrary side effects, all such registrations
+   * which precede a required registration are included as well.</p>
+   *
+   * @param artifacts a set of artifact references.
+   * @return a sorted set of registration indices.
+   * @throws IllegalArgumentException when one of the artifacts is not produced by any
+   * registration.
+   */
+  @Nonnull
+  SortedSet<Integer> getProducers(@Nonnull Set<ArtifactReference> artifacts) {
+    Deque<Integer> queue = new ArrayDeque<>();
+
+    for (ArtifactReference artifact : artifacts) {
+      int producer = -1;
+
+      for (int i = this.registrations.size() - 1; i >= 0; --i) {
+        if (artifact.equals(this.registrations.get(i).outputArtifact)) {
+          producer = i;
+          break;
+        }
+      }
+
+      if (producer == -1) {
+        throw new IllegalArgumentException(
+            "No registration produces artifact " + artifact.getIdentifier());
+      }
+
+      queue.add(producer);
+    }
+
+    SortedSet<Integer> result = new TreeSet<>();
+
+    while (!queue.isEmpty()) {
+      int index = queue.poll();
+
+      if (!result.add(index)) {
+        continue;
+      }
+
+      queue.addAll(this.producers.get(index));
+
+      for (int i = 0; i < index; ++i) {
+        if (this.registrations.get(i).isIsolated()) {
+          queue.add(i);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * <p>Partitions all registrations which are not isolated (see {@link
+   * TaskRegistration#isIsolated()}) into independent subgraphs (e.g. sets of registrations which
+   * share no dependencies with registrations outside of their respective set).</p>
+   *
+   * <p>Isolated registrations are omitted since they are ordered with respect to all other
+   * registrations and would otherwise join all subgraphs into one.</p>
+   *
+   * @return a list of subgraphs ordered by their lowest registration index.
+   */
+  @Nonnull
+  List<SortedSet<Integer>> getIndependentSubgraphs() {
+    List<SortedSet<Integer>> subgraphs = new ArrayList<>();
+    boolean[] visited = new boolean[this.registrations.size()];
+
+    for (int i = 0; i < this.registrations.size(); ++i) {
+      if (visited[i] || this.registrations.get(i).isIsolated()) {
+        continue;
+      }
+
+      SortedSet<Integer> subgraph = new TreeSet<>();
+      Deque<Integer> queue = new ArrayDeque<>();
+      queue.add(i);
+      visited[i] = true;
+
+      while (!queue.isEmpty()) {
+        int index = queue.poll();
+        subgraph.add(index);
+
+        for (Set<Integer> neighbours : Arrays
+            .asList(this.dependencies.get(index), this.dependants.get(index))) {
+          for (int neighbour : neighbours) {
+            if (!visited[neighbour] && !this.registrations.get(neighbour).isIsolated()) {
+              visited[neighbour] = true;
+              queue.add(neighbour);
+            }
+          }
+        }
+      }
+
+      subgraphs.add(subgraph);
+    }
+
+    return subgraphs;
+  }
+
+  /**
+   * Retrieves the indices of all registrations which depend on the specified registration.
+   *
+   * @param index a registration index.
+   * @return a set of registration indices.
+   */
+  @Nonnull
+  Set<Integer> getDependants(int index) {
+    return Collections.unmodifiableSet(this.dependants.get(index));
+  }
+
+  /**
+   * Retrieves the indices of all registrations which the specified registration depends on.
+   *
+   * @param index a registration index.
+   * @return a set of registration indices.
+   */
+  @Nonnull
+  Set<Integer> getDependencies(int index) {
+    return Collections.unmodifiableSet(this.dependencies.get(index));
+  }
+
+  /**
+   * Retrieves the registration at the specified index.
+   *
+   * @param index a registration index.
+   * @return a registration.
+   */
+  @Nonnull
+  TaskRegistration getRegistration(int index) {
+    return this.registrations.get(index);
+  }
+
+  /**
+   * Retrieves the total amount of registrations within this graph.
+   *
+   * @return an amount of registrations.
+   */
+  int size() {
+    return this.registrations.size();
+  }
+}
@@ -0,0 +1,158 @@
+package org.basinmc.blackwater;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.Task;
+
+/**
+ * <p>Provides a preview of the tasks which will be executed or skipped when a pipeline is
+ * executed.</p>
+ *
+ * <p>Plans reflect the state of the artifact cache at the time of their creation. Note that tasks
+ * which consume artifacts produced by executed tasks are always listed as executed even though
+ * they may still be skipped when the executed tasks happen to reproduce their previous output.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see Pipeline#plan()
+ */
+public final class ExecutionPlan {
+
+  private final List<Step> steps;
+
+  ExecutionPlan(@Nonnull List<Step> steps) {
+    this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+  }
+
+  /**
+   * Retrieves the list of tasks which are going to be executed.
+   *
+   * @return a list of tasks.
+   */
+  @Nonnull
+  public List<Task> getExecutedTasks() {
+    return this.steps.stream()
+        .filter(Step::isExecuted)
+        .map(Step::getTask)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Retrieves the list of tasks which are going to be skipped due to a valid cached artifact.
+   *
+   * @return a list of tasks.
+   */
+  @Nonnull
+  public List<Task> getSkippedTasks() {
+    return this.steps.stream()
+        .filter((s) -> !s.isExecuted())
+        .map(Step::getTask)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Retrieves all steps within this plan in their order of registration.
+   *
+   * @return a list of steps.
+   */
+  @Nonnull
+  public List<Step> getSteps() {
+    return this.steps;
+  }
+
+  /**
+   * Provides a list of reasons for the execution (or omission) of a task.
+   */
+  public enum Reason {
+
+    /**
+     * The task output is cached in a valid artifact and the task will thus be skipped.
+     */
+    CACHED,
+
+    /**
+     * The task has no output artifact and is thus executed at all times.
+     */
+    UNCACHED,
+
+    /**
+     * The task output artifact does not exist yet.
+     */
+    MISSING,
+
+    /**
+     * The cached version of the task output artifact is no longer considered valid.
+     */
+    EXPIRED,
+
+    /**
+     * The execution of the task has been enforced.
+     */
+    FORCED,
+
+    /**
+     * One or more artifacts consumed by the task are produced by executed tasks.
+     */
+    INPUT_CHANGED
+  }
+
+  /**
+   * Represents a single task within the plan.
+   */
+  public static final class Step {
+
+    private final Task task;
+    private final ArtifactReference outputArtifact;
+    private final Reason reason;
+
+    Step(@Nonnull Task task, @Nullable ArtifactReference outputArtifact, @Nonnull Reason reason) {
+      this.task = task;
+      this.outputArtifact = outputArtifact;
+      this.reason = reason;
+    }
+
+    /**
+     * Retrieves the artifact which is produced by this step (if any).
+     *
+     * @return an artifact reference or an empty optional.
+     */
+    @Nonnull
+    public Optional<ArtifactReference> getOutputArtifact() {
+      return Optional.ofNullable(this.outputArtifact);
+    }
+
+    /**
+     * Retrieves the reason for the execution (or omission) of this step.
+     *
+     * @return a reason.
+     */
+    @Nonnull
+    public Reason getReason() {
+      return this.reason;
+    }
+
+    /**
+     * Retrieves the task which is executed as part of this step.
+     *
+     * @return a task.
+     */
+    @Nonnull
+    public Task getTask() {
+      return this.task;
+    }
+
+    /**
+     * Evaluates whether this step is going to be executed.
+     *
+     * @return true if executed, false if skipped.
+     */
+    public boolean isExecuted() {
+      return this.reason != Reason.CACHED;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package org.basinmc.blackwater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Keeps track of the wall time which has previously been spent executing each task
+ * registration.</p>
+ *
+ * <p>Durations are smoothed using an exponential moving average in order to reduce the impact of
+ * outliers and may optionally be persisted in a properties file in order to be reused by future
+ * executions. Since statistics are only used to prioritize tasks, failures to read or write the
+ * file are logged and otherwise ignored.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ExecutionStatistics {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExecutionStatistics.class);
+
+  /**
+   * Defines the weight of the most recent measurement within the moving average.
+   */
+  private static final double SMOOTHING_FACTOR = 0.5;
+
+  private final Path file;
+  private final Map<String, Long> durations = new ConcurrentHashMap<>();
+  private final Map<String, Long> loadedDurations;
+
+  ExecutionStatistics(@Nullable Path file) {
+    this.file = file;
+    this.load();
+    this.loadedDurations = new HashMap<>(this.durations);
+  }
+
+  /**
+   * Reads all statistics from the backing file (if any).
+   */
+  private void load() {
+    if (this.file == null || Files.notExists(this.file)) {
+      return;
+    }
+
+    Properties properties = new Properties();
+
+    try (InputStream inputStream = Files.newInputStream(this.file)) {
+      properties.load(inputStream);
+    } catch (IOException ex) {
+      logger.warn("Failed to load execution statistics from {}: {}", this.file, ex.getMessage());
+      return;
+    }
+
+    properties.stringPropertyNames().forEach((key) -> {
+      try {
+        this.durations.put(key, Long.parseLong(properties.getProperty(key)));
+      } catch (NumberFormatException ex) {
+        logger.warn("Ignoring malformed execution statistic for {}", key);
+      }
+    });
+  }
+
+  /**
+   * Retrieves the average amount of milliseconds spent executing the specified registration.
+   *
+   * @param key a registration key.
+   * @return a duration in milliseconds or an empty optional if no measurements exist.
+   */
+  @Nonnull
+  OptionalLong getDuration(@Nonnull String key) {
+    Long duration = this.durations.get(key);
+
+    if (duration == null) {
+      return OptionalLong.empty();
+    }
+
+    return OptionalLong.of(duration);
+  }
+
+  /**
+   * Retrieves the average amount of milliseconds spent executing the specified registration as
+   * loaded from the backing file (e.g. ignoring all measurements which have been recorded since).
+   *
+   * @param key a registration key.
+   * @return a duration in milliseconds or an empty optional if no measurements exist.
+   */
+  @Nonnull
+  OptionalLong getLoadedDuration(@Nonnull String key) {
+    Long duration = this.loadedDurations.get(key);
+
+    if (duration == null) {
+      return OptionalLong.empty();
+    }
+
+    return OptionalLong.of(duration);
+  }
+
+  /**
+   * Records a new measurement for the specified registration.
+   *
+   * @param key a registration key.
+   * @param duration a duration in milliseconds.
+   */
+  void record(@Nonnull String key, long duration) {
+    this.durations.merge(key, duration,
+        (previous, current) -> Math
+            .round(previous * (1 - SMOOTHING_FACTOR) + current * SMOOTHING_FACTOR));
+  }
+
+  /**
+   * Writes all statistics back to the backing file (if any).
+   */
+  void save() {
+    if (this.file == null) {
+      return;
+    }
+
+    Properties properties = new Properties();
+    this.durations.forEach((key, duration) -> properties.setProperty(key, Long.toString(duration)));
+
+    try {
+      Path parent = this.file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+
+      // since other pipelines may read the file at the same time, we'll write a temporary copy
+      // first and replace the original once it has been fully written
+      Path tmp = Files.createTempFile(parent, ".statistics", ".tmp");
+
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(tmp)) {
+          properties.store(outputStream, "Blackwater Execution Statistics");
+        }
+
+        try {
+          Files.move(tmp, this.file, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+          Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException ex) {
+      logger.warn("Failed to store execution statistics in {}: {}", this.file, ex.getMessage());
+    }
+  }
+}
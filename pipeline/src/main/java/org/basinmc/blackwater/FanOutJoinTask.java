@@ -0,0 +1,97 @@
+package org.basinmc.blackwater;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.task.ResourceClass;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.utility.FileTrees;
+
+/**
+ * <p>Joins the outputs of all slices of a fanned out task into a single aggregate output.</p>
+ *
+ * <p>The output of each slice is passed as a parameter (named after the key of its slice) and
+ * copied into a directory of the same name within the aggregate output directory.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class FanOutJoinTask implements Task {
+
+  private final String name;
+  private final Set<String> keys;
+
+  FanOutJoinTask(@Nonnull String name, @Nonnull Set<String> keys) {
+    this.name = name;
+    this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(keys));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(@NonNull Context context) throws TaskExecutionException {
+    Path output = context.getRequiredOutputPath();
+
+    try {
+      Files.createDirectories(output);
+
+      for (String key : this.keys) {
+        FileTrees.copy(context.getRequiredParameterPath(key), output.resolve(key));
+      }
+    } catch (IOException ex) {
+      throw new TaskExecutionException("Failed to join task outputs: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Set<String> getAvailableParameterNames() {
+    return this.keys;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(String.join(",", this.keys));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getName() {
+    return this.name + "[join]";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.IO, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresOutputParameter() {
+    return true;
+  }
+}
@@ -0,0 +1,108 @@
+package org.basinmc.blackwater;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.task.ResourceClass;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+
+/**
+ * <p>Represents a single sub-execution of a fanned out task.</p>
+ *
+ * <p>Slices forward all operations to their respective task and merely append their key to its
+ * name in order to permit telling them apart within logs, traces and results.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class FanOutSliceTask implements Task {
+
+  private final Task task;
+  private final String key;
+
+  FanOutSliceTask(@Nonnull Task task, @Nonnull String key) {
+    this.task = task;
+    this.key = key;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(@NonNull Context context) throws TaskExecutionException {
+    this.task.execute(context);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Set<String> getAvailableParameterNames() {
+    return this.task.getAvailableParameterNames();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    return this.task.getFingerprint();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getName() {
+    return this.task.getName() + "[" + this.key + "]";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Set<String> getRequiredParameterNames() {
+    return this.task.getRequiredParameterNames();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return this.task.getResourceWeights();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isValidArtifact(@Nonnull Artifact artifact, @Nonnull Path contents) {
+    return this.task.isValidArtifact(artifact, contents);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresInputParameter() {
+    return this.task.requiresInputParameter();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresOutputParameter() {
+    return this.task.requiresOutputParameter();
+  }
+}
@@ -2,36 +2,91 @@ package org.basinmc.blackwater;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.LongSummaryStatistics;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.basinmc.blackwater.PipelineResult.Status;
+import org.basinmc.blackwater.PipelineResult.TaskResult;
 import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactLock;
 import org.basinmc.blackwater.artifact.ArtifactManager;
 import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.fs.AccountingFileSystem;
+import org.basinmc.blackwater.fs.IoStatistics;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.Task.FanOutBuilder;
 import org.basinmc.blackwater.task.Task.ParameterBuilder;
 import org.basinmc.blackwater.task.error.TaskDependencyException;
 import org.basinmc.blackwater.task.error.TaskException;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
 import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.trace.Span;
+import org.basinmc.blackwater.trace.Tracer;
+import org.basinmc.blackwater.trace.Tracing;
 import org.basinmc.blackwater.utility.CloseableResource;
+import org.basinmc.blackwater.utility.Digests;
+import org.basinmc.blackwater.utility.FileSizes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * <p>Provides a pre-configured pipeline of multiple tasks which are executed in the order they are
- * added.</p>
+ * added (unless they are independent of each other).</p>
+ *
+ * <p>When a parallelism greater than one is configured, tasks which neither read nor write each
+ * other's inputs and outputs may be executed concurrently. Tasks which declare neither inputs,
+ * outputs nor parameters are never executed concurrently with any other task. Among the tasks
+ * which are ready for execution, those with the longest remaining critical path (based on the
+ * durations of previous executions) are started first.</p>
  *
  * <p>Tasks may generate artifacts and add them to an undefined caching system from where they may
  * be retrieved in order to speed up build times. Caching may be completely disabled during
@@ -43,14 +98,202 @@ public final class Pipeline {
 
   private static final Logger logger = LoggerFactory.getLogger(Pipeline.class);
 
+  /**
+   * Defines the maximum amount of cached artifacts which are evaluated concurrently (unless the
+   * pipeline parallelism exceeds this value). Since validity checks are typically bound by disk or
+   * network access rather than computation, this value is independent of the amount of available
+   * processors.
+   */
+  private static final int CACHE_EVALUATION_PARALLELISM = 16;
+
+  /**
+   * Defines the default duration for which a watching pipeline waits for further changes before
+   * re-executing its tasks.
+   */
+  private static final Duration DEFAULT_WATCH_DEBOUNCE = Duration.ofMillis(250);
+
+  private static final WatchEvent.Kind<?>[] WATCH_EVENT_KINDS = {
+      StandardWatchEventKinds.ENTRY_CREATE,
+      StandardWatchEventKinds.ENTRY_DELETE,
+      StandardWatchEventKinds.ENTRY_MODIFY
+  };
+
   private final ArtifactManager artifactManager;
-  private final List<TaskRegistration> taskQueue;
+  private final ExecutionCoordinator executionCoordinator;
+  private final ClusterCoordinator clusterCoordinator;
+  private final ExecutionGraph graph;
+  private final ExecutionStatistics statistics;
+  private final int parallelism;
+  private final Map<ResourceClass, Integer> resourcePermits;
+  private final boolean ioAccounting;
+  private final Tracer tracer;
+  private final List<Consumer<PipelineResult>> resultListeners;
+
+  private Pipeline(
+      @Nullable ArtifactManager artifactManager,
+      @Nonnull ExecutionCoordinator executionCoordinator,
+      @Nullable ClusterCoordinator clusterCoordinator,
+      @NonNull List<TaskRegistration> tasks,
+      @Nullable Path statisticsFile,
+      int parallelism,
+      @Nonnull Map<ResourceClass, Integer> resourcePermits,
+      boolean ioAccounting,
+      @Nonnull List<Tracer> tracers,
+      @Nonnull List<Consumer<PipelineResult>> resultListeners) {
+    this.artifactManager = artifactManager;
+    this.executionCoordinator = executionCoordinator;
+    this.clusterCoordinator = clusterCoordinator;
+    this.graph = new ExecutionGraph(tasks);
+    this.statistics = new ExecutionStatistics(statisticsFile);
+    this.parallelism = parallelism;
+    this.resourcePermits = new EnumMap<>(resourcePermits);
+    this.ioAccounting = ioAccounting;
+
+    // flight recorder events are emitted whenever the VM supports them since they cost next to
+    // nothing unless a recording is actually running
+    List<Tracer> delegates = new ArrayList<>(tracers);
+    Tracer.flightRecorder().ifPresent(delegates::add);
+    this.tracer = Tracer.composite(delegates);
+    this.resultListeners = new ArrayList<>(resultListeners);
+  }
 
   private Pipeline(
+      @Nonnull Pipeline pipeline,
       @Nullable ArtifactManager artifactManager,
-      @NonNull List<TaskRegistration> tasks) {
+      @Nonnull ExecutionGraph graph) {
     this.artifactManager = artifactManager;
-    this.taskQueue = new ArrayList<>(tasks);
+    this.executionCoordinator = pipeline.executionCoordinator;
+    this.clusterCoordinator = pipeline.clusterCoordinator;
+    this.graph = graph;
+    this.statistics = pipeline.statistics;
+    this.parallelism = pipeline.parallelism;
+    this.resourcePermits = pipeline.resourcePermits;
+    this.ioAccounting = pipeline.ioAccounting;
+    this.tracer = pipeline.tracer;
+    this.resultListeners = pipeline.resultListeners;
+  }
+
+  /**
+   * <p>Wraps this pipeline in a task in order to permit its registration within another
+   * pipeline.</p>
+   *
+   * <p>When the outer pipeline provides an artifact manager, the sub-pipeline stores all of its
+   * artifacts within the specified namespace of said manager (see {@link
+   * ArtifactManager#scope(String)}). The exported artifacts are copied into the task output
+   * (using their identifiers as file names) along with an aggregate fingerprint of all tasks
+   * which produce them and the contents of all plain files they consume. As long as this
+   * fingerprint remains unchanged, a cached version of the task output is considered valid and the
+   * entire sub-pipeline is skipped without evaluating the caches of its tasks. When one of the
+   * tasks does not provide a fingerprint, the sub-pipeline is executed (and thus evaluates its
+   * caches) every time.</p>
+   *
+   * @param namespace an artifact namespace.
+   * @param exports a set of artifacts which are produced by this pipeline and exposed to the
+   * outer pipeline (when empty, all tasks are executed and no artifacts are exported).
+   * @return a task.
+   * @throws TaskDependencyException when one of the exported artifacts is not produced by any
+   * task within this pipeline.
+   */
+  @Nonnull
+  public Task asTask(@Nonnull String namespace, @Nonnull Set<ArtifactReference> exports)
+      throws TaskDependencyException {
+    SortedSet<Integer> registrations =
+        exports.isEmpty() ? this.selectAll() : this.selectProducers(exports);
+    return new PipelineTask(this, namespace, exports, registrations,
+        this.getFingerprint(registrations).orElse(null));
+  }
+
+  /**
+   * Creates a copy of this pipeline which relies on a different artifact manager.
+   *
+   * @param artifactManager an artifact manager.
+   * @return a pipeline.
+   */
+  @Nonnull
+  Pipeline withArtifactManager(@Nullable ArtifactManager artifactManager) {
+    return new Pipeline(this, artifactManager, this.graph);
+  }
+
+  /**
+   * Computes an aggregate fingerprint of the specified task registrations and their respective
+   * outputs.
+   *
+   * @param registrations a set of registration indices.
+   * @return a fingerprint or an empty optional if one or more tasks do not provide a fingerprint.
+   */
+  @Nonnull
+  private Optional<String> getFingerprint(@Nonnull SortedSet<Integer> registrations) {
+    StringBuilder builder = new StringBuilder();
+
+    for (int index : registrations) {
+      TaskRegistration registration = this.graph.getRegistration(index);
+      String fingerprint = registration.getFingerprint().orElse(null);
+
+      if (fingerprint == null) {
+        return Optional.empty();
+      }
+
+      builder.append(fingerprint).append(";output=");
+
+      if (registration.outputArtifact != null) {
+        builder.append("artifact:").append(registration.outputArtifact.getIdentifier());
+      } else if (registration.outputFile != null) {
+        builder.append("file:").append(registration.outputFile.toAbsolutePath());
+      }
+
+      builder.append('\n');
+    }
+
+    return Optional.of(Digests.toHexString(Digests.digest(builder.toString())));
+  }
+
+  /**
+   * <p>Computes a digest of the current contents of all plain files (e.g. input files and path
+   * parameters) which are consumed by the specified task registrations.</p>
+   *
+   * <p>Files which are produced by one of the specified registrations are omitted as they are
+   * already covered by the fingerprints of their respective producers.</p>
+   *
+   * @param registrations a set of registration indices.
+   * @return a digest or an empty optional if one or more files cannot be read.
+   */
+  @Nonnull
+  Optional<String> getConsumedFileDigest(@Nonnull SortedSet<Integer> registrations) {
+    Set<Path> producedFiles = new HashSet<>();
+    SortedSet<Path> consumedFiles = new TreeSet<>();
+
+    for (int index : registrations) {
+      TaskRegistration registration = this.graph.getRegistration(index);
+
+      if (registration.outputFile != null) {
+        producedFiles.add(registration.outputFile.toAbsolutePath().normalize());
+      }
+
+      registration.getConsumedFiles()
+          .forEach((p) -> consumedFiles.add(p.toAbsolutePath().normalize()));
+    }
+
+    consumedFiles.removeAll(producedFiles);
+    StringBuilder builder = new StringBuilder();
+
+    for (Path file : consumedFiles) {
+      builder.append(file).append('=');
+
+      if (Files.notExists(file)) {
+        builder.append("missing");
+      } else {
+        try {
+          builder.append(Digests.toHexString(Digests.digest(file)));
+        } catch (IOException ex) {
+          logger.warn("Failed to digest consumed file {}: {}", file, ex.getMessage());
+          return Optional.empty();
+        }
+      }
+
+      builder.append('\n');
+    }
+
+    return Optional.of(Digests.toHexString(Digests.digest(builder.toString())));
   }
 
   /**
@@ -67,137 +310,1484 @@ public final class Pipeline {
    * Executes all tasks within the pipeline in their designated order (according to their respective
    * dependencies).
    *
-   * @throws TaskDependencyException when task execution fails due to one or more missing
-   * dependencies.
-   * @throws TaskExecutionException when a task fails during its execution.
-   * @throws TaskParameterException when one or more task parameters are outside of their expected
-   * bounds.
+   * @return a summary of the execution.
+   * @throws TaskDependencyException when task execution fails due to one or more missing
+   * dependencies.
+   * @throws TaskExecutionException when a task fails during its execution.
+   * @throws TaskParameterException when one or more task parameters are outside of their expected
+   * bounds.
+   * @see Builder#withResultListener(Consumer)
+   */
+  @Nonnull
+  public PipelineResult execute() throws TaskException {
+    return this.execute(this.selectAll());
+  }
+
+  /**
+   * <p>Executes all tasks within the pipeline in their designated order (according to their
+   * respective dependencies) and notifies the supplied listener as soon as each task
+   * completes.</p>
+   *
+   * <p>The listener is invoked on the calling thread (one task at a time) and receives the result
+   * of every task which has been executed, skipped or has failed. Tasks which have not been
+   * started due to the failure of another task are not passed to the listener but are included
+   * in the returned summary (or the summary passed to result listeners).</p>
+   *
+   * @param taskListener a listener which is notified about each completed task.
+   * @return a summary of the execution.
+   * @throws TaskDependencyException when task execution fails due to one or more missing
+   * dependencies.
+   * @throws TaskExecutionException when a task fails during its execution.
+   * @throws TaskParameterException when one or more task parameters are outside of their expected
+   * bounds.
+   */
+  @Nonnull
+  public PipelineResult execute(@Nonnull Consumer<TaskResult> taskListener) throws TaskException {
+    return this.execute(this.selectAll(), taskListener);
+  }
+
+  /**
+   * <p>Executes only the tasks which are required in order to produce the specified artifacts
+   * (e.g. the most recent tasks which write the artifacts as well as all tasks which transitively
+   * produce their inputs and parameters).</p>
+   *
+   * <p>Tasks which declare neither inputs, outputs nor parameters are always executed when they
+   * have been registered before one of the required tasks since their side effects are
+   * unknown.</p>
+   *
+   * @param targets a set of artifacts.
+   * @return a summary of the execution.
+   * @throws TaskDependencyException when one of the artifacts is not produced by any task within
+   * this pipeline or when task execution fails due to one or more missing dependencies.
+   * @throws TaskExecutionException when a task fails during its execution.
+   * @throws TaskParameterException when one or more task parameters are outside of their expected
+   * bounds.
+   */
+  @Nonnull
+  public PipelineResult execute(@Nonnull Set<ArtifactReference> targets) throws TaskException {
+    SortedSet<Integer> registrations = this.selectProducers(targets);
+
+    logger.info("Selected {} out of {} tasks for execution", registrations.size(),
+        this.graph.size());
+    return this.execute(registrations);
+  }
+
+  /**
+   * <p>Executes a deterministic share of the tasks within this pipeline in order to permit
+   * spreading a single pipeline across multiple independent jobs (such as parallel CI jobs).</p>
+   *
+   * <p>The pipeline is split into independent subgraphs (e.g. sets of tasks which share no inputs
+   * or outputs with other tasks) which are assigned to shards based on their estimated duration
+   * (largest subgraphs first, each to the least loaded shard). Durations are estimated based on
+   * the statistics of previous executions (see {@link Builder#withStatisticsFile(Path)}) and
+   * default to an equal weight per task. In order for all jobs to compute the same assignment,
+   * they need to rely on the same version of the statistics file. Sharded executions thus never
+   * update the statistics file and always rely on the statistics as they were loaded when the
+   * pipeline was built.</p>
+   *
+   * <p>Tasks which declare neither inputs, outputs nor parameters are not assigned to any shard
+   * since their side effects are unknown. Typically, all shards publish their artifacts to a
+   * shared artifact manager while a final job invokes {@link #execute()} in order to assemble the
+   * results from the cache (and execute the remaining tasks).</p>
+   *
+   * @param shard a shard index (starting at zero).
+   * @param totalShards the total amount of shards.
+   * @return a summary of the execution.
+   * @throws IllegalArgumentException when the shard index is outside of the bounds given by the
+   * total amount of shards.
+   * @throws TaskDependencyException when task execution fails due to one or more missing
+   * dependencies.
+   * @throws TaskExecutionException when a task fails during its execution.
+   * @throws TaskParameterException when one or more task parameters are outside of their expected
+   * bounds.
+   */
+  @Nonnull
+  public PipelineResult execute(int shard, int totalShards) throws TaskException {
+    if (totalShards < 1) {
+      throw new IllegalArgumentException("Total amount of shards must be positive");
+    }
+    if (shard < 0 || shard >= totalShards) {
+      throw new IllegalArgumentException(
+          "Shard index must be within bounds [0, " + totalShards + ")");
+    }
+
+    SortedSet<Integer> registrations = this.selectShard(shard, totalShards);
+
+    logger.info("Selected {} out of {} tasks for shard {} of {}", registrations.size(),
+        this.graph.size(), shard + 1, totalShards);
+
+    // the statistics file is left untouched in order to ensure that concurrent jobs which are
+    // started at a later time compute the same assignment
+    return this.execute(registrations, (t) -> {
+    }, false);
+  }
+
+  /**
+   * <p>Evaluates the artifact cache and creates a preview of the tasks which would be executed or
+   * skipped by {@link #execute()}.</p>
+   *
+   * <p>The validity of all cached artifacts is evaluated concurrently.</p>
+   *
+   * @return an execution plan.
+   * @throws TaskDependencyException when one or more tasks produce artifacts but no artifact
+   * manager is configured.
+   * @throws TaskExecutionException when accessing the artifact cache fails.
+   */
+  @Nonnull
+  public ExecutionPlan plan() throws TaskException {
+    return this.plan(this.selectAll());
+  }
+
+  /**
+   * Evaluates the artifact cache and creates a preview of the tasks which would be executed or
+   * skipped by {@link #execute(Set)}.
+   *
+   * @param targets a set of artifacts.
+   * @return an execution plan.
+   * @throws TaskDependencyException when one of the artifacts is not produced by any task within
+   * this pipeline or when one or more tasks produce artifacts but no artifact manager is
+   * configured.
+   * @throws TaskExecutionException when accessing the artifact cache fails.
+   * @see #plan()
+   */
+  @Nonnull
+  public ExecutionPlan plan(@Nonnull Set<ArtifactReference> targets) throws TaskException {
+    return this.plan(this.selectProducers(targets));
+  }
+
+  /**
+   * @see #watch(Duration)
+   */
+  public void watch() throws IOException, InterruptedException {
+    this.watch(DEFAULT_WATCH_DEBOUNCE);
+  }
+
+  /**
+   * <p>Executes all tasks within the pipeline and re-executes them whenever one of the files or
+   * directories they consume (e.g. their input files and path parameters) changes.</p>
+   *
+   * <p>Once a change has been detected, the pipeline waits until no further changes have occurred
+   * for the specified debounce duration. Only the tasks which consume the changed files and the
+   * tasks which (transitively) depend on them are re-executed. Tasks which consume a changed file
+   * (or the output file of such a task) are executed regardless of their cache while dependant
+   * tasks which consume artifacts rely on the regular change detection of artifacts.</p>
+   *
+   * <p>Changes to the output files of tasks are ignored since they are produced by the pipeline
+   * itself. Failed executions are logged but do not terminate the watch. This method blocks until the
+   * calling thread is interrupted.</p>
+   *
+   * @param debounce a duration to wait for further changes.
+   * @throws IOException when watching one of the files fails.
+   * @throws InterruptedException when the calling thread is interrupted.
+   */
+  public void watch(@Nonnull Duration debounce) throws IOException, InterruptedException {
+    Set<Path> watchedPaths = new HashSet<>();
+    Set<Path> outputPaths = new HashSet<>();
+
+    for (int i = 0; i < this.graph.size(); ++i) {
+      Path outputFile = this.graph.getRegistration(i).outputFile;
+
+      if (outputFile != null) {
+        outputPaths.add(outputFile);
+      }
+
+      for (Path path : this.graph.getRegistration(i).getConsumedFiles()) {
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+          logger.warn("Cannot watch {} - Changes will not be detected", path);
+          continue;
+        }
+
+        watchedPaths.add(path.toAbsolutePath().normalize());
+      }
+    }
+
+    try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+      Map<WatchKey, Path> keys = new HashMap<>();
+
+      for (Path path : watchedPaths) {
+        if (Files.isDirectory(path)) {
+          registerRecursively(watchService, keys, path);
+        } else if (path.getParent() != null && Files.isDirectory(path.getParent())) {
+          keys.put(path.getParent().register(watchService, WATCH_EVENT_KINDS), path.getParent());
+        } else {
+          logger.warn("Cannot watch {} - Parent directory does not exist", path);
+        }
+      }
+
+      logger.info("Watching {} files and directories for changes", watchedPaths.size());
+      this.executeWatched(this.selectAll(), Collections.emptySet());
+
+      while (true) {
+        Set<Path> changedPaths = new HashSet<>();
+        WatchKey key = watchService.take();
+
+        // editors tend to write files in multiple steps (or touch multiple files at once) thus
+        // we'll wait for the file system to calm down before actually doing anything
+        do {
+          Path directory = keys.get(key);
+
+          for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null) {
+              continue;
+            }
+
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+              changedPaths.add(directory);
+              continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            changedPaths.add(path);
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)
+                && watchedPaths.stream().anyMatch((p) -> path.startsWith(p))) {
+              registerRecursively(watchService, keys, path);
+            }
+          }
+
+          if (!key.reset()) {
+            keys.remove(key);
+          }
+        } while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null);
+
+        // output files are written by the pipeline itself and are thus not considered to be
+        // changes (their consumers are re-executed along with their producers anyways)
+        changedPaths.removeIf((p) -> outputPaths.stream()
+            .anyMatch((o) -> TaskRegistration.overlaps(o, p)));
+
+        Set<Integer> affected = new HashSet<>();
+
+        for (int i = 0; i < this.graph.size(); ++i) {
+          Set<Path> consumedFiles = this.graph.getRegistration(i).getConsumedFiles();
+
+          if (consumedFiles.stream().anyMatch(
+              (f) -> changedPaths.stream().anyMatch((p) -> TaskRegistration.overlaps(f, p)))) {
+            affected.add(i);
+          }
+        }
+
+        if (affected.isEmpty()) {
+          continue;
+        }
+
+        SortedSet<Integer> registrations = new TreeSet<>();
+        Deque<Integer> queue = new ArrayDeque<>(affected);
+
+        while (!queue.isEmpty()) {
+          int index = queue.poll();
+
+          if (registrations.add(index)) {
+            queue.addAll(this.graph.getDependants(index));
+          }
+        }
+
+        logger.info("Detected changes to {} files - Re-executing {} tasks", changedPaths.size(),
+            registrations.size());
+        this.executeWatched(registrations, affected);
+      }
+    }
+  }
+
+  /**
+   * Registers a directory and all of its sub-directories with a watch service.
+   *
+   * @param watchService a watch service.
+   * @param keys a map of watch keys and their respective directories.
+   * @param directory a directory.
+   * @throws IOException when registering one of the directories fails.
+   */
+  private static void registerRecursively(
+      @Nonnull WatchService watchService,
+      @Nonnull Map<WatchKey, Path> keys,
+      @Nonnull Path directory) throws IOException {
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+          throws IOException {
+        keys.put(dir.register(watchService, WATCH_EVENT_KINDS), dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * Executes a subset of task registrations on behalf of a watching pipeline while enforcing the
+   * execution of all registrations which are affected by changed files.
+   *
+   * @param registrations a set of registration indices.
+   * @param affected a set of registration indices which consume changed files.
+   */
+  private void executeWatched(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull Set<Integer> affected) {
+    List<TaskRegistration> forced = new ArrayList<>();
+    List<TaskRegistration> graph = new ArrayList<>(this.graph.size());
+
+    // since changes to output files are not tracked, any task which consumes the output file of a
+    // forced task has to be executed regardless of its cache as well
+    for (int i = 0; i < this.graph.size(); ++i) {
+      TaskRegistration registration = this.graph.getRegistration(i);
+      Set<Path> consumedFiles = registration.getConsumedFiles();
+      boolean force = affected.contains(i) || (registrations.contains(i) && forced.stream()
+          .filter((r) -> r.outputFile != null)
+          .anyMatch((r) -> consumedFiles.stream()
+              .anyMatch((f) -> TaskRegistration.overlaps(f, r.outputFile))));
+
+      if (force) {
+        registration = registration.withForcedExecution();
+        forced.add(registration);
+      }
+
+      graph.add(registration);
+    }
+
+    Pipeline pipeline = this;
+
+    if (!forced.isEmpty()) {
+      pipeline = new Pipeline(this, this.artifactManager, new ExecutionGraph(graph));
+    }
+
+    try {
+      pipeline.execute(registrations);
+    } catch (TaskException ex) {
+      logger.error("Pipeline execution failed: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Creates an execution plan for the specified subset of task registrations.
+   *
+   * @param registrations a set of registration indices.
+   * @return an execution plan.
+   * @throws TaskException when evaluating the artifact cache fails.
+   */
+  @Nonnull
+  private ExecutionPlan plan(@Nonnull SortedSet<Integer> registrations) throws TaskException {
+    Map<Integer, CacheEntry> cache = this.evaluateCache(registrations);
+
+    try {
+      return this.createPlan(registrations, cache);
+    } finally {
+      this.closeCache(cache);
+    }
+  }
+
+  /**
+   * Selects all task registrations within this pipeline.
+   *
+   * @return a set of registration indices.
+   */
+  @Nonnull
+  private SortedSet<Integer> selectAll() {
+    SortedSet<Integer> registrations = new TreeSet<>();
+
+    for (int i = 0; i < this.graph.size(); ++i) {
+      registrations.add(i);
+    }
+
+    return registrations;
+  }
+
+  /**
+   * Selects the task registrations which have been assigned to the specified shard.
+   *
+   * @param shard a shard index.
+   * @param totalShards the total amount of shards.
+   * @return a set of registration indices.
+   */
+  @Nonnull
+  private SortedSet<Integer> selectShard(int shard, int totalShards) {
+    // shards are assigned based on the statistics as they were loaded from the statistics file
+    // since measurements of previous shards would otherwise alter the assignment of later shards
+    ToLongFunction<TaskRegistration> estimator = this.createDurationEstimator(true);
+    List<SortedSet<Integer>> subgraphs = this.graph.getIndependentSubgraphs();
+    long[] costs = new long[subgraphs.size()];
+
+    for (int i = 0; i < subgraphs.size(); ++i) {
+      costs[i] = subgraphs.get(i).stream()
+          .mapToLong((index) -> estimator.applyAsLong(this.graph.getRegistration(index)))
+          .sum();
+    }
+
+    // subgraphs are already ordered by their first registration which makes for a stable
+    // tie-breaker when multiple subgraphs are estimated to take the same amount of time
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < subgraphs.size(); ++i) {
+      order.add(i);
+    }
+    order.sort(Comparator.<Integer>comparingLong((i) -> -costs[i])
+        .thenComparingInt((i) -> i));
+
+    long[] loads = new long[totalShards];
+    SortedSet<Integer> registrations = new TreeSet<>();
+
+    for (int subgraph : order) {
+      int target = 0;
+
+      for (int i = 1; i < totalShards; ++i) {
+        if (loads[i] < loads[target]) {
+          target = i;
+        }
+      }
+
+      loads[target] += costs[subgraph];
+
+      if (target == shard) {
+        registrations.addAll(subgraphs.get(subgraph));
+      }
+    }
+
+    return registrations;
+  }
+
+  /**
+   * Selects the task registrations which are required in order to produce the specified
+   * artifacts.
+   *
+   * @param targets a set of artifacts.
+   * @return a set of registration indices.
+   * @throws TaskDependencyException when one of the artifacts is not produced by any task.
+   */
+  @Nonnull
+  private SortedSet<Integer> selectProducers(@Nonnull Set<ArtifactReference> targets)
+      throws TaskDependencyException {
+    try {
+      return this.graph.getProducers(targets);
+    } catch (IllegalArgumentException ex) {
+      throw new TaskDependencyException("Unsatisfied target: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * <p>Resolves the output artifacts of the specified task registrations and evaluates their
+   * validity.</p>
+   *
+   * <p>Since validity checks may be expensive (e.g. when they need to hash files or contact
+   * remote hosts), all artifacts are evaluated concurrently. Registrations which enforce their
+   * execution are resolved but not evaluated.</p>
+   *
+   * @param registrations a set of registration indices.
+   * @return a map of registration indices and their respective cache entries.
+   * @throws TaskDependencyException when one or more registrations produce artifacts but no
+   * artifact manager is configured.
+   * @throws TaskExecutionException when accessing an artifact fails.
+   */
+  @Nonnull
+  private Map<Integer, CacheEntry> evaluateCache(@Nonnull SortedSet<Integer> registrations)
+      throws TaskException {
+    List<TaskRegistration> candidates = registrations.stream()
+        .map(this.graph::getRegistration)
+        .filter((r) -> r.outputArtifact != null)
+        .collect(Collectors.toList());
+
+    if (candidates.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    // since users can omit the artifact manager in cases where no task relies on it, we'll have
+    // to ensure that there is one configured in this pipeline as well
+    if (this.artifactManager == null) {
+      throw new TaskDependencyException(
+          "Unsatisfied task output: Cannot resolve artifact " + candidates.get(0).outputArtifact
+              .getIdentifier() + " without configured artifact manager");
+    }
+
+    ExecutorService executorService = null;
+    Executor executor = Runnable::run;
+
+    if (candidates.size() > 1) {
+      executorService = Executors.newFixedThreadPool(Math.min(candidates.size(),
+          Math.max(this.parallelism, CACHE_EVALUATION_PARALLELISM)), new WorkerThreadFactory());
+      executor = executorService;
+    }
+
+    try {
+      Map<Integer, CompletableFuture<CacheEntry>> futures = new HashMap<>();
+
+      for (TaskRegistration registration : candidates) {
+        futures.put(registration.index, CompletableFuture.supplyAsync(() -> {
+          try {
+            return this.evaluateCache(registration);
+          } catch (TaskException ex) {
+            throw new CompletionException(ex);
+          }
+        }, executor));
+      }
+
+      Map<Integer, CacheEntry> cache = new HashMap<>();
+      Throwable failure = null;
+
+      for (Map.Entry<Integer, CompletableFuture<CacheEntry>> entry : futures.entrySet()) {
+        try {
+          cache.put(entry.getKey(), entry.getValue().join());
+        } catch (CompletionException ex) {
+          Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+
+          if (failure == null) {
+            failure = cause;
+          } else {
+            failure.addSuppressed(cause);
+          }
+        }
+      }
+
+      if (failure != null) {
+        this.closeCache(cache);
+
+        if (failure instanceof TaskException) {
+          throw (TaskException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+          throw (Error) failure;
+        }
+
+        throw new TaskExecutionException(
+            "Failed to evaluate artifact cache: " + failure.getMessage(), failure);
+      }
+
+      return cache;
+    } finally {
+      if (executorService != null) {
+        executorService.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Resolves the output artifact of a single task registration and evaluates its validity.
+   *
+   * @param registration a registration.
+   * @return a cache entry.
+   * @throws TaskExecutionException when accessing the artifact fails.
+   */
+  @Nonnull
+  private CacheEntry evaluateCache(@Nonnull TaskRegistration registration)
+      throws TaskExecutionException {
+    assert this.artifactManager != null;
+    assert registration.outputArtifact != null;
+
+    try (Span span = this.tracer.start("cache", "Cache evaluation")) {
+      span.setAttribute("task", registration.task.getName());
+      span.setAttribute("artifact", registration.outputArtifact.getIdentifier());
+
+      Artifact artifact = this.artifactManager.getArtifact(registration.outputArtifact)
+          .orElse(null);
+      span.setAttribute("present", artifact != null);
+
+      if (artifact == null || registration.enforceExecution) {
+        return new CacheEntry(artifact, null);
+      }
+
+      logger.info("Evaluating cached version of artifact \"{}\"",
+          registration.outputArtifact.getIdentifier());
+      boolean valid = registration.task.isValidArtifact(artifact, artifact.getPath());
+      span.setAttribute("valid", valid);
+
+      return new CacheEntry(artifact, valid);
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to access artifact " + registration.outputArtifact.getIdentifier() + ": " + ex
+              .getMessage(), ex);
+    }
+  }
+
+  /**
+   * Releases all artifacts which have been resolved while evaluating the artifact cache.
+   *
+   * @param cache a map of registration indices and their respective cache entries.
+   */
+  private void closeCache(@Nonnull Map<Integer, CacheEntry> cache) {
+    for (CacheEntry entry : cache.values()) {
+      if (entry.artifact == null) {
+        continue;
+      }
+
+      try {
+        entry.artifact.close();
+      } catch (IOException ex) {
+        logger.warn("Failed to release cached artifact: {}", ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Creates an execution plan based on a previously evaluated artifact cache.
+   *
+   * @param registrations a set of registration indices.
+   * @param cache a map of registration indices and their respective cache entries.
+   * @return an execution plan.
+   */
+  @Nonnull
+  private ExecutionPlan createPlan(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull Map<Integer, CacheEntry> cache) {
+    List<ExecutionPlan.Step> steps = new ArrayList<>();
+    Set<ArtifactReference> changedArtifacts = new HashSet<>();
+
+    for (int index : registrations) {
+      TaskRegistration registration = this.graph.getRegistration(index);
+      CacheEntry entry = cache.get(index);
+      ExecutionPlan.Reason reason;
+
+      if (registration.enforceExecution) {
+        reason = ExecutionPlan.Reason.FORCED;
+      } else if (registration.outputArtifact == null) {
+        reason = ExecutionPlan.Reason.UNCACHED;
+      } else if (registration.getConsumedArtifacts().stream()
+          .anyMatch(changedArtifacts::contains)) {
+        reason = ExecutionPlan.Reason.INPUT_CHANGED;
+      } else if (entry == null || entry.artifact == null) {
+        reason = ExecutionPlan.Reason.MISSING;
+      } else if (entry.valid == null || !entry.valid) {
+        reason = ExecutionPlan.Reason.EXPIRED;
+      } else {
+        reason = ExecutionPlan.Reason.CACHED;
+      }
+
+      if (reason != ExecutionPlan.Reason.CACHED && registration.outputArtifact != null) {
+        changedArtifacts.add(registration.outputArtifact);
+      }
+
+      steps.add(new ExecutionPlan.Step(registration.task, registration.outputArtifact, reason));
+    }
+
+    return new ExecutionPlan(steps);
+  }
+
+  /**
+   * Executes the specified subset of task registrations in their designated order (according to
+   * their respective dependencies).
+   *
+   * @param registrations a set of registration indices.
+   * @return a summary of the execution.
+   * @throws TaskException when the execution fails.
+   */
+  @Nonnull
+  private PipelineResult execute(@Nonnull SortedSet<Integer> registrations)
+      throws TaskException {
+    return this.execute(registrations, (t) -> {
+    });
+  }
+
+  /**
+   * Executes the specified subset of task registrations in their designated order (according to
+   * their respective dependencies) and notifies a listener about each completed task.
+   *
+   * @param registrations a set of registration indices.
+   * @param taskListener a listener which is notified about each completed task.
+   * @return a summary of the execution.
+   * @throws TaskException when the execution fails.
+   */
+  @Nonnull
+  private PipelineResult execute(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull Consumer<TaskResult> taskListener) throws TaskException {
+    return this.execute(registrations, taskListener, true);
+  }
+
+  /**
+   * Executes the specified subset of task registrations in their designated order (according to
+   * their respective dependencies) and notifies a listener about each completed task.
+   *
+   * @param registrations a set of registration indices.
+   * @param taskListener a listener which is notified about each completed task.
+   * @param saveStatistics true if the updated execution statistics shall be written back to the
+   * statistics file.
+   * @return a summary of the execution.
+   * @throws TaskException when the execution fails.
+   */
+  @Nonnull
+  private PipelineResult execute(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull Consumer<TaskResult> taskListener,
+      boolean saveStatistics) throws TaskException {
+    // all cache checks are performed up front in order to permit them to overlap with each other
+    // rather than waiting for each task to complete before evaluating the next
+    Map<Integer, CacheEntry> cache = this.evaluateCache(registrations);
+
+    try {
+      ExecutionPlan plan = this.createPlan(registrations, cache);
+      logger.info("Planned execution of {} tasks ({} skipped)", plan.getExecutedTasks().size(),
+          plan.getSkippedTasks().size());
+
+      return this.execute(registrations, cache, taskListener, saveStatistics);
+    } finally {
+      this.closeCache(cache);
+    }
+  }
+
+  /**
+   * Schedules the specified subset of task registrations according to their respective
+   * dependencies and priorities.
+   *
+   * @param registrations a set of registration indices.
+   * @param cache a map of registration indices and their respective cache entries.
+   * @param taskListener a listener which is notified about each completed task.
+   * @param saveStatistics true if the updated execution statistics shall be written back to the
+   * statistics file.
+   * @return a summary of the execution.
+   * @throws TaskException when the execution fails.
+   */
+  @Nonnull
+  private PipelineResult execute(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull Map<Integer, CacheEntry> cache,
+      @Nonnull Consumer<TaskResult> taskListener,
+      boolean saveStatistics) throws TaskException {
+    ExecutionState state = new ExecutionState();
+    long start = System.nanoTime();
+
+    // registrations which have not been selected will not contribute to the critical path of any
+    // other registration as they will never be executed
+    ToLongFunction<TaskRegistration> estimator = this.createDurationEstimator(false);
+    long[] criticalPaths = this.graph.getCriticalPaths(
+        (r) -> registrations.contains(r.index) ? estimator.applyAsLong(r) : 0);
+    NavigableSet<Integer> ready = new TreeSet<>(
+        Comparator.<Integer>comparingLong((i) -> -criticalPaths[i])
+            .thenComparingInt((i) -> i));
+    ResourcePermits permits = new ResourcePermits(this.resourcePermits);
+
+    int[] pendingDependencies = new int[this.graph.size()];
+    for (int i : registrations) {
+      pendingDependencies[i] = (int) this.graph.getDependencies(i).stream()
+          .filter(registrations::contains)
+          .count();
+
+      if (pendingDependencies[i] == 0) {
+        ready.add(i);
+      }
+    }
+
+    // when no parallelism is desired, we'll simply execute all tasks on the calling thread (in
+    // which case every task will have completed by the time it is handed to the executor)
+    ExecutorService executorService = null;
+    Executor executor = Runnable::run;
+
+    if (this.parallelism > 1) {
+      executorService = Executors.newFixedThreadPool(this.parallelism, new WorkerThreadFactory());
+      executor = executorService;
+    }
+
+    BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+    Throwable failure = null;
+    int running = 0;
+
+    try {
+      do {
+        // once a task has failed, we'll stop scheduling any further tasks and merely wait for the
+        // tasks which are still running in order to not leave them behind
+        while (failure == null && running < this.parallelism) {
+          // tasks are admitted in order of their priority as long as sufficient resources are
+          // available to them (lower priority tasks may skip ahead when they rely on different
+          // resources)
+          TaskRegistration registration = ready.stream()
+              .map(this.graph::getRegistration)
+              .filter((r) -> permits.tryAcquire(r.task.getResourceWeights()))
+              .findFirst()
+              .orElse(null);
+
+          if (registration == null) {
+            break;
+          }
+
+          ready.remove(registration.index);
+          ++running;
+
+          executor.execute(() -> {
+            Throwable result = null;
+            TaskRecord record = state.createRecord(registration);
+            long taskStart = System.nanoTime();
+            long cpuStart = getCpuTime();
+
+            Tracing.Scope scope = Tracing.activate(this.tracer);
+
+            try (Span span = this.tracer.start("task", registration.task.getName())) {
+              // tasks which may be satisfied by their cached output artifact are marked as such in
+              // order to permit tracers to derive cache hits from the final execution decision
+              span.setAttribute("cacheable",
+                  registration.outputArtifact != null && !registration.enforceExecution);
+
+              try {
+                boolean executed = this.execute(registration, state, cache.get(registration.index));
+                record.status = executed ? Status.EXECUTED : Status.CACHED;
+                span.setAttribute("executed", executed);
+              } catch (Throwable ex) {
+                record.status = Status.FAILED;
+                span.setAttribute("failed", true);
+                throw ex;
+              }
+            } catch (Throwable ex) {
+              result = ex;
+            } finally {
+              scope.close();
+
+              record.wallTime = System.nanoTime() - taskStart;
+              // tasks which have been executed by a cluster worker report their remote CPU time
+              record.cpuTime += Math.max(0, getCpuTime() - cpuStart);
+            }
+
+            completions.add(new Completion(registration.index, result));
+          });
+        }
+
+        if (running == 0) {
+          break;
+        }
+
+        Completion completion = completions.take();
+        TaskRegistration completed = this.graph.getRegistration(completion.index);
+        permits.release(completed.task.getResourceWeights());
+        --running;
+
+        try {
+          taskListener.accept(this.createTaskResult(completed, state.getRecord(completed)));
+        } catch (RuntimeException ex) {
+          logger.warn("Task listener failed: {}", ex.getMessage(), ex);
+        }
+
+        if (completion.failure != null) {
+          if (failure == null) {
+            failure = completion.failure;
+          } else {
+            failure.addSuppressed(completion.failure);
+          }
+
+          continue;
+        }
+
+        for (int dependant : this.graph.getDependants(completion.index)) {
+          if (registrations.contains(dependant) && --pendingDependencies[dependant] == 0) {
+            ready.add(dependant);
+          }
+        }
+      } while (true);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TaskExecutionException("Interrupted while awaiting task completion", ex);
+    } finally {
+      if (executorService != null) {
+        executorService.shutdownNow();
+      }
+
+      if (saveStatistics) {
+        this.statistics.save();
+      }
+    }
+
+    PipelineResult result = this.createResult(registrations, state, System.nanoTime() - start);
+    logger.info("Execution completed: {}", result);
+
+    if (this.ioAccounting) {
+      logger.info("Total I/O: {}", state.ioStatistics);
+    }
+
+    this.resultListeners.forEach((l) -> l.accept(result));
+
+    if (failure instanceof TaskException) {
+      throw (TaskException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw new TaskExecutionException("Task execution failed: " + failure.getMessage(), failure);
+    }
+
+    return result;
+  }
+
+  /**
+   * Summarizes the execution of the specified task registrations.
+   *
+   * @param registrations a set of registration indices.
+   * @param state the state of the execution.
+   * @param duration the total duration of the execution in nanoseconds.
+   * @return a result.
+   */
+  @Nonnull
+  private PipelineResult createResult(
+      @Nonnull SortedSet<Integer> registrations,
+      @Nonnull ExecutionState state,
+      long duration) {
+    List<TaskResult> tasks = new ArrayList<>(registrations.size());
+
+    for (int index : registrations) {
+      TaskRegistration registration = this.graph.getRegistration(index);
+      TaskRecord record = state.records.getOrDefault(index, new TaskRecord());
+
+      tasks.add(this.createTaskResult(registration, record));
+    }
+
+    return new PipelineResult(duration, tasks);
+  }
+
+  /**
+   * Summarizes the execution of a single task registration.
+   *
+   * @param registration a registration.
+   * @param record the record of the registration.
+   * @return a result.
+   */
+  @Nonnull
+  private TaskResult createTaskResult(
+      @Nonnull TaskRegistration registration,
+      @Nonnull TaskRecord record) {
+    return new TaskResult(registration.task.getName(), record.status, record.wallTime,
+        record.cpuTime, record.resolvedArtifacts, record.publishedArtifact,
+        record.publishedBytes, record.temporaryBytes, record.ioStatistics);
+  }
+
+  /**
+   * Retrieves the CPU time which has been consumed by the calling thread.
+   *
+   * @return a CPU time in nanoseconds (or zero if measuring the CPU time is not supported).
+   */
+  private static long getCpuTime() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    if (!bean.isCurrentThreadCpuTimeSupported()) {
+      return 0;
+    }
+
+    return Math.max(0, bean.getCurrentThreadCpuTime());
+  }
+
+  /**
+   * <p>Creates a function which estimates the duration of a given task registration based on the
+   * durations of its previous executions.</p>
+   *
+   * <p>Registrations which have never been executed before are assumed to take as long as the
+   * average registration within this pipeline.</p>
+   *
+   * @param loaded true if the estimation shall be based on the statistics as they were loaded
+   * from the statistics file (ignoring all measurements of this instance), false otherwise.
+   * @return an estimator.
    */
-  public void execute() throws TaskException {
-    for (TaskRegistration registration : this.taskQueue) {
-      this.execute(registration);
+  @Nonnull
+  private ToLongFunction<TaskRegistration> createDurationEstimator(boolean loaded) {
+    Function<String, OptionalLong> source =
+        loaded ? this.statistics::getLoadedDuration : this.statistics::getDuration;
+    LongSummaryStatistics knownDurations = new LongSummaryStatistics();
+
+    for (int i = 0; i < this.graph.size(); ++i) {
+      source.apply(this.graph.getRegistration(i).getStatisticsKey())
+          .ifPresent(knownDurations::accept);
     }
+
+    long defaultDuration = Math.max(1, Math.round(knownDurations.getAverage()));
+    return (registration) -> source.apply(registration.getStatisticsKey())
+        .orElse(defaultDuration);
   }
 
   /**
    * Executes a single task registration.
    *
    * @param registration a registration.
+   * @param state the state of the current pipeline execution.
+   * @param cache a previously evaluated cache entry (if any).
+   * @return true if the task has been executed, false if it has been skipped.
    * @throws TaskException when the execution fails.
    */
-  private void execute(@Nonnull TaskRegistration registration) throws TaskException {
+  private boolean execute(
+      @Nonnull TaskRegistration registration,
+      @Nonnull ExecutionState state,
+      @Nullable CacheEntry cache) throws TaskException {
     logger.info("--- Task {} ---", registration.task.getName());
 
-    try (CloseableTaskResource input = this.getInputPath(registration);
-        CloseableTaskResource output = this.getOutputPath(registration)) {
+    // when the output artifact has already been written by a previous task within this execution,
+    // the previously evaluated cache entry is outdated and will thus be evaluated once again
+    if (cache != null && state.changedArtifacts.contains(registration.outputArtifact)) {
+      cache = null;
+    }
+
+    // when one of the artifacts consumed by this task has been changed by a previous task within
+    // this execution, the cached output is considered outdated regardless of what the task thinks
+    ArtifactReference changedInput = state.getChangedInput(registration).orElse(null);
+    boolean useCache = !registration.enforceExecution && changedInput == null;
+
+    try (CloseableTaskResource output = this.getOutputPath(registration, cache)) {
       // before we're just blindly executing the task, we'll evaluate whether its output artifact
       // already exists and is still considered valid to save ourselves some valuable time here
-      if (!registration.enforceExecution && output.artifact != null) {
+      if (useCache && output.artifact != null) {
         assert registration.outputArtifact != null;
-        logger.info("Evaluating cached version of artifact \"{}\"",
-            registration.outputArtifact.getIdentifier());
-
         assert output.getResource() != null;
-        if (registration.task.isValidArtifact(output.artifact, output.artifact.getPath())) {
+
+        Boolean valid = cache != null ? cache.valid : null;
+
+        if (valid == null) {
+          logger.info("Evaluating cached version of artifact \"{}\"",
+              registration.outputArtifact.getIdentifier());
+
+          try (Span span = this.tracer.start("cache", "Cache evaluation")) {
+            span.setAttribute("task", registration.task.getName());
+            span.setAttribute("artifact", registration.outputArtifact.getIdentifier());
+            valid = registration.task.isValidArtifact(output.artifact, output.artifact.getPath());
+            span.setAttribute("valid", valid);
+          }
+        }
+
+        if (valid) {
           logger.info("Valid artifact cache - Skipped");
-          return;
+          return false;
         }
 
         logger.info("Artifact expired - Recreating");
       } else if (registration.enforceExecution) {
         logger.info("Task execution enforced - Cache check omitted");
+      } else if (changedInput != null) {
+        logger.info("Input artifact \"{}\" has changed - Cache check omitted",
+            changedInput.getIdentifier());
+      }
+
+      // when the task is identical to a task which is currently being executed by another pipeline
+      // within this VM, we'll simply wait for its result instead of executing it once more
+      String fingerprint = registration.getFingerprint().orElse(null);
+
+      if (registration.outputArtifact != null && useCache && fingerprint != null) {
+        boolean[] executed = new boolean[1];
+
+        if (this.executionCoordinator
+            .execute(this.artifactManager, registration.outputArtifact, fingerprint,
+                () -> executed[0] = this.produce(registration, output, state, true))) {
+          return executed[0];
+        }
+
+        if (this.isValidOutputArtifact(registration)) {
+          logger.info("Artifact has been created by a concurrent pipeline - Skipped");
+          return false;
+        }
+
+        logger.info("Concurrent execution did not yield a valid artifact - Recreating");
+      }
+
+      return this.produce(registration, output, state, useCache);
+    }
+  }
+
+  /**
+   * Claims the output artifact of a task registration (if any) and executes the task unless a
+   * valid version of the artifact has been created while waiting for the claim.
+   *
+   * @param registration a registration.
+   * @param output a wrapped output path.
+   * @param state the state of the current pipeline execution.
+   * @param useCache true if a valid cached artifact may be reused, false otherwise.
+   * @return true if the task has been executed, false if it has been skipped.
+   * @throws TaskException when the execution fails.
+   */
+  private boolean produce(
+      @Nonnull TaskRegistration registration,
+      @Nonnull CloseableTaskResource output,
+      @Nonnull ExecutionState state,
+      boolean useCache) throws TaskException {
+    // when the pipeline is part of a cluster, the task is handed to a remote worker which claims
+    // the output artifact within the shared artifact backend on its own
+    if (this.clusterCoordinator != null) {
+      Optional<TaskResult> result;
+
+      try (Span span = this.tracer.start("dispatch", "Cluster dispatch")) {
+        result = this.clusterCoordinator.execute(registration, !useCache);
+        span.setAttribute("remote", result.isPresent());
+      }
+
+      if (result.isPresent()) {
+        return this.recordRemoteExecution(registration, state, result.get());
+      }
+    }
+
+    // since the cache does not contain a valid version of the task output (or no artifact is
+    // being used), we'll claim the output artifact to ensure that nobody else is producing it at
+    // the same time
+    try (ArtifactLock lock = this.lockOutputArtifact(registration)) {
+      // if somebody else held the claim before us, they may very well have produced a valid
+      // version of the artifact while we were waiting in which case we'll simply reuse it
+      if (lock.isContended() && useCache && this.isValidOutputArtifact(registration)) {
+        logger.info("Artifact has been created concurrently - Skipped");
+        return false;
+      }
+
+      this.executeTask(registration, output, state);
+      return true;
+    } catch (IOException ex) {
+      assert registration.outputArtifact != null;
+      throw new TaskExecutionException(
+          "Failed to release lock on artifact " + registration.outputArtifact.getIdentifier()
+              + ": " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Merges the result of a task which has been executed by a cluster worker into the state of the
+   * current pipeline execution.
+   *
+   * @param registration a registration.
+   * @param state the state of the current pipeline execution.
+   * @param result the result reported by the worker.
+   * @return true if the task has been executed, false if it has been skipped.
+   */
+  private boolean recordRemoteExecution(
+      @Nonnull TaskRegistration registration,
+      @Nonnull ExecutionState state,
+      @Nonnull TaskResult result) {
+    TaskRecord record = state.getRecord(registration);
+    record.cpuTime = result.getCpuTime();
+    record.resolvedArtifacts.putAll(result.getResolvedArtifacts());
+    record.temporaryBytes = result.getTemporaryBytes();
+    result.getIoStatistics().ifPresent((io) -> {
+      state.ioStatistics.add(io);
+      record.ioStatistics = io;
+    });
+
+    if (result.getStatus() != Status.EXECUTED) {
+      logger.info("Artifact has been created concurrently - Skipped");
+      return false;
+    }
+
+    if (result.getPublishedArtifact().isPresent()) {
+      record.publishedArtifact = result.getPublishedArtifact().get();
+      record.publishedBytes = result.getPublishedBytes();
+      state.changedArtifacts.add(registration.outputArtifact);
+    }
+
+    this.statistics.record(registration.getStatisticsKey(),
+        TimeUnit.NANOSECONDS.toMillis(result.getWallTime()));
+    return true;
+  }
+
+  /**
+   * Resolves the inputs of a task, executes it and writes its output back to the artifact manager
+   * (if desired).
+   *
+   * @param registration a registration.
+   * @param output a wrapped output path.
+   * @param state the state of the current pipeline execution.
+   * @throws TaskException when the execution fails.
+   */
+  private void executeTask(
+      @Nonnull TaskRegistration registration,
+      @Nonnull CloseableTaskResource output,
+      @Nonnull ExecutionState state) throws TaskException {
+    long start = System.nanoTime();
+    TaskRecord record = state.getRecord(registration);
+
+    CloseableResource<Map<ArtifactReference, Artifact>, IOException> resolvedArtifacts;
+    Map<ArtifactReference, Path> artifactPaths = new HashMap<>();
+    AccountingFileSystem fileSystem = this.ioAccounting ? new AccountingFileSystem() : null;
+
+    try (Span span = this.tracer.start("resolve", "Input resolution")) {
+      resolvedArtifacts = this.resolveArtifacts(registration);
+      span.setAttribute("artifacts", resolvedArtifacts.getResource().size());
+
+      if (this.artifactManager != null) {
+        span.setAttribute("manager", this.artifactManager.getClass().getSimpleName());
       }
 
-      // since the cache does not contain a valid version of the task output (or no artifact is
-      // being used), we have no choice but to execute the task
-      try (CloseableResource<Map<String, Path>, IOException> parameterResource = this
-          .populateParameterMap(registration)) {
-        try (ContextImpl ctx = new ContextImpl(this.artifactManager, input.getResource(),
-            output.getResource(), parameterResource.getResource())) {
+      resolvedArtifacts.getResource().forEach((reference, artifact) -> {
+        Path path = artifact.getPath();
+        artifactPaths.put(reference, path);
+        record.resolvedArtifacts
+            .put(reference.getIdentifier(), path == null ? 0 : FileSizes.sizeOrZero(path));
+      });
+      span.setAttribute("bytes", record.resolvedArtifacts.values().stream()
+          .mapToLong(Long::longValue)
+          .sum());
+    }
+
+    // the context takes ownership of the resolved artifacts and releases them along with the
+    // temporary files of the task
+    ContextImpl context = new ContextImpl(this.artifactManager, fileSystem, resolvedArtifacts,
+        this.getInputPath(registration, artifactPaths), output.getResource(),
+        output.artifact,
+        this.populateParameterMap(registration, artifactPaths));
+
+    try (ContextImpl ctx = context) {
+      try (Span span = this.tracer.start("execute", "Execution")) {
+        try {
           registration.task.execute(ctx);
+        } finally {
+          if (fileSystem != null) {
+            IoStatistics io = fileSystem.getStatistics();
+            span.setAttribute("bytesRead", io.getBytesRead());
+            span.setAttribute("bytesWritten", io.getBytesWritten());
+            span.setAttribute("filesOpened", io.getFilesOpened());
+            span.setAttribute("syncs", io.getSyncs());
+
+            logger.info("Task I/O: {}", io);
+            state.ioStatistics.add(io);
+            record.ioStatistics = io;
+          }
         }
-      } catch (IOException ex) {
-        throw new TaskExecutionException(
-            "Failed to close one or more artifact handles: " + ex.getMessage(), ex);
       }
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to close one or more artifact handles: " + ex.getMessage(), ex);
+    } finally {
+      record.temporaryBytes = context.temporaryBytes;
+    }
 
-      // if caching the task output in an artifact is desired, we'll have to write the task output
-      // back to the artifact manager here
-      if (registration.outputArtifact != null) {
+    // if caching the task output in an artifact is desired, we'll have to write the task output
+    // back to the artifact manager here
+    if (registration.outputArtifact != null) {
+      try (Span span = this.tracer.start("publish", "Artifact publication")) {
         assert this.artifactManager != null;
+        span.setAttribute("artifact", registration.outputArtifact.getIdentifier());
+        span.setAttribute("manager", this.artifactManager.getClass().getSimpleName());
         assert output.getResource() != null;
-
-        try {
-          this.artifactManager.createArtifact(registration.outputArtifact, output.getResource());
-        } catch (IOException ex) {
-          throw new TaskExecutionException(
-              "Failed to store task output in artifact " + registration.outputArtifact
-                  .getIdentifier() + ": " + ex.getMessage(), ex);
+        long bytes = FileSizes.sizeOrZero(output.getResource());
+        boolean changed = this.publish(registration, output, state);
+        span.setAttribute("changed", changed);
+        span.setAttribute("bytes", bytes);
+
+        if (changed) {
+          record.publishedArtifact = registration.outputArtifact.getIdentifier();
+          record.publishedBytes = bytes;
         }
       }
     }
+
+    this.statistics.record(registration.getStatisticsKey(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Writes the output of a task back to its output artifact unless it is identical to the
+   * previously cached version of the artifact.
+   *
+   * @param registration a registration.
+   * @param output a wrapped output path.
+   * @param state the state of the current pipeline execution.
+   * @return true if the artifact has been changed, false otherwise.
+   * @throws TaskExecutionException when storing the artifact fails.
+   */
+  private boolean publish(
+      @Nonnull TaskRegistration registration,
+      @Nonnull CloseableTaskResource output,
+      @Nonnull ExecutionState state) throws TaskExecutionException {
+    assert this.artifactManager != null;
+    assert registration.outputArtifact != null;
+    assert output.getResource() != null;
+
+    // when the task happens to produce exactly the same output as before, we'll keep the
+    // existing artifact (including its timestamps) and thus permit dependant tasks to rely on
+    // their cached outputs
+    if (output.artifact != null && this.isIdentical(output.artifact, output.getResource())) {
+      logger.info("Task output is identical to cached artifact - Retained");
+      return false;
+    }
+
+    try {
+      this.artifactManager.createArtifact(registration.outputArtifact, output.getResource());
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to store task output in artifact " + registration.outputArtifact
+              .getIdentifier() + ": " + ex.getMessage(), ex);
+    }
+
+    state.changedArtifacts.add(registration.outputArtifact);
+    return true;
+  }
+
+  /**
+   * <p>Evaluates whether the contents of a task output are identical to a previously cached
+   * artifact.</p>
+   *
+   * <p>Sizes are compared first in order to avoid hashing outputs which differ in length.</p>
+   *
+   * @param artifact a cached artifact.
+   * @param outputPath a task output path.
+   * @return true if identical, false otherwise.
+   */
+  private boolean isIdentical(@Nonnull Artifact artifact, @Nonnull Path outputPath) {
+    if (Files.notExists(outputPath)) {
+      return false;
+    }
+
+    try {
+      if (artifact.getSize() != FileSizes.size(outputPath)) {
+        return false;
+      }
+
+      return MessageDigest.isEqual(artifact.getDigest(), Digests.digest(outputPath));
+    } catch (IOException ex) {
+      logger.warn("Failed to compare task output with cached artifact: {}", ex.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Acquires a lock on the output artifact of a task registration (if any).
+   *
+   * @param registration a registration.
+   * @return a lock.
+   * @throws TaskExecutionException when acquiring the lock fails.
+   */
+  @Nonnull
+  private ArtifactLock lockOutputArtifact(@Nonnull TaskRegistration registration)
+      throws TaskExecutionException {
+    if (registration.outputArtifact == null) {
+      return ArtifactLock.uncontended();
+    }
+
+    assert this.artifactManager != null;
+
+    try {
+      return this.artifactManager.lockArtifact(registration.outputArtifact);
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to acquire lock on artifact " + registration.outputArtifact.getIdentifier()
+              + ": " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Re-evaluates whether a valid version of the output artifact of a task registration exists
+   * within the artifact manager.
+   *
+   * @param registration a registration.
+   * @return true if a valid artifact exists, false otherwise.
+   * @throws TaskExecutionException when accessing the artifact fails.
+   */
+  private boolean isValidOutputArtifact(@Nonnull TaskRegistration registration)
+      throws TaskExecutionException {
+    assert this.artifactManager != null;
+    assert registration.outputArtifact != null;
+
+    try {
+      Artifact artifact = this.artifactManager.getArtifact(registration.outputArtifact)
+          .orElse(null);
+
+      if (artifact == null) {
+        return false;
+      }
+
+      try {
+        return registration.task.isValidArtifact(artifact, artifact.getPath());
+      } finally {
+        artifact.close();
+      }
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to access artifact " + registration.outputArtifact.getIdentifier() + ": " + ex
+              .getMessage(), ex);
+    }
   }
 
   /**
-   * Retrieves a wrapped input path which is automatically cleaned up at the end of its lifecycle.
+   * <p>Resolves all artifacts which are consumed by a task registration (e.g. its input artifact
+   * as well as its artifact parameters) using a single call to the artifact manager.</p>
+   *
+   * <p>The returned resource releases all resolved artifacts at the end of its lifecycle. Note
+   * that artifacts which could not be located are simply omitted from the resulting map.</p>
    *
    * @param registration a task registration.
-   * @return a wrapped input path.
-   * @throws TaskDependencyException when an input artifact is specified but no cached version
-   * exists.
+   * @return a wrapped map of references and their respective artifacts.
+   * @throws TaskDependencyException when one or more artifacts are referenced but no artifact
+   * manager is configured or when accessing an artifact fails.
    */
   @Nonnull
-  private CloseableTaskResource getInputPath(
+  private CloseableResource<Map<ArtifactReference, Artifact>, IOException> resolveArtifacts(
       @Nonnull TaskRegistration registration) throws TaskDependencyException {
-    // if we've been given a specific input file, we'll simply wrap the path and return it as-is as
-    // we have no real reason to do any cleanup
-    if (registration.inputFile != null) {
-      return new CloseableTaskResource(registration.inputFile, null, () -> {
+    Set<ArtifactReference> references = new HashSet<>(registration.artifactParameters.values());
+
+    if (registration.inputArtifact != null) {
+      references.add(registration.inputArtifact);
+    }
+
+    if (references.isEmpty()) {
+      return new CloseableResource<>(Collections.emptyMap(), () -> {
       });
     }
 
-    // otherwise things are a little more complex as we'll have to find the referenced artifact and
-    // wrap it for the purposes of this call
-    if (registration.inputArtifact != null) {
-      // since users can omit the artifact manager in cases where no task relies on it, we'll have
-      // to ensure that there is one configured in this pipeline as well
-      if (this.artifactManager == null) {
+    // since users can omit the artifact manager in cases where no task relies on it, we'll have
+    // to ensure that there is one configured in this pipeline as well
+    if (this.artifactManager == null) {
+      if (registration.inputArtifact != null) {
         throw new TaskDependencyException(
             "Unsatisfied task input: Cannot resolve artifact " + registration.inputArtifact
                 .getIdentifier() + " without configured artifact manager");
       }
 
-      try {
-        Artifact artifact = this.artifactManager.getArtifact(registration.inputArtifact)
-            .orElseThrow(() -> new TaskDependencyException(
-                "Unsatisfied task input: Cannot find cached version of artifact "
-                    + registration.inputArtifact.getIdentifier()));
+      throw new TaskDependencyException(
+          "Unsatisfied task output: Cannot resolve artifact parameters without configured artifact manager");
+    }
+
+    try {
+      Map<ArtifactReference, Artifact> artifacts = this.artifactManager.getArtifacts(references);
 
-        return new CloseableTaskResource(artifact.getPath(), artifact, () -> {
+      return new CloseableResource<>(artifacts, () -> {
+        IOException exception = null;
+
+        // the same artifact may be referenced multiple times (e.g. as input and parameter) which
+        // is why we'll make sure to only release each handle once
+        for (Artifact artifact : new HashSet<>(artifacts.values())) {
           try {
             artifact.close();
           } catch (IOException ex) {
-            throw new TaskExecutionException(
-                "Failed to release input artifact " + registration.inputArtifact.getIdentifier()
-                    + ": " + ex.getMessage(), ex);
+            if (exception == null) {
+              exception = ex;
+            } else {
+              exception.addSuppressed(ex);
+            }
           }
-        });
-      } catch (IOException ex) {
+        }
+
+        if (exception != null) {
+          throw exception;
+        }
+      });
+    } catch (IOException ex) {
+      throw new TaskDependencyException(
+          "Unsatisfied task dependency: Cannot access one or more cached artifacts: " + ex
+              .getMessage(), ex);
+    }
+  }
+
+  /**
+   * Retrieves the input path for a task registration.
+   *
+   * @param registration a task registration.
+   * @param artifacts a map of previously resolved artifacts and their respective paths.
+   * @return an input path or null if no input has been specified.
+   * @throws TaskDependencyException when an input artifact is specified but no cached version
+   * exists.
+   */
+  @Nullable
+  private Path getInputPath(
+      @Nonnull TaskRegistration registration,
+      @Nonnull Map<ArtifactReference, Path> artifacts) throws TaskDependencyException {
+    // if we've been given a specific input file, we'll simply pass the path as-is
+    if (registration.inputFile != null) {
+      return registration.inputFile;
+    }
+
+    // otherwise we'll have to look up the artifact which has been resolved for this registration
+    if (registration.inputArtifact != null) {
+      Path path = artifacts.get(registration.inputArtifact);
+
+      if (path == null) {
         throw new TaskDependencyException(
-            "Unsatisfied task input: Cannot access cached version of artifact "
-                + registration.inputArtifact.getIdentifier() + ": " + ex.getMessage(), ex);
+            "Unsatisfied task input: Cannot find cached version of artifact "
+                + registration.inputArtifact.getIdentifier());
       }
+
+      return path;
     }
 
-    // if no input has been specified at all, we'll simply wrap null
-    return new CloseableTaskResource(null, null, () -> {
-    });
+    // if no input has been specified at all, we'll simply pass null
+    return null;
   }
 
   /**
    * Retrieves a wrapped output path which is automatically cleaned up at the end of its lifecycle.
    *
    * @param registration a task registration.
+   * @param cache a previously evaluated cache entry (if any).
    * @return a wrapped output path.
    * @throws TaskDependencyException when an output artifact is specified but no artifact manager is
    * configured.
@@ -205,7 +1795,8 @@ public final class Pipeline {
    */
   @Nonnull
   private CloseableTaskResource getOutputPath(
-      @Nonnull TaskRegistration registration) throws TaskException {
+      @Nonnull TaskRegistration registration,
+      @Nullable CacheEntry cache) throws TaskException {
     // if we've been given a specific output file, we'll simply wrap the path and return it as-is as
     // we have no real reason to do any cleanup
     if (registration.outputFile != null) {
@@ -229,11 +1820,20 @@ public final class Pipeline {
         Path basePath = Files.createTempDirectory("blackwater_task_");
         Path outputPath = basePath.resolve("output");
 
-        Artifact artifact = this.artifactManager.getArtifact(registration.outputArtifact)
-            .orElse(null);
+        Artifact artifact;
+
+        if (cache != null) {
+          artifact = cache.artifact;
+        } else {
+          artifact = this.artifactManager.getArtifact(registration.outputArtifact).orElse(null);
+        }
 
         return new CloseableTaskResource(outputPath, artifact, () -> {
-          try {
+          try (Span span = this.tracer.start("cleanup", "Output cleanup")) {
+            if (span.isRecording()) {
+              span.setAttribute("bytes", FileSizes.sizeOrZero(basePath));
+            }
+
             Iterator<Path> it = Files.walk(basePath)
                 .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
                 .iterator();
@@ -261,97 +1861,256 @@ public final class Pipeline {
    * Populates a map of parameters based on a task registration.
    *
    * @param registration a registration.
+   * @param artifacts a map of previously resolved artifacts and their respective paths.
    * @return a map of parameter paths.
    * @throws TaskDependencyException when an artifact fails to resolve.
    */
   @NonNull
-  private CloseableResource<Map<String, Path>, IOException> populateParameterMap(
-      @NonNull TaskRegistration registration) throws TaskDependencyException {
+  private Map<String, Path> populateParameterMap(
+      @NonNull TaskRegistration registration,
+      @NonNull Map<ArtifactReference, Path> artifacts) throws TaskDependencyException {
     Map<String, Path> parameters = new HashMap<>(registration.pathParameters);
 
-    if (registration.artifactParameters.isEmpty()) {
-      return new CloseableResource<>(parameters, () -> {
-      });
+    for (Map.Entry<String, ArtifactReference> entry : registration.artifactParameters.entrySet()) {
+      Path path = artifacts.get(entry.getValue());
+
+      if (path == null) {
+        throw new TaskDependencyException(
+            "Unsatisfied task parameter: Cannot resolve artifact " + entry.getValue()
+                .getIdentifier() + " for parameter \"" + entry.getKey() + "\"");
+      }
+
+      parameters.put(entry.getKey(), path);
     }
 
-    if (this.artifactManager == null) {
-      throw new TaskDependencyException(
-          "Unsatisfied task output: Cannot resolve artifact parameters without configured artifact manager");
+    return parameters;
+  }
+
+  /**
+   * Provides a factory for pipeline instances.
+   */
+  public static final class Builder {
+
+    private ArtifactManager artifactManager;
+    private ExecutionCoordinator executionCoordinator = ExecutionCoordinator.getDefault();
+    private ClusterCoordinator clusterCoordinator;
+    private Path statisticsFile;
+    private int parallelism = 1;
+    private boolean ioAccounting;
+    private final Map<ResourceClass, Integer> resourcePermits = new EnumMap<>(
+        ResourceClass.class);
+    private final List<Tracer> tracers = new ArrayList<>();
+    private final List<Consumer<PipelineResult>> resultListeners = new ArrayList<>();
+    private final List<TaskRegistration> registrations = new ArrayList<>();
+
+    private Builder() {
     }
 
-    Set<Artifact> artifacts = new HashSet<>();
+    /**
+     * Passes the local builder object to the supplied consumer implementation to permit
+     * externalized configuration without requiring a break up of the builder configuration itself.
+     *
+     * @param consumer an arbitrary consumer.
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder apply(@NonNull Consumer<Builder> consumer) {
+      consumer.accept(this);
+      return this;
+    }
 
-    for (Map.Entry<String, ArtifactReference> entry : registration.artifactParameters.entrySet()) {
-      try {
-        Artifact artifact = this.artifactManager.getArtifact(entry.getValue())
-            .orElseThrow(() -> new TaskDependencyException(
-                "Unsatisfied task parameter: Cannot resolve artifact " + entry.getValue()
-                    .getIdentifier() + " for parameter \"" + entry.getKey() + "\""));
+    /**
+     * Constructs a new pipeline using the configuration within this builder.
+     *
+     * @return a pipeline.
+     */
+    @Nonnull
+    public Pipeline build() {
+      return new Pipeline(this.artifactManager, this.executionCoordinator,
+          this.clusterCoordinator, this.registrations, this.statisticsFile, this.parallelism,
+          this.resourcePermits, this.ioAccounting, this.tracers, this.resultListeners);
+    }
+
+    /**
+     * Selects an artifact manager to retrieve/store artifacts from/in to speed up the pipeline
+     * execution.
+     *
+     * @param artifactManager a custom artifact manager.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withArtifactManager(@Nonnull ArtifactManager artifactManager) {
+      this.artifactManager = artifactManager;
+      return this;
+    }
+
+    /**
+     * <p>Selects a coordinator which distributes the execution of tasks across a set of remote
+     * workers.</p>
+     *
+     * <p>Tasks are still scheduled by the pipeline itself which is why its parallelism (see {@link
+     * #withParallelism(int)}) should match the total amount of worker slots in order to saturate
+     * the cluster. Registrations which cannot be distributed are executed locally. By default,
+     * all tasks are executed locally.</p>
+     *
+     * @param clusterCoordinator a coordinator.
+     * @return a reference to this builder.
+     * @see ClusterCoordinator
+     */
+    @Nonnull
+    public Builder withClusterCoordinator(@Nonnull ClusterCoordinator clusterCoordinator) {
+      this.clusterCoordinator = clusterCoordinator;
+      return this;
+    }
+
+    /**
+     * <p>Selects the coordinator which is used to share executions of identical tasks with other
+     * pipelines.</p>
+     *
+     * <p>By default, all pipelines within the virtual machine rely on the same coordinator (see
+     * {@link ExecutionCoordinator#getDefault()}).</p>
+     *
+     * @param executionCoordinator a coordinator.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withExecutionCoordinator(@Nonnull ExecutionCoordinator executionCoordinator) {
+      this.executionCoordinator = executionCoordinator;
+      return this;
+    }
+
+    /**
+     * <p>Selects whether the file system operations of tasks are to be accounted for.</p>
+     *
+     * <p>When enabled, all paths which are passed to tasks via their context belong to an {@link
+     * AccountingFileSystem} which records the amount of bytes read and written, files opened and
+     * syncs performed by each task. The statistics are logged once the task completes, attached to
+     * its execution span and summarized at the end of each pipeline execution. Note that tasks
+     * which hand paths to external processes or libraries (via {@link Path#toFile()}) bypass the
+     * accounting.</p>
+     *
+     * <p>By default, accounting is disabled.</p>
+     *
+     * @param ioAccounting true if accounting is desired, false otherwise.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withIoAccounting(boolean ioAccounting) {
+      this.ioAccounting = ioAccounting;
+      return this;
+    }
 
-        artifacts.add(artifact);
-        parameters.put(entry.getKey(), artifact.getPath());
-      } catch (IOException ex) {
-        throw new TaskDependencyException(
-            "Unsatisfied task parameter: Failed to access artifact " + entry.getValue()
-                .getIdentifier() + " for parameter \"" + entry.getKey() + "\": " + ex.getMessage(),
-            ex);
-      }
+    /**
+     * <p>Adds a listener which is notified with the result of each pipeline execution.</p>
+     *
+     * <p>Listeners are notified regardless of whether the execution succeeds or fails and are
+     * thus the only means of obtaining the results of failed executions (as {@link
+     * Pipeline#execute()} throws an exception instead of returning a result in this case).</p>
+     *
+     * @param listener a listener.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withResultListener(@Nonnull Consumer<PipelineResult> listener) {
+      this.resultListeners.add(listener);
+      return this;
     }
 
-    return new CloseableResource<>(parameters, () -> {
-      for (Artifact artifact : artifacts) {
-        artifact.close();
+    /**
+     * <p>Selects the maximum amount of tasks which may be executed concurrently.</p>
+     *
+     * <p>By default, all tasks are executed sequentially on the thread which invokes {@link
+     * Pipeline#execute()}.</p>
+     *
+     * @param parallelism a maximum amount of concurrent tasks.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when the parallelism is less than one.
+     */
+    @Nonnull
+    public Builder withParallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException(
+            "Illegal parallelism: Expected at least one but got " + parallelism);
       }
-    });
-  }
-
-  /**
-   * Provides a factory for pipeline instances.
-   */
-  public static final class Builder {
-
-    private ArtifactManager artifactManager;
-    private final List<TaskRegistration> registrations = new ArrayList<>();
 
-    private Builder() {
+      this.parallelism = parallelism;
+      return this;
     }
 
     /**
-     * Passes the local builder object to the supplied consumer implementation to permit
-     * externalized configuration without requiring a break up of the builder configuration itself.
+     * <p>Selects the maximum amount of permits which are available to concurrently executed tasks
+     * within the specified resource class.</p>
      *
-     * @param consumer an arbitrary consumer.
+     * <p>Each task declares the amount of permits it consumes while being executed (see {@link
+     * Task#getResourceWeights()}) and will only be started once sufficient permits are available.
+     * By default, resource classes are only limited by the parallelism of the pipeline.</p>
+     *
+     * @param resourceClass a resource class.
+     * @param permits a maximum amount of permits.
      * @return a reference to this builder.
+     * @throws IllegalArgumentException when the amount of permits is less than one.
      */
-    @NonNull
-    public Builder apply(@NonNull Consumer<Builder> consumer) {
-      consumer.accept(this);
+    @Nonnull
+    public Builder withResourcePermits(@Nonnull ResourceClass resourceClass, int permits) {
+      if (permits < 1) {
+        throw new IllegalArgumentException(
+            "Illegal amount of permits: Expected at least one but got " + permits);
+      }
+
+      this.resourcePermits.put(resourceClass, permits);
       return this;
     }
 
     /**
-     * Constructs a new pipeline using the configuration within this builder.
+     * <p>Selects a file in which the durations of task executions are recorded.</p>
      *
-     * @return a pipeline.
+     * <p>Recorded durations are used to prioritize long running tasks (and the tasks they depend
+     * on) during future executions. When no file is selected, durations are only retained for
+     * the lifetime of the pipeline.</p>
+     *
+     * @param statisticsFile a statistics file.
+     * @return a reference to this builder.
      */
     @Nonnull
-    public Pipeline build() {
-      return new Pipeline(this.artifactManager, this.registrations);
+    public Builder withStatisticsFile(@Nonnull Path statisticsFile) {
+      this.statisticsFile = statisticsFile;
+      return this;
     }
 
     /**
-     * Selects an artifact manager to retrieve/store artifacts from/in to speed up the pipeline
-     * execution.
+     * <p>Adds a tracer which is notified about the timing of tasks and their respective phases
+     * (such as cache evaluation, input resolution, execution and artifact publication).</p>
      *
-     * @param artifactManager a custom artifact manager.
+     * <p>The tracer is activated (see {@link Tracing#activate(Tracer)}) while tasks are being
+     * executed and may thus also receive spans which are recorded by the tasks themselves.</p>
+     *
+     * @param tracer a tracer.
      * @return a reference to this builder.
+     * @see org.basinmc.blackwater.trace.ChromeTraceExporter
      */
     @Nonnull
-    public Builder withArtifactManager(@Nonnull ArtifactManager artifactManager) {
-      this.artifactManager = artifactManager;
+    public Builder withTracer(@Nonnull Tracer tracer) {
+      this.tracers.add(tracer);
       return this;
     }
 
+    /**
+     * <p>Appends a task to the factory configuration which is executed once for each of a
+     * collection of inputs.</p>
+     *
+     * <p>Each input is executed as a separate registration (a slice) with its own output artifact
+     * and may thus be cached and executed concurrently with all other inputs. The outputs of all
+     * slices may optionally be joined into an aggregate output on which following tasks may
+     * depend.</p>
+     *
+     * @param task a task.
+     * @return a reference to the fan-out builder.
+     */
+    @Nonnull
+    public FanOutBuilder withFanOut(@Nonnull Task task) {
+      return new FanOutBuilderImpl(task);
+    }
+
     /**
      * Appends a new task to the factory configuration.
      *
@@ -363,6 +2122,182 @@ public final class Pipeline {
       return new ParameterBuilderImpl(task);
     }
 
+    /**
+     * Provides a factory for fanned out task registrations.
+     */
+    private final class FanOutBuilderImpl implements FanOutBuilder {
+
+      private final Task task;
+      private boolean enforceExecution;
+
+      private ArtifactReference aggregateArtifact;
+      private Path aggregateFile;
+
+      private final Map<String, FanOutSlice> slices = new LinkedHashMap<>();
+      private final Map<String, ArtifactReference> artifactParameters = new HashMap<>();
+      private final Map<String, Path> pathParameters = new HashMap<>();
+
+      private FanOutBuilderImpl(@Nonnull Task task) {
+        this.task = task;
+      }
+
+      /**
+       * Adds a new slice to this builder.
+       *
+       * @param slice a slice.
+       * @return a reference to this builder.
+       * @throws IllegalArgumentException when the slice key is invalid or already in use.
+       */
+      @Nonnull
+      private FanOutBuilder addSlice(@Nonnull FanOutSlice slice) {
+        if (slice.key.isEmpty() || slice.key.equals(".") || slice.key.equals("..") || slice.key
+            .contains("/") || slice.key.contains("\\")) {
+          throw new IllegalArgumentException("Illegal slice key: \"" + slice.key + "\"");
+        }
+
+        if (this.slices.putIfAbsent(slice.key, slice) != null) {
+          throw new IllegalArgumentException("Duplicate slice key: \"" + slice.key + "\"");
+        }
+
+        return this;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public Builder register() throws TaskParameterException {
+        if (this.slices.isEmpty()) {
+          throw new TaskParameterException(
+              "Illegal task configuration: At least one input is required");
+        }
+
+        // since all slices share the same parameters, any configuration issue will be reported by
+        // the first slice before any registrations are actually added to the pipeline
+        for (FanOutSlice slice : this.slices.values()) {
+          ParameterBuilderImpl builder = new ParameterBuilderImpl(
+              new FanOutSliceTask(this.task, slice.key));
+
+          if (slice.inputArtifact != null) {
+            builder.withInputArtifact(slice.inputArtifact);
+          } else {
+            assert slice.inputFile != null;
+            builder.withInputFile(slice.inputFile);
+          }
+
+          builder.withOutputArtifact(slice.outputArtifact);
+          builder.withForcedExecution(this.enforceExecution);
+          builder.artifactParameters.putAll(this.artifactParameters);
+          builder.pathParameters.putAll(this.pathParameters);
+          builder.register();
+        }
+
+        if (this.aggregateArtifact == null && this.aggregateFile == null) {
+          return Builder.this;
+        }
+
+        ParameterBuilderImpl builder = new ParameterBuilderImpl(
+            new FanOutJoinTask(this.task.getName(), this.slices.keySet()));
+
+        for (FanOutSlice slice : this.slices.values()) {
+          builder.withParameter(slice.key, slice.outputArtifact);
+        }
+
+        if (this.aggregateArtifact != null) {
+          builder.withOutputArtifact(this.aggregateArtifact);
+        } else {
+          builder.withOutputFile(this.aggregateFile);
+        }
+
+        return builder.register();
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public FanOutBuilder withAggregateArtifact(@Nonnull ArtifactReference artifact) {
+        this.aggregateFile = null;
+        this.aggregateArtifact = artifact;
+        return this;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public FanOutBuilder withAggregateFile(@Nonnull Path file) {
+        this.aggregateArtifact = null;
+        this.aggregateFile = file;
+        return this;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public FanOutBuilder withInputArtifact(@Nonnull String key,
+          @Nonnull ArtifactReference input, @Nonnull ArtifactReference output) {
+        return this.addSlice(new FanOutSlice(key, input, null, output));
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public FanOutBuilder withInputFile(@Nonnull String key, @Nonnull Path input,
+          @Nonnull ArtifactReference output) {
+        return this.addSlice(new FanOutSlice(key, null, input, output));
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @NonNull
+      @Override
+      public FanOutBuilder withParameter(@NonNull String name,
+          @NonNull ArtifactReference artifact) throws TaskParameterException {
+        if (!this.task.getAvailableParameterNames().contains(name)) {
+          throw new TaskParameterException("No such parameter: " + name);
+        }
+
+        this.pathParameters.remove(name);
+        this.artifactParameters.put(name, artifact);
+        return this;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @NonNull
+      @Override
+      public FanOutBuilder withParameter(@NonNull String name, @NonNull Path file)
+          throws TaskParameterException {
+        if (!this.task.getAvailableParameterNames().contains(name)) {
+          throw new TaskParameterException("No such parameter: " + name);
+        }
+
+        this.artifactParameters.remove(name);
+        this.pathParameters.put(name, file);
+        return this;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Nonnull
+      @Override
+      public FanOutBuilder withForcedExecution(boolean value) {
+        this.enforceExecution = value;
+        return this;
+      }
+    }
+
     /**
      * Provides a factory for task registrations.
      */
@@ -422,6 +2357,7 @@ public final class Pipeline {
         }
 
         Builder.this.registrations.add(new TaskRegistration(
+            Builder.this.registrations.size(),
             this.task,
             this.enforceExecution,
             this.inputArtifact,
@@ -542,28 +2478,67 @@ public final class Pipeline {
   }
 
   /**
-   * Provides contextual information to tasks and manages their respective temporary files.
+   * Represents the result of an evaluation of the artifact cache for a single task registration.
+   */
+  private static final class CacheEntry {
+
+    private final Artifact artifact;
+    private final Boolean valid;
+
+    private CacheEntry(@Nullable Artifact artifact, @Nullable Boolean valid) {
+      this.artifact = artifact;
+      this.valid = valid;
+    }
+  }
+
+  /**
+   * Represents the completion of a single task registration.
+   */
+  private static final class Completion {
+
+    private final int index;
+    private final Throwable failure;
+
+    private Completion(int index, @Nullable Throwable failure) {
+      this.index = index;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Provides contextual information to tasks and manages their respective temporary files as well
+   * as resolved input artifacts.
    */
   private static final class ContextImpl implements AutoCloseable, Task.Context {
 
     private final ArtifactManager artifactManager;
+    private final AccountingFileSystem fileSystem;
+    private final CloseableResource<Map<ArtifactReference, Artifact>, IOException> artifacts;
 
     private final Path inputPath;
     private final Path outputPath;
+    private final Artifact previousOutput;
     private final Map<String, Path> parameters;
 
     private final List<Path> temporaryDirectories = new ArrayList<>();
     private final List<Path> temporaryFiles = new ArrayList<>();
+    private long temporaryBytes;
 
     private ContextImpl(
         @Nullable ArtifactManager artifactManager,
+        @Nullable AccountingFileSystem fileSystem,
+        @NonNull CloseableResource<Map<ArtifactReference, Artifact>, IOException> artifacts,
         @Nullable Path inputPath,
         @Nullable Path outputPath,
+        @Nullable Artifact previousOutput,
         @NonNull Map<String, Path> parameters) {
       this.artifactManager = artifactManager;
+      this.fileSystem = fileSystem;
+      this.artifacts = artifacts;
 
       this.inputPath = inputPath;
       this.outputPath = outputPath;
+      this.previousOutput = previousOutput;
       this.parameters = parameters;
     }
 
@@ -572,6 +2547,25 @@ public final class Pipeline {
      */
     @Override
     public void close() throws IOException {
+      try (Span span = Tracing.start("cleanup", "Temporary file cleanup")) {
+        this.temporaryBytes = Stream.concat(this.temporaryDirectories.stream(),
+            this.temporaryFiles.stream())
+            .mapToLong(FileSizes::sizeOrZero)
+            .sum();
+        span.setAttribute("bytes", this.temporaryBytes);
+
+        this.deleteTemporaryFiles();
+      } finally {
+        this.artifacts.close();
+      }
+    }
+
+    /**
+     * Deletes all temporary files and directories which have been allocated by the task.
+     *
+     * @throws IOException when deleting one or more files fails.
+     */
+    private void deleteTemporaryFiles() throws IOException {
       try {
         Iterator<Path> it = this.temporaryDirectories.iterator();
 
@@ -638,7 +2632,7 @@ public final class Pipeline {
     public Path allocateTemporaryDirectory() throws IOException {
       Path directory = Files.createTempDirectory("blackwater_task_");
       this.temporaryDirectories.add(directory);
-      return directory;
+      return this.wrap(directory);
     }
 
     /**
@@ -649,7 +2643,7 @@ public final class Pipeline {
     public Path allocateTemporaryFile() throws IOException {
       Path file = Files.createTempFile("blackwater_task_", ".tmp");
       this.temporaryFiles.add(file);
-      return file;
+      return this.wrap(file);
     }
 
     /**
@@ -667,7 +2661,7 @@ public final class Pipeline {
     @Nonnull
     @Override
     public Optional<Path> getInputPath() {
-      return Optional.ofNullable(this.inputPath);
+      return Optional.ofNullable(this.inputPath).map(this::wrap);
     }
 
     /**
@@ -676,7 +2670,7 @@ public final class Pipeline {
     @Nonnull
     @Override
     public Optional<Path> getOutputPath() {
-      return Optional.ofNullable(this.outputPath);
+      return Optional.ofNullable(this.outputPath).map(this::wrap);
     }
 
     /**
@@ -685,44 +2679,142 @@ public final class Pipeline {
     @NonNull
     @Override
     public Optional<Path> getParameterPath(@NonNull String name) {
-      return Optional.ofNullable(this.parameters.get(name));
+      return Optional.ofNullable(this.parameters.get(name)).map(this::wrap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Optional<Path> getPreviousOutputPath() {
+      return Optional.ofNullable(this.previousOutput)
+          .map(Artifact::getPath)
+          .map(this::wrap);
+    }
+
+    /**
+     * Wraps a path in order to account for the file system operations which are performed on it
+     * (if accounting is enabled and the path belongs to the accounted file system).
+     *
+     * @param path a path.
+     * @return a wrapped path or the original path.
+     */
+    @Nonnull
+    private Path wrap(@Nonnull Path path) {
+      if (this.fileSystem == null || path.getFileSystem() != this.fileSystem.getDelegate()) {
+        return path;
+      }
+
+      return this.fileSystem.wrap(path);
     }
   }
 
   /**
-   * Represents a registered task and its respective execution and context parameters.
+   * Tracks the state of a single pipeline execution.
    */
-  private static final class TaskRegistration {
+  private static final class ExecutionState {
 
-    private final Task task;
-    private final boolean enforceExecution;
+    private final Set<ArtifactReference> changedArtifacts = ConcurrentHashMap.newKeySet();
+    private final IoStatistics ioStatistics = new IoStatistics();
+    private final Map<Integer, TaskRecord> records = new ConcurrentHashMap<>();
 
-    private final ArtifactReference inputArtifact;
-    private final ArtifactReference outputArtifact;
+    /**
+     * Creates a new record for the specified registration.
+     *
+     * @param registration a registration.
+     * @return a record.
+     */
+    @Nonnull
+    private TaskRecord createRecord(@Nonnull TaskRegistration registration) {
+      TaskRecord record = new TaskRecord();
+      this.records.put(registration.index, record);
+      return record;
+    }
 
-    private final Path inputFile;
-    private final Path outputFile;
+    /**
+     * Retrieves the record of the specified registration.
+     *
+     * @param registration a registration.
+     * @return a record.
+     */
+    @Nonnull
+    private TaskRecord getRecord(@Nonnull TaskRegistration registration) {
+      return this.records.computeIfAbsent(registration.index, (k) -> new TaskRecord());
+    }
 
-    private final Map<String, ArtifactReference> artifactParameters;
-    private final Map<String, Path> pathParameters;
+    /**
+     * Retrieves an artifact consumed by the specified registration which has been changed within
+     * this execution (if any).
+     *
+     * @param registration a registration.
+     * @return a changed artifact or an empty optional.
+     */
+    @Nonnull
+    private Optional<ArtifactReference> getChangedInput(@Nonnull TaskRegistration registration) {
+      if (registration.inputArtifact != null && this.changedArtifacts
+          .contains(registration.inputArtifact)) {
+        return Optional.of(registration.inputArtifact);
+      }
+
+      return registration.artifactParameters.values().stream()
+          .filter(this.changedArtifacts::contains)
+          .findFirst();
+    }
+  }
 
-    private TaskRegistration(
-        @Nonnull Task task,
-        boolean enforceExecution,
+  /**
+   * Represents a single input of a fanned out task and its respective output artifact.
+   */
+  private static final class FanOutSlice {
+
+    private final String key;
+    private final ArtifactReference inputArtifact;
+    private final Path inputFile;
+    private final ArtifactReference outputArtifact;
+
+    private FanOutSlice(
+        @Nonnull String key,
         @Nullable ArtifactReference inputArtifact,
-        @Nullable ArtifactReference outputArtifact,
         @Nullable Path inputFile,
-        @Nullable Path outputFile,
-        @NonNull Map<String, ArtifactReference> artifactParameters,
-        @NonNull Map<String, Path> pathParameters) {
-      this.task = task;
-      this.enforceExecution = enforceExecution;
+        @Nonnull ArtifactReference outputArtifact) {
+      this.key = key;
       this.inputArtifact = inputArtifact;
-      this.outputArtifact = outputArtifact;
       this.inputFile = inputFile;
-      this.outputFile = outputFile;
-      this.artifactParameters = new HashMap<>(artifactParameters);
-      this.pathParameters = new HashMap<>(pathParameters);
+      this.outputArtifact = outputArtifact;
+    }
+  }
+
+  /**
+   * Collects information about the execution of a single task registration.
+   */
+  private static final class TaskRecord {
+
+    private volatile Status status = Status.SKIPPED;
+    private volatile long wallTime;
+    private volatile long cpuTime;
+    private final Map<String, Long> resolvedArtifacts = new ConcurrentHashMap<>();
+    private volatile String publishedArtifact;
+    private volatile long publishedBytes;
+    private volatile long temporaryBytes;
+    private volatile IoStatistics ioStatistics;
+  }
+
+  /**
+   * Provides named daemon threads for the execution of tasks.
+   */
+  private static final class WorkerThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Thread newThread(@Nonnull Runnable runnable) {
+      Thread thread = new Thread(runnable, "blackwater-worker-" + this.counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     }
   }
 }
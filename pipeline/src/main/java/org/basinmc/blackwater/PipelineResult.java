@@ -0,0 +1,403 @@
+package org.basinmc.blackwater;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.fs.IoStatistics;
+import org.basinmc.blackwater.utility.Json;
+
+/**
+ * <p>Summarizes the execution of a pipeline.</p>
+ *
+ * <p>Results list all tasks which have been selected for execution in their order of registration
+ * and may be serialized using Java serialization or converted into a compact JSON representation
+ * (see {@link #toJson()}).</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see Pipeline#execute()
+ */
+public final class PipelineResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final long duration;
+  private final List<TaskResult> tasks;
+
+  PipelineResult(long duration, @Nonnull List<TaskResult> tasks) {
+    this.duration = duration;
+    this.tasks = Collections.unmodifiableList(new ArrayList<>(tasks));
+  }
+
+  /**
+   * Retrieves the total wall clock time of the pipeline execution.
+   *
+   * @return a duration in nanoseconds.
+   */
+  public long getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * Retrieves the amount of tasks which have completed with the specified status.
+   *
+   * @param status a status.
+   * @return an amount of tasks.
+   */
+  public int getTaskCount(@Nonnull Status status) {
+    return (int) this.tasks.stream()
+        .filter((t) -> t.status == status)
+        .count();
+  }
+
+  /**
+   * Retrieves the results of all tasks which have been selected for execution.
+   *
+   * @return a list of task results.
+   */
+  @Nonnull
+  public List<TaskResult> getTasks() {
+    return this.tasks;
+  }
+
+  /**
+   * Retrieves the total CPU time which has been consumed by all tasks.
+   *
+   * @return a duration in nanoseconds.
+   * @see TaskResult#getCpuTime()
+   */
+  public long getTotalCpuTime() {
+    return this.sum(TaskResult::getCpuTime);
+  }
+
+  /**
+   * Retrieves the total size of all artifacts which have been published.
+   *
+   * @return an amount of bytes.
+   */
+  public long getTotalPublishedBytes() {
+    return this.sum(TaskResult::getPublishedBytes);
+  }
+
+  /**
+   * Retrieves the total size of all artifacts which have been resolved (artifacts which are
+   * consumed by multiple tasks are counted once for each task).
+   *
+   * @return an amount of bytes.
+   */
+  public long getTotalResolvedBytes() {
+    return this.sum(
+        (t) -> t.resolvedArtifacts.values().stream().mapToLong(Long::longValue).sum());
+  }
+
+  /**
+   * Retrieves the total size of all temporary files which have been allocated by tasks.
+   *
+   * @return an amount of bytes.
+   */
+  public long getTotalTemporaryBytes() {
+    return this.sum(TaskResult::getTemporaryBytes);
+  }
+
+  /**
+   * Retrieves the total wall clock time which has been spent on all tasks (including tasks which
+   * have been executed concurrently).
+   *
+   * @return a duration in nanoseconds.
+   */
+  public long getTotalWallTime() {
+    return this.sum(TaskResult::getWallTime);
+  }
+
+  /**
+   * Computes the sum of a property over all tasks.
+   *
+   * @param property a property accessor.
+   * @return a sum.
+   */
+  private long sum(@Nonnull ToLongFunction<TaskResult> property) {
+    return this.tasks.stream()
+        .mapToLong(property)
+        .sum();
+  }
+
+  /**
+   * <p>Converts this result into a compact JSON representation.</p>
+   *
+   * <p>The document consists of the aggregate totals of the execution as well as an array of
+   * task results. All durations are given in milliseconds while sizes are given in bytes.</p>
+   *
+   * @return a JSON document.
+   */
+  @Nonnull
+  public String toJson() {
+    StringBuilder builder = new StringBuilder("{\"duration\":")
+        .append(toMillis(this.duration))
+        .append(",\"totals\":{");
+
+    for (Status status : Status.values()) {
+      Json.appendString(builder, status.name().toLowerCase())
+          .append(':')
+          .append(this.getTaskCount(status))
+          .append(',');
+    }
+
+    builder.append("\"wallTime\":").append(toMillis(this.getTotalWallTime()))
+        .append(",\"cpuTime\":").append(toMillis(this.getTotalCpuTime()))
+        .append(",\"resolvedBytes\":").append(this.getTotalResolvedBytes())
+        .append(",\"publishedBytes\":").append(this.getTotalPublishedBytes())
+        .append(",\"temporaryBytes\":").append(this.getTotalTemporaryBytes())
+        .append("},\"tasks\":[");
+
+    for (int i = 0; i < this.tasks.size(); ++i) {
+      if (i != 0) {
+        builder.append(',');
+      }
+
+      this.tasks.get(i).appendJson(builder);
+    }
+
+    return builder.append("]}").toString();
+  }
+
+  /**
+   * Converts a duration into milliseconds (retaining a fraction of a millisecond).
+   *
+   * @param nanos a duration in nanoseconds.
+   * @return a duration in milliseconds.
+   */
+  private static double toMillis(long nanos) {
+    return Math.round(nanos / 1_000D) / 1_000D;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format(
+        "%d executed, %d cached, %d skipped, %d failed in %.3f seconds (%.3f seconds CPU time)",
+        this.getTaskCount(Status.EXECUTED), this.getTaskCount(Status.CACHED),
+        this.getTaskCount(Status.SKIPPED), this.getTaskCount(Status.FAILED),
+        this.duration / 1_000_000_000D, this.getTotalCpuTime() / 1_000_000_000D);
+  }
+
+  /**
+   * Provides a list of possible task outcomes.
+   */
+  public enum Status {
+
+    /**
+     * The task has been executed successfully.
+     */
+    EXECUTED,
+
+    /**
+     * The task has been skipped as its output artifact was cached.
+     */
+    CACHED,
+
+    /**
+     * The task has not been executed since the pipeline execution was aborted due to a failure of
+     * another task.
+     */
+    SKIPPED,
+
+    /**
+     * The task execution has failed.
+     */
+    FAILED
+  }
+
+  /**
+   * Represents the outcome of a single task.
+   */
+  public static final class TaskResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final Status status;
+    private final long wallTime;
+    private final long cpuTime;
+    private final Map<String, Long> resolvedArtifacts;
+    private final String publishedArtifact;
+    private final long publishedBytes;
+    private final long temporaryBytes;
+    private final IoStatistics ioStatistics;
+
+    TaskResult(
+        @Nonnull String name,
+        @Nonnull Status status,
+        long wallTime,
+        long cpuTime,
+        @Nonnull Map<String, Long> resolvedArtifacts,
+        @Nullable String publishedArtifact,
+        long publishedBytes,
+        long temporaryBytes,
+        @Nullable IoStatistics ioStatistics) {
+      this.name = name;
+      this.status = status;
+      this.wallTime = wallTime;
+      this.cpuTime = cpuTime;
+      this.resolvedArtifacts = Collections.unmodifiableMap(new LinkedHashMap<>(resolvedArtifacts));
+      this.publishedArtifact = publishedArtifact;
+      this.publishedBytes = publishedBytes;
+      this.temporaryBytes = temporaryBytes;
+      this.ioStatistics = ioStatistics;
+    }
+
+    /**
+     * Appends a JSON representation of this result to the supplied builder.
+     *
+     * @param builder a builder.
+     */
+    private void appendJson(@Nonnull StringBuilder builder) {
+      builder.append("{\"name\":");
+      Json.appendString(builder, this.name)
+          .append(",\"status\":");
+      Json.appendString(builder, this.status.name().toLowerCase())
+          .append(",\"wallTime\":").append(toMillis(this.wallTime))
+          .append(",\"cpuTime\":").append(toMillis(this.cpuTime));
+
+      if (!this.resolvedArtifacts.isEmpty()) {
+        builder.append(",\"resolved\":{");
+        boolean first = true;
+
+        for (Map.Entry<String, Long> artifact : this.resolvedArtifacts.entrySet()) {
+          if (!first) {
+            builder.append(',');
+          }
+          first = false;
+
+          Json.appendString(builder, artifact.getKey())
+              .append(':')
+              .append(artifact.getValue());
+        }
+
+        builder.append('}');
+      }
+
+      if (this.publishedArtifact != null) {
+        builder.append(",\"published\":{");
+        Json.appendString(builder, this.publishedArtifact)
+            .append(':')
+            .append(this.publishedBytes)
+            .append('}');
+      }
+
+      builder.append(",\"temporaryBytes\":").append(this.temporaryBytes);
+
+      if (this.ioStatistics != null) {
+        builder.append(",\"io\":{\"bytesRead\":").append(this.ioStatistics.getBytesRead())
+            .append(",\"bytesWritten\":").append(this.ioStatistics.getBytesWritten())
+            .append(",\"filesOpened\":").append(this.ioStatistics.getFilesOpened())
+            .append(",\"syncs\":").append(this.ioStatistics.getSyncs())
+            .append('}');
+      }
+
+      builder.append('}');
+    }
+
+    /**
+     * <p>Retrieves the CPU time which has been consumed by the thread which executed the
+     * task.</p>
+     *
+     * <p>Time consumed by threads or processes which have been spawned by the task itself is not
+     * included. When the VM does not support measuring the CPU time of threads, zero is returned
+     * instead.</p>
+     *
+     * @return a duration in nanoseconds.
+     */
+    public long getCpuTime() {
+      return this.cpuTime;
+    }
+
+    /**
+     * Retrieves the file system statistics of this task (if I/O accounting has been enabled).
+     *
+     * @return a set of statistics or an empty optional.
+     * @see Pipeline.Builder#withIoAccounting(boolean)
+     */
+    @Nonnull
+    public Optional<IoStatistics> getIoStatistics() {
+      return Optional.ofNullable(this.ioStatistics);
+    }
+
+    /**
+     * Retrieves the name of the task.
+     *
+     * @return a name.
+     */
+    @Nonnull
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Retrieves the identifier of the artifact which has been published by this task (if any).
+     *
+     * @return an artifact identifier or an empty optional.
+     */
+    @Nonnull
+    public Optional<String> getPublishedArtifact() {
+      return Optional.ofNullable(this.publishedArtifact);
+    }
+
+    /**
+     * Retrieves the size of the artifact which has been published by this task.
+     *
+     * @return an amount of bytes (or zero if no artifact has been published).
+     */
+    public long getPublishedBytes() {
+      return this.publishedBytes;
+    }
+
+    /**
+     * Retrieves the identifiers and sizes of all artifacts which have been resolved for this
+     * task.
+     *
+     * @return a map of artifact identifiers and their respective sizes in bytes.
+     */
+    @Nonnull
+    public Map<String, Long> getResolvedArtifacts() {
+      return this.resolvedArtifacts;
+    }
+
+    /**
+     * Retrieves the status of this task.
+     *
+     * @return a status.
+     */
+    @Nonnull
+    public Status getStatus() {
+      return this.status;
+    }
+
+    /**
+     * Retrieves the total size of all temporary files and directories which have been allocated
+     * by this task (measured when they are deleted).
+     *
+     * @return an amount of bytes.
+     */
+    public long getTemporaryBytes() {
+      return this.temporaryBytes;
+    }
+
+    /**
+     * Retrieves the wall clock time which has been spent on this task (including its cache
+     * evaluation and the publication of its output).
+     *
+     * @return a duration in nanoseconds.
+     */
+    public long getWallTime() {
+      return this.wallTime;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package org.basinmc.blackwater;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.utility.FileTrees;
+
+/**
+ * Executes an entire pipeline as a single task within another pipeline.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see Pipeline#asTask(String, Set)
+ */
+final class PipelineTask implements Task {
+
+  /**
+   * Defines the name of the file in which the aggregate fingerprint of the sub-pipeline is stored
+   * within the task output.
+   */
+  static final String FINGERPRINT_FILE = ".pipeline-fingerprint";
+
+  private final Pipeline pipeline;
+  private final String namespace;
+  private final Set<ArtifactReference> exports;
+  private final SortedSet<Integer> registrations;
+  private final String fingerprint;
+
+  PipelineTask(
+      @Nonnull Pipeline pipeline,
+      @Nonnull String namespace,
+      @Nonnull Set<ArtifactReference> exports,
+      @Nonnull SortedSet<Integer> registrations,
+      @Nullable String fingerprint) {
+    this.pipeline = pipeline;
+    this.namespace = namespace;
+    this.exports = Collections.unmodifiableSet(new HashSet<>(exports));
+    this.registrations = Collections.unmodifiableSortedSet(new TreeSet<>(registrations));
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * Computes the aggregate fingerprint of the sub-pipeline including the current contents of the
+   * plain files it consumes.
+   *
+   * @return a fingerprint or an empty optional if none can be computed.
+   */
+  @Nonnull
+  private Optional<String> computeFingerprint() {
+    if (this.fingerprint == null) {
+      return Optional.empty();
+    }
+
+    return this.pipeline.getConsumedFileDigest(this.registrations)
+        .map((d) -> this.fingerprint + ":" + d);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(@NonNull Context context) throws TaskExecutionException {
+    // the fingerprint is computed prior to the execution as consumed files may change while the
+    // sub-pipeline is running (in which case the output is considered outdated next time)
+    String fingerprint = this.computeFingerprint().orElse(null);
+    Pipeline pipeline = this.pipeline;
+    ArtifactManager artifactManager = context.getArtifactManager().orElse(null);
+
+    if (artifactManager != null) {
+      try {
+        artifactManager = artifactManager.scope(this.namespace);
+      } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+        throw new TaskParameterException(
+            "Cannot scope artifact manager to namespace \"" + this.namespace + "\": " + ex
+                .getMessage(), ex);
+      }
+
+      pipeline = pipeline.withArtifactManager(artifactManager);
+    }
+
+    try {
+      if (this.exports.isEmpty()) {
+        pipeline.execute();
+      } else {
+        pipeline.execute(this.exports);
+      }
+    } catch (TaskExecutionException ex) {
+      throw ex;
+    } catch (TaskException ex) {
+      throw new TaskExecutionException(
+          "Sub-pipeline \"" + this.namespace + "\" failed: " + ex.getMessage(), ex);
+    }
+
+    Path output = context.getOutputPath().orElse(null);
+
+    if (output == null) {
+      return;
+    }
+
+    if (!this.exports.isEmpty() && artifactManager == null) {
+      throw new TaskParameterException(
+          "Illegal task configuration: Cannot export artifacts without artifact manager");
+    }
+
+    try {
+      Files.createDirectories(output);
+
+      for (ArtifactReference reference : this.exports) {
+        assert artifactManager != null;
+
+        try (Artifact artifact = artifactManager.getArtifact(reference).orElseThrow(
+            () -> new TaskExecutionException(
+                "Sub-pipeline did not produce artifact " + reference.getIdentifier()))) {
+          FileTrees.copy(artifact.getPath(), output.resolve(reference.getIdentifier()));
+        }
+      }
+
+      if (fingerprint != null) {
+        Files.write(output.resolve(FINGERPRINT_FILE),
+            fingerprint.getBytes(StandardCharsets.UTF_8));
+      }
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to export sub-pipeline artifacts: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * <p>{@inheritDoc}</p>
+   *
+   * <p>The fingerprint identifies the configuration of the sub-pipeline only. The contents of the
+   * files it consumes are evaluated when a cached output is validated instead.</p>
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.ofNullable(this.fingerprint)
+        .map((f) -> this.namespace + ":" + f);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getName() {
+    return "Pipeline[" + this.namespace + "]";
+  }
+
+  /**
+   * <p>{@inheritDoc}</p>
+   *
+   * <p>Cached outputs are considered valid as long as the aggregate fingerprint of the
+   * sub-pipeline (including the contents of all files it consumes) remains unchanged.</p>
+   */
+  @Override
+  public boolean isValidArtifact(@Nonnull Artifact artifact, @Nonnull Path contents) {
+    String fingerprint = this.computeFingerprint().orElse(null);
+
+    if (fingerprint == null) {
+      return false;
+    }
+
+    Path fingerprintFile = contents.resolve(FINGERPRINT_FILE);
+
+    try {
+      return Files.isRegularFile(fingerprintFile) && fingerprint
+          .equals(new String(Files.readAllBytes(fingerprintFile), StandardCharsets.UTF_8));
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+}
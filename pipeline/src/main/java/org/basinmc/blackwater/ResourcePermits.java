@@ -0,0 +1,79 @@
+package org.basinmc.blackwater;
+
+import java.util.EnumMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.task.ResourceClass;
+
+/**
+ * <p>Keeps track of the resource permits which are available to tasks during a single pipeline
+ * execution.</p>
+ *
+ * <p>Resource classes without a configured limit are considered unlimited. Weights which exceed
+ * the limit of their respective class are reduced to the limit in order to permit the execution of
+ * the task once all other tasks of the class have completed.</p>
+ *
+ * <p>Instances of this class are not thread safe and are only accessed by the thread which
+ * schedules tasks.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ResourcePermits {
+
+  private final Map<ResourceClass, Integer> limits;
+  private final Map<ResourceClass, Integer> available;
+
+  ResourcePermits(@Nonnull Map<ResourceClass, Integer> limits) {
+    this.limits = new EnumMap<>(ResourceClass.class);
+    this.limits.putAll(limits);
+    this.available = new EnumMap<>(this.limits);
+  }
+
+  /**
+   * Acquires the specified amount of permits unless insufficient permits are available within at
+   * least one resource class.
+   *
+   * @param weights a map of resource classes and their respective weights.
+   * @return true if the permits have been acquired, false otherwise.
+   */
+  boolean tryAcquire(@Nonnull Map<ResourceClass, Integer> weights) {
+    for (Map.Entry<ResourceClass, Integer> entry : weights.entrySet()) {
+      Integer available = this.available.get(entry.getKey());
+
+      if (available != null && available < this.getWeight(entry.getKey(), entry.getValue())) {
+        return false;
+      }
+    }
+
+    weights.forEach((resourceClass, weight) -> this.available
+        .computeIfPresent(resourceClass, (k, v) -> v - this.getWeight(resourceClass, weight)));
+    return true;
+  }
+
+  /**
+   * Releases permits which have previously been acquired.
+   *
+   * @param weights a map of resource classes and their respective weights.
+   */
+  void release(@Nonnull Map<ResourceClass, Integer> weights) {
+    weights.forEach((resourceClass, weight) -> this.available
+        .computeIfPresent(resourceClass, (k, v) -> v + this.getWeight(resourceClass, weight)));
+  }
+
+  /**
+   * Retrieves the effective weight of a resource class.
+   *
+   * @param resourceClass a resource class.
+   * @param weight a weight as declared by the task.
+   * @return an effective weight.
+   */
+  private int getWeight(@Nonnull ResourceClass resourceClass, int weight) {
+    Integer limit = this.limits.get(resourceClass);
+
+    if (limit == null) {
+      return weight;
+    }
+
+    return Math.max(0, Math.min(limit, weight));
+  }
+}
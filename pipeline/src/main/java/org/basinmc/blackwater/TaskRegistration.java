@@ -0,0 +1,227 @@
+package org.basinmc.blackwater;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.Task;
+
+/**
+ * Represents a registered task and its respective execution and context parameters.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class TaskRegistration {
+
+  final int index;
+  final Task task;
+  final boolean enforceExecution;
+
+  final ArtifactReference inputArtifact;
+  final ArtifactReference outputArtifact;
+
+  final Path inputFile;
+  final Path outputFile;
+
+  final Map<String, ArtifactReference> artifactParameters;
+  final Map<String, Path> pathParameters;
+
+  TaskRegistration(
+      int index,
+      @Nonnull Task task,
+      boolean enforceExecution,
+      @Nullable ArtifactReference inputArtifact,
+      @Nullable ArtifactReference outputArtifact,
+      @Nullable Path inputFile,
+      @Nullable Path outputFile,
+      @NonNull Map<String, ArtifactReference> artifactParameters,
+      @NonNull Map<String, Path> pathParameters) {
+    this.index = index;
+    this.task = task;
+    this.enforceExecution = enforceExecution;
+    this.inputArtifact = inputArtifact;
+    this.outputArtifact = outputArtifact;
+    this.inputFile = inputFile;
+    this.outputFile = outputFile;
+    this.artifactParameters = new HashMap<>(artifactParameters);
+    this.pathParameters = new HashMap<>(pathParameters);
+  }
+
+  /**
+   * Creates a copy of this registration which enforces the execution of its task.
+   *
+   * @return a registration.
+   */
+  @Nonnull
+  TaskRegistration withForcedExecution() {
+    return new TaskRegistration(this.index, this.task, true, this.inputArtifact,
+        this.outputArtifact, this.inputFile, this.outputFile, this.artifactParameters,
+        this.pathParameters);
+  }
+
+  /**
+   * Checks whether two paths refer to the same file or whether one of them is located within the
+   * other.
+   *
+   * @param path1 a path.
+   * @param path2 another path.
+   * @return true if both paths overlap, false otherwise.
+   */
+  static boolean overlaps(@Nonnull Path path1, @Nonnull Path path2) {
+    Path normalized1 = path1.toAbsolutePath().normalize();
+    Path normalized2 = path2.toAbsolutePath().normalize();
+
+    return normalized1.startsWith(normalized2) || normalized2.startsWith(normalized1);
+  }
+
+  /**
+   * Retrieves the set of artifacts which are consumed by this registration (e.g. its input
+   * artifact as well as all of its artifact parameters).
+   *
+   * @return a set of artifact references.
+   */
+  @Nonnull
+  Set<ArtifactReference> getConsumedArtifacts() {
+    Set<ArtifactReference> artifacts = new HashSet<>(this.artifactParameters.values());
+
+    if (this.inputArtifact != null) {
+      artifacts.add(this.inputArtifact);
+    }
+
+    return artifacts;
+  }
+
+  /**
+   * Retrieves the set of files which are consumed by this registration (e.g. its input file as
+   * well as all of its path parameters).
+   *
+   * @return a set of paths.
+   */
+  @Nonnull
+  Set<Path> getConsumedFiles() {
+    Set<Path> files = new HashSet<>(this.pathParameters.values());
+
+    if (this.inputFile != null) {
+      files.add(this.inputFile);
+    }
+
+    return files;
+  }
+
+  /**
+   * <p>Evaluates whether this registration has to be executed after the specified (previously
+   * registered) registration.</p>
+   *
+   * <p>Registrations depend on each other when one of them writes to an artifact or file which is
+   * read or written by the other. Since tasks which declare neither inputs, outputs nor parameters
+   * may have arbitrary side effects, they are ordered with respect to all other
+   * registrations.</p>
+   *
+   * @param registration a previously registered registration.
+   * @return true if this registration depends on the specified registration, false otherwise.
+   */
+  boolean dependsOn(@Nonnull TaskRegistration registration) {
+    if (this.isIsolated() || registration.isIsolated()) {
+      return true;
+    }
+
+    if (this.conflictsWith(registration.outputArtifact, registration.outputFile)) {
+      return true;
+    }
+
+    return registration.conflictsWith(this.outputArtifact, this.outputFile);
+  }
+
+  /**
+   * Evaluates whether this registration reads or writes the specified output.
+   *
+   * @param artifact an output artifact (or null).
+   * @param file an output file (or null).
+   * @return true if the output is accessed, false otherwise.
+   */
+  private boolean conflictsWith(@Nullable ArtifactReference artifact, @Nullable Path file) {
+    if (artifact != null && (artifact.equals(this.outputArtifact) || this.getConsumedArtifacts()
+        .contains(artifact))) {
+      return true;
+    }
+
+    if (file != null) {
+      if (this.outputFile != null && overlaps(file, this.outputFile)) {
+        return true;
+      }
+
+      return this.getConsumedFiles().stream()
+          .anyMatch((p) -> overlaps(file, p));
+    }
+
+    return false;
+  }
+
+  /**
+   * <p>Generates a fingerprint which identifies this registration.</p>
+   *
+   * <p>Registrations with equal fingerprints execute the same type of task with the same
+   * configuration, inputs and parameters. If the task does not provide a fingerprint, an empty
+   * optional is returned instead.</p>
+   *
+   * @return a fingerprint or an empty optional.
+   */
+  @Nonnull
+  Optional<String> getFingerprint() {
+    return this.task.getFingerprint().map((taskFingerprint) -> {
+      StringBuilder builder = new StringBuilder();
+      builder.append(this.task.getClass().getName());
+      builder.append('[');
+      builder.append(taskFingerprint);
+      builder.append("];input=");
+
+      if (this.inputArtifact != null) {
+        builder.append("artifact:").append(this.inputArtifact.getIdentifier());
+      } else if (this.inputFile != null) {
+        builder.append("file:").append(this.inputFile.toAbsolutePath());
+      }
+
+      new TreeMap<>(this.artifactParameters).forEach(
+          (name, reference) -> builder.append(";").append(name).append("=artifact:")
+              .append(reference.getIdentifier()));
+      new TreeMap<>(this.pathParameters).forEach(
+          (name, path) -> builder.append(";").append(name).append("=file:")
+              .append(path.toAbsolutePath()));
+
+      return builder.toString();
+    });
+  }
+
+  /**
+   * <p>Retrieves a key which identifies this registration within the execution statistics.</p>
+   *
+   * <p>When the task provides a fingerprint, the registration fingerprint is used in order to
+   * retain statistics when the pipeline is reordered. Otherwise the key is derived from the task
+   * type and the position of the registration within its pipeline.</p>
+   *
+   * @return a key.
+   */
+  @Nonnull
+  String getStatisticsKey() {
+    return this.getFingerprint()
+        .orElseGet(() -> this.task.getClass().getName() + "#" + this.index);
+  }
+
+  /**
+   * Evaluates whether this registration declares neither inputs, outputs nor parameters.
+   *
+   * @return true if isolated, false otherwise.
+   */
+  boolean isIsolated() {
+    return this.inputArtifact == null && this.outputArtifact == null && this.inputFile == null
+        && this.outputFile == null && this.artifactParameters.isEmpty() && this.pathParameters
+        .isEmpty();
+  }
+}
@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.time.Instant;
 import javax.annotation.Nonnull;
+import org.basinmc.blackwater.utility.Digests;
+import org.basinmc.blackwater.utility.FileSizes;
 
 /**
  * Represents a stored artifact which has been previously stored by a task and is now available for
@@ -31,6 +33,22 @@ public interface Artifact extends AutoCloseable {
   @Nonnull
   Instant getCreationTimestamp() throws IOException;
 
+  /**
+   * <p>Retrieves a digest of the artifact contents.</p>
+   *
+   * <p>By default, the digest is computed from the contents of {@link #getPath()} as defined by
+   * {@link Digests#digest(Path)}. Implementations which store digests alongside their artifacts may
+   * override this method in order to avoid reading the entire artifact but are required to produce
+   * compatible values.</p>
+   *
+   * @return a digest.
+   * @throws IOException when reading the artifact fails.
+   */
+  @Nonnull
+  default byte[] getDigest() throws IOException {
+    return Digests.digest(this.getPath());
+  }
+
   /**
    * <p>Retrieves the date and time at which this artifact was last modified.</p>
    *
@@ -55,6 +73,20 @@ public interface Artifact extends AutoCloseable {
   @Nonnull
   Path getPath();
 
+  /**
+   * <p>Retrieves the total size of the artifact contents.</p>
+   *
+   * <p>By default, the size is computed from {@link #getPath()} as defined by {@link
+   * FileSizes#size(Path)}. Callers may rely on this value in order to cheaply rule out identical
+   * contents before resorting to {@link #getDigest()}.</p>
+   *
+   * @return a size in bytes.
+   * @throws IOException when reading the artifact attributes fails.
+   */
+  default long getSize() throws IOException {
+    return FileSizes.size(this.getPath());
+  }
+
   /**
    * Retrieves the reference which uniquely identifies this artifact within its parent manager
    * implementation.
@@ -0,0 +1,57 @@
+package org.basinmc.blackwater.artifact;
+
+import java.io.IOException;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Represents an exclusive claim on an artifact which is held while the artifact is being
+ * produced.</p>
+ *
+ * <p>Locks are typically acquired by the pipeline prior to executing a task which produces a given
+ * artifact and released once the task output has been written back into the manager. This permits
+ * managers which are shared between multiple threads or processes to ensure that only a single
+ * producer is active for each artifact at any given time.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public interface ArtifactLock extends AutoCloseable {
+
+  /**
+   * Creates a lock which does not actually provide any exclusivity (e.g. for managers which are
+   * not shared between multiple producers).
+   *
+   * @return a lock.
+   */
+  @Nonnull
+  static ArtifactLock uncontended() {
+    return new ArtifactLock() {
+      @Override
+      public void close() {
+      }
+
+      @Override
+      public boolean isContended() {
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Releases the lock.
+   *
+   * @throws IOException when releasing the lock fails.
+   */
+  @Override
+  void close() throws IOException;
+
+  /**
+   * <p>Evaluates whether another owner held this lock at the time of acquisition (e.g. whether the
+   * caller had to wait for it to be released).</p>
+   *
+   * <p>When this method returns true, the artifact may have been produced by the previous owner
+   * and callers should evaluate whether it is still necessary to produce it again.</p>
+   *
+   * @return true if contended, false otherwise.
+   */
+  boolean isContended();
+}
@@ -2,6 +2,9 @@ package org.basinmc.blackwater.artifact;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 
@@ -29,6 +32,48 @@ public interface ArtifactManager {
   void createArtifact(@Nonnull ArtifactReference reference, @Nonnull Path source)
       throws IOException;
 
+  /**
+   * <p>Acquires an exclusive lock on the specified artifact for the purpose of producing it.</p>
+   *
+   * <p>Managers which may be shared between multiple threads or processes are expected to
+   * override this method in order to guarantee that only a single producer is active for a given
+   * artifact at any time. Callers which find the lock to be contended should re-evaluate whether
+   * a valid version of the artifact has been created in the meantime before producing it
+   * again.</p>
+   *
+   * <p>Locks are reentrant for the calling thread (e.g. {@link #createArtifact(ArtifactReference,
+   * Path)} may be invoked while the lock is held).</p>
+   *
+   * @param reference a reference to the desired artifact.
+   * @return a lock which is to be released once the artifact has been written.
+   * @throws IOException when acquiring the lock fails.
+   */
+  @Nonnull
+  default ArtifactLock lockArtifact(@Nonnull ArtifactReference reference) throws IOException {
+    return ArtifactLock.uncontended();
+  }
+
+  /**
+   * <p>Creates a view of this manager which stores all artifacts within a separate namespace.</p>
+   *
+   * <p>Artifacts which are stored via the returned manager will not be visible to this manager
+   * (and vice versa) unless they are also stored within the same namespace. This is typically used
+   * in order to isolate the artifacts of a sub-pipeline (see {@link
+   * org.basinmc.blackwater.Pipeline#asTask(String, java.util.Set)}) from its parent.</p>
+   *
+   * <p>By default, namespaces are not supported.</p>
+   *
+   * @param namespace a namespace.
+   * @return a scoped manager.
+   * @throws IllegalArgumentException when the namespace is invalid.
+   * @throws UnsupportedOperationException when the manager does not support namespaces.
+   */
+  @Nonnull
+  default ArtifactManager scope(@Nonnull String namespace) {
+    throw new UnsupportedOperationException(
+        this.getClass().getName() + " does not support artifact namespaces");
+  }
+
   /**
    * Retrieves a cached artifact from within the manager (for instance, to use it as an input within
    * a task execution).
@@ -40,4 +85,48 @@ public interface ArtifactManager {
    */
   @Nonnull
   Optional<Artifact> getArtifact(@Nonnull ArtifactReference reference) throws IOException;
+
+  /**
+   * <p>Retrieves a set of cached artifacts from within the manager in a single operation.</p>
+   *
+   * <p>By default, this method simply looks up each reference in turn. Implementations which are
+   * capable of sharing work between lookups (for instance, by resolving artifacts in parallel or
+   * by reusing repository metadata) are expected to override this method.</p>
+   *
+   * <p>References for which no cached version exists are omitted from the resulting map. When
+   * opening one of the artifacts fails, all artifacts which have been opened as part of this call
+   * will be closed again before the exception is passed on.</p>
+   *
+   * @param references a collection of references to the desired artifacts.
+   * @return a map of references and their respective artifacts.
+   * @throws IOException when opening one or more artifacts for reading fails.
+   */
+  @Nonnull
+  default Map<ArtifactReference, Artifact> getArtifacts(
+      @Nonnull Collection<? extends ArtifactReference> references) throws IOException {
+    Map<ArtifactReference, Artifact> artifacts = new HashMap<>();
+
+    try {
+      for (ArtifactReference reference : references) {
+        if (artifacts.containsKey(reference)) {
+          continue;
+        }
+
+        this.getArtifact(reference)
+            .ifPresent((a) -> artifacts.put(reference, a));
+      }
+    } catch (IOException ex) {
+      for (Artifact artifact : artifacts.values()) {
+        try {
+          artifact.close();
+        } catch (IOException e) {
+          ex.addSuppressed(e);
+        }
+      }
+
+      throw ex;
+    }
+
+    return artifacts;
+  }
 }
@@ -7,19 +7,27 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import javax.annotation.Nonnull;
 import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.utility.Digests;
 
 /**
- * Represents an artifact within a local directory structure.
+ * <p>Represents an artifact within a local directory structure.</p>
+ *
+ * <p>The digest of the artifact contents is persisted alongside the artifact when it is published
+ * by {@link FileArtifactManager} and is thus typically available without reading the artifact
+ * itself.</p>
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 public class FileArtifact implements Artifact {
 
   private final Path path;
+  private final Path digestPath;
   private final FileArtifactReference reference;
 
-  FileArtifact(@Nonnull Path path, @Nonnull FileArtifactReference reference) {
+  FileArtifact(@Nonnull Path path, @Nonnull Path digestPath,
+      @Nonnull FileArtifactReference reference) {
     this.path = path;
+    this.digestPath = digestPath;
     this.reference = reference;
   }
 
@@ -44,6 +52,28 @@ public class FileArtifact implements Artifact {
     }
   }
 
+  /**
+   * <p>{@inheritDoc}</p>
+   *
+   * <p>The persisted digest is only considered when it has been written after the artifact has last
+   * been modified. Otherwise (e.g. when the artifact has been replaced by a third party), the
+   * digest is computed from the artifact contents instead.</p>
+   */
+  @Nonnull
+  @Override
+  public byte[] getDigest() throws IOException {
+    if (Files.isRegularFile(this.digestPath) && Files.getLastModifiedTime(this.digestPath)
+        .compareTo(Files.getLastModifiedTime(this.path)) >= 0) {
+      byte[] digest = Files.readAllBytes(this.digestPath);
+
+      if (digest.length == Digests.LENGTH) {
+        return digest;
+      }
+    }
+
+    return Digests.digest(this.path);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -2,13 +2,20 @@ package org.basinmc.blackwater.artifact.file;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactLock;
 import org.basinmc.blackwater.artifact.ArtifactManager;
 import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.utility.Digests;
 
 /**
  * <p>Provides an artifact manager which relies on local files.</p>
@@ -17,14 +24,121 @@ import org.basinmc.blackwater.artifact.ArtifactReference;
  * implementation (e.g. custom layouts can be achieved by implementing {@link
  * FileArtifactReference}).</p>
  *
+ * <p>A single base directory may safely be shared between multiple threads, manager instances and
+ * processes on the same host. Producers claim artifacts through a dedicated lock file per artifact
+ * (which may be held for the entire duration of a task) while the final publication of an artifact
+ * is guarded by a set of striped file locks. Artifacts are written to a staging directory before
+ * being moved to their final location in a single atomic operation. As a result, readers will never
+ * observe partially written artifacts.</p>
+ *
+ * <p>The digest of each artifact is computed while it resides within the staging directory and is
+ * persisted within a separate directory tree alongside the artifact in order to permit cheap
+ * comparisons with future task outputs (see {@link Artifact#getDigest()}).</p>
+ *
+ * <p>Managers are considered equal when they operate on the same base directory regardless of
+ * their respective stripe count.</p>
+ *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 public class FileArtifactManager implements ArtifactManager {
 
+  /**
+   * Defines the default amount of lock stripes used to guard artifacts.
+   */
+  public static final int DEFAULT_STRIPE_COUNT = 64;
+
+  private static final String DIGEST_DIRECTORY = ".digests";
+  private static final String LOCK_DIRECTORY = ".locks";
+  private static final String CLAIM_DIRECTORY = "claims";
+  private static final String STAGING_DIRECTORY = ".staging";
+
   private final Path base;
+  private final int stripeCount;
+  private final StripedFileLock locks;
+  private final KeyedFileLock claims;
 
-  public FileArtifactManager(@Nonnull Path base) {
+  public FileArtifactManager(@Nonnull Path base, int stripeCount) {
     this.base = base;
+    this.stripeCount = stripeCount;
+    this.locks = new StripedFileLock(base.resolve(LOCK_DIRECTORY), stripeCount);
+    this.claims = new KeyedFileLock(base.resolve(LOCK_DIRECTORY).resolve(CLAIM_DIRECTORY));
+  }
+
+  public FileArtifactManager(@Nonnull Path base) {
+    this(base, DEFAULT_STRIPE_COUNT);
+  }
+
+  /**
+   * <p>Copies the supplied file or directory (including all of its contents) to the specified
+   * target location.</p>
+   *
+   * <p>The contents of directories retain their attributes (such as their modification time) in
+   * order to permit tasks to cheaply compare their outputs with a previous version of the artifact
+   * (see {@link org.basinmc.blackwater.task.Task.Context#getPreviousOutputPath()}) while the
+   * artifact itself reflects the time of its publication.</p>
+   *
+   * @param source a source file or directory.
+   * @param target a target path.
+   * @throws IOException when copying fails.
+   */
+  private static void copy(@Nonnull Path source, @Nonnull Path target) throws IOException {
+    if (!Files.isDirectory(source)) {
+      Files.copy(source, target);
+      return;
+    }
+
+    try (Stream<Path> stream = Files.walk(source)) {
+      Iterator<Path> it = stream.iterator();
+
+      while (it.hasNext()) {
+        Path current = it.next();
+
+        if (source.equals(current)) {
+          Files.copy(current, target);
+        } else {
+          Files.copy(current, target.resolve(source.relativize(current).toString()),
+              StandardCopyOption.COPY_ATTRIBUTES);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the supplied file or directory (including all of its contents).
+   *
+   * @param path a file or directory.
+   * @throws IOException when deleting fails.
+   */
+  private static void delete(@Nonnull Path path) throws IOException {
+    if (Files.notExists(path)) {
+      return;
+    }
+
+    try (Stream<Path> stream = Files.walk(path)) {
+      Iterator<Path> it = stream
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Moves a path to its target location (replacing a file at the target location if necessary)
+   * using an atomic move where supported.
+   *
+   * @param source a source path.
+   * @param target a target path.
+   * @throws IOException when moving fails.
+   */
+  private static void move(@Nonnull Path source, @Nonnull Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
   }
 
   /**
@@ -33,15 +147,73 @@ public class FileArtifactManager implements ArtifactManager {
   @Override
   public void createArtifact(@Nonnull ArtifactReference reference, @Nonnull Path source)
       throws IOException {
-    if (!(reference instanceof FileArtifactReference)) {
-      throw new FileNotFoundException(
-          "Illegal artifact reference of type " + reference.getClass().getName()
-              + " and identifier " + reference.getIdentifier());
-    }
+    FileArtifactReference fileReference = this.toFileReference(reference);
+    Path artifactPath = this.base.resolve(fileReference.getPath());
+
+    Path digestPath = this.getDigestPath(fileReference);
 
-    Path artifactPath = this.base.resolve(((FileArtifactReference) reference).getPath());
+    Path stagingDirectory = this.base.resolve(STAGING_DIRECTORY);
+    Path stagingPath = stagingDirectory.resolve(UUID.randomUUID().toString());
+    Path stagingDigestPath = stagingDirectory.resolve(UUID.randomUUID().toString());
+
+    Files.createDirectories(stagingDirectory);
     Files.createDirectories(artifactPath.getParent());
-    Files.copy(source, artifactPath);
+    Files.createDirectories(digestPath.getParent());
+
+    // since readers may access the artifact at any time, we'll first copy the artifact into our
+    // staging area and move it into its final location once it has been fully written
+    try {
+      copy(source, stagingPath);
+      Files.write(stagingDigestPath, Digests.digest(stagingPath));
+
+      // only the final move is guarded by the (shared) stripe as copying may take considerable
+      // time and would otherwise block unrelated artifacts
+      ArtifactLock lock = this.locks.acquire(fileReference.getPath().normalize().toString());
+
+      try {
+        // the previous digest is discarded first so that readers never associate it with the new
+        // artifact (they will simply fall back to computing the digest in the meantime)
+        Files.deleteIfExists(digestPath);
+
+        if (Files.isDirectory(artifactPath)) {
+          // directories cannot be replaced in a single operation thus we'll move the previous
+          // version aside first (readers will briefly find no artifact at all in this case but
+          // will never observe a partial one)
+          Path previousPath = stagingDirectory.resolve(UUID.randomUUID().toString());
+          Files.move(artifactPath, previousPath, StandardCopyOption.ATOMIC_MOVE);
+
+          try {
+            move(stagingPath, artifactPath);
+          } finally {
+            delete(previousPath);
+          }
+        } else {
+          move(stagingPath, artifactPath);
+        }
+
+        move(stagingDigestPath, digestPath);
+      } finally {
+        lock.close();
+      }
+    } finally {
+      delete(stagingPath);
+      Files.deleteIfExists(stagingDigestPath);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FileArtifactManager)) {
+      return false;
+    }
+    FileArtifactManager that = (FileArtifactManager) o;
+    return this.getNormalizedBase().equals(that.getNormalizedBase());
   }
 
   /**
@@ -50,18 +222,100 @@ public class FileArtifactManager implements ArtifactManager {
   @Nonnull
   @Override
   public Optional<Artifact> getArtifact(@Nonnull ArtifactReference reference) throws IOException {
+    FileArtifactReference fileReference = this.toFileReference(reference);
+    Path artifactPath = this.base.resolve(fileReference.getPath());
+
+    if (Files.notExists(artifactPath)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new FileArtifact(artifactPath, this.getDigestPath(fileReference),
+        fileReference));
+  }
+
+  /**
+   * Resolves the path at which the digest of the specified artifact is persisted.
+   *
+   * @param reference a reference to the desired artifact.
+   * @return a digest path.
+   */
+  @Nonnull
+  private Path getDigestPath(@Nonnull FileArtifactReference reference) {
+    return this.base.resolve(DIGEST_DIRECTORY).resolve(reference.getPath().normalize().toString());
+  }
+
+  /**
+   * Retrieves the absolute and normalized version of the base directory.
+   *
+   * @return a base directory.
+   */
+  @Nonnull
+  private Path getNormalizedBase() {
+    return this.base.toAbsolutePath().normalize();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return this.getNormalizedBase().hashCode();
+  }
+
+  /**
+   * <p>Acquires the claim which guards the production of the specified artifact.</p>
+   *
+   * <p>Each artifact is claimed through a dedicated lock file within the base directory. As such,
+   * the lock is honored by all processes which share this base directory and may be held for an
+   * extended period of time without blocking producers of unrelated artifacts.</p>
+   *
+   * @param reference a reference to the desired artifact.
+   * @return a lock.
+   * @throws IOException when acquiring the lock fails.
+   */
+  @Nonnull
+  @Override
+  public ArtifactLock lockArtifact(@Nonnull ArtifactReference reference) throws IOException {
+    FileArtifactReference fileReference = this.toFileReference(reference);
+    return this.claims.acquire(fileReference.getPath().normalize().toString());
+  }
+
+  /**
+   * <p>{@inheritDoc}</p>
+   *
+   * <p>Namespaces are stored within a sub-directory (of the same name) of the base directory of
+   * this manager and may thus also be nested by separating their elements with slashes.</p>
+   */
+  @Nonnull
+  @Override
+  public ArtifactManager scope(@Nonnull String namespace) {
+    Path normalizedBase = this.base.normalize();
+    Path scopedBase = normalizedBase.resolve(namespace).normalize();
+
+    if (namespace.isEmpty() || !scopedBase.startsWith(normalizedBase) || scopedBase
+        .equals(normalizedBase) || scopedBase.getFileName().toString().startsWith(".")) {
+      throw new IllegalArgumentException("Illegal namespace: \"" + namespace + "\"");
+    }
+
+    return new FileArtifactManager(scopedBase, this.stripeCount);
+  }
+
+  /**
+   * Converts an arbitrary reference into a file artifact reference.
+   *
+   * @param reference an arbitrary reference.
+   * @return a file artifact reference.
+   * @throws FileNotFoundException when the reference is not a file artifact reference.
+   */
+  @Nonnull
+  private FileArtifactReference toFileReference(@Nonnull ArtifactReference reference)
+      throws FileNotFoundException {
     if (!(reference instanceof FileArtifactReference)) {
       throw new FileNotFoundException(
           "Illegal artifact reference of type " + reference.getClass().getName()
               + " and identifier " + reference.getIdentifier());
     }
 
-    Path artifactPath = this.base.resolve(((FileArtifactReference) reference).getPath());
-
-    if (Files.notExists(artifactPath)) {
-      return Optional.empty();
-    }
-
-    return Optional.of(new FileArtifact(artifactPath, (FileArtifactReference) reference));
+    return (FileArtifactReference) reference;
   }
 }
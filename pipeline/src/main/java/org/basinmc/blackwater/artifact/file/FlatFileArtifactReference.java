@@ -1,6 +1,9 @@
 package org.basinmc.blackwater.artifact.file;
 
 import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.nio.file.Paths;
 import javax.annotation.Nonnull;
 
@@ -10,7 +13,9 @@ import javax.annotation.Nonnull;
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
-public class FlatFileArtifactReference extends FileArtifactReference {
+public class FlatFileArtifactReference extends FileArtifactReference implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final String fileName;
 
@@ -43,6 +48,10 @@ public class FlatFileArtifactReference extends FileArtifactReference {
     return this.fileName;
   }
 
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -50,4 +59,27 @@ public class FlatFileArtifactReference extends FileArtifactReference {
   public String toString() {
     return "FlatFileArtifactReference{fileName=\"" + this.fileName + "\"}";
   }
+
+  private Object writeReplace() {
+    return new SerializedForm(this.fileName);
+  }
+
+  /**
+   * Represents the serialized form of a flat file reference (since its parent class cannot be
+   * serialized).
+   */
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String fileName;
+
+    private SerializedForm(@Nonnull String fileName) {
+      this.fileName = fileName;
+    }
+
+    private Object readResolve() {
+      return new FlatFileArtifactReference(this.fileName);
+    }
+  }
 }
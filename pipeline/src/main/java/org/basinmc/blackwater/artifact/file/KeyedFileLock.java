@@ -0,0 +1,43 @@
+package org.basinmc.blackwater.artifact.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.artifact.ArtifactLock;
+import org.basinmc.blackwater.utility.Digests;
+
+/**
+ * <p>Provides a dedicated lock for each key which guards long running claims across threads as
+ * well as processes.</p>
+ *
+ * <p>Each key is backed by its own {@link ReentrantFileLock} within the lock directory (named
+ * after the digest of the key). As opposed to {@link StripedFileLock}, holders of unrelated keys
+ * will thus never block each other regardless of how long a lock is held.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class KeyedFileLock {
+
+  private final Path directory;
+  private final ConcurrentMap<String, ReentrantFileLock> locks = new ConcurrentHashMap<>();
+
+  KeyedFileLock(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Acquires the lock which is responsible for the specified key.
+   *
+   * @param key an arbitrary key (typically a relative artifact path).
+   * @return a lock.
+   * @throws IOException when acquiring the file lock fails.
+   */
+  @Nonnull
+  ArtifactLock acquire(@Nonnull String key) throws IOException {
+    return this.locks.computeIfAbsent(key, (k) -> ReentrantFileLock.of(
+        this.directory.resolve(Digests.toHexString(Digests.digest(k)) + ".lock")))
+        .acquire();
+  }
+}
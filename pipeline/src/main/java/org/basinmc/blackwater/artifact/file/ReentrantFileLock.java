@@ -0,0 +1,137 @@
+package org.basinmc.blackwater.artifact.file;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.artifact.ArtifactLock;
+
+/**
+ * <p>Provides a reentrant lock which guards a resource across threads as well as processes.</p>
+ *
+ * <p>The lock is backed by a lock file. Since file locks are held on behalf of the entire virtual
+ * machine (and thus cannot be used to coordinate threads within the same process), a reentrant
+ * lock is additionally acquired before the file lock itself. The file lock is only held while at
+ * least one thread owns this lock.</p>
+ *
+ * <p>For the same reason, only a single instance may exist per lock file within a virtual machine
+ * (acquiring a file lock which overlaps with a lock held through another channel fails rather than
+ * blocking). Instances are thus shared between all users of a given lock file (such as multiple
+ * managers operating on the same base directory) and are exclusively obtained through {@link
+ * #of(Path)}.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ReentrantFileLock {
+
+  private static final ConcurrentMap<Path, ReentrantFileLock> instances =
+      new ConcurrentHashMap<>();
+
+  private final Path file;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private FileChannel channel;
+  private FileLock fileLock;
+
+  private ReentrantFileLock(@Nonnull Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Retrieves the lock which is backed by the specified lock file.
+   *
+   * @param file a lock file.
+   * @return a lock.
+   */
+  @Nonnull
+  static ReentrantFileLock of(@Nonnull Path file) {
+    return instances.computeIfAbsent(file.toAbsolutePath().normalize(), ReentrantFileLock::new);
+  }
+
+  /**
+   * Acquires this lock on behalf of the calling thread.
+   *
+   * @return a lock.
+   * @throws IOException when acquiring the file lock fails.
+   */
+  @Nonnull
+  ArtifactLock acquire() throws IOException {
+    boolean contended = !this.lock.tryLock();
+
+    if (contended) {
+      this.lock.lock();
+    }
+
+    try {
+      if (this.lock.getHoldCount() == 1) {
+        Files.createDirectories(this.file.getParent());
+        this.channel = FileChannel
+            .open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        try {
+          this.fileLock = this.channel.tryLock();
+
+          if (this.fileLock == null) {
+            contended = true;
+            this.fileLock = this.channel.lock();
+          }
+        } catch (IOException | RuntimeException ex) {
+          this.channel.close();
+          this.channel = null;
+          throw ex;
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      this.lock.unlock();
+      throw ex;
+    }
+
+    boolean result = contended;
+    return new ArtifactLock() {
+      private boolean released;
+
+      @Override
+      public void close() throws IOException {
+        if (this.released) {
+          return;
+        }
+
+        this.released = true;
+        ReentrantFileLock.this.release();
+      }
+
+      @Override
+      public boolean isContended() {
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Releases a single hold on this lock (and its backing file lock when the last hold is
+   * released).
+   *
+   * @throws IOException when releasing the file lock fails.
+   */
+  private void release() throws IOException {
+    try {
+      if (this.lock.getHoldCount() == 1) {
+        try {
+          this.fileLock.release();
+        } finally {
+          this.fileLock = null;
+          this.channel.close();
+          this.channel = null;
+        }
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package org.basinmc.blackwater.artifact.file;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import javax.annotation.Nonnull;
@@ -11,7 +14,10 @@ import javax.annotation.Nullable;
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
-public class RepositoryFileArtifactReference extends FileArtifactReference {
+public class RepositoryFileArtifactReference extends FileArtifactReference implements
+    Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private final String artifactId;
   private final String classifier;
@@ -118,6 +124,10 @@ public class RepositoryFileArtifactReference extends FileArtifactReference {
     return this.version;
   }
 
+  private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialization proxy required");
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -133,4 +143,36 @@ public class RepositoryFileArtifactReference extends FileArtifactReference {
     "}";
     // @formatter:on
   }
+
+  private Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  /**
+   * Represents the serialized form of a repository file reference (since its parent class cannot
+   * be serialized).
+   */
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String classifier;
+    private final String type;
+
+    private SerializedForm(@Nonnull RepositoryFileArtifactReference reference) {
+      this.groupId = reference.groupId;
+      this.artifactId = reference.artifactId;
+      this.version = reference.version;
+      this.classifier = reference.classifier;
+      this.type = reference.type;
+    }
+
+    private Object readResolve() {
+      return new RepositoryFileArtifactReference(this.groupId, this.artifactId, this.version,
+          this.classifier, this.type);
+    }
+  }
 }
@@ -0,0 +1,48 @@
+package org.basinmc.blackwater.artifact.file;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.artifact.ArtifactLock;
+
+/**
+ * <p>Provides a fixed set of lock stripes which guard short critical sections across threads as
+ * well as processes.</p>
+ *
+ * <p>Each stripe is backed by a {@link ReentrantFileLock} within the lock directory. Since
+ * unrelated keys may share a stripe, stripes are only suitable for locks which are held briefly
+ * (such as while an artifact is moved into its final location).</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class StripedFileLock {
+
+  private final ReentrantFileLock[] stripes;
+
+  StripedFileLock(@Nonnull Path directory, int stripeCount) {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException("Illegal stripe count: Expected at least one stripe");
+    }
+
+    this.stripes = new ReentrantFileLock[stripeCount];
+
+    for (int i = 0; i < stripeCount; ++i) {
+      this.stripes[i] = ReentrantFileLock.of(directory.resolve("stripe-" + i + ".lock"));
+    }
+  }
+
+  /**
+   * <p>Acquires the stripe which is responsible for the specified key.</p>
+   *
+   * <p>Keys are mapped to their respective stripes using {@link String#hashCode()} which is
+   * guaranteed to produce the same result across all processes.</p>
+   *
+   * @param key an arbitrary key (typically a relative artifact path).
+   * @return a lock.
+   * @throws IOException when acquiring the file lock fails.
+   */
+  @Nonnull
+  ArtifactLock acquire(@Nonnull String key) throws IOException {
+    return this.stripes[Math.floorMod(key.hashCode(), this.stripes.length)].acquire();
+  }
+}
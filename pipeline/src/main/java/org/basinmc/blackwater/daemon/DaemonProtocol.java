@@ -0,0 +1,83 @@
+package org.basinmc.blackwater.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Defines the line based protocol which is spoken between daemons and their clients.</p>
+ *
+ * <p>Each connection carries a single request which consists of the daemon token, a command and
+ * its (space separated) arguments. The daemon responds with an arbitrary amount of lines and
+ * closes the connection once the request has been processed. The last line is either {@link
+ * #RESPONSE_OK} or {@link #RESPONSE_ERROR} followed by an error message.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class DaemonProtocol {
+
+  static final String COMMAND_LIST = "LIST";
+  static final String COMMAND_RUN = "RUN";
+  static final String COMMAND_SHUTDOWN = "SHUTDOWN";
+
+  static final String RESPONSE_ERROR = "ERROR";
+  static final String RESPONSE_OK = "OK";
+  static final String RESPONSE_PIPELINE = "PIPELINE";
+  static final String RESPONSE_RESULT = "RESULT";
+  static final String RESPONSE_TASK = "TASK";
+
+  private DaemonProtocol() {
+  }
+
+  /**
+   * Reads the port and token of a daemon from its port file.
+   *
+   * @param portFile a port file.
+   * @return an array consisting of the port and token.
+   * @throws IOException when reading the file fails or its contents are malformed.
+   */
+  @Nonnull
+  static String[] readPortFile(@Nonnull Path portFile) throws IOException {
+    List<String> lines = Files.readAllLines(portFile, StandardCharsets.UTF_8);
+
+    if (lines.size() < 2) {
+      throw new IOException("Malformed daemon port file: " + portFile);
+    }
+
+    return new String[]{lines.get(0).trim(), lines.get(1).trim()};
+  }
+
+  /**
+   * Reads a single line from a connection.
+   *
+   * @param reader a reader.
+   * @return a line.
+   * @throws IOException when the connection is closed prematurely.
+   */
+  @Nonnull
+  static String readLine(@Nonnull BufferedReader reader) throws IOException {
+    String line = reader.readLine();
+
+    if (line == null) {
+      throw new IOException("Connection closed unexpectedly");
+    }
+
+    return line;
+  }
+
+  /**
+   * Replaces all line breaks within a message in order to permit its transmission as a single
+   * line.
+   *
+   * @param message an arbitrary message.
+   * @return a single line message.
+   */
+  @Nonnull
+  static String toLine(@Nonnull String message) {
+    return message.replace('\r', ' ').replace('\n', ' ');
+  }
+}
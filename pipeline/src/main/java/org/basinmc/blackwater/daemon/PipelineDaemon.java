@@ -0,0 +1,526 @@
+package org.basinmc.blackwater.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.PipelineResult;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.utility.Digests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Keeps a set of configured pipelines (as well as arbitrary resources such as repository
+ * handles) resident within a long-lived virtual machine and executes them on behalf of thin
+ * clients (see {@link PipelineDaemonClient}).</p>
+ *
+ * <p>Daemons listen on a socket which is bound to the loopback interface. Since the socket is
+ * reachable by all local users, every request has to present a randomly generated token which is
+ * stored alongside the port within the port file of the daemon (readable only by its owner where
+ * supported by the file system).</p>
+ *
+ * <p>Executions of the same pipeline are serialized while different pipelines may be executed
+ * concurrently. The amount of concurrently processed connections is bounded (connections which
+ * exceed the limit are rejected) and clients are expected to submit their request within {@link
+ * #REQUEST_TIMEOUT} of connecting. When the daemon is shut down, it stops accepting connections and
+ * waits for running executions to complete (for up to the configured shutdown timeout) before its
+ * resources are released.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class PipelineDaemon implements AutoCloseable {
+
+  /**
+   * Defines the default amount of connections which are processed concurrently.
+   */
+  public static final int DEFAULT_MAXIMUM_CONNECTIONS = 16;
+
+  /**
+   * Defines the default duration for which running executions are awaited when the daemon is
+   * shut down.
+   */
+  public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofMinutes(5);
+
+  /**
+   * Defines the duration within which clients are expected to submit their request.
+   */
+  public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  private static final Logger logger = LoggerFactory.getLogger(PipelineDaemon.class);
+
+  private final Map<String, Pipeline> pipelines;
+  private final List<AutoCloseable> resources;
+  private final Path portFile;
+  private final Duration shutdownTimeout;
+  private final String token;
+  private final ServerSocket serverSocket;
+  private final ThreadPoolExecutor executor;
+  private final CountDownLatch shutdown = new CountDownLatch(1);
+  private volatile boolean closed;
+
+  private PipelineDaemon(
+      @Nonnull Map<String, Pipeline> pipelines,
+      @Nonnull List<AutoCloseable> resources,
+      @Nullable Path portFile,
+      int port,
+      int maximumConnections,
+      @Nonnull Duration shutdownTimeout) throws IOException {
+    this.pipelines = Collections.unmodifiableMap(new LinkedHashMap<>(pipelines));
+    this.resources = new ArrayList<>(resources);
+    this.portFile = portFile;
+    this.shutdownTimeout = shutdownTimeout;
+
+    byte[] token = new byte[32];
+    new SecureRandom().nextBytes(token);
+    this.token = Digests.toHexString(token);
+
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+
+    try {
+      if (portFile != null) {
+        this.writePortFile(portFile);
+      }
+    } catch (IOException ex) {
+      this.serverSocket.close();
+      throw ex;
+    }
+
+    // connections are handed off directly to an idle (or new) thread and are rejected once the
+    // maximum amount of threads is busy rather than queuing up indefinitely
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(maximumConnections, maximumConnections, 60,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), (r) -> {
+      Thread thread = new Thread(r, "blackwater-daemon-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.allowCoreThreadTimeOut(true);
+
+    Thread acceptThread = new Thread(this::accept, "blackwater-daemon-accept");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+
+    logger.info("Daemon listening on port {} with {} pipelines", this.getPort(),
+        this.pipelines.size());
+  }
+
+  /**
+   * Creates a new empty daemon factory.
+   *
+   * @return a factory.
+   */
+  @Nonnull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Accepts connections until the daemon is shut down.
+   */
+  private void accept() {
+    while (!this.serverSocket.isClosed()) {
+      try {
+        Socket socket = this.serverSocket.accept();
+
+        try {
+          this.executor.execute(() -> this.handle(socket));
+        } catch (RejectedExecutionException ex) {
+          logger.warn("Rejected daemon connection: Too many concurrent connections");
+          socket.close();
+        }
+      } catch (SocketException ex) {
+        // thrown when the socket is closed while we're waiting for connections
+      } catch (IOException ex) {
+        logger.warn("Failed to accept daemon connection: {}", ex.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Blocks the calling thread until the daemon has been shut down (either via {@link #close()} or
+   * on behalf of a client).
+   *
+   * @throws InterruptedException when the calling thread is interrupted.
+   */
+  public void awaitShutdown() throws InterruptedException {
+    this.shutdown.await();
+  }
+
+  /**
+   * <p>Shuts down the daemon.</p>
+   *
+   * <p>The daemon stops accepting connections immediately and waits for all requests which are
+   * currently being processed (including pipeline executions) to complete before its resources
+   * are released. When the shutdown timeout elapses first, the remaining requests are interrupted
+   * instead.</p>
+   *
+   * @throws IOException when closing the socket or releasing one or more resources fails.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.closed) {
+      return;
+    }
+
+    this.closed = true;
+    IOException failure = null;
+
+    try {
+      this.serverSocket.close();
+    } catch (IOException ex) {
+      failure = ex;
+    }
+
+    this.executor.shutdown();
+
+    try {
+      if (!this.executor.awaitTermination(this.shutdownTimeout.toMillis(),
+          TimeUnit.MILLISECONDS)) {
+        logger.warn("Running executions did not complete within {} - Interrupting",
+            this.shutdownTimeout);
+        this.executor.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      this.executor.shutdownNow();
+    }
+
+    for (AutoCloseable resource : this.resources) {
+      try {
+        resource.close();
+      } catch (Exception ex) {
+        if (failure == null) {
+          failure = new IOException("Failed to release one or more daemon resources");
+        }
+
+        failure.addSuppressed(ex);
+      }
+    }
+
+    try {
+      if (this.portFile != null) {
+        Files.deleteIfExists(this.portFile);
+      }
+    } finally {
+      this.shutdown.countDown();
+    }
+
+    logger.info("Daemon has been shut down");
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Executes a pipeline and streams the results of its tasks to a client.
+   *
+   * @param name a pipeline name.
+   * @param writer a writer.
+   */
+  private void execute(@Nonnull String name, @Nonnull PrintWriter writer) {
+    Pipeline pipeline = this.pipelines.get(name);
+
+    if (pipeline == null) {
+      writer.println(DaemonProtocol.RESPONSE_ERROR + " No such pipeline: " + name);
+      return;
+    }
+
+    logger.info("Executing pipeline \"{}\" on behalf of client", name);
+    PipelineResult result;
+
+    // task results are streamed to the client as soon as each task completes
+    try {
+      synchronized (pipeline) {
+        result = pipeline.execute((task) -> writer.println(
+            DaemonProtocol.RESPONSE_TASK + " " + task.getStatus().name() + " " + task
+                .getWallTime() / 1_000_000 + " " + DaemonProtocol.toLine(task.getName())));
+      }
+    } catch (TaskException ex) {
+      logger.error("Pipeline \"" + name + "\" failed: " + ex.getMessage(), ex);
+      writer.println(DaemonProtocol.RESPONSE_ERROR + " " + DaemonProtocol
+          .toLine(String.valueOf(ex.getMessage())));
+      return;
+    } catch (RuntimeException ex) {
+      logger.error("Pipeline \"" + name + "\" failed unexpectedly: " + ex.getMessage(), ex);
+      writer.println(DaemonProtocol.RESPONSE_ERROR + " " + DaemonProtocol.toLine(ex.toString()));
+      return;
+    }
+
+    writer.println(DaemonProtocol.RESPONSE_RESULT + " " + result.toJson());
+    writer.println(DaemonProtocol.RESPONSE_OK);
+  }
+
+  /**
+   * Retrieves the port on which the daemon is listening.
+   *
+   * @return a port.
+   */
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  /**
+   * Retrieves the token which clients are required to present.
+   *
+   * @return a token.
+   */
+  @Nonnull
+  public String getToken() {
+    return this.token;
+  }
+
+  /**
+   * Processes the request of a single client connection.
+   *
+   * @param socket a client socket.
+   */
+  private void handle(@Nonnull Socket socket) {
+    try (Socket s = socket;
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(
+            new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      // clients which fail to submit their request in time would otherwise occupy a connection
+      // slot indefinitely
+      s.setSoTimeout((int) REQUEST_TIMEOUT.toMillis());
+      String[] request = DaemonProtocol.readLine(reader).split(" ");
+      s.setSoTimeout(0);
+
+      if (!MessageDigest.isEqual(this.token.getBytes(StandardCharsets.UTF_8),
+          request[0].getBytes(StandardCharsets.UTF_8))) {
+        logger.warn("Rejected daemon request with invalid token");
+        writer.println(DaemonProtocol.RESPONSE_ERROR + " Invalid token");
+        return;
+      }
+
+      String command = request.length > 1 ? request[1] : "";
+      List<String> arguments = request.length > 2 ? Arrays.asList(request).subList(2,
+          request.length) : Collections.emptyList();
+
+      switch (command) {
+        case DaemonProtocol.COMMAND_LIST:
+          this.pipelines.keySet().forEach(
+              (n) -> writer.println(DaemonProtocol.RESPONSE_PIPELINE + " " + n));
+          writer.println(DaemonProtocol.RESPONSE_OK);
+          break;
+        case DaemonProtocol.COMMAND_RUN:
+          if (arguments.size() != 1) {
+            writer.println(DaemonProtocol.RESPONSE_ERROR + " Expected exactly one pipeline name");
+            break;
+          }
+          if (this.closed) {
+            writer.println(DaemonProtocol.RESPONSE_ERROR + " Daemon is shutting down");
+            break;
+          }
+
+          this.execute(arguments.get(0), writer);
+          break;
+        case DaemonProtocol.COMMAND_SHUTDOWN:
+          writer.println(DaemonProtocol.RESPONSE_OK);
+
+          // the daemon awaits all connection threads (including this one) when shutting down and
+          // is thus closed on a separate thread
+          Thread thread = new Thread(() -> {
+            try {
+              this.close();
+            } catch (IOException ex) {
+              logger.error("Failed to shut down daemon: " + ex.getMessage(), ex);
+            }
+          }, "blackwater-daemon-shutdown");
+          thread.start();
+          break;
+        default:
+          writer.println(DaemonProtocol.RESPONSE_ERROR + " Unknown command: " + command);
+          break;
+      }
+    } catch (SocketTimeoutException ex) {
+      logger.warn("Closed daemon connection: Client did not submit a request within {}",
+          REQUEST_TIMEOUT);
+    } catch (IOException ex) {
+      logger.warn("Failed to process daemon request: {}", ex.getMessage());
+    }
+  }
+
+  /**
+   * Writes the port and token of this daemon to the specified file.
+   *
+   * @param portFile a port file.
+   * @throws IOException when writing the file fails.
+   */
+  private void writePortFile(@Nonnull Path portFile) throws IOException {
+    Path parent = portFile.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+
+    // the token is written to a temporary file which is only readable by its owner before it is
+    // moved into place in order to prevent other users from reading it in the meantime
+    Path temporaryFile;
+
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      temporaryFile = Files.createTempFile(parent, ".daemon", ".tmp", PosixFilePermissions
+          .asFileAttribute(EnumSet.of(PosixFilePermission.OWNER_READ,
+              PosixFilePermission.OWNER_WRITE)));
+    } else {
+      temporaryFile = Files.createTempFile(parent, ".daemon", ".tmp");
+    }
+
+    try {
+      Files.write(temporaryFile,
+          (this.getPort() + "\n" + this.token + "\n").getBytes(StandardCharsets.UTF_8));
+      Files.move(temporaryFile, portFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Provides a factory for daemon instances.
+   */
+  public static final class Builder {
+
+    private final Map<String, Pipeline> pipelines = new LinkedHashMap<>();
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private Path portFile;
+    private int port;
+    private int maximumConnections = DEFAULT_MAXIMUM_CONNECTIONS;
+    private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+
+    private Builder() {
+    }
+
+    /**
+     * Binds the daemon socket and starts accepting requests.
+     *
+     * @return a daemon.
+     * @throws IOException when binding the socket or writing the port file fails.
+     */
+    @Nonnull
+    public PipelineDaemon start() throws IOException {
+      return new PipelineDaemon(this.pipelines, this.resources, this.portFile, this.port,
+          this.maximumConnections, this.shutdownTimeout);
+    }
+
+    /**
+     * Selects the maximum amount of connections which are processed concurrently (including
+     * running pipeline executions).
+     *
+     * @param maximumConnections an amount of connections.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @Nonnull
+    public Builder withMaximumConnections(int maximumConnections) {
+      if (maximumConnections < 1) {
+        throw new IllegalArgumentException("Maximum connections must be at least one");
+      }
+
+      this.maximumConnections = maximumConnections;
+      return this;
+    }
+
+    /**
+     * Registers a pipeline which may be executed by clients.
+     *
+     * @param name a pipeline name (may not contain whitespace).
+     * @param pipeline a pipeline.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when the name is empty or contains whitespace.
+     */
+    @Nonnull
+    public Builder withPipeline(@Nonnull String name, @Nonnull Pipeline pipeline) {
+      if (name.isEmpty() || name.chars().anyMatch(Character::isWhitespace)) {
+        throw new IllegalArgumentException("Illegal pipeline name: \"" + name + "\"");
+      }
+
+      this.pipelines.put(name, pipeline);
+      return this;
+    }
+
+    /**
+     * <p>Selects the port on which the daemon listens.</p>
+     *
+     * <p>By default, an arbitrary free port is chosen (clients are expected to locate the daemon
+     * via its port file in this case).</p>
+     *
+     * @param port a port.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withPort(int port) {
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Selects a file to which the port and token of the daemon are written (the file is removed
+     * when the daemon shuts down).
+     *
+     * @param portFile a port file.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withPortFile(@Nonnull Path portFile) {
+      this.portFile = portFile;
+      return this;
+    }
+
+    /**
+     * Registers a resource (such as a repository handle) which is kept open for the lifetime of
+     * the daemon and released when it shuts down.
+     *
+     * @param resource a resource.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withResource(@Nonnull AutoCloseable resource) {
+      this.resources.add(resource);
+      return this;
+    }
+
+    /**
+     * Selects the maximum duration for which running executions are awaited when the daemon is
+     * shut down.
+     *
+     * @param shutdownTimeout a timeout.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withShutdownTimeout(@Nonnull Duration shutdownTimeout) {
+      this.shutdownTimeout = shutdownTimeout;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package org.basinmc.blackwater.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Provides a thin client which submits requests to a {@link PipelineDaemon}.</p>
+ *
+ * <p>The client does not depend on any task implementations and may thus be started with a
+ * minimal class path:</p>
+ *
+ * <pre>
+ * java -cp pipeline.jar org.basinmc.blackwater.daemon.PipelineDaemonClient &lt;port file&gt; run &lt;pipeline&gt;
+ * </pre>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class PipelineDaemonClient {
+
+  private final int port;
+  private final String token;
+
+  public PipelineDaemonClient(int port, @Nonnull String token) {
+    this.port = port;
+    this.token = token;
+  }
+
+  /**
+   * Creates a client for the daemon which has written the specified port file.
+   *
+   * @param portFile a port file.
+   * @return a client.
+   * @throws IOException when reading the port file fails.
+   */
+  @Nonnull
+  public static PipelineDaemonClient fromPortFile(@Nonnull Path portFile) throws IOException {
+    String[] contents = DaemonProtocol.readPortFile(portFile);
+
+    try {
+      return new PipelineDaemonClient(Integer.parseInt(contents[0]), contents[1]);
+    } catch (NumberFormatException ex) {
+      throw new IOException("Malformed daemon port file: " + portFile, ex);
+    }
+  }
+
+  /**
+   * Retrieves the names of all pipelines which are provided by the daemon.
+   *
+   * @return a list of pipeline names.
+   * @throws IOException when communicating with the daemon fails or the request is rejected.
+   */
+  @Nonnull
+  public List<String> list() throws IOException {
+    List<String> pipelines = new ArrayList<>();
+    String prefix = DaemonProtocol.RESPONSE_PIPELINE + " ";
+
+    this.request(DaemonProtocol.COMMAND_LIST, (line) -> {
+      if (line.startsWith(prefix)) {
+        pipelines.add(line.substring(prefix.length()));
+      }
+    }, true);
+
+    return pipelines;
+  }
+
+  /**
+   * Submits a request to the daemon and passes all response lines (except for the final status
+   * line) to the supplied consumer.
+   *
+   * @param request a request (consisting of a command and its arguments).
+   * @param consumer a consumer for response lines.
+   * @param strict true if an error response is to be reported as an exception.
+   * @return true if the request succeeded, false otherwise.
+   * @throws IOException when communicating with the daemon fails.
+   */
+  private boolean request(@Nonnull String request, @Nonnull Consumer<String> consumer,
+      boolean strict) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port);
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true)) {
+      writer.println(this.token + " " + request);
+
+      while (true) {
+        String line = DaemonProtocol.readLine(reader);
+
+        if (line.equals(DaemonProtocol.RESPONSE_OK)) {
+          return true;
+        }
+
+        if (line.startsWith(DaemonProtocol.RESPONSE_ERROR)) {
+          if (strict) {
+            throw new IOException("Daemon rejected request: " + line
+                .substring(DaemonProtocol.RESPONSE_ERROR.length()).trim());
+          }
+
+          consumer.accept(line);
+          return false;
+        }
+
+        consumer.accept(line);
+      }
+    }
+  }
+
+  /**
+   * <p>Executes a pipeline within the daemon and passes its results to the supplied consumer as
+   * they are streamed back by the daemon.</p>
+   *
+   * <p>The consumer receives one line per task (in the form {@code TASK <status> <wall time in
+   * milliseconds> <name>}), a line which contains the JSON representation of the pipeline result
+   * (prefixed with {@code RESULT}) or, when the execution fails, an error message (prefixed with
+   * {@code ERROR}).</p>
+   *
+   * @param pipeline a pipeline name.
+   * @param consumer a consumer for response lines.
+   * @return true if the execution succeeded, false otherwise.
+   * @throws IOException when communicating with the daemon fails.
+   */
+  public boolean run(@Nonnull String pipeline, @Nonnull Consumer<String> consumer)
+      throws IOException {
+    return this.request(DaemonProtocol.COMMAND_RUN + " " + pipeline, consumer, false);
+  }
+
+  /**
+   * Requests the daemon to shut down.
+   *
+   * @throws IOException when communicating with the daemon fails or the request is rejected.
+   */
+  public void shutdown() throws IOException {
+    this.request(DaemonProtocol.COMMAND_SHUTDOWN, (line) -> {
+    }, true);
+  }
+
+  /**
+   * Provides a command line entry point for the client.
+   *
+   * @param arguments a port file, a command ({@code list}, {@code run} or {@code shutdown}) and
+   * its arguments.
+   */
+  public static void main(String[] arguments) {
+    if (arguments.length < 2) {
+      System.err.println("Usage: <port file> list|run <pipeline>|shutdown");
+      System.exit(2);
+      return;
+    }
+
+    try {
+      PipelineDaemonClient client = fromPortFile(Paths.get(arguments[0]));
+
+      switch (arguments[1]) {
+        case "list":
+          client.list().forEach(System.out::println);
+          break;
+        case "run":
+          if (arguments.length != 3) {
+            System.err.println("Usage: <port file> run <pipeline>");
+            System.exit(2);
+            return;
+          }
+
+          if (!client.run(arguments[2], System.out::println)) {
+            System.exit(1);
+          }
+          break;
+        case "shutdown":
+          client.shutdown();
+          break;
+        default:
+          System.err.println("Unknown command: " + arguments[1]);
+          System.exit(2);
+      }
+    } catch (IOException ex) {
+      System.err.println("Failed to communicate with daemon: " + ex.getMessage());
+      System.exit(1);
+    }
+  }
+}
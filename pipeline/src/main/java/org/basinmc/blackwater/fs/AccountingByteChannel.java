@@ -0,0 +1,103 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import javax.annotation.Nonnull;
+
+/**
+ * Wraps an arbitrary byte channel in order to record the amount of data which is transferred
+ * through it.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class AccountingByteChannel implements SeekableByteChannel {
+
+  private final SeekableByteChannel delegate;
+  private final IoStatistics statistics;
+  private final boolean synchronous;
+
+  AccountingByteChannel(
+      @Nonnull SeekableByteChannel delegate,
+      @Nonnull IoStatistics statistics,
+      boolean synchronous) {
+    this.delegate = delegate;
+    this.statistics = statistics;
+    this.synchronous = synchronous;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.delegate.close();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isOpen() {
+    return this.delegate.isOpen();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long position() throws IOException {
+    return this.delegate.position();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SeekableByteChannel position(long newPosition) throws IOException {
+    this.delegate.position(newPosition);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    int read = this.delegate.read(dst);
+    this.statistics.recordRead(read);
+    return read;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long size() throws IOException {
+    return this.delegate.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SeekableByteChannel truncate(long size) throws IOException {
+    this.delegate.truncate(size);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    int written = this.delegate.write(src);
+    this.statistics.recordWrite(written);
+
+    if (this.synchronous) {
+      this.statistics.recordSync();
+    }
+
+    return written;
+  }
+}
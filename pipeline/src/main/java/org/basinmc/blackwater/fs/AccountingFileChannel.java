@@ -0,0 +1,248 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Wraps a file channel in order to record the amount of data which is transferred through
+ * it.</p>
+ *
+ * <p>Since accesses to memory mapped regions cannot be observed, mapping a region is accounted for
+ * as if the entire region was read (or written in case of writable mappings).</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class AccountingFileChannel extends FileChannel {
+
+  private final FileChannel delegate;
+  private final IoStatistics statistics;
+  private final boolean synchronous;
+
+  AccountingFileChannel(
+      @Nonnull FileChannel delegate,
+      @Nonnull IoStatistics statistics,
+      boolean synchronous) {
+    this.delegate = delegate;
+    this.statistics = statistics;
+    this.synchronous = synchronous;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void force(boolean metaData) throws IOException {
+    this.delegate.force(metaData);
+    this.statistics.recordSync();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void implCloseChannel() throws IOException {
+    this.delegate.close();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileLock lock(long position, long size, boolean shared) throws IOException {
+    return this.delegate.lock(position, size, shared);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+    MappedByteBuffer buffer = this.delegate.map(mode, position, size);
+
+    if (mode == MapMode.READ_ONLY) {
+      this.statistics.recordRead(size);
+    } else {
+      this.statistics.recordWrite(size);
+    }
+
+    return buffer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long position() throws IOException {
+    return this.delegate.position();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileChannel position(long newPosition) throws IOException {
+    this.delegate.position(newPosition);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    return this.recordRead(this.delegate.read(dst));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+    return this.recordRead(this.delegate.read(dsts, offset, length));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read(ByteBuffer dst, long position) throws IOException {
+    return this.recordRead(this.delegate.read(dst, position));
+  }
+
+  /**
+   * Records a read operation.
+   *
+   * @param bytes the amount of bytes which have been read.
+   * @return the amount of bytes which have been read.
+   */
+  private int recordRead(int bytes) {
+    this.statistics.recordRead(bytes);
+    return bytes;
+  }
+
+  /**
+   * Records a read operation.
+   *
+   * @param bytes the amount of bytes which have been read.
+   * @return the amount of bytes which have been read.
+   */
+  private long recordRead(long bytes) {
+    this.statistics.recordRead(bytes);
+    return bytes;
+  }
+
+  /**
+   * Records a write operation.
+   *
+   * @param bytes the amount of bytes which have been written.
+   * @return the amount of bytes which have been written.
+   */
+  private int recordWrite(int bytes) {
+    return (int) this.recordWrite((long) bytes);
+  }
+
+  /**
+   * Records a write operation.
+   *
+   * @param bytes the amount of bytes which have been written.
+   * @return the amount of bytes which have been written.
+   */
+  private long recordWrite(long bytes) {
+    this.statistics.recordWrite(bytes);
+
+    if (this.synchronous) {
+      this.statistics.recordSync();
+    }
+
+    return bytes;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long size() throws IOException {
+    return this.delegate.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long transferFrom(ReadableByteChannel src, long position, long count)
+      throws IOException {
+    // when both channels are accounted for, we'll pass the unwrapped channel in order to retain
+    // the ability of the delegate to transfer the data without copying it into user space
+    if (src instanceof AccountingFileChannel) {
+      AccountingFileChannel source = (AccountingFileChannel) src;
+      long transferred = this.delegate.transferFrom(source.delegate, position, count);
+      source.recordRead(transferred);
+      return this.recordWrite(transferred);
+    }
+
+    return this.recordWrite(this.delegate.transferFrom(src, position, count));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long transferTo(long position, long count, WritableByteChannel target)
+      throws IOException {
+    if (target instanceof AccountingFileChannel) {
+      AccountingFileChannel destination = (AccountingFileChannel) target;
+      long transferred = this.delegate.transferTo(position, count, destination.delegate);
+      destination.recordWrite(transferred);
+      return this.recordRead(transferred);
+    }
+
+    return this.recordRead(this.delegate.transferTo(position, count, target));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileChannel truncate(long size) throws IOException {
+    this.delegate.truncate(size);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+    return this.delegate.tryLock(position, size, shared);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    return this.recordWrite(this.delegate.write(src));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    return this.recordWrite(this.delegate.write(srcs, offset, length));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int write(ByteBuffer src, long position) throws IOException {
+    return this.recordWrite(this.delegate.write(src, position));
+  }
+}
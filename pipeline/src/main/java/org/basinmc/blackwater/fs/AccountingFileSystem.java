@@ -0,0 +1,207 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>Wraps an arbitrary file system in order to keep track of the amount of data which is read
+ * from or written to it.</p>
+ *
+ * <p>Paths which belong to this file system are obtained by wrapping paths of the delegate file
+ * system (see {@link #wrap(Path)}). All operations which are performed on such paths (as well as
+ * on paths derived from them) are forwarded to the delegate file system and recorded within the
+ * statistics of this file system.</p>
+ *
+ * <p>Since the wrapped paths are associated with a different provider than their delegates,
+ * operations which involve paths of both file systems (for instance, moving a directory from a
+ * wrapped path to an unwrapped path) are performed like operations across file system boundaries.
+ * {@link Path#toFile()} returns the delegate file and thus bypasses the accounting.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class AccountingFileSystem extends FileSystem {
+
+  private final FileSystem delegate;
+  private final AccountingFileSystemProvider provider;
+  private final IoStatistics statistics = new IoStatistics();
+
+  public AccountingFileSystem() {
+    this(FileSystems.getDefault());
+  }
+
+  public AccountingFileSystem(@Nonnull FileSystem delegate) {
+    this.delegate = delegate;
+    this.provider = new AccountingFileSystemProvider(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    // the delegate file system is owned by somebody else and may thus not be closed here
+  }
+
+  /**
+   * Retrieves the file system which is wrapped by this file system.
+   *
+   * @return a file system.
+   */
+  @Nonnull
+  public FileSystem getDelegate() {
+    return this.delegate;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Iterable<FileStore> getFileStores() {
+    return this.delegate.getFileStores();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getPath(@Nonnull String first, @Nonnull String... more) {
+    return this.wrap(this.delegate.getPath(first, more));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PathMatcher getPathMatcher(String syntaxAndPattern) {
+    PathMatcher matcher = this.delegate.getPathMatcher(syntaxAndPattern);
+    return (path) -> matcher.matches(this.unwrap(path));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Iterable<Path> getRootDirectories() {
+    return StreamSupport.stream(this.delegate.getRootDirectories().spliterator(), false)
+        .map(this::wrap)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getSeparator() {
+    return this.delegate.getSeparator();
+  }
+
+  /**
+   * Retrieves the statistics which have been recorded by this file system.
+   *
+   * @return a set of statistics.
+   */
+  @Nonnull
+  public IoStatistics getStatistics() {
+    return this.statistics;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public UserPrincipalLookupService getUserPrincipalLookupService() {
+    return this.delegate.getUserPrincipalLookupService();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isOpen() {
+    return this.delegate.isOpen();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isReadOnly() {
+    return this.delegate.isReadOnly();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public WatchService newWatchService() throws IOException {
+    return this.delegate.newWatchService();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileSystemProvider provider() {
+    return this.provider;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<String> supportedFileAttributeViews() {
+    return this.delegate.supportedFileAttributeViews();
+  }
+
+  /**
+   * Retrieves the delegate of a path which belongs to this file system (or returns the path
+   * itself if it belongs to a different file system).
+   *
+   * @param path a path.
+   * @return an unwrapped path.
+   */
+  @Nullable
+  Path unwrap(@Nullable Path path) {
+    if (path instanceof AccountingPath) {
+      return ((AccountingPath) path).getDelegate();
+    }
+
+    return path;
+  }
+
+  /**
+   * Wraps a path of the delegate file system in order to account for all operations which are
+   * performed on it.
+   *
+   * @param path a path of the delegate file system.
+   * @return a wrapped path.
+   * @throws IllegalArgumentException when the path does not belong to the delegate file system.
+   */
+  @Nonnull
+  public Path wrap(@Nonnull Path path) {
+    if (path instanceof AccountingPath && ((AccountingPath) path).getFileSystem() == this) {
+      return path;
+    }
+
+    Path unwrapped = this.unwrap(path);
+
+    if (unwrapped.getFileSystem() != this.delegate) {
+      throw new IllegalArgumentException(
+          "Path " + path + " does not belong to the delegate file system");
+    }
+
+    return new AccountingPath(this, unwrapped);
+  }
+}
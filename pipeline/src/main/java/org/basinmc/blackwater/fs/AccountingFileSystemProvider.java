@@ -0,0 +1,312 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.DirectoryStream.Filter;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides a file system provider which forwards all operations to the provider of its delegate
+ * file system while recording the amount of data which is transferred.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class AccountingFileSystemProvider extends FileSystemProvider {
+
+  private final AccountingFileSystem fileSystem;
+
+  AccountingFileSystemProvider(@Nonnull AccountingFileSystem fileSystem) {
+    this.fileSystem = fileSystem;
+  }
+
+  /**
+   * Evaluates whether the supplied set of options requests synchronous writes.
+   *
+   * @param options a set of open options.
+   * @return true if synchronous, false otherwise.
+   */
+  private static boolean isSynchronous(@Nonnull Set<? extends OpenOption> options) {
+    return options.contains(StandardOpenOption.SYNC) || options
+        .contains(StandardOpenOption.DSYNC);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void checkAccess(Path path, AccessMode... modes) throws IOException {
+    this.getDelegate().checkAccess(this.unwrap(path), modes);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void copy(Path source, Path target, CopyOption... options) throws IOException {
+    Path unwrappedSource = this.unwrap(source);
+    this.getDelegate().copy(unwrappedSource, this.unwrap(target), options);
+
+    // the delegate provider may very well copy the file without reading it into memory at all but
+    // we'll still account for the transfer as it is what the caller would otherwise have done
+    BasicFileAttributes attributes = this.getDelegate()
+        .readAttributes(unwrappedSource, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+    if (attributes.isRegularFile()) {
+      IoStatistics statistics = this.fileSystem.getStatistics();
+      statistics.recordOpen();
+      statistics.recordOpen();
+      statistics.recordRead(attributes.size());
+      statistics.recordWrite(attributes.size());
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+    this.getDelegate().createDirectory(this.unwrap(dir), attrs);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createLink(Path link, Path existing) throws IOException {
+    this.getDelegate().createLink(this.unwrap(link), this.unwrap(existing));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createSymbolicLink(Path link, Path target, FileAttribute<?>... attrs)
+      throws IOException {
+    this.getDelegate().createSymbolicLink(this.unwrap(link), this.unwrap(target), attrs);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete(Path path) throws IOException {
+    this.getDelegate().delete(this.unwrap(path));
+  }
+
+  /**
+   * Retrieves the provider of the delegate file system.
+   *
+   * @return a provider.
+   */
+  @Nonnull
+  private FileSystemProvider getDelegate() {
+    return this.fileSystem.getDelegate().provider();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type,
+      LinkOption... options) {
+    return this.getDelegate().getFileAttributeView(this.unwrap(path), type, options);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileStore getFileStore(Path path) throws IOException {
+    return this.getDelegate().getFileStore(this.unwrap(path));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileSystem getFileSystem(URI uri) {
+    throw new UnsupportedOperationException("Accounting file systems cannot be looked up by URI");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getPath(URI uri) {
+    throw new UnsupportedOperationException("Accounting file systems cannot be looked up by URI");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getScheme() {
+    return "blackwater-accounting";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isHidden(Path path) throws IOException {
+    return this.getDelegate().isHidden(this.unwrap(path));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isSameFile(Path path, Path path2) throws IOException {
+    return this.getDelegate().isSameFile(this.unwrap(path), this.unwrap(path2));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void move(Path source, Path target, CopyOption... options) throws IOException {
+    this.getDelegate().move(this.unwrap(source), this.unwrap(target), options);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+      FileAttribute<?>... attrs) throws IOException {
+    SeekableByteChannel channel = this.getDelegate()
+        .newByteChannel(this.unwrap(path), options, attrs);
+    this.fileSystem.getStatistics().recordOpen();
+
+    if (channel instanceof FileChannel) {
+      return new AccountingFileChannel((FileChannel) channel, this.fileSystem.getStatistics(),
+          isSynchronous(options));
+    }
+
+    return new AccountingByteChannel(channel, this.fileSystem.getStatistics(),
+        isSynchronous(options));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public DirectoryStream<Path> newDirectoryStream(Path dir, Filter<? super Path> filter)
+      throws IOException {
+    DirectoryStream<Path> stream = this.getDelegate()
+        .newDirectoryStream(this.unwrap(dir), (p) -> filter.accept(this.fileSystem.wrap(p)));
+
+    return new DirectoryStream<Path>() {
+      @Override
+      public void close() throws IOException {
+        stream.close();
+      }
+
+      @Override
+      public Iterator<Path> iterator() {
+        Iterator<Path> it = stream.iterator();
+
+        return new Iterator<Path>() {
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          public Path next() {
+            return AccountingFileSystemProvider.this.fileSystem.wrap(it.next());
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options,
+      FileAttribute<?>... attrs) throws IOException {
+    FileChannel channel = this.getDelegate().newFileChannel(this.unwrap(path), options, attrs);
+    this.fileSystem.getStatistics().recordOpen();
+
+    return new AccountingFileChannel(channel, this.fileSystem.getStatistics(),
+        isSynchronous(options));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+    throw new UnsupportedOperationException(
+        "Accounting file systems must be created via their constructor");
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type,
+      LinkOption... options) throws IOException {
+    return this.getDelegate().readAttributes(this.unwrap(path), type, options);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options)
+      throws IOException {
+    return this.getDelegate().readAttributes(this.unwrap(path), attributes, options);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path readSymbolicLink(Path link) throws IOException {
+    Path target = this.getDelegate().readSymbolicLink(this.unwrap(link));
+    return this.fileSystem.wrap(target);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setAttribute(Path path, String attribute, Object value, LinkOption... options)
+      throws IOException {
+    this.getDelegate().setAttribute(this.unwrap(path), attribute, value, options);
+  }
+
+  /**
+   * Retrieves the delegate of a path.
+   *
+   * @param path a path.
+   * @return a path of the delegate file system.
+   */
+  @Nonnull
+  private Path unwrap(@Nonnull Path path) {
+    Path unwrapped = this.fileSystem.unwrap(path);
+    assert unwrapped != null;
+    return unwrapped;
+  }
+}
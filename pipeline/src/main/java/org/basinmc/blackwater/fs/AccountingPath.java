@@ -0,0 +1,307 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent.Kind;
+import java.nio.file.WatchEvent.Modifier;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Represents a path which belongs to an {@link AccountingFileSystem}.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class AccountingPath implements Path {
+
+  private final AccountingFileSystem fileSystem;
+  private final Path delegate;
+
+  AccountingPath(@Nonnull AccountingFileSystem fileSystem, @Nonnull Path delegate) {
+    this.fileSystem = fileSystem;
+    this.delegate = delegate;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareTo(@Nonnull Path other) {
+    return this.delegate.compareTo(this.fileSystem.unwrap(other));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean endsWith(@Nonnull Path other) {
+    return this.delegate.endsWith(this.fileSystem.unwrap(other));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean endsWith(@Nonnull String other) {
+    return this.delegate.endsWith(other);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AccountingPath)) {
+      return false;
+    }
+    AccountingPath that = (AccountingPath) o;
+    return this.fileSystem == that.fileSystem && this.delegate.equals(that.delegate);
+  }
+
+  /**
+   * Retrieves the path which is wrapped by this path.
+   *
+   * @return a path of the delegate file system.
+   */
+  @Nonnull
+  Path getDelegate() {
+    return this.delegate;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getFileName() {
+    return this.wrap(this.delegate.getFileName());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AccountingFileSystem getFileSystem() {
+    return this.fileSystem;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getName(int index) {
+    return this.wrap(this.delegate.getName(index));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getNameCount() {
+    return this.delegate.getNameCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getParent() {
+    return this.wrap(this.delegate.getParent());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path getRoot() {
+    return this.wrap(this.delegate.getRoot());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int hashCode() {
+    return this.delegate.hashCode();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isAbsolute() {
+    return this.delegate.isAbsolute();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Iterator<Path> iterator() {
+    Iterator<Path> it = this.delegate.iterator();
+
+    return new Iterator<Path>() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public Path next() {
+        return AccountingPath.this.wrap(it.next());
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path normalize() {
+    return this.wrap(this.delegate.normalize());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public WatchKey register(WatchService watcher, Kind<?>[] events, Modifier... modifiers)
+      throws IOException {
+    return this.delegate.register(watcher, events, modifiers);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public WatchKey register(WatchService watcher, Kind<?>... events) throws IOException {
+    return this.delegate.register(watcher, events);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path relativize(@Nonnull Path other) {
+    return this.wrap(this.delegate.relativize(this.fileSystem.unwrap(other)));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path resolve(@Nonnull Path other) {
+    return this.wrap(this.delegate.resolve(this.fileSystem.unwrap(other)));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path resolve(@Nonnull String other) {
+    return this.wrap(this.delegate.resolve(other));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path resolveSibling(@Nonnull Path other) {
+    return this.wrap(this.delegate.resolveSibling(this.fileSystem.unwrap(other)));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path resolveSibling(@Nonnull String other) {
+    return this.wrap(this.delegate.resolveSibling(other));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean startsWith(@Nonnull Path other) {
+    return this.delegate.startsWith(this.fileSystem.unwrap(other));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean startsWith(@Nonnull String other) {
+    return this.delegate.startsWith(other);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path subpath(int beginIndex, int endIndex) {
+    return this.wrap(this.delegate.subpath(beginIndex, endIndex));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path toAbsolutePath() {
+    return this.wrap(this.delegate.toAbsolutePath());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public File toFile() {
+    return this.delegate.toFile();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Path toRealPath(@Nonnull LinkOption... options) throws IOException {
+    return this.wrap(this.delegate.toRealPath(options));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return this.delegate.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public URI toUri() {
+    return this.delegate.toUri();
+  }
+
+  /**
+   * Wraps a path which has been derived from the delegate of this path.
+   *
+   * @param path a path (or null).
+   * @return a wrapped path (or null).
+   */
+  @Nullable
+  private Path wrap(@Nullable Path path) {
+    if (path == null) {
+      return null;
+    }
+
+    return new AccountingPath(this.fileSystem, path);
+  }
+}
@@ -0,0 +1,102 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Accumulates the file system operations which have been performed through an
+ * {@link AccountingFileSystem}.</p>
+ *
+ * <p>Instances of this class are thread safe and may be updated by any number of threads
+ * concurrently.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class IoStatistics implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final LongAdder bytesRead = new LongAdder();
+  private final LongAdder bytesWritten = new LongAdder();
+  private final LongAdder filesOpened = new LongAdder();
+  private final LongAdder syncs = new LongAdder();
+
+  /**
+   * Adds the values of another statistics instance to this instance.
+   *
+   * @param statistics a statistics instance.
+   */
+  public void add(@Nonnull IoStatistics statistics) {
+    this.bytesRead.add(statistics.getBytesRead());
+    this.bytesWritten.add(statistics.getBytesWritten());
+    this.filesOpened.add(statistics.getFilesOpened());
+    this.syncs.add(statistics.getSyncs());
+  }
+
+  /**
+   * Retrieves the total amount of bytes which have been read.
+   *
+   * @return an amount of bytes.
+   */
+  public long getBytesRead() {
+    return this.bytesRead.sum();
+  }
+
+  /**
+   * Retrieves the total amount of bytes which have been written.
+   *
+   * @return an amount of bytes.
+   */
+  public long getBytesWritten() {
+    return this.bytesWritten.sum();
+  }
+
+  /**
+   * Retrieves the total amount of files which have been opened.
+   *
+   * @return an amount of files.
+   */
+  public long getFilesOpened() {
+    return this.filesOpened.sum();
+  }
+
+  /**
+   * Retrieves the total amount of requests to synchronize file contents with the underlying
+   * storage device.
+   *
+   * @return an amount of synchronizations.
+   */
+  public long getSyncs() {
+    return this.syncs.sum();
+  }
+
+  void recordOpen() {
+    this.filesOpened.increment();
+  }
+
+  void recordRead(long bytes) {
+    if (bytes > 0) {
+      this.bytesRead.add(bytes);
+    }
+  }
+
+  void recordSync() {
+    this.syncs.increment();
+  }
+
+  void recordWrite(long bytes) {
+    if (bytes > 0) {
+      this.bytesWritten.add(bytes);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return String.format("%d bytes read, %d bytes written, %d files opened, %d syncs",
+        this.getBytesRead(), this.getBytesWritten(), this.getFilesOpened(), this.getSyncs());
+  }
+}
@@ -0,0 +1,155 @@
+package org.basinmc.blackwater.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Represents a monotonically increasing value which is tracked for each combination of label
+ * values.</p>
+ *
+ * <p>Counters are backed by striped adders and may thus be updated concurrently by any number of
+ * threads without contention.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see MetricRegistry#counter(String, String, String...)
+ */
+public final class Counter {
+
+  private final String name;
+  private final String help;
+  private final double scale;
+  private final List<String> labelNames;
+  private final ConcurrentMap<List<String>, LongAdder> values = new ConcurrentHashMap<>();
+
+  Counter(
+      @Nonnull String name,
+      @Nonnull String help,
+      double scale,
+      @Nonnull List<String> labelNames) {
+    this.name = name;
+    this.help = help;
+    this.scale = scale;
+    this.labelNames = Collections.unmodifiableList(labelNames);
+  }
+
+  /**
+   * Increments the counter for the specified label values by the specified amount.
+   *
+   * @param amount a positive amount.
+   * @param labelValues a value for each label of this counter.
+   * @throws IllegalArgumentException when the amount is negative or the amount of label values
+   * does not match the amount of labels.
+   */
+  public void add(long amount, @Nonnull String... labelValues) {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Counters cannot be decremented");
+    }
+
+    this.values.computeIfAbsent(this.toKey(labelValues), (k) -> new LongAdder()).add(amount);
+  }
+
+  /**
+   * Retrieves the current value of the counter for the specified label values.
+   *
+   * @param labelValues a value for each label of this counter.
+   * @return a value (in the unit it has been recorded in).
+   * @throws IllegalArgumentException when the amount of label values does not match the amount
+   * of labels.
+   */
+  public long get(@Nonnull String... labelValues) {
+    LongAdder adder = this.values.get(this.toKey(labelValues));
+
+    if (adder == null) {
+      return 0;
+    }
+
+    return adder.sum();
+  }
+
+  /**
+   * Retrieves a human readable description of this counter.
+   *
+   * @return a description.
+   */
+  @Nonnull
+  public String getHelp() {
+    return this.help;
+  }
+
+  /**
+   * Retrieves the names of all labels which are tracked by this counter.
+   *
+   * @return a list of label names.
+   */
+  @Nonnull
+  public List<String> getLabelNames() {
+    return this.labelNames;
+  }
+
+  /**
+   * Retrieves the name of this counter.
+   *
+   * @return a name.
+   */
+  @Nonnull
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the factor which is applied to recorded values when they are exported (for
+   * instance, in order to convert nanoseconds to seconds).
+   *
+   * @return a scale.
+   */
+  public double getScale() {
+    return this.scale;
+  }
+
+  /**
+   * Increments the counter for the specified label values by one.
+   *
+   * @param labelValues a value for each label of this counter.
+   * @throws IllegalArgumentException when the amount of label values does not match the amount
+   * of labels.
+   */
+  public void increment(@Nonnull String... labelValues) {
+    this.add(1, labelValues);
+  }
+
+  /**
+   * Creates a point in time copy of all values which have been recorded by this counter.
+   *
+   * @return a map of label values and their respective counter values.
+   */
+  @Nonnull
+  public Map<List<String>, Long> snapshot() {
+    Map<List<String>, Long> snapshot = new LinkedHashMap<>();
+    this.values.forEach((k, v) -> snapshot.put(k, v.sum()));
+    return snapshot;
+  }
+
+  /**
+   * Converts a set of label values into a map key.
+   *
+   * @param labelValues a value for each label of this counter.
+   * @return a key.
+   */
+  @Nonnull
+  private List<String> toKey(@Nonnull String[] labelValues) {
+    if (labelValues.length != this.labelNames.size()) {
+      throw new IllegalArgumentException(
+          "Counter " + this.name + " expects " + this.labelNames.size() + " label values but "
+              + labelValues.length + " were given");
+    }
+
+    return Collections.unmodifiableList(Arrays.asList(labelValues.clone()));
+  }
+}
@@ -0,0 +1,242 @@
+package org.basinmc.blackwater.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Provides a registry of named counters which may be exported in the Prometheus text
+ * format.</p>
+ *
+ * <p>Registries are thread safe and are typically shared across multiple pipeline executions in
+ * order to aggregate their metrics.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class MetricRegistry {
+
+  private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+  private static final double NANOSECONDS_PER_SECOND = 1_000_000_000D;
+
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * Escapes a label value or help text for use within the Prometheus text format.
+   *
+   * @param value an arbitrary string.
+   * @param quotes true if quotes are to be escaped, false otherwise.
+   * @return an escaped string.
+   */
+  @Nonnull
+  private static String escape(@Nonnull String value, boolean quotes) {
+    StringBuilder builder = new StringBuilder(value.length());
+
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+
+      if (c == '\\') {
+        builder.append("\\\\");
+      } else if (c == '\n') {
+        builder.append("\\n");
+      } else if (c == '"' && quotes) {
+        builder.append("\\\"");
+      } else {
+        builder.append(c);
+      }
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Retrieves (or creates) a counter.
+   *
+   * @param name a metric name (such as "blackwater_tasks_total").
+   * @param help a human readable description.
+   * @param labelNames the names of all labels which are tracked by the counter.
+   * @return a counter.
+   * @throws IllegalArgumentException when the name or a label name is invalid or a counter with
+   * the same name but different labels has already been registered.
+   */
+  @Nonnull
+  public Counter counter(
+      @Nonnull String name,
+      @Nonnull String help,
+      @Nonnull String... labelNames) {
+    return this.register(name, help, 1, labelNames);
+  }
+
+  /**
+   * Retrieves (or creates) a counter which accumulates durations in nanoseconds and exports them
+   * in seconds.
+   *
+   * @param name a metric name (such as "blackwater_process_duration_seconds_total").
+   * @param help a human readable description.
+   * @param labelNames the names of all labels which are tracked by the counter.
+   * @return a counter.
+   * @throws IllegalArgumentException when the name or a label name is invalid or a counter with
+   * the same name but different labels has already been registered.
+   */
+  @Nonnull
+  public Counter durationCounter(
+      @Nonnull String name,
+      @Nonnull String help,
+      @Nonnull String... labelNames) {
+    return this.register(name, help, 1 / NANOSECONDS_PER_SECOND, labelNames);
+  }
+
+  /**
+   * Retrieves all counters which have been registered with this registry.
+   *
+   * @return a collection of counters.
+   */
+  @Nonnull
+  public Collection<Counter> getCounters() {
+    return Collections.unmodifiableCollection(this.counters.values());
+  }
+
+  /**
+   * Retrieves (or creates) a counter.
+   *
+   * @param name a metric name.
+   * @param help a human readable description.
+   * @param scale a scale which is applied upon export.
+   * @param labelNames the names of all labels which are tracked by the counter.
+   * @return a counter.
+   */
+  @Nonnull
+  private Counter register(
+      @Nonnull String name,
+      @Nonnull String help,
+      double scale,
+      @Nonnull String[] labelNames) {
+    if (!NAME_PATTERN.matcher(name).matches()) {
+      throw new IllegalArgumentException("Illegal metric name: " + name);
+    }
+
+    for (String labelName : labelNames) {
+      if (!NAME_PATTERN.matcher(labelName).matches() || labelName.contains(":")) {
+        throw new IllegalArgumentException("Illegal label name: " + labelName);
+      }
+    }
+
+    List<String> labels = Arrays.asList(labelNames.clone());
+    Counter counter = this.counters
+        .computeIfAbsent(name, (k) -> new Counter(name, help, scale, labels));
+
+    if (!counter.getLabelNames().equals(labels) || counter.getScale() != scale) {
+      throw new IllegalArgumentException(
+          "Counter " + name + " has already been registered with a different configuration");
+    }
+
+    return counter;
+  }
+
+  /**
+   * Creates a point in time copy of all counters within this registry.
+   *
+   * @return a map of counter names and their respective values.
+   * @see Counter#snapshot()
+   */
+  @Nonnull
+  public Map<String, Map<List<String>, Long>> snapshot() {
+    Map<String, Map<List<String>, Long>> snapshot = new LinkedHashMap<>();
+    this.counters.values().stream()
+        .sorted((c1, c2) -> c1.getName().compareTo(c2.getName()))
+        .forEach((c) -> snapshot.put(c.getName(), c.snapshot()));
+    return snapshot;
+  }
+
+  /**
+   * <p>Writes all counters to the specified file in the Prometheus text format (replacing it if
+   * it already exists).</p>
+   *
+   * <p>The file is replaced atomically (where supported) and may thus be picked up by the
+   * textfile collector of the Prometheus node exporter at any time.</p>
+   *
+   * @param file a file.
+   * @throws IOException when writing the file fails.
+   */
+  public void write(@Nonnull Path file) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+
+    try {
+      try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+        this.write(writer);
+      }
+
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Writes all counters to the supplied writer in the Prometheus text format.
+   *
+   * @param writer a writer.
+   * @throws IOException when writing fails.
+   */
+  public void write(@Nonnull Writer writer) throws IOException {
+    StringBuilder builder = new StringBuilder();
+
+    for (Counter counter : this.counters.values().stream()
+        .sorted((c1, c2) -> c1.getName().compareTo(c2.getName()))
+        .toArray(Counter[]::new)) {
+      builder.setLength(0);
+      builder.append("# HELP ").append(counter.getName()).append(' ')
+          .append(escape(counter.getHelp(), false)).append('\n');
+      builder.append("# TYPE ").append(counter.getName()).append(" counter\n");
+
+      for (Map.Entry<List<String>, Long> entry : counter.snapshot().entrySet()) {
+        builder.append(counter.getName());
+
+        if (!counter.getLabelNames().isEmpty()) {
+          builder.append('{');
+
+          for (int i = 0; i < counter.getLabelNames().size(); ++i) {
+            if (i != 0) {
+              builder.append(',');
+            }
+
+            builder.append(counter.getLabelNames().get(i))
+                .append("=\"")
+                .append(escape(entry.getKey().get(i), true))
+                .append('"');
+          }
+
+          builder.append('}');
+        }
+
+        builder.append(' ');
+
+        if (counter.getScale() == 1) {
+          builder.append(entry.getValue());
+        } else {
+          builder.append(entry.getValue() * counter.getScale());
+        }
+
+        builder.append('\n');
+      }
+
+      writer.write(builder.toString());
+    }
+
+    writer.flush();
+  }
+}
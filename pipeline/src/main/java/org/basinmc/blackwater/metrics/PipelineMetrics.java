@@ -0,0 +1,217 @@
+package org.basinmc.blackwater.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.trace.Span;
+import org.basinmc.blackwater.trace.Tracer;
+
+/**
+ * <p>Aggregates the spans of one or more pipelines into a set of counters.</p>
+ *
+ * <p>Instances of this class are registered with a pipeline via
+ * {@link org.basinmc.blackwater.Pipeline.Builder#withTracer(Tracer)} and record the following
+ * metrics within their registry:</p>
+ *
+ * <ul>
+ * <li>{@code blackwater_tasks_total}: Tasks by status (executed, skipped or failed)</li>
+ * <li>{@code blackwater_task_duration_seconds_total}: Time spent on tasks by task name</li>
+ * <li>{@code blackwater_cache_evaluations_total}: Cache decisions by task name and result (hit
+ * when a task with an output artifact has been skipped, miss when it has been executed)</li>
+ * <li>{@code blackwater_resolved_bytes_total}: Bytes of resolved artifacts by artifact
+ * manager</li>
+ * <li>{@code blackwater_published_bytes_total}: Bytes of published artifacts by artifact
+ * manager</li>
+ * <li>{@code blackwater_temporary_bytes_total}: Bytes allocated within temporary files and task
+ * output directories (measured when they are cleaned up)</li>
+ * <li>{@code blackwater_process_spawns_total}: External processes which have been spawned</li>
+ * <li>{@code blackwater_process_duration_seconds_total}: Time spent on spawning and awaiting
+ * external processes</li>
+ * </ul>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class PipelineMetrics implements Tracer {
+
+  private final MetricRegistry registry;
+
+  private final Counter tasks;
+  private final Counter taskDuration;
+  private final Counter cacheEvaluations;
+  private final Counter resolvedBytes;
+  private final Counter publishedBytes;
+  private final Counter temporaryBytes;
+  private final Counter processSpawns;
+  private final Counter processDuration;
+
+  public PipelineMetrics() {
+    this(new MetricRegistry());
+  }
+
+  public PipelineMetrics(@Nonnull MetricRegistry registry) {
+    this.registry = registry;
+
+    this.tasks = registry.counter("blackwater_tasks_total",
+        "Total number of tasks by status", "status");
+    this.taskDuration = registry.durationCounter("blackwater_task_duration_seconds_total",
+        "Total time spent on tasks", "task");
+    this.cacheEvaluations = registry.counter("blackwater_cache_evaluations_total",
+        "Total number of cache decisions by result", "task", "result");
+    this.resolvedBytes = registry.counter("blackwater_resolved_bytes_total",
+        "Total size of resolved artifacts", "manager");
+    this.publishedBytes = registry.counter("blackwater_published_bytes_total",
+        "Total size of published artifacts", "manager");
+    this.temporaryBytes = registry.counter("blackwater_temporary_bytes_total",
+        "Total size of temporary files and task outputs");
+    this.processSpawns = registry.counter("blackwater_process_spawns_total",
+        "Total number of spawned external processes");
+    this.processDuration = registry.durationCounter("blackwater_process_duration_seconds_total",
+        "Total time spent on spawning and awaiting external processes");
+  }
+
+  /**
+   * Retrieves the registry which receives the metrics.
+   *
+   * @return a registry.
+   */
+  @Nonnull
+  public MetricRegistry getRegistry() {
+    return this.registry;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Span start(@Nonnull String category, @Nonnull String name) {
+    switch (category) {
+      case "task":
+      case "resolve":
+      case "publish":
+      case "cleanup":
+      case "spawn":
+      case "wait":
+        return new MetricSpan(category, name);
+      default:
+        return Span.noop();
+    }
+  }
+
+  /**
+   * Updates the counters which correspond to a completed span.
+   *
+   * @param span a span.
+   * @param duration the span duration in nanoseconds.
+   */
+  private void record(@Nonnull MetricSpan span, long duration) {
+    switch (span.category) {
+      case "task":
+        String status;
+
+        if (Boolean.TRUE.equals(span.attributes.get("failed"))) {
+          status = "failed";
+        } else if (Boolean.TRUE.equals(span.attributes.get("executed"))) {
+          status = "executed";
+        } else {
+          status = "skipped";
+        }
+
+        this.tasks.increment(status);
+        this.taskDuration.add(duration, span.name);
+
+        // cache results are derived from the final decision rather than individual evaluations as
+        // the cache may be evaluated more than once (or not at all when an input has changed)
+        // while tasks with enforced executions do not consult the cache at all
+        if (Boolean.TRUE.equals(span.attributes.get("cacheable")) && !"failed".equals(status)) {
+          this.cacheEvaluations.increment(span.name, "skipped".equals(status) ? "hit" : "miss");
+        }
+        break;
+      case "resolve":
+        this.resolvedBytes.add(span.getBytes(), span.getManager());
+        break;
+      case "publish":
+        if (Boolean.TRUE.equals(span.attributes.get("changed"))) {
+          this.publishedBytes.add(span.getBytes(), span.getManager());
+        }
+        break;
+      case "cleanup":
+        this.temporaryBytes.add(span.getBytes());
+        break;
+      case "spawn":
+        this.processSpawns.increment();
+        this.processDuration.add(duration);
+        break;
+      case "wait":
+        this.processDuration.add(duration);
+        break;
+    }
+  }
+
+  /**
+   * Provides a span which updates the counters of this instance once closed.
+   */
+  private final class MetricSpan implements Span {
+
+    private final String category;
+    private final String name;
+    private final long start = System.nanoTime();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private boolean closed;
+
+    private MetricSpan(@Nonnull String category, @Nonnull String name) {
+      this.category = category;
+      this.name = name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      PipelineMetrics.this.record(this, System.nanoTime() - this.start);
+    }
+
+    /**
+     * Retrieves the amount of bytes which have been attached to this span.
+     *
+     * @return an amount of bytes.
+     */
+    private long getBytes() {
+      Object bytes = this.attributes.get("bytes");
+
+      if (bytes instanceof Number) {
+        return Math.max(0, ((Number) bytes).longValue());
+      }
+
+      return 0;
+    }
+
+    /**
+     * Retrieves the name of the artifact manager which has been attached to this span.
+     *
+     * @return a name (or an empty string).
+     */
+    @Nonnull
+    private String getManager() {
+      Object manager = this.attributes.get("manager");
+      return manager != null ? manager.toString() : "";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public synchronized Span setAttribute(@Nonnull String key, @Nullable Object value) {
+      this.attributes.put(key, value);
+      return this;
+    }
+  }
+}
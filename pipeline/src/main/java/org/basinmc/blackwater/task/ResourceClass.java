@@ -0,0 +1,31 @@
+package org.basinmc.blackwater.task;
+
+/**
+ * Provides a list of resource classes which tasks may consume during their execution.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see Task#getResourceWeights()
+ */
+public enum ResourceClass {
+
+  /**
+   * Identifies tasks which primarily perform computations within the virtual machine.
+   */
+  CPU,
+
+  /**
+   * Identifies tasks which primarily read from or write to local disks (e.g. copy or compress
+   * files).
+   */
+  IO,
+
+  /**
+   * Identifies tasks which primarily transfer data from or to remote hosts.
+   */
+  NETWORK,
+
+  /**
+   * Identifies tasks which spawn external processes.
+   */
+  PROCESS
+}
@@ -4,8 +4,10 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 import org.basinmc.blackwater.Pipeline;
@@ -46,6 +48,23 @@ public interface Task {
     return Collections.emptySet();
   }
 
+  /**
+   * <p>Retrieves a fingerprint which uniquely identifies the configuration of this task (e.g. the
+   * URL a file is downloaded from).</p>
+   *
+   * <p>Two tasks of the same type which return equal fingerprints are expected to produce the same
+   * output when given the same inputs and parameters. This permits pipelines to share a single
+   * execution of identical task registrations (see {@link
+   * org.basinmc.blackwater.ExecutionCoordinator}). Tasks which do not provide a fingerprint are
+   * never considered identical.</p>
+   *
+   * @return a fingerprint or an empty optional.
+   */
+  @NonNull
+  default Optional<String> getFingerprint() {
+    return Optional.empty();
+  }
+
   /**
    * <p>Retrieves a human readable name for this task.</p>
    *
@@ -73,6 +92,22 @@ public interface Task {
     return this.getAvailableParameterNames();
   }
 
+  /**
+   * <p>Retrieves the amount of resources which are consumed by this task while it is being
+   * executed.</p>
+   *
+   * <p>Pipelines which execute tasks concurrently will only admit a task once sufficient permits
+   * are available for each of its resource classes (see {@link
+   * Pipeline.Builder#withResourcePermits(ResourceClass, int)}). By default, tasks are assumed to
+   * consume a single {@link ResourceClass#CPU} permit.</p>
+   *
+   * @return a map of resource classes and their respective weights.
+   */
+  @NonNull
+  default Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.CPU, 1);
+  }
+
   /**
    * <p>Evaluates whether the supplied cached artifact is considered valid and thus whether or not
    * to invoke this task even when a cached artifact is already present</p>
@@ -205,6 +240,20 @@ public interface Task {
           .orElseThrow(() -> new TaskParameterException(
               "Illegal task configuration: \"" + name + "\" parameter is required"));
     }
+
+    /**
+     * <p>Retrieves the location at which the output of a previous execution of this task (such as
+     * its cached output artifact) is located (if any).</p>
+     *
+     * <p>Tasks may rely on this output in order to update their output incrementally but must not
+     * modify it.</p>
+     *
+     * @return a reference to the previous output or an empty optional.
+     */
+    @NonNull
+    default Optional<Path> getPreviousOutputPath() {
+      return Optional.empty();
+    }
   }
 
   /**
@@ -320,4 +369,146 @@ public interface Task {
     @Nonnull
     ParameterBuilder withForcedExecution(boolean value);
   }
+
+  /**
+   * <p>Provides a factory for fanned out task registrations (e.g. registrations which execute the
+   * same task for each element of a collection of inputs).</p>
+   *
+   * <p>Each input is identified by a unique key and results in a separate sub-execution (a slice)
+   * which writes its own output artifact and is thus cached independently of all other slices.
+   * Since slices do not depend on each other, they are executed concurrently when the pipeline
+   * permits it. When an aggregate output is selected, the outputs of all slices are joined into a
+   * directory which contains the output of each slice under its respective key.</p>
+   */
+  interface FanOutBuilder {
+
+    /**
+     * Passes the local builder object to the supplied consumer implementation to permit
+     * externalized configuration without requiring a break up of the builder configuration itself.
+     *
+     * @param consumer an arbitrary consumer.
+     * @return a reference to this builder.
+     */
+    @NonNull
+    default FanOutBuilder apply(@NonNull Consumer<FanOutBuilder> consumer) {
+      consumer.accept(this);
+      return this;
+    }
+
+    /**
+     * Passes each element of a collection along with the local builder object to the supplied
+     * consumer implementation in order to permit registering one slice per element.
+     *
+     * @param elements an arbitrary collection of elements.
+     * @param consumer a consumer which registers the slice for an element.
+     * @param <T> an element type.
+     * @return a reference to this builder.
+     */
+    @NonNull
+    default <T> FanOutBuilder forEach(@NonNull Iterable<T> elements,
+        @NonNull BiConsumer<FanOutBuilder, T> consumer) {
+      elements.forEach((e) -> consumer.accept(this, e));
+      return this;
+    }
+
+    /**
+     * Assembles the parameters within this builder and adds all slices (as well as the join of
+     * their outputs if desired) to the pipeline at their designated position.
+     *
+     * @throws TaskParameterException when no slices have been specified or the task requires
+     * parameters which have not been specified.
+     */
+    @Nonnull
+    Pipeline.Builder register() throws TaskParameterException;
+
+    /**
+     * Selects an artifact in which the joined outputs of all slices are stored.
+     *
+     * @param artifact an artifact reference.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    FanOutBuilder withAggregateArtifact(@Nonnull ArtifactReference artifact);
+
+    /**
+     * Selects a directory in which the joined outputs of all slices are stored.
+     *
+     * @param file an output directory.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    FanOutBuilder withAggregateFile(@Nonnull Path file);
+
+    /**
+     * Adds a slice which consumes the specified input artifact.
+     *
+     * @param key a key which uniquely identifies the slice.
+     * @param input an input artifact reference.
+     * @param output an output artifact reference.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when the key is empty, contains path separators or has
+     * already been used by another slice.
+     */
+    @Nonnull
+    FanOutBuilder withInputArtifact(@Nonnull String key, @Nonnull ArtifactReference input,
+        @Nonnull ArtifactReference output);
+
+    /**
+     * Adds a slice which consumes the specified input file or directory.
+     *
+     * @param key a key which uniquely identifies the slice.
+     * @param input an input file or directory.
+     * @param output an output artifact reference.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when the key is empty, contains path separators or has
+     * already been used by another slice.
+     */
+    @Nonnull
+    FanOutBuilder withInputFile(@Nonnull String key, @Nonnull Path input,
+        @Nonnull ArtifactReference output);
+
+    /**
+     * Selects an artifact for the specified input parameter of all slices.
+     *
+     * @param name a parameter name.
+     * @param artifact an artifact reference.
+     * @return a reference to this builder.
+     * @throws TaskParameterException when the specified parameter is not accepted by the task.
+     * @see #withParameter(String, Path)
+     */
+    @NonNull
+    FanOutBuilder withParameter(@NonNull String name, @NonNull ArtifactReference artifact)
+        throws TaskParameterException;
+
+    /**
+     * Selects a file for the specified input parameter of all slices.
+     *
+     * @param name a parameter name.
+     * @param file a file or directory reference.
+     * @return a reference to this builder.
+     * @throws TaskParameterException when the specified parameter is not accepted by the task.
+     * @see #withParameter(String, ArtifactReference)
+     */
+    @NonNull
+    FanOutBuilder withParameter(@NonNull String name, @NonNull Path file)
+        throws TaskParameterException;
+
+    /**
+     * @see #withForcedExecution(boolean)
+     */
+    @Nonnull
+    default FanOutBuilder withForcedExecution() {
+      return this.withForcedExecution(true);
+    }
+
+    /**
+     * Selects whether or not the pipeline is permitted to rely on cached artifacts when they are
+     * deemed valid or whether execution of all slices is always expected.
+     *
+     * @param value if true executes all slices at all times, otherwise evaluates cached artifacts.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    FanOutBuilder withForcedExecution(boolean value);
+  }
 }
@@ -1,31 +1,398 @@
 package org.basinmc.blackwater.task.io;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
-import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.utility.Digests;
+import org.basinmc.blackwater.utility.FileTrees;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Copies a file or a directory of files to an arbitrary location.
+ * <p>Copies a file or a directory of files to an arbitrary location.</p>
+ *
+ * <p>Files are copied concurrently (using one thread per available processor by default) and
+ * retain their modification time. When incremental synchronization is enabled, files which match
+ * their existing copy in size and modification time (or contents when content comparison is
+ * enabled) are skipped while files and directories which do not exist within the source are
+ * removed from the target. Since artifact outputs are allocated within fresh directories, files
+ * are additionally compared against the previous output of the task (such as its cached artifact)
+ * and hard linked (or copied when linking is not supported) from there when they are up to
+ * date.</p>
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 public class CopyTask implements Task {
 
+  /**
+   * Defines the size at which files are transferred directly between channels (when both paths
+   * reside on the default file system).
+   */
+  private static final long TRANSFER_THRESHOLD = 1024 * 1024;
+
+  private static final Logger logger = LoggerFactory.getLogger(CopyTask.class);
+
+  private final int parallelism;
+  private final boolean incremental;
+  private final boolean contentComparison;
+
+  public CopyTask() {
+    this(Runtime.getRuntime().availableProcessors(), false, false);
+  }
+
+  private CopyTask(int parallelism, boolean incremental, boolean contentComparison) {
+    this.parallelism = parallelism;
+    this.incremental = incremental;
+    this.contentComparison = contentComparison;
+  }
+
+  /**
+   * Creates a new empty task factory.
+   *
+   * @return a factory.
+   */
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Copies a single file and applies the modification time of its source.
+   *
+   * @param source a source file.
+   * @param target a target file.
+   * @param attributes the source file attributes.
+   * @throws IOException when copying fails.
+   */
+  private static void copy(
+      @NonNull Path source,
+      @NonNull Path target,
+      @NonNull BasicFileAttributes attributes) throws IOException {
+    if (attributes.size() >= TRANSFER_THRESHOLD
+        && source.getFileSystem() == FileSystems.getDefault()
+        && target.getFileSystem() == FileSystems.getDefault()) {
+      try (FileChannel inputChannel = FileChannel.open(source, StandardOpenOption.READ);
+          FileChannel outputChannel = FileChannel
+              .open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                  StandardOpenOption.TRUNCATE_EXISTING)) {
+        long size = inputChannel.size();
+        long position = 0;
+
+        while (position < size) {
+          long transferred = inputChannel.transferTo(position, size - position, outputChannel);
+
+          // the source may be truncated concurrently in which case no further progress is made
+          if (transferred <= 0) {
+            throw new EOFException("Unexpected end of file " + source);
+          }
+
+          position += transferred;
+        }
+      }
+    } else {
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    Files.setLastModifiedTime(target, attributes.lastModifiedTime());
+  }
+
+  /**
+   * Recursively deletes a file or directory.
+   *
+   * @param path a path.
+   * @throws IOException when deleting fails.
+   */
+  private static void delete(@NonNull Path path) throws IOException {
+    try (Stream<Path> stream = Files.walk(path)) {
+      Iterator<Path> it = stream
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Reads the attributes of a file within the previous output (if it exists).
+   *
+   * @param path a path.
+   * @return the file attributes or null if the file does not exist.
+   * @throws IOException when reading the attributes fails.
+   */
+  @Nullable
+  private static BasicFileAttributes readAttributes(@NonNull Path path) throws IOException {
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      return null;
+    }
+
+    return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+  }
+
+  /**
+   * Resolves a key against a base directory.
+   *
+   * @param base a base directory.
+   * @param key a relative path (using forward slashes).
+   * @return a resolved path.
+   */
+  @NonNull
+  private static Path resolve(@NonNull Path base, @NonNull String key) {
+    return FileTrees.resolve(base, base.getFileSystem().getPath(key));
+  }
+
+  /**
+   * Collects the attributes of all files and directories within a tree.
+   *
+   * @param base a base directory.
+   * @return a map of relative paths (using forward slashes) and their respective attributes.
+   * @throws IOException when traversing the tree fails.
+   */
+  @NonNull
+  private static Map<String, BasicFileAttributes> scan(@NonNull Path base) throws IOException {
+    Map<String, BasicFileAttributes> attributes = new TreeMap<>();
+
+    Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+        if (!base.equals(dir)) {
+          attributes.put(toKey(base.relativize(dir)), attrs);
+        }
+
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        attributes.put(toKey(base.relativize(file)), attrs);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+
+    return attributes;
+  }
+
+  /**
+   * Converts a relative path into a file system independent key.
+   *
+   * @param path a relative path.
+   * @return a key.
+   */
+  @NonNull
+  private static String toKey(@NonNull Path path) {
+    StringBuilder builder = new StringBuilder();
+
+    for (Path element : path) {
+      if (builder.length() != 0) {
+        builder.append('/');
+      }
+
+      builder.append(element.toString());
+    }
+
+    return builder.toString();
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public void execute(@NonNull Context context) throws TaskExecutionException {
+    Path inputPath = context.getRequiredInputPath();
+    Path outputPath = context.getRequiredOutputPath();
+
+    // artifact outputs are allocated within fresh directories and thus need to be compared against
+    // the previous version of the artifact rather than their own (empty) contents
+    Path previousPath = this.incremental ? context.getPreviousOutputPath()
+        .filter((p) -> !p.equals(outputPath))
+        .orElse(null) : null;
+
     try {
-      Files.copy(context.getRequiredInputPath(), context.getRequiredOutputPath());
+      BasicFileAttributes inputAttributes = Files
+          .readAttributes(inputPath, BasicFileAttributes.class);
+
+      if (!inputAttributes.isDirectory()) {
+        BasicFileAttributes outputAttributes = Files.exists(outputPath) ? Files
+            .readAttributes(outputPath, BasicFileAttributes.class) : null;
+
+        if (this.incremental && outputAttributes != null && outputAttributes.isDirectory()) {
+          delete(outputPath);
+          outputAttributes = null;
+        }
+
+        if (!this.isUpToDate(inputPath, inputAttributes, outputPath, outputAttributes)
+            && (previousPath == null || !this
+            .reuse(inputPath, inputAttributes, previousPath, readAttributes(previousPath),
+                outputPath))) {
+          copy(inputPath, outputPath, inputAttributes);
+        }
+
+        return;
+      }
+
+      Map<String, BasicFileAttributes> previous = Collections.emptyMap();
+
+      if (previousPath != null && Files.isDirectory(previousPath)) {
+        previous = scan(previousPath);
+      }
+
+      this.copyTree(inputPath, outputPath, previousPath, previous);
     } catch (IOException ex) {
       throw new TaskExecutionException("Failed to copy files: " + ex.getMessage(), ex);
     }
   }
 
+  /**
+   * Copies (or synchronizes) an entire directory tree.
+   *
+   * @param inputPath a source directory.
+   * @param outputPath a target directory.
+   * @param previousPath the previous output directory (if any).
+   * @param previous the attributes of all files within the previous output directory.
+   * @throws IOException when scanning or copying fails.
+   * @throws TaskExecutionException when copying a file fails or the thread is interrupted.
+   */
+  private void copyTree(
+      @NonNull Path inputPath,
+      @NonNull Path outputPath,
+      @Nullable Path previousPath,
+      @NonNull Map<String, BasicFileAttributes> previous)
+      throws IOException, TaskExecutionException {
+    Map<String, BasicFileAttributes> sources = scan(inputPath);
+    Map<String, BasicFileAttributes> targets = Collections.emptyMap();
+
+    if (this.incremental && Files.exists(outputPath) && !Files.isDirectory(outputPath)) {
+      Files.delete(outputPath);
+    }
+
+    if (Files.isDirectory(outputPath)) {
+      targets = scan(outputPath);
+    }
+
+    // anything which does not exist within the source (or has changed from a file to a
+    // directory or vice versa) is removed before we begin copying
+    if (this.incremental) {
+      int deleted = 0;
+
+      for (Map.Entry<String, BasicFileAttributes> target : targets.entrySet()) {
+        BasicFileAttributes source = sources.get(target.getKey());
+
+        Path path = resolve(outputPath, target.getKey());
+
+        // children of previously removed directories will have vanished already
+        if ((source == null || source.isDirectory() != target.getValue().isDirectory())
+            && Files.exists(path)) {
+          delete(path);
+          ++deleted;
+        }
+      }
+
+      if (deleted != 0) {
+        logger.info("Removed {} extraneous files or directories", deleted);
+      }
+    }
+
+    Files.createDirectories(outputPath);
+    ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+    List<Future<Boolean>> futures = new ArrayList<>();
+
+    try {
+      for (Map.Entry<String, BasicFileAttributes> entry : sources.entrySet()) {
+        Path source = resolve(inputPath, entry.getKey());
+        Path target = resolve(outputPath, entry.getKey());
+
+        // keys are sorted and thus parent directories are always created before their contents
+        if (entry.getValue().isDirectory()) {
+          Files.createDirectories(target);
+          continue;
+        }
+
+        BasicFileAttributes existing = targets.get(entry.getKey());
+        BasicFileAttributes previousAttributes = previous.get(entry.getKey());
+        futures.add(executor.submit(() -> {
+          if (this.isUpToDate(source, entry.getValue(), target, existing)) {
+            return false;
+          }
+
+          if (previousPath != null && this
+              .reuse(source, entry.getValue(), resolve(previousPath, entry.getKey()),
+                  previousAttributes, target)) {
+            return false;
+          }
+
+          copy(source, target, entry.getValue());
+          return true;
+        }));
+      }
+
+      long copied = 0;
+
+      for (Future<Boolean> future : futures) {
+        if (future.get()) {
+          ++copied;
+        }
+      }
+
+      logger.info("Copied {} of {} files", copied, futures.size());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TaskExecutionException("Interrupted while copying files", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      throw new TaskExecutionException("Failed to copy files: " + cause.getMessage(), cause);
+    } finally {
+      futures.forEach((f) -> f.cancel(true));
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    StringBuilder builder = new StringBuilder(this.getName());
+
+    if (this.incremental) {
+      builder.append(":incremental");
+    }
+
+    if (this.contentComparison) {
+      builder.append(":content");
+    }
+
+    return Optional.of(builder.toString());
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -35,6 +402,103 @@ public class CopyTask implements Task {
     return "Copy";
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.IO, 1);
+  }
+
+  /**
+   * Evaluates whether an existing copy of a file is up to date (and may thus be skipped).
+   *
+   * @param source a source file.
+   * @param sourceAttributes the source attributes.
+   * @param target a target file.
+   * @param targetAttributes the target attributes (if the target exists).
+   * @return true if up to date, false otherwise.
+   * @throws IOException when comparing the file contents fails.
+   */
+  private boolean isUpToDate(
+      @NonNull Path source,
+      @NonNull BasicFileAttributes sourceAttributes,
+      @NonNull Path target,
+      @Nullable BasicFileAttributes targetAttributes) throws IOException {
+    if (!this.incremental || targetAttributes == null || !targetAttributes.isRegularFile()
+        || sourceAttributes.size() != targetAttributes.size()) {
+      return false;
+    }
+
+    if (!this.contentComparison) {
+      return sourceAttributes.lastModifiedTime().toMillis() == targetAttributes
+          .lastModifiedTime().toMillis();
+    }
+
+    if (!MessageDigest.isEqual(Digests.digest(source), Digests.digest(target))) {
+      return false;
+    }
+
+    // since the contents are identical, we'll simply align the timestamps instead
+    if (!sourceAttributes.lastModifiedTime().equals(targetAttributes.lastModifiedTime())) {
+      Files.setLastModifiedTime(target, sourceAttributes.lastModifiedTime());
+    }
+
+    return true;
+  }
+
+  /**
+   * <p>Reuses the copy of a file within the previous output when it is up to date.</p>
+   *
+   * <p>Since the previous output typically refers to a cached artifact, it is never modified.
+   * Files are hard linked into the target location when their timestamps match and are copied
+   * (and their timestamp adjusted) otherwise.</p>
+   *
+   * @param source a source file.
+   * @param sourceAttributes the source attributes.
+   * @param previous the file within the previous output.
+   * @param previousAttributes the attributes of the previous file (if it exists).
+   * @param target a target file.
+   * @return true if the previous file has been reused, false otherwise.
+   * @throws IOException when comparing or reusing the file fails.
+   */
+  private boolean reuse(
+      @NonNull Path source,
+      @NonNull BasicFileAttributes sourceAttributes,
+      @NonNull Path previous,
+      @Nullable BasicFileAttributes previousAttributes,
+      @NonNull Path target) throws IOException {
+    if (previousAttributes == null || !previousAttributes.isRegularFile()
+        || sourceAttributes.size() != previousAttributes.size()) {
+      return false;
+    }
+
+    boolean timestamps = sourceAttributes.lastModifiedTime().toMillis() == previousAttributes
+        .lastModifiedTime().toMillis();
+
+    if (this.contentComparison ? !MessageDigest
+        .isEqual(Digests.digest(source), Digests.digest(previous)) : !timestamps) {
+      return false;
+    }
+
+    // the target is replaced rather than written to as it may be linked to another file
+    Files.deleteIfExists(target);
+
+    if (timestamps) {
+      try {
+        Files.createLink(target, previous);
+        return true;
+      } catch (UnsupportedOperationException | IOException ignore) {
+        // links may not be supported by the file system or cross file system boundaries
+      }
+    }
+
+    Files.copy(previous, target, StandardCopyOption.REPLACE_EXISTING);
+    Files.setLastModifiedTime(target, sourceAttributes.lastModifiedTime());
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -50,4 +514,70 @@ public class CopyTask implements Task {
   public boolean requiresOutputParameter() {
     return true;
   }
+
+  /**
+   * Provides a factory for copy tasks.
+   */
+  public static final class Builder {
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean incremental;
+    private boolean contentComparison;
+
+    private Builder() {
+    }
+
+    /**
+     * Constructs a new task using the current configuration of this builder.
+     *
+     * @return a task.
+     */
+    @NonNull
+    public CopyTask build() {
+      return new CopyTask(this.parallelism, this.incremental, this.contentComparison);
+    }
+
+    /**
+     * Enables content comparison (files are only skipped during incremental synchronization when
+     * their contents are identical rather than their modification times). Implies incremental
+     * synchronization.
+     *
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withContentComparison() {
+      this.incremental = true;
+      this.contentComparison = true;
+      return this;
+    }
+
+    /**
+     * Enables incremental synchronization (unchanged files are skipped while extraneous files are
+     * removed from the target).
+     *
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withIncrementalSync() {
+      this.incremental = true;
+      return this;
+    }
+
+    /**
+     * Selects the maximum amount of files to copy concurrently.
+     *
+     * @param parallelism a number of threads.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @NonNull
+    public Builder withParallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("Parallelism must be at least one");
+      }
+
+      this.parallelism = parallelism;
+      return this;
+    }
+  }
 }
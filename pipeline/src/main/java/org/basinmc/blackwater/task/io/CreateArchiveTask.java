@@ -2,26 +2,150 @@ package org.basinmc.blackwater.task.io;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
 import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Generates zip archives from all files within the source directory or file.
+ * <p>Generates zip archives from all files within the source directory or file.</p>
+ *
+ * <p>Entries are compressed concurrently (using one thread per available processor by default)
+ * while the resulting archive retains the traversal order of the input directory. When
+ * reproducible output is requested, entries are sorted by name and stamped with a fixed
+ * modification time instead in order to produce identical archives for identical inputs.</p>
+ *
+ * <p>When incremental updates are enabled, the previous version of the archive (e.g. the cached
+ * output artifact) is consulted and the compressed data of all entries which have not changed
+ * since is copied as-is. Files are considered unchanged when their size and checksum match.</p>
  *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 public class CreateArchiveTask implements Task {
 
+  /**
+   * Defines the timestamp which is assigned to entries within reproducible archives (any value
+   * prior to 1980 is clamped to the earliest DOS timestamp regardless of the local time zone).
+   */
+  private static final long REPRODUCIBLE_TIME = 0;
+
+  private static final Logger logger = LoggerFactory.getLogger(CreateArchiveTask.class);
+
+  private final int parallelism;
+  private final int compressionLevel;
+  private final Set<String> storedExtensions;
+  private final boolean reproducible;
+  private final boolean incremental;
+
+  public CreateArchiveTask() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param parallelism the maximum amount of entries to compress concurrently.
+   * @throws IllegalArgumentException when a value smaller than one is passed.
+   */
+  public CreateArchiveTask(int parallelism) {
+    this(parallelism, Deflater.DEFAULT_COMPRESSION, Collections.emptySet(), false, false);
+  }
+
+  private CreateArchiveTask(
+      int parallelism,
+      int compressionLevel,
+      @NonNull Set<String> storedExtensions,
+      boolean reproducible,
+      boolean incremental) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least one");
+    }
+
+    this.parallelism = parallelism;
+    this.compressionLevel = compressionLevel;
+    this.storedExtensions = storedExtensions;
+    this.reproducible = reproducible;
+    this.incremental = incremental;
+  }
+
+  /**
+   * Creates a new empty task factory.
+   *
+   * @return a factory.
+   */
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Converts a relative path into a zip entry name.
+   *
+   * @param path a relative path.
+   * @return an entry name.
+   */
+  @NonNull
+  private static String toEntryName(@NonNull Path path) {
+    StringBuilder builder = new StringBuilder();
+
+    for (Path element : path) {
+      if (builder.length() != 0) {
+        builder.append('/');
+      }
+
+      builder.append(element.toString());
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Appends a single file or directory to the archive.
+   *
+   * @param writer an archive writer.
+   * @param previous a previous version of the archive (if any).
+   * @param name an entry name.
+   * @param source a source file or directory.
+   * @throws IOException when accessing the source or writing the archive fails.
+   */
+  private void add(
+      @NonNull ZipArchiveWriter writer,
+      @Nullable ZipArchiveReader previous,
+      @NonNull String name,
+      @NonNull Path source) throws IOException {
+    long time = this.reproducible ? REPRODUCIBLE_TIME
+        : Files.getLastModifiedTime(source).toMillis();
+
+    if (Files.isDirectory(source)) {
+      writer.addDirectory(name, time);
+      return;
+    }
+
+    int method = ZipArchiveWriter.METHOD_DEFLATED;
+
+    if (this.compressionLevel == Deflater.NO_COMPRESSION || this.isStored(name)) {
+      method = ZipArchiveWriter.METHOD_STORED;
+    }
+
+    writer.addFile(name, source, time, method, this.compressionLevel, previous,
+        previous != null ? previous.getEntry(name).orElse(null) : null);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -30,40 +154,68 @@ public class CreateArchiveTask implements Task {
     Path inputPath = context.getRequiredInputPath();
     Path outputPath = context.getRequiredOutputPath();
 
-    Map<String, String> parameters = new HashMap<>();
-    parameters.put("create", "true");
+    String fingerprint = this.getFingerprint().orElse("");
+    ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
 
-    try {
-      URI uri = new URI("jar", outputPath.toAbsolutePath().toUri().toString(), null);
+    try (ZipArchiveReader previous = this.openPreviousArchive(context, fingerprint);
+        ZipArchiveWriter writer = new ZipArchiveWriter(outputPath, executor,
+            this.parallelism * 4)) {
+      // the fingerprint identifies the settings which the entries have been compressed with and
+      // thus permits us to decide whether they may be reused later on
+      if (this.incremental) {
+        writer.setComment(fingerprint);
+      }
+
+      if (Files.isRegularFile(inputPath)) {
+        this.add(writer, previous, inputPath.getFileName().toString(), inputPath);
+        return;
+      }
 
-      try (FileSystem fs = FileSystems.newFileSystem(uri, parameters)) {
-        Path base = fs.getPath("");
+      try (Stream<Path> stream = Files.walk(inputPath)) {
+        Stream<Path> sources = stream
+            .filter((p) -> !inputPath.equals(p));
 
-        if (Files.isRegularFile(inputPath)) {
-          Files.copy(inputPath, base.resolve(inputPath.getFileName()));
-          return;
+        if (this.reproducible) {
+          sources = sources
+              .sorted(Comparator.comparing((Path p) -> toEntryName(inputPath.relativize(p))));
         }
 
-        Iterator<Path> it = Files.walk(inputPath)
-            .filter((p) -> !inputPath.equals(p))
-            .iterator();
+        Iterator<Path> it = sources.iterator();
 
         while (it.hasNext()) {
           Path source = it.next();
-          Path target = base.resolve(inputPath.relativize(source).toString());
-
-          if (Files.isDirectory(source)) {
-            Files.createDirectories(target);
-          } else {
-            Files.copy(source, target);
-          }
+          this.add(writer, previous, toEntryName(inputPath.relativize(source)), source);
         }
-      } catch (IOException ex) {
-        throw new TaskExecutionException("Failed to create output archive: " + ex.getMessage(), ex);
       }
-    } catch (URISyntaxException ex) {
-      throw new TaskExecutionException("Failed to create output URI: " + ex.getMessage(), ex);
+    } catch (IOException ex) {
+      throw new TaskExecutionException("Failed to create output archive: " + ex.getMessage(), ex);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    StringBuilder builder = new StringBuilder(this.getName())
+        .append(":level=").append(this.compressionLevel);
+
+    if (!this.storedExtensions.isEmpty()) {
+      builder.append(":stored=").append(String.join(",", this.storedExtensions));
     }
+
+    if (this.reproducible) {
+      builder.append(":reproducible");
+    }
+
+    if (this.incremental) {
+      builder.append(":incremental");
+    }
+
+    return Optional.of(builder.toString());
   }
 
   /**
@@ -75,6 +227,15 @@ public class CreateArchiveTask implements Task {
     return "create-archive";
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.IO, 1);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -90,4 +251,159 @@ public class CreateArchiveTask implements Task {
   public boolean requiresOutputParameter() {
     return true;
   }
+
+  /**
+   * Opens the previous version of the archive (if incremental updates are enabled and a
+   * compatible version exists).
+   *
+   * @param context an execution context.
+   * @param fingerprint the fingerprint of this task.
+   * @return a reader or null.
+   */
+  @Nullable
+  private ZipArchiveReader openPreviousArchive(@NonNull Context context,
+      @NonNull String fingerprint) {
+    if (!this.incremental) {
+      return null;
+    }
+
+    Path path = context.getPreviousOutputPath()
+        .filter(Files::isRegularFile)
+        .orElse(null);
+
+    if (path == null) {
+      return null;
+    }
+
+    try {
+      ZipArchiveReader reader = ZipArchiveReader.open(path);
+
+      if (!fingerprint.equals(reader.getComment())) {
+        logger.info("Previous archive uses different settings - Recreating");
+        reader.close();
+        return null;
+      }
+
+      return reader;
+    } catch (IOException ex) {
+      logger.warn("Failed to read previous archive - Recreating: {}", ex.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Evaluates whether the entry of a given name is to be stored without compression.
+   *
+   * @param name an entry name.
+   * @return true if stored, false otherwise.
+   */
+  private boolean isStored(@NonNull String name) {
+    int index = name.lastIndexOf('.');
+
+    return index != -1 && this.storedExtensions
+        .contains(name.substring(index + 1).toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Provides a factory for archive tasks.
+   */
+  public static final class Builder {
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private final Set<String> storedExtensions = new TreeSet<>();
+    private boolean reproducible;
+    private boolean incremental;
+
+    private Builder() {
+    }
+
+    /**
+     * Constructs a new task using the current configuration of this builder.
+     *
+     * @return a task.
+     */
+    @NonNull
+    public CreateArchiveTask build() {
+      return new CreateArchiveTask(this.parallelism, this.compressionLevel,
+          Collections.unmodifiableSet(new TreeSet<>(this.storedExtensions)), this.reproducible,
+          this.incremental);
+    }
+
+    /**
+     * Selects the deflate compression level (ranging from zero to nine or -1 for the default
+     * level). When zero is passed, all entries are stored without compression.
+     *
+     * @param compressionLevel a compression level.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when an invalid level is passed.
+     */
+    @NonNull
+    public Builder withCompressionLevel(int compressionLevel) {
+      if (compressionLevel < Deflater.DEFAULT_COMPRESSION
+          || compressionLevel > Deflater.BEST_COMPRESSION) {
+        throw new IllegalArgumentException("Illegal compression level: " + compressionLevel);
+      }
+
+      this.compressionLevel = compressionLevel;
+      return this;
+    }
+
+    /**
+     * Enables incremental updates (the compressed data of unchanged entries is copied from the
+     * previous version of the archive).
+     *
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withIncrementalUpdates() {
+      this.incremental = true;
+      return this;
+    }
+
+    /**
+     * Selects the maximum amount of entries to compress concurrently.
+     *
+     * @param parallelism a number of threads.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @NonNull
+    public Builder withParallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("Parallelism must be at least one");
+      }
+
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Enables reproducible output (entries are sorted by name and use a fixed modification
+     * time).
+     *
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withReproducibleOutput() {
+      this.reproducible = true;
+      return this;
+    }
+
+    /**
+     * Selects one or more file extensions (such as "jar" or "png") which identify entries that
+     * are already compressed and are thus stored as-is.
+     *
+     * @param extensions an array of extensions (without leading dot).
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withStoredExtensions(@NonNull String... extensions) {
+      for (String extension : extensions) {
+        this.storedExtensions.add(extension.toLowerCase(Locale.ROOT));
+      }
+
+      return this;
+    }
+  }
 }
@@ -10,7 +10,11 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 import javax.annotation.Nonnull;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
 import org.basinmc.blackwater.task.error.TaskParameterException;
@@ -53,6 +57,24 @@ public class DownloadFileTask implements Task {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    return Optional.of(this.fileUrl.toExternalForm());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.NETWORK, 1);
+  }
+
   /**
    * {@inheritDoc}
    */
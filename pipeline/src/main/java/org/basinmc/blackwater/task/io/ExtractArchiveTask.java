@@ -0,0 +1,481 @@
+package org.basinmc.blackwater.task.io;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+import org.basinmc.blackwater.task.ResourceClass;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Extracts the contents of a zip archive into the output directory.</p>
+ *
+ * <p>The archive is memory mapped (when it resides on the default file system) and its entries
+ * are inflated concurrently (using one thread per available processor by default). Files which
+ * already exist within the output directory and match their respective entry in size and checksum
+ * are retained as-is while files which do not correspond to any (selected) entry are removed.
+ * Matching files within the previous output of the task (such as its cached artifact) are hard
+ * linked (or copied when linking is not supported) instead of being inflated again.</p>
+ *
+ * <p>Entries may be filtered using glob patterns (as defined by {@link
+ * java.nio.file.FileSystem#getPathMatcher(String)}) which are matched against their names. When
+ * include patterns are given, only entries matching at least one of them are extracted. Entries
+ * matching any exclude pattern are always omitted.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ExtractArchiveTask implements Task {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExtractArchiveTask.class);
+
+  private final int parallelism;
+  private final List<String> includes;
+  private final List<String> excludes;
+
+  public ExtractArchiveTask() {
+    this(Runtime.getRuntime().availableProcessors(), Collections.emptyList(),
+        Collections.emptyList());
+  }
+
+  private ExtractArchiveTask(
+      int parallelism,
+      @NonNull List<String> includes,
+      @NonNull List<String> excludes) {
+    this.parallelism = parallelism;
+    this.includes = includes;
+    this.excludes = excludes;
+  }
+
+  /**
+   * Creates a new empty task factory.
+   *
+   * @return a factory.
+   */
+  @NonNull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Compiles a list of glob patterns.
+   *
+   * @param patterns a list of patterns.
+   * @return a list of matchers.
+   */
+  @NonNull
+  private static List<PathMatcher> compile(@NonNull List<String> patterns) {
+    return patterns.stream()
+        .map((p) -> FileSystems.getDefault().getPathMatcher("glob:" + p))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Evaluates whether an existing file matches the specified entry.
+   *
+   * @param target a target file.
+   * @param entry an archive entry.
+   * @return true if identical, false otherwise.
+   * @throws IOException when reading the file fails.
+   */
+  private static boolean isIdentical(@NonNull Path target, @NonNull ZipArchiveReader.Entry entry)
+      throws IOException {
+    if (!Files.isRegularFile(target) || Files.size(target) != entry.size) {
+      return false;
+    }
+
+    CRC32 crc = new CRC32();
+
+    try (InputStream inputStream = Files.newInputStream(target)) {
+      byte[] buffer = new byte[65536];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, length);
+      }
+    }
+
+    return crc.getValue() == entry.crc;
+  }
+
+  /**
+   * Recursively deletes a file or directory.
+   *
+   * @param path a path.
+   * @throws IOException when deleting fails.
+   */
+  private static void delete(@NonNull Path path) throws IOException {
+    try (Stream<Path> stream = Files.walk(path)) {
+      Iterator<Path> it = stream
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Removes all files and directories from the output directory which do not correspond to any
+   * of the selected entries (or have changed from a file to a directory or vice versa).
+   *
+   * @param outputPath an output directory.
+   * @param files a set of expected files.
+   * @param directories a set of expected directories.
+   * @throws IOException when listing or deleting files fails.
+   */
+  private static void deleteExtraneous(
+      @NonNull Path outputPath,
+      @NonNull Set<Path> files,
+      @NonNull Set<Path> directories) throws IOException {
+    if (Files.exists(outputPath, LinkOption.NOFOLLOW_LINKS)
+        && !Files.isDirectory(outputPath, LinkOption.NOFOLLOW_LINKS)) {
+      Files.delete(outputPath);
+      return;
+    }
+
+    if (!Files.isDirectory(outputPath)) {
+      return;
+    }
+
+    List<Path> paths;
+
+    try (Stream<Path> stream = Files.walk(outputPath)) {
+      paths = stream
+          .filter((p) -> !outputPath.equals(p))
+          .collect(Collectors.toList());
+    }
+
+    int deleted = 0;
+
+    for (Path path : paths) {
+      // children of previously removed directories will have vanished already
+      if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+        continue;
+      }
+
+      boolean directory = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+
+      if (!(directory ? directories : files).contains(path)) {
+        delete(path);
+        ++deleted;
+      }
+    }
+
+    if (deleted != 0) {
+      logger.info("Removed {} extraneous files or directories", deleted);
+    }
+  }
+
+  /**
+   * Extracts a single file entry unless an identical copy already exists.
+   *
+   * @param reader an archive reader.
+   * @param entry an entry.
+   * @param target a target file.
+   * @param previous the location of the file within the previous output.
+   * @return true if the file has been written, false if it was retained or reused.
+   * @throws IOException when reading the entry or writing the file fails.
+   */
+  private static boolean extract(
+      @NonNull ZipArchiveReader reader,
+      @NonNull ZipArchiveReader.Entry entry,
+      @NonNull Path target,
+      @NonNull Path previous) throws IOException {
+    if (isIdentical(target, entry)) {
+      return false;
+    }
+
+    Files.createDirectories(target.getParent());
+
+    if (!previous.equals(target) && isIdentical(previous, entry)) {
+      Files.deleteIfExists(target);
+
+      try {
+        Files.createLink(target, previous);
+      } catch (UnsupportedOperationException | IOException ex) {
+        // links may not be supported by the file system or cross file system boundaries
+        Files.copy(previous, target, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.COPY_ATTRIBUTES);
+      }
+
+      return false;
+    }
+    CRC32 crc = new CRC32();
+
+    try (InputStream inputStream = reader.getInputStream(entry);
+        OutputStream outputStream = Files.newOutputStream(target)) {
+      byte[] buffer = new byte[65536];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, length);
+        outputStream.write(buffer, 0, length);
+      }
+    }
+
+    if (crc.getValue() != entry.crc) {
+      throw new ZipException("Checksum mismatch in entry " + entry.name);
+    }
+
+    Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getTime()));
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(@NonNull Context context) throws TaskExecutionException {
+    Path inputPath = context.getRequiredInputPath();
+    Path outputPath = context.getRequiredOutputPath().toAbsolutePath().normalize();
+
+    // artifact outputs are allocated within fresh directories and thus need to be compared against
+    // the previous version of the artifact rather than their own (empty) contents
+    Path previousPath = context.getPreviousOutputPath()
+        .map((p) -> p.toAbsolutePath().normalize())
+        .filter(Files::isDirectory)
+        .orElse(outputPath);
+
+    List<PathMatcher> includes = compile(this.includes);
+    List<PathMatcher> excludes = compile(this.excludes);
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+
+    try (ZipArchiveReader reader = ZipArchiveReader.open(inputPath, true)) {
+      Map<Path, ZipArchiveReader.Entry> files = new LinkedHashMap<>();
+      Set<Path> directories = new HashSet<>();
+
+      for (ZipArchiveReader.Entry entry : reader.getEntries()) {
+        Path name;
+        Path target;
+
+        try {
+          name = Paths.get(entry.name);
+          target = outputPath.resolve(entry.name).normalize();
+        } catch (InvalidPathException ex) {
+          throw new TaskExecutionException(
+              "Illegal archive entry: " + entry.name + " is not a valid path", ex);
+        }
+
+        if (!includes.isEmpty() && includes.stream().noneMatch((m) -> m.matches(name))) {
+          continue;
+        }
+        if (excludes.stream().anyMatch((m) -> m.matches(name))) {
+          continue;
+        }
+
+        // entries are resolved against the output directory and may thus never escape it (e.g.
+        // by relying on ".." or absolute names)
+        if (!target.startsWith(outputPath) || target.equals(outputPath)) {
+          throw new TaskExecutionException(
+              "Illegal archive entry: " + entry.name + " resolves outside of output directory");
+        }
+
+        if (entry.isDirectory()) {
+          directories.add(target);
+          continue;
+        }
+
+        files.put(target, entry);
+
+        for (Path parent = target.getParent(); !parent.equals(outputPath);
+            parent = parent.getParent()) {
+          directories.add(parent);
+        }
+      }
+
+      deleteExtraneous(outputPath, files.keySet(), directories);
+      Files.createDirectories(outputPath);
+
+      for (Path directory : directories) {
+        Files.createDirectories(directory);
+      }
+
+      List<Future<Boolean>> futures = new ArrayList<>();
+
+      for (Map.Entry<Path, ZipArchiveReader.Entry> file : files.entrySet()) {
+        Path target = file.getKey();
+        Path previous = previousPath.resolve(outputPath.relativize(target).toString());
+
+        futures.add(executor.submit(() -> extract(reader, file.getValue(), target, previous)));
+      }
+
+      long written = 0;
+
+      try {
+        for (Future<Boolean> future : futures) {
+          if (future.get()) {
+            ++written;
+          }
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new TaskExecutionException("Interrupted while extracting archive", ex);
+      } catch (ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        throw new TaskExecutionException("Failed to extract archive: " + cause.getMessage(),
+            cause);
+      } finally {
+        futures.forEach((f) -> f.cancel(true));
+      }
+
+      if (futures.size() != written) {
+        logger.info("Retained {} of {} files from previous extraction",
+            futures.size() - written, futures.size());
+      }
+    } catch (IOException ex) {
+      throw new TaskExecutionException("Failed to extract archive: " + ex.getMessage(), ex);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    StringBuilder builder = new StringBuilder(this.getName());
+
+    if (!this.includes.isEmpty()) {
+      builder.append(":include=").append(String.join(",", this.includes));
+    }
+
+    if (!this.excludes.isEmpty()) {
+      builder.append(":exclude=").append(String.join(",", this.excludes));
+    }
+
+    return Optional.of(builder.toString());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getName() {
+    return "extract-archive";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.IO, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresInputParameter() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresOutputParameter() {
+    return true;
+  }
+
+  /**
+   * Provides a factory for extraction tasks.
+   */
+  public static final class Builder {
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Constructs a new task using the current configuration of this builder.
+     *
+     * @return a task.
+     */
+    @NonNull
+    public ExtractArchiveTask build() {
+      return new ExtractArchiveTask(this.parallelism,
+          Collections.unmodifiableList(new ArrayList<>(this.includes)),
+          Collections.unmodifiableList(new ArrayList<>(this.excludes)));
+    }
+
+    /**
+     * Appends one or more glob patterns which identify entries to omit.
+     *
+     * @param patterns an array of patterns.
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withExcludes(@NonNull String... patterns) {
+      Collections.addAll(this.excludes, patterns);
+      return this;
+    }
+
+    /**
+     * Appends one or more glob patterns which identify entries to extract.
+     *
+     * @param patterns an array of patterns.
+     * @return a reference to this builder.
+     */
+    @NonNull
+    public Builder withIncludes(@NonNull String... patterns) {
+      Collections.addAll(this.includes, patterns);
+      return this;
+    }
+
+    /**
+     * Selects the maximum amount of entries to inflate concurrently.
+     *
+     * @param parallelism a number of threads.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @NonNull
+    public Builder withParallelism(int parallelism) {
+      if (parallelism < 1) {
+        throw new IllegalArgumentException("Parallelism must be at least one");
+      }
+
+      this.parallelism = parallelism;
+      return this;
+    }
+  }
+}
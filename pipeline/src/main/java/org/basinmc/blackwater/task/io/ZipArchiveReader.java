@@ -0,0 +1,586 @@
+package org.basinmc.blackwater.task.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>Provides access to the central directory and the raw (compressed) entry data of zip
+ * archives.</p>
+ *
+ * <p>Archives which reside on the default file system may optionally be memory mapped in which
+ * case the central directory as well as all entry data is read from the mapped region rather than
+ * through individual read operations.</p>
+ *
+ * <p>Only single disk archives are supported. Encrypted entries are reported but cannot be
+ * decoded. Malformed archives are reported via {@link ZipException} (or {@link EOFException} when
+ * they are truncated).</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ZipArchiveReader implements Closeable {
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+
+  private static final int METHOD_STORED = 0;
+  private static final int METHOD_DEFLATED = 8;
+
+  private static final int END_LENGTH = 22;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+  private static final long MAGIC = 0xFFFFFFFFL;
+
+  private final SeekableByteChannel channel;
+  private final ByteBuffer mapping;
+  private final Map<String, Entry> entries;
+  private final String comment;
+
+  private ZipArchiveReader(@Nonnull SeekableByteChannel channel, @Nullable ByteBuffer mapping)
+      throws IOException {
+    this.channel = channel;
+    this.mapping = mapping;
+
+    try {
+      long size = channel.size();
+      int tailLength = (int) Math.min(size, END_LENGTH + MAX_COMMENT_LENGTH);
+      ByteBuffer tail = this.read(size - tailLength, tailLength);
+
+      int end = -1;
+      for (int i = tailLength - END_LENGTH; i >= 0; --i) {
+        if (tail.getInt(i) == END_SIGNATURE
+            && (tail.getShort(i + 20) & 0xFFFF) == tailLength - i - END_LENGTH) {
+          end = i;
+          break;
+        }
+      }
+
+      if (end == -1) {
+        throw new ZipException("Missing end of central directory record");
+      }
+
+      byte[] comment = new byte[tail.getShort(end + 20) & 0xFFFF];
+      tail.position(end + END_LENGTH);
+      tail.get(comment);
+      this.comment = new String(comment, StandardCharsets.UTF_8);
+
+      long count = tail.getShort(end + 10) & 0xFFFF;
+      long directorySize = tail.getInt(end + 12) & MAGIC;
+      long directoryOffset = tail.getInt(end + 16) & MAGIC;
+
+      long locatorOffset = size - tailLength + end - 20;
+      if (locatorOffset >= 0) {
+        ByteBuffer locator = this.read(locatorOffset, 20);
+
+        if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+          ByteBuffer record = this.read(locator.getLong(8), 56);
+
+          if (record.getInt(0) != ZIP64_END_SIGNATURE) {
+            throw new ZipException("Invalid ZIP64 end of central directory record");
+          }
+
+          count = record.getLong(32);
+          directorySize = record.getLong(40);
+          directoryOffset = record.getLong(48);
+        }
+      }
+
+      if (directorySize > Integer.MAX_VALUE) {
+        throw new ZipException("Central directory exceeds maximum supported size");
+      }
+
+      ByteBuffer directory = this.read(directoryOffset, (int) directorySize);
+      Map<String, Entry> entries = new LinkedHashMap<>();
+
+      for (long i = 0; i < count; ++i) {
+        Entry entry = readEntry(directory);
+        entries.put(entry.name, entry);
+      }
+
+      this.entries = Collections.unmodifiableMap(entries);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+      ZipException wrapper = new ZipException("Malformed central directory");
+      wrapper.initCause(ex);
+      throw wrapper;
+    }
+  }
+
+  /**
+   * Opens an existing archive for reading.
+   *
+   * @param path an archive.
+   * @return a reader.
+   * @throws IOException when the archive cannot be read or is malformed.
+   */
+  @Nonnull
+  static ZipArchiveReader open(@Nonnull Path path) throws IOException {
+    return open(path, false);
+  }
+
+  /**
+   * Opens an existing archive for reading.
+   *
+   * @param path an archive.
+   * @param mapped true if the archive is to be memory mapped (when supported by the file system
+   * and the archive does not exceed 2 GiB).
+   * @return a reader.
+   * @throws IOException when the archive cannot be read or is malformed.
+   */
+  @Nonnull
+  static ZipArchiveReader open(@Nonnull Path path, boolean mapped) throws IOException {
+    SeekableByteChannel channel = Files.newByteChannel(path);
+
+    try {
+      ByteBuffer mapping = null;
+
+      if (mapped && channel instanceof FileChannel && channel.size() <= Integer.MAX_VALUE) {
+        mapping = ((FileChannel) channel).map(MapMode.READ_ONLY, 0, channel.size());
+      }
+
+      return new ZipArchiveReader(channel, mapping);
+    } catch (IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Decodes a single central directory header at the current position of a buffer.
+   *
+   * @param directory a central directory buffer.
+   * @return an entry.
+   * @throws ZipException when the header is malformed.
+   */
+  @Nonnull
+  private static Entry readEntry(@Nonnull ByteBuffer directory) throws ZipException {
+    int offset = directory.position();
+
+    if (directory.remaining() < 46 || directory.getInt(offset) != CENTRAL_HEADER_SIGNATURE) {
+      throw new ZipException("Invalid central directory header at offset " + offset);
+    }
+
+    int flags = directory.getShort(offset + 8) & 0xFFFF;
+    int method = directory.getShort(offset + 10) & 0xFFFF;
+    long dosTime = directory.getInt(offset + 12) & MAGIC;
+    long crc = directory.getInt(offset + 16) & MAGIC;
+    long compressedSize = directory.getInt(offset + 20) & MAGIC;
+    long size = directory.getInt(offset + 24) & MAGIC;
+    int nameLength = directory.getShort(offset + 28) & 0xFFFF;
+    int extraLength = directory.getShort(offset + 30) & 0xFFFF;
+    int commentLength = directory.getShort(offset + 32) & 0xFFFF;
+    long headerOffset = directory.getInt(offset + 42) & MAGIC;
+
+    if (directory.remaining() < 46 + nameLength + extraLength + commentLength) {
+      throw new ZipException("Truncated central directory header at offset " + offset);
+    }
+
+    byte[] name = new byte[nameLength];
+    directory.position(offset + 46);
+    directory.get(name);
+
+    int extraOffset = offset + 46 + nameLength;
+    int extraEnd = extraOffset + extraLength;
+
+    while (extraOffset + 4 <= extraEnd) {
+      int id = directory.getShort(extraOffset) & 0xFFFF;
+      int length = directory.getShort(extraOffset + 2) & 0xFFFF;
+      int position = extraOffset + 4;
+      int fieldEnd = position + length;
+
+      if (fieldEnd > extraEnd) {
+        throw new ZipException("Truncated extra field at offset " + extraOffset);
+      }
+
+      if (id == ZIP64_EXTRA_ID) {
+        if (size == MAGIC) {
+          size = readZip64Value(directory, position, fieldEnd);
+          position += 8;
+        }
+        if (compressedSize == MAGIC) {
+          compressedSize = readZip64Value(directory, position, fieldEnd);
+          position += 8;
+        }
+        if (headerOffset == MAGIC) {
+          headerOffset = readZip64Value(directory, position, fieldEnd);
+        }
+      }
+
+      extraOffset += 4 + length;
+    }
+
+    directory.position(extraEnd + commentLength);
+    return new Entry(new String(name, StandardCharsets.UTF_8), flags, method, dosTime, crc,
+        compressedSize, size, headerOffset);
+  }
+
+  /**
+   * Decodes a single value within a ZIP64 extra field.
+   *
+   * @param directory a central directory buffer.
+   * @param position the offset of the value.
+   * @param fieldEnd the offset at which the extra field ends.
+   * @return a value.
+   * @throws ZipException when the value exceeds the extra field or is negative.
+   */
+  private static long readZip64Value(@Nonnull ByteBuffer directory, int position, int fieldEnd)
+      throws ZipException {
+    if (position + 8 > fieldEnd) {
+      throw new ZipException("Truncated ZIP64 extra field at offset " + position);
+    }
+
+    long value = directory.getLong(position);
+
+    if (value < 0) {
+      throw new ZipException("Illegal ZIP64 value at offset " + position);
+    }
+
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * Retrieves the archive comment.
+   *
+   * @return a comment (or an empty string).
+   */
+  @Nonnull
+  String getComment() {
+    return this.comment;
+  }
+
+  /**
+   * Retrieves the offset at which the compressed data of an entry begins.
+   *
+   * @param entry an entry of this archive.
+   * @return an offset.
+   * @throws IOException when the local header cannot be read or is malformed.
+   */
+  long getDataOffset(@Nonnull Entry entry) throws IOException {
+    ByteBuffer header = this.read(entry.headerOffset, 30);
+
+    if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+      throw new ZipException("Invalid local header for entry " + entry.name);
+    }
+
+    return entry.headerOffset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28)
+        & 0xFFFF);
+  }
+
+  /**
+   * Opens a stream which decodes the contents of an entry.
+   *
+   * @param entry an entry of this archive.
+   * @return a stream.
+   * @throws IOException when the local header cannot be read or the entry uses an unsupported
+   * compression method or encryption.
+   */
+  @Nonnull
+  InputStream getInputStream(@Nonnull Entry entry) throws IOException {
+    if (entry.isEncrypted()) {
+      throw new ZipException("Encrypted entries are not supported: " + entry.name);
+    }
+
+    long position = this.getDataOffset(entry);
+
+    switch (entry.method) {
+      case METHOD_STORED:
+        return new RegionInputStream(position, entry.compressedSize, false);
+      case METHOD_DEFLATED:
+        Inflater inflater = new Inflater(true);
+
+        // raw inflation occasionally requires an additional dummy byte in order to complete
+        return new InflaterInputStream(new RegionInputStream(position, entry.compressedSize, true),
+            inflater, 65536) {
+          private boolean closed;
+
+          @Override
+          public void close() throws IOException {
+            if (!this.closed) {
+              this.closed = true;
+              inflater.end();
+              super.close();
+            }
+          }
+        };
+      default:
+        throw new ZipException(
+            "Unsupported compression method " + entry.method + " in entry " + entry.name);
+    }
+  }
+
+  /**
+   * Retrieves an entry by name.
+   *
+   * @param name an entry name.
+   * @return an entry or an empty optional.
+   */
+  @Nonnull
+  Optional<Entry> getEntry(@Nonnull String name) {
+    return Optional.ofNullable(this.entries.get(name));
+  }
+
+  /**
+   * Retrieves all entries in central directory order.
+   *
+   * @return a collection of entries.
+   */
+  @Nonnull
+  Collection<Entry> getEntries() {
+    return this.entries.values();
+  }
+
+  /**
+   * Copies the compressed data of an entry to the specified channel.
+   *
+   * @param entry an entry of this archive.
+   * @param target a target channel.
+   * @throws IOException when reading or writing fails.
+   */
+  void transferTo(@Nonnull Entry entry, @Nonnull WritableByteChannel target) throws IOException {
+    long position = this.getDataOffset(entry);
+    long remaining = entry.compressedSize;
+
+    if (this.mapping != null) {
+      ByteBuffer buffer = this.read(position, (int) remaining);
+
+      while (buffer.hasRemaining()) {
+        target.write(buffer);
+      }
+
+      return;
+    }
+
+    if (this.channel instanceof FileChannel) {
+      FileChannel channel = (FileChannel) this.channel;
+
+      while (remaining > 0) {
+        long transferred = channel.transferTo(position, remaining, target);
+
+        if (transferred <= 0) {
+          throw new EOFException("Unexpected end of archive in entry " + entry.name);
+        }
+
+        position += transferred;
+        remaining -= transferred;
+      }
+
+      return;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(65536);
+
+    while (remaining > 0) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), remaining));
+
+      synchronized (this.channel) {
+        this.channel.position(position);
+
+        if (this.channel.read(buffer) <= 0) {
+          throw new EOFException("Unexpected end of archive in entry " + entry.name);
+        }
+      }
+
+      buffer.flip();
+      position += buffer.remaining();
+      remaining -= buffer.remaining();
+
+      while (buffer.hasRemaining()) {
+        target.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Reads a region of the archive.
+   *
+   * @param position an offset.
+   * @param length a number of bytes.
+   * @return a little endian buffer.
+   * @throws IOException when the region cannot be read.
+   */
+  @Nonnull
+  private ByteBuffer read(long position, int length) throws IOException {
+    if (position < 0 || length < 0) {
+      throw new EOFException("Unexpected end of archive");
+    }
+
+    if (this.mapping != null) {
+      if (position + length > this.mapping.capacity()) {
+        throw new EOFException("Unexpected end of archive");
+      }
+
+      ByteBuffer buffer = this.mapping.duplicate();
+      buffer.position((int) position);
+      buffer.limit((int) position + length);
+      return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+    synchronized (this.channel) {
+      this.channel.position(position);
+
+      while (buffer.hasRemaining()) {
+        if (this.channel.read(buffer) == -1) {
+          throw new EOFException("Unexpected end of archive");
+        }
+      }
+    }
+
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Provides a stream over a region of the archive.
+   */
+  private final class RegionInputStream extends InputStream {
+
+    private long position;
+    private long remaining;
+    private boolean padding;
+
+    private RegionInputStream(long position, long length, boolean padding) {
+      this.position = position;
+      this.remaining = length;
+      this.padding = padding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+      byte[] buffer = new byte[1];
+      return this.read(buffer, 0, 1) == -1 ? -1 : buffer[0] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      if (this.remaining == 0) {
+        if (!this.padding) {
+          return -1;
+        }
+
+        this.padding = false;
+        b[off] = 0;
+        return 1;
+      }
+
+      int length = (int) Math.min(len, this.remaining);
+      ZipArchiveReader.this.read(this.position, length).get(b, off, length);
+
+      this.position += length;
+      this.remaining -= length;
+      return length;
+    }
+  }
+
+  /**
+   * Represents a single entry within the central directory of an archive.
+   */
+  static final class Entry {
+
+    private static final int FLAG_ENCRYPTED = 0x0001;
+
+    final String name;
+    final int flags;
+    final int method;
+    final long dosTime;
+    final long crc;
+    final long compressedSize;
+    final long size;
+    final long headerOffset;
+
+    private Entry(
+        @Nonnull String name,
+        int flags,
+        int method,
+        long dosTime,
+        long crc,
+        long compressedSize,
+        long size,
+        long headerOffset) {
+      this.name = name;
+      this.flags = flags;
+      this.method = method;
+      this.dosTime = dosTime;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.headerOffset = headerOffset;
+    }
+
+    /**
+     * Converts the MS-DOS timestamp of this entry (in the local time zone) into milliseconds since
+     * the epoch.
+     *
+     * @return a timestamp.
+     */
+    long getTime() {
+      try {
+        LocalDateTime dateTime = LocalDateTime.of(
+            (int) ((this.dosTime >> 25) & 0x7F) + 1980,
+            (int) ((this.dosTime >> 21) & 0x0F),
+            (int) ((this.dosTime >> 16) & 0x1F),
+            (int) ((this.dosTime >> 11) & 0x1F),
+            (int) ((this.dosTime >> 5) & 0x3F),
+            (int) ((this.dosTime << 1) & 0x3E));
+
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      } catch (DateTimeException ex) {
+        return 0;
+      }
+    }
+
+    boolean isDirectory() {
+      return this.name.endsWith("/");
+    }
+
+    boolean isEncrypted() {
+      return (this.flags & FLAG_ENCRYPTED) != 0;
+    }
+  }
+}
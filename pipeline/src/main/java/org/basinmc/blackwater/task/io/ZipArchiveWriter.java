@@ -0,0 +1,808 @@
+package org.basinmc.blackwater.task.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>Writes zip archives while compressing their entries concurrently.</p>
+ *
+ * <p>Entries are compressed by the supplied executor and written to the archive in the order in
+ * which they have been added (regardless of the order in which their compression completes).
+ * Files which exceed {@link #INLINE_THRESHOLD} are compressed into temporary files (rather than
+ * memory) while uncompressed files of this size are streamed into the archive by the writing
+ * thread directly. ZIP64 extensions are only emitted when required by the size or amount of
+ * entries.</p>
+ *
+ * <p>Entries which match an entry within a previous version of the archive may be copied from
+ * said archive without being compressed again.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class ZipArchiveWriter implements Closeable {
+
+  static final int METHOD_STORED = 0;
+  static final int METHOD_DEFLATED = 8;
+
+  /**
+   * Defines the size at which files are no longer buffered in memory.
+   */
+  static final long INLINE_THRESHOLD = 4 * 1024 * 1024;
+
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+
+  private static final int FLAG_UTF8 = 0x0800;
+  private static final int VERSION_DEFAULT = 20;
+  private static final int VERSION_ZIP64 = 45;
+  private static final long MAGIC = 0xFFFFFFFFL;
+  private static final int MAGIC_COUNT = 0xFFFF;
+  private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+  private final FileChannel channel;
+  private final ExecutorService executor;
+  private final int maxPendingEntries;
+  private final Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+  private final List<Entry> entries = new ArrayList<>();
+  private final Set<Path> temporaryFiles = ConcurrentHashMap.newKeySet();
+  private byte[] comment = new byte[0];
+  private boolean closed;
+
+  /**
+   * Creates a new writer which replaces the specified file.
+   *
+   * @param output an output file.
+   * @param executor an executor which compresses entries.
+   * @param maxPendingEntries the maximum amount of entries which are buffered in memory.
+   * @throws IOException when opening the output file fails.
+   */
+  ZipArchiveWriter(@Nonnull Path output, @Nonnull ExecutorService executor, int maxPendingEntries)
+      throws IOException {
+    this.channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    this.executor = executor;
+    this.maxPendingEntries = Math.max(1, maxPendingEntries);
+  }
+
+  /**
+   * Converts a timestamp into its MS-DOS representation (in the local time zone).
+   *
+   * @param time a timestamp in milliseconds since the epoch.
+   * @return a DOS timestamp (date in the upper, time in the lower half).
+   */
+  static long toDosTime(long time) {
+    LocalDateTime dateTime = LocalDateTime
+        .ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+
+    if (dateTime.getYear() < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+
+    long date = ((dateTime.getYear() - 1980) << 9) | (dateTime.getMonthValue() << 5) | dateTime
+        .getDayOfMonth();
+    long clock = (dateTime.getHour() << 11) | (dateTime.getMinute() << 5) | (dateTime.getSecond()
+        >> 1);
+    return (date << 16) | clock;
+  }
+
+  /**
+   * Appends a directory entry to the archive.
+   *
+   * @param name an entry name (with or without trailing slash).
+   * @param time a modification timestamp in milliseconds since the epoch.
+   * @throws IOException when writing a previous entry fails.
+   */
+  void addDirectory(@Nonnull String name, long time) throws IOException {
+    String directoryName = name.endsWith("/") ? name : name + "/";
+    this.enqueue(new PendingEntry(directoryName, time,
+        new CompressedData(METHOD_STORED, new byte[0], 0, 0, 0), null, 0, null, null));
+  }
+
+  /**
+   * Appends a file entry to the archive.
+   *
+   * @param name an entry name.
+   * @param source a source file.
+   * @param time a modification timestamp in milliseconds since the epoch.
+   * @param method a compression method (either {@link #METHOD_STORED} or {@link
+   * #METHOD_DEFLATED}).
+   * @param level a compression level (see {@link Deflater}).
+   * @throws IOException when accessing the source or writing a previous entry fails.
+   */
+  void addFile(@Nonnull String name, @Nonnull Path source, long time, int method, int level)
+      throws IOException {
+    this.addFile(name, source, time, method, level, null, null);
+  }
+
+  /**
+   * <p>Appends a file entry to the archive.</p>
+   *
+   * <p>When the file matches the specified previous entry (e.g. its size, checksum and compression
+   * method are identical), the compressed data of the previous entry is copied to the archive
+   * as-is instead of compressing the file once again. Callers are responsible for ensuring that
+   * the previous entry has been compressed using the same settings.</p>
+   *
+   * @param name an entry name.
+   * @param source a source file.
+   * @param time a modification timestamp in milliseconds since the epoch.
+   * @param method a compression method (either {@link #METHOD_STORED} or {@link
+   * #METHOD_DEFLATED}).
+   * @param level a compression level (see {@link Deflater}).
+   * @param reader a reader for the previous archive (if any).
+   * @param previous an entry within the previous archive (if any).
+   * @throws IOException when accessing the source or writing a previous entry fails.
+   */
+  void addFile(
+      @Nonnull String name,
+      @Nonnull Path source,
+      long time,
+      int method,
+      int level,
+      @Nullable ZipArchiveReader reader,
+      @Nullable ZipArchiveReader.Entry previous) throws IOException {
+    ZipArchiveReader.Entry candidate = null;
+
+    if (reader != null && previous != null && !previous.isEncrypted()
+        && previous.method == method && previous.size == Files.size(source)) {
+      candidate = previous;
+    }
+
+    ZipArchiveReader.Entry reusable = candidate;
+    Future<CompressedData> future;
+
+    if (Files.size(source) <= INLINE_THRESHOLD) {
+      future = this.executor.submit(() -> compress(source, method, level, reusable));
+    } else if (method == METHOD_DEFLATED) {
+      future = this.executor.submit(() -> this.spill(source, level, reusable));
+    } else {
+      this.enqueue(new PendingEntry(name, time, null, source, method, reader, candidate));
+      return;
+    }
+
+    this.enqueue(new PendingEntry(name, time, future, null, method, reader, candidate));
+  }
+
+  /**
+   * Selects the comment which is written to the end of the archive.
+   *
+   * @param comment a comment.
+   * @throws IllegalArgumentException when the comment exceeds 65535 bytes.
+   */
+  void setComment(@Nonnull String comment) {
+    byte[] encoded = comment.getBytes(StandardCharsets.UTF_8);
+
+    if (encoded.length > MAGIC_COUNT) {
+      throw new IllegalArgumentException("Archive comment exceeds 65535 bytes");
+    }
+
+    this.comment = encoded;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      while (!this.pendingEntries.isEmpty()) {
+        this.write(this.pendingEntries.poll());
+      }
+
+      this.writeCentralDirectory();
+    } finally {
+      this.pendingEntries.forEach((e) -> e.cancel());
+      this.channel.close();
+
+      // cancellation does not interrupt compressions which are blocked on I/O thus we'll prevent
+      // them from registering their files from now on (they will delete them on their own instead)
+      synchronized (this.temporaryFiles) {
+        this.closed = true;
+      }
+
+      // spilled entries which have not been written are discarded along with the archive
+      for (Path file : this.temporaryFiles) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Computes the checksum of a file.
+   *
+   * @param source a source file.
+   * @return a checksum.
+   * @throws IOException when reading the file fails.
+   */
+  private static long checksum(@Nonnull Path source) throws IOException {
+    CRC32 crc = new CRC32();
+
+    try (InputStream inputStream = Files.newInputStream(source)) {
+      byte[] buffer = new byte[65536];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, length);
+      }
+    }
+
+    return crc.getValue();
+  }
+
+  /**
+   * Compresses a file in memory unless it matches a previous entry.
+   *
+   * @param source a source file.
+   * @param method a compression method.
+   * @param level a compression level.
+   * @param previous a matching candidate within the previous archive (if any).
+   * @return the compressed data or null when the previous entry is to be reused.
+   * @throws IOException when reading the file fails.
+   */
+  @Nullable
+  private static CompressedData compress(@Nonnull Path source, int method, int level,
+      @Nullable ZipArchiveReader.Entry previous) throws IOException {
+    byte[] contents = Files.readAllBytes(source);
+    CRC32 crc = new CRC32();
+    crc.update(contents);
+
+    if (previous != null && previous.crc == crc.getValue() && previous.size == contents.length) {
+      return null;
+    }
+
+    if (method == METHOD_STORED) {
+      return new CompressedData(method, contents, contents.length, crc.getValue(),
+          contents.length);
+    }
+
+    Deflater deflater = new Deflater(level, true);
+
+    try {
+      deflater.setInput(contents);
+      deflater.finish();
+
+      byte[] buffer = new byte[Math.max(64, contents.length + (contents.length >> 4) + 64)];
+      int length = 0;
+
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+
+      return new CompressedData(method, buffer, length, crc.getValue(), contents.length);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Compresses a (large) file into a temporary file unless it matches a previous entry.
+   *
+   * @param source a source file.
+   * @param level a compression level.
+   * @param previous a matching candidate within the previous archive (if any).
+   * @return the compressed data or null when the previous entry is to be reused.
+   * @throws IOException when reading the file or writing the temporary file fails.
+   */
+  @Nullable
+  private CompressedData spill(@Nonnull Path source, int level,
+      @Nullable ZipArchiveReader.Entry previous) throws IOException {
+    if (previous != null && previous.crc == checksum(source)) {
+      return null;
+    }
+
+    Path file = Files.createTempFile("blackwater_", ".deflate");
+
+    try {
+      CRC32 crc = new CRC32();
+      long size = 0;
+      Deflater deflater = new Deflater(level, true);
+
+      try (InputStream inputStream = Files.newInputStream(source);
+          OutputStream outputStream = new DeflaterOutputStream(Files.newOutputStream(file),
+              deflater, 65536)) {
+        byte[] buffer = new byte[65536];
+        int length;
+
+        while ((length = inputStream.read(buffer)) != -1) {
+          crc.update(buffer, 0, length);
+          outputStream.write(buffer, 0, length);
+          size += length;
+        }
+      } finally {
+        deflater.end();
+      }
+
+      CompressedData data = new CompressedData(METHOD_DEFLATED, file, Files.size(file),
+          crc.getValue(), size);
+
+      // files are only registered once they have been fully written as the writer may be closed
+      // (and its registered files deleted) at any time
+      synchronized (this.temporaryFiles) {
+        if (!this.closed) {
+          this.temporaryFiles.add(file);
+          return data;
+        }
+      }
+
+      throw new IOException("Archive has been closed");
+    } catch (IOException | RuntimeException ex) {
+      Files.deleteIfExists(file);
+      throw ex;
+    }
+  }
+
+  /**
+   * Queues an entry and writes all leading entries which have already been compressed (or blocks
+   * until the oldest entry has been compressed when too many entries are pending).
+   *
+   * @param entry an entry.
+   * @throws IOException when writing an entry fails.
+   */
+  private void enqueue(@Nonnull PendingEntry entry) throws IOException {
+    this.pendingEntries.add(entry);
+
+    while (!this.pendingEntries.isEmpty() && (this.pendingEntries.peek().isDone()
+        || this.pendingEntries.size() > this.maxPendingEntries)) {
+      this.write(this.pendingEntries.poll());
+    }
+  }
+
+  /**
+   * Writes a single entry to the archive.
+   *
+   * @param pending a pending entry.
+   * @throws IOException when compressing or writing the entry fails.
+   */
+  private void write(@Nonnull PendingEntry pending) throws IOException {
+    if (pending.source != null) {
+      this.writeInline(pending);
+      return;
+    }
+
+    CompressedData data = pending.getData();
+
+    if (data == null) {
+      this.writeRaw(pending);
+      return;
+    }
+
+    long offset = this.channel.position();
+    Entry entry = new Entry(pending.name, pending.time, data.method, data.crc, data.length,
+        data.size, offset);
+
+    this.writeFully(entry.createLocalHeader(data.length >= MAGIC || data.size >= MAGIC));
+
+    if (data.file == null) {
+      assert data.buffer != null;
+      this.writeFully(ByteBuffer.wrap(data.buffer, 0, (int) data.length));
+    } else {
+      try {
+        this.transferFrom(data.file, data.length);
+      } finally {
+        this.temporaryFiles.remove(data.file);
+        Files.deleteIfExists(data.file);
+      }
+    }
+
+    this.entries.add(entry);
+  }
+
+  /**
+   * Copies the contents of a spilled entry into the archive.
+   *
+   * @param file a temporary file.
+   * @param length the length of the file.
+   * @throws IOException when reading the file or writing the archive fails.
+   */
+  private void transferFrom(@Nonnull Path file, long length) throws IOException {
+    try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+      long position = 0;
+
+      while (position < length) {
+        long transferred = source.transferTo(position, length - position, this.channel);
+
+        if (transferred <= 0) {
+          throw new EOFException("Unexpected end of spilled entry " + file);
+        }
+
+        position += transferred;
+      }
+    }
+  }
+
+  /**
+   * Streams a (large) uncompressed file into the archive and updates its local header once its
+   * size and checksum are known.
+   *
+   * @param pending a pending entry.
+   * @throws IOException when reading the source or writing the entry fails.
+   */
+  private void writeInline(@Nonnull PendingEntry pending) throws IOException {
+    assert pending.source != null;
+
+    if (pending.previous != null && pending.previous.crc == checksum(pending.source)) {
+      this.writeRaw(pending);
+      return;
+    }
+
+    long offset = this.channel.position();
+    Entry entry = new Entry(pending.name, pending.time, pending.method, 0, 0, 0, offset);
+
+    // we do not know the compressed size ahead of time (and the uncompressed size may change
+    // while we're reading) so we'll simply always reserve space for ZIP64 fields here
+    ByteBuffer header = entry.createLocalHeader(true);
+    this.writeFully(header);
+    long dataOffset = this.channel.position();
+
+    CRC32 crc = new CRC32();
+    long size = 0;
+
+    try (InputStream inputStream = Files.newInputStream(pending.source)) {
+      OutputStream outputStream = new FilterOutputStream(Channels.newOutputStream(this.channel)) {
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) throws IOException {
+          this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+          this.flush();
+        }
+      };
+
+      byte[] buffer = new byte[65536];
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, length);
+        outputStream.write(buffer, 0, length);
+        size += length;
+      }
+
+      outputStream.close();
+    }
+
+    long end = this.channel.position();
+    Entry completed = new Entry(pending.name, pending.time, pending.method, crc.getValue(),
+        end - dataOffset, size, offset);
+    header = completed.createLocalHeader(true);
+
+    while (header.hasRemaining()) {
+      this.channel.write(header, offset + header.position());
+    }
+
+    this.entries.add(completed);
+  }
+
+  /**
+   * Copies the compressed data of a previous entry into the archive.
+   *
+   * @param pending a pending entry.
+   * @throws IOException when reading the previous archive or writing the entry fails.
+   */
+  private void writeRaw(@Nonnull PendingEntry pending) throws IOException {
+    assert pending.reader != null;
+    assert pending.previous != null;
+
+    ZipArchiveReader.Entry previous = pending.previous;
+    Entry entry = new Entry(pending.name, pending.time, previous.method, previous.crc,
+        previous.compressedSize, previous.size, this.channel.position());
+
+    this.writeFully(entry.createLocalHeader(previous.compressedSize >= MAGIC
+        || previous.size >= MAGIC));
+    pending.reader.transferTo(previous, this.channel);
+    this.entries.add(entry);
+  }
+
+  /**
+   * Writes the central directory and the end of central directory record(s).
+   *
+   * @throws IOException when writing fails.
+   */
+  private void writeCentralDirectory() throws IOException {
+    long offset = this.channel.position();
+
+    for (Entry entry : this.entries) {
+      this.writeFully(entry.createCentralHeader());
+    }
+
+    long end = this.channel.position();
+    long size = end - offset;
+    int count = this.entries.size();
+
+    if (count >= MAGIC_COUNT || offset >= MAGIC || size >= MAGIC) {
+      ByteBuffer record = ByteBuffer.allocate(56 + 20).order(ByteOrder.LITTLE_ENDIAN);
+      record.putInt(ZIP64_END_SIGNATURE);
+      record.putLong(44);
+      record.putShort((short) VERSION_ZIP64);
+      record.putShort((short) VERSION_ZIP64);
+      record.putInt(0);
+      record.putInt(0);
+      record.putLong(count);
+      record.putLong(count);
+      record.putLong(size);
+      record.putLong(offset);
+
+      record.putInt(ZIP64_LOCATOR_SIGNATURE);
+      record.putInt(0);
+      record.putLong(end);
+      record.putInt(1);
+      record.flip();
+      this.writeFully(record);
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(22 + this.comment.length)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    record.putInt(END_SIGNATURE);
+    record.putShort((short) 0);
+    record.putShort((short) 0);
+    record.putShort((short) Math.min(count, MAGIC_COUNT));
+    record.putShort((short) Math.min(count, MAGIC_COUNT));
+    record.putInt((int) Math.min(size, MAGIC));
+    record.putInt((int) Math.min(offset, MAGIC));
+    record.putShort((short) this.comment.length);
+    record.put(this.comment);
+    record.flip();
+    this.writeFully(record);
+  }
+
+  private void writeFully(@Nonnull ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+  }
+
+  /**
+   * Represents the data of an entry which has been compressed in memory or into a temporary
+   * file.
+   */
+  private static final class CompressedData {
+
+    private final int method;
+    private final byte[] buffer;
+    private final Path file;
+    private final long length;
+    private final long crc;
+    private final long size;
+
+    private CompressedData(int method, @Nonnull byte[] buffer, int length, long crc, long size) {
+      this.method = method;
+      this.buffer = buffer;
+      this.file = null;
+      this.length = length;
+      this.crc = crc;
+      this.size = size;
+    }
+
+    private CompressedData(int method, @Nonnull Path file, long length, long crc, long size) {
+      this.method = method;
+      this.buffer = null;
+      this.file = file;
+      this.length = length;
+      this.crc = crc;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Represents an entry which has been added to the archive but not yet written.
+   */
+  private static final class PendingEntry {
+
+    private final String name;
+    private final long time;
+    private final Object data;
+    private final Path source;
+    private final int method;
+    private final ZipArchiveReader reader;
+    private final ZipArchiveReader.Entry previous;
+
+    private PendingEntry(
+        @Nonnull String name,
+        long time,
+        @Nullable Object data,
+        @Nullable Path source,
+        int method,
+        @Nullable ZipArchiveReader reader,
+        @Nullable ZipArchiveReader.Entry previous) {
+      this.name = name;
+      this.time = time;
+      this.data = data;
+      this.source = source;
+      this.method = method;
+      this.reader = reader;
+      this.previous = previous;
+    }
+
+    private void cancel() {
+      if (this.data instanceof Future) {
+        ((Future<?>) this.data).cancel(true);
+      }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private CompressedData getData() throws IOException {
+      if (this.data instanceof CompressedData) {
+        return (CompressedData) this.data;
+      }
+
+      try {
+        return ((Future<CompressedData>) this.data).get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while compressing entry " + this.name, ex);
+      } catch (ExecutionException ex) {
+        Throwable cause = ex.getCause();
+
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+
+        throw new IOException("Failed to compress entry " + this.name + ": " + cause.getMessage(),
+            cause);
+      }
+    }
+
+    private boolean isDone() {
+      return !(this.data instanceof Future) || ((Future<?>) this.data).isDone();
+    }
+  }
+
+  /**
+   * Represents an entry which has been written to the archive.
+   */
+  private static final class Entry {
+
+    private final byte[] name;
+    private final long dosTime;
+    private final boolean directory;
+    private final int method;
+    private final long crc;
+    private final long compressedSize;
+    private final long size;
+    private final long offset;
+
+    private Entry(
+        @Nonnull String name,
+        long time,
+        int method,
+        long crc,
+        long compressedSize,
+        long size,
+        long offset) {
+      this.name = name.getBytes(StandardCharsets.UTF_8);
+      this.dosTime = toDosTime(time);
+      this.directory = name.endsWith("/");
+      this.method = method;
+      this.crc = crc;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.offset = offset;
+    }
+
+    /**
+     * Creates the central directory header for this entry.
+     *
+     * @return a buffer.
+     */
+    @Nonnull
+    private ByteBuffer createCentralHeader() {
+      boolean zip64Size = this.size >= MAGIC;
+      boolean zip64CompressedSize = this.compressedSize >= MAGIC;
+      boolean zip64Offset = this.offset >= MAGIC;
+      int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8
+          : 0);
+      boolean zip64 = extraLength != 0;
+      int version = zip64 ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+      ByteBuffer buffer = ByteBuffer
+          .allocate(46 + this.name.length + (zip64 ? 4 + extraLength : 0))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(CENTRAL_HEADER_SIGNATURE);
+      buffer.putShort((short) version);
+      buffer.putShort((short) version);
+      buffer.putShort((short) FLAG_UTF8);
+      buffer.putShort((short) this.method);
+      buffer.putInt((int) this.dosTime);
+      buffer.putInt((int) this.crc);
+      buffer.putInt((int) Math.min(this.compressedSize, MAGIC));
+      buffer.putInt((int) Math.min(this.size, MAGIC));
+      buffer.putShort((short) this.name.length);
+      buffer.putShort((short) (zip64 ? 4 + extraLength : 0));
+      buffer.putShort((short) 0);
+      buffer.putShort((short) 0);
+      buffer.putShort((short) 0);
+      buffer.putInt(this.directory ? DIRECTORY_ATTRIBUTE : 0);
+      buffer.putInt((int) Math.min(this.offset, MAGIC));
+      buffer.put(this.name);
+
+      if (zip64) {
+        buffer.putShort((short) ZIP64_EXTRA_ID);
+        buffer.putShort((short) extraLength);
+
+        if (zip64Size) {
+          buffer.putLong(this.size);
+        }
+        if (zip64CompressedSize) {
+          buffer.putLong(this.compressedSize);
+        }
+        if (zip64Offset) {
+          buffer.putLong(this.offset);
+        }
+      }
+
+      buffer.flip();
+      return buffer;
+    }
+
+    /**
+     * Creates the local header for this entry.
+     *
+     * @param zip64 true if sizes are to be stored within a ZIP64 extra field.
+     * @return a buffer.
+     */
+    @Nonnull
+    private ByteBuffer createLocalHeader(boolean zip64) {
+      ByteBuffer buffer = ByteBuffer.allocate(30 + this.name.length + (zip64 ? 20 : 0))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(LOCAL_HEADER_SIGNATURE);
+      buffer.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+      buffer.putShort((short) FLAG_UTF8);
+      buffer.putShort((short) this.method);
+      buffer.putInt((int) this.dosTime);
+      buffer.putInt((int) this.crc);
+      buffer.putInt(zip64 ? (int) MAGIC : (int) this.compressedSize);
+      buffer.putInt(zip64 ? (int) MAGIC : (int) this.size);
+      buffer.putShort((short) this.name.length);
+      buffer.putShort((short) (zip64 ? 20 : 0));
+      buffer.put(this.name);
+
+      if (zip64) {
+        buffer.putShort((short) ZIP64_EXTRA_ID);
+        buffer.putShort((short) 16);
+        buffer.putLong(this.size);
+        buffer.putLong(this.compressedSize);
+      }
+
+      buffer.flip();
+      return buffer;
+    }
+  }
+}
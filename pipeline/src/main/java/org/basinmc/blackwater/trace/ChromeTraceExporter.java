@@ -0,0 +1,225 @@
+package org.basinmc.blackwater.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.utility.Json;
+
+/**
+ * <p>Records spans and exports them in the Chrome trace event format.</p>
+ *
+ * <p>The resulting files may be opened using Perfetto (or the trace viewer which is built into
+ * Chromium based browsers) in order to inspect the timeline of a pipeline execution. Each thread
+ * which participates in the execution is displayed as a separate track on which nested spans are
+ * stacked on top of each other.</p>
+ *
+ * <p>Spans are retained in memory until they are exported. A single exporter may record multiple
+ * pipeline executions.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ChromeTraceExporter implements Tracer {
+
+  private final long origin = System.nanoTime();
+  private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+  private final Map<Long, String> threadNames = new ConcurrentHashMap<>();
+
+  /**
+   * Discards all previously recorded spans.
+   */
+  public void clear() {
+    this.events.clear();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Span start(@Nonnull String category, @Nonnull String name) {
+    Thread thread = Thread.currentThread();
+    this.threadNames.putIfAbsent(thread.getId(), thread.getName());
+
+    return new EventSpan(category, name, thread.getId(), System.nanoTime());
+  }
+
+  /**
+   * Converts a timestamp into the amount of microseconds since the creation of this exporter.
+   *
+   * @param timestamp a timestamp as returned by {@link System#nanoTime()}.
+   * @return a relative timestamp in microseconds.
+   */
+  private long toMicros(long timestamp) {
+    return TimeUnit.NANOSECONDS.toMicros(timestamp - this.origin);
+  }
+
+  /**
+   * Writes all recorded spans to the specified file (replacing it if it already exists).
+   *
+   * @param file a file.
+   * @throws IOException when writing the file fails.
+   */
+  public void write(@Nonnull Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      this.write(writer);
+    }
+  }
+
+  /**
+   * Writes all recorded spans to the supplied writer.
+   *
+   * @param writer a writer.
+   * @throws IOException when writing fails.
+   */
+  public void write(@Nonnull Writer writer) throws IOException {
+    StringBuilder builder = new StringBuilder("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+    boolean first = true;
+
+    for (Map.Entry<Long, String> thread : this.threadNames.entrySet()) {
+      if (!first) {
+        builder.append(',');
+      }
+      first = false;
+
+      builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+          .append(thread.getKey())
+          .append(",\"args\":{\"name\":");
+      Json.appendString(builder, thread.getValue());
+      builder.append("}}");
+    }
+
+    writer.write(builder.toString());
+
+    for (Event event : this.events) {
+      builder.setLength(0);
+
+      if (!first) {
+        builder.append(',');
+      }
+      first = false;
+
+      builder.append("{\"name\":");
+      Json.appendString(builder, event.name);
+      builder.append(",\"cat\":");
+      Json.appendString(builder, event.category);
+      builder.append(",\"ph\":\"X\",\"pid\":1,\"tid\":").append(event.threadId)
+          .append(",\"ts\":").append(this.toMicros(event.start))
+          .append(",\"dur\":").append(TimeUnit.NANOSECONDS.toMicros(event.end - event.start));
+
+      if (!event.attributes.isEmpty()) {
+        builder.append(",\"args\":{");
+
+        Iterator<Map.Entry<String, Object>> it = event.attributes.entrySet().iterator();
+        while (it.hasNext()) {
+          Map.Entry<String, Object> attribute = it.next();
+
+          Json.appendString(builder, attribute.getKey());
+          builder.append(':');
+          Json.appendValue(builder, attribute.getValue());
+
+          if (it.hasNext()) {
+            builder.append(',');
+          }
+        }
+
+        builder.append('}');
+      }
+
+      builder.append('}');
+      writer.write(builder.toString());
+    }
+
+    writer.write("]}");
+    writer.flush();
+  }
+
+  /**
+   * Represents a completed span.
+   */
+  private static final class Event {
+
+    private final String category;
+    private final String name;
+    private final long threadId;
+    private final long start;
+    private final long end;
+    private final Map<String, Object> attributes;
+
+    private Event(
+        @Nonnull String category,
+        @Nonnull String name,
+        long threadId,
+        long start,
+        long end,
+        @Nonnull Map<String, Object> attributes) {
+      this.category = category;
+      this.name = name;
+      this.threadId = threadId;
+      this.start = start;
+      this.end = end;
+      this.attributes = attributes;
+    }
+  }
+
+  /**
+   * Provides a span which is recorded as an event once closed.
+   */
+  private final class EventSpan implements Span {
+
+    private final String category;
+    private final String name;
+    private final long threadId;
+    private final long start;
+
+    private Map<String, Object> attributes = Collections.emptyMap();
+    private boolean closed;
+
+    private EventSpan(@Nonnull String category, @Nonnull String name, long threadId, long start) {
+      this.category = category;
+      this.name = name;
+      this.threadId = threadId;
+      this.start = start;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      ChromeTraceExporter.this.events.add(
+          new Event(this.category, this.name, this.threadId, this.start, System.nanoTime(),
+              this.attributes));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public synchronized Span setAttribute(@Nonnull String key, @Nullable Object value) {
+      if (this.attributes.isEmpty()) {
+        this.attributes = new LinkedHashMap<>();
+      }
+
+      this.attributes.put(key, value);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,378 @@
+package org.basinmc.blackwater.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * <p>Emits Java Flight Recorder events for the spans of a pipeline.</p>
+ *
+ * <p>Well known span categories (such as tasks, cache evaluations and artifact publications) are
+ * mapped to dedicated event types while all other spans are emitted as generic events. The event
+ * type of each category is resolved once and events are only instantiated while their type is
+ * enabled. As a result, the overhead of this tracer is negligible unless a recording is
+ * running.</p>
+ *
+ * <p>This class relies on the {@code jdk.jfr} API which is not available on all Java 8 runtimes
+ * and should thus only be instantiated via {@link Tracer#flightRecorder()}.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class FlightRecorderTracer implements Tracer {
+
+  private final Map<String, EventFactory> factories = new HashMap<>();
+  private final EventFactory genericFactory;
+
+  FlightRecorderTracer() {
+    this.factories.put("task", new EventFactory(TaskEvent.class, TaskEvent::new));
+    this.factories.put("cache", new EventFactory(CacheEvent.class, CacheEvent::new));
+    this.factories.put("resolve", new EventFactory(ResolveEvent.class, ResolveEvent::new));
+    this.factories.put("publish", new EventFactory(PublishEvent.class, PublishEvent::new));
+    this.factories.put("cleanup", new EventFactory(CleanupEvent.class, CleanupEvent::new));
+    this.factories.put("spawn", new EventFactory(ProcessSpawnEvent.class, ProcessSpawnEvent::new));
+    this.factories.put("wait", new EventFactory(ProcessWaitEvent.class, ProcessWaitEvent::new));
+    this.genericFactory = new EventFactory(GenericEvent.class, GenericEvent::new);
+  }
+
+  /**
+   * Converts an arbitrary attribute value into a long.
+   *
+   * @param value an attribute value.
+   * @return a long value (or zero if the value is not numeric).
+   */
+  private static long toLong(@Nullable Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+
+    return 0;
+  }
+
+  /**
+   * Converts an arbitrary attribute value into a string.
+   *
+   * @param value an attribute value.
+   * @return a string value (or null).
+   */
+  @Nullable
+  private static String toString(@Nullable Object value) {
+    return value != null ? value.toString() : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Span start(@Nonnull String category, @Nonnull String name) {
+    EventFactory factory = this.factories.get(category);
+
+    if (factory == null) {
+      factory = this.genericFactory;
+    }
+
+    if (!factory.type.isEnabled()) {
+      return Span.noop();
+    }
+
+    SpanEvent event = factory.supplier.get();
+
+    if (factory == this.genericFactory) {
+      event.setAttribute("category", category);
+    }
+
+    event.setAttribute("name", name);
+    event.begin();
+    return new EventSpan(event);
+  }
+
+  /**
+   * Associates an event type with the logic which instantiates its events.
+   */
+  private static final class EventFactory {
+
+    private final EventType type;
+    private final Supplier<SpanEvent> supplier;
+
+    private EventFactory(@Nonnull Class<? extends SpanEvent> type,
+        @Nonnull Supplier<SpanEvent> supplier) {
+      this.type = EventType.getEventType(type);
+      this.supplier = supplier;
+    }
+  }
+
+  /**
+   * Provides a base to events which are populated from span attributes.
+   */
+  private abstract static class SpanEvent extends Event {
+
+    /**
+     * Applies a span attribute to this event (unknown attributes are ignored).
+     *
+     * @param key an attribute name.
+     * @param value an attribute value.
+     */
+    abstract void setAttribute(@Nonnull String key, @Nullable Object value);
+  }
+
+  @Name("org.basinmc.blackwater.Task")
+  @Label("Task Execution")
+  @Category({"Blackwater", "Pipeline"})
+  @Description("Execution of a single pipeline task (including its cache evaluation)")
+  private static final class TaskEvent extends SpanEvent {
+
+    @Label("Task")
+    String task;
+
+    @Label("Executed")
+    @Description("Indicates whether the task has been executed (rather than skipped)")
+    boolean executed;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "name":
+          this.task = FlightRecorderTracer.toString(value);
+          break;
+        case "executed":
+          this.executed = Boolean.TRUE.equals(value);
+          break;
+        case "failed":
+          this.failed = Boolean.TRUE.equals(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.Cache")
+  @Label("Cache Evaluation")
+  @Category({"Blackwater", "Pipeline"})
+  @Description("Evaluation of a cached task output artifact")
+  private static final class CacheEvent extends SpanEvent {
+
+    @Label("Task")
+    String task;
+
+    @Label("Artifact")
+    String artifact;
+
+    @Label("Hit")
+    @Description("Indicates whether the cached artifact is present and valid")
+    boolean hit;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "task":
+          this.task = FlightRecorderTracer.toString(value);
+          break;
+        case "artifact":
+          this.artifact = FlightRecorderTracer.toString(value);
+          break;
+        case "valid":
+          this.hit = Boolean.TRUE.equals(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.ArtifactResolve")
+  @Label("Artifact Resolution")
+  @Category({"Blackwater", "Artifact"})
+  @Description("Resolution of the artifacts consumed by a task")
+  private static final class ResolveEvent extends SpanEvent {
+
+    @Label("Artifacts")
+    int artifacts;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "artifacts":
+          this.artifacts = (int) toLong(value);
+          break;
+        case "bytes":
+          this.bytes = toLong(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.ArtifactPublish")
+  @Label("Artifact Publication")
+  @Category({"Blackwater", "Artifact"})
+  @Description("Publication of a task output to its artifact")
+  private static final class PublishEvent extends SpanEvent {
+
+    @Label("Artifact")
+    String artifact;
+
+    @Label("Changed")
+    @Description("Indicates whether the artifact has been replaced")
+    boolean changed;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "artifact":
+          this.artifact = FlightRecorderTracer.toString(value);
+          break;
+        case "changed":
+          this.changed = Boolean.TRUE.equals(value);
+          break;
+        case "bytes":
+          this.bytes = toLong(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.Cleanup")
+  @Label("Cleanup")
+  @Category({"Blackwater", "Pipeline"})
+  @Description("Removal of temporary files or stale task outputs")
+  private static final class CleanupEvent extends SpanEvent {
+
+    @Label("Name")
+    String name;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "name":
+          this.name = FlightRecorderTracer.toString(value);
+          break;
+        case "bytes":
+          this.bytes = toLong(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.ProcessSpawn")
+  @Label("Process Spawn")
+  @Category({"Blackwater", "Process"})
+  @Description("Creation of an external process")
+  private static final class ProcessSpawnEvent extends SpanEvent {
+
+    @Label("Command")
+    String command;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      if ("command".equals(key)) {
+        this.command = FlightRecorderTracer.toString(value);
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.ProcessWait")
+  @Label("Process Wait")
+  @Category({"Blackwater", "Process"})
+  @Description("Wait for the termination of an external process")
+  private static final class ProcessWaitEvent extends SpanEvent {
+
+    @Label("Command")
+    String command;
+
+    @Label("Exit Value")
+    int exitValue;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "command":
+          this.command = FlightRecorderTracer.toString(value);
+          break;
+        case "exitValue":
+          this.exitValue = (int) toLong(value);
+          break;
+      }
+    }
+  }
+
+  @Name("org.basinmc.blackwater.Span")
+  @Label("Span")
+  @Category("Blackwater")
+  @Description("Arbitrary operation within a pipeline")
+  private static final class GenericEvent extends SpanEvent {
+
+    @Label("Category")
+    String category;
+
+    @Label("Name")
+    String name;
+
+    @Override
+    void setAttribute(@Nonnull String key, @Nullable Object value) {
+      switch (key) {
+        case "category":
+          this.category = FlightRecorderTracer.toString(value);
+          break;
+        case "name":
+          this.name = FlightRecorderTracer.toString(value);
+          break;
+      }
+    }
+  }
+
+  /**
+   * Provides a span which commits its event once closed.
+   */
+  private static final class EventSpan implements Span {
+
+    private final SpanEvent event;
+    private boolean closed;
+
+    private EventSpan(@Nonnull SpanEvent event) {
+      this.event = event;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+      if (this.closed) {
+        return;
+      }
+
+      this.closed = true;
+      this.event.commit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Span setAttribute(@Nonnull String key, @Nullable Object value) {
+      this.event.setAttribute(key, value);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package org.basinmc.blackwater.trace;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Provides a span which discards all information passed to it.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class NoopSpan implements Span {
+
+  static final NoopSpan INSTANCE = new NoopSpan();
+
+  private NoopSpan() {
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isRecording() {
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Span setAttribute(@Nonnull String key, @Nullable Object value) {
+    return this;
+  }
+}
@@ -0,0 +1,56 @@
+package org.basinmc.blackwater.trace;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>Represents a single timed operation (such as the execution of a task or the publication of
+ * an artifact).</p>
+ *
+ * <p>Spans are started by a {@link Tracer} and end when they are closed. Spans which are started
+ * by the same thread while another span is still open are considered to be nested within the
+ * latter.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public interface Span extends AutoCloseable {
+
+  /**
+   * Retrieves a span which does not record anything.
+   *
+   * @return a span.
+   */
+  @Nonnull
+  static Span noop() {
+    return NoopSpan.INSTANCE;
+  }
+
+  /**
+   * Ends this span.
+   */
+  @Override
+  void close();
+
+  /**
+   * <p>Evaluates whether this span is actually recorded.</p>
+   *
+   * <p>Callers may use this method in order to skip the computation of costly attributes (such as
+   * the size of a directory) when nobody is interested in them.</p>
+   *
+   * @return true if recorded, false otherwise.
+   */
+  default boolean isRecording() {
+    return true;
+  }
+
+  /**
+   * Attaches an arbitrary attribute (such as an amount of bytes or an artifact identifier) to this
+   * span.
+   *
+   * @param key an attribute name.
+   * @param value an attribute value (typically a number or string).
+   * @return a reference to this span.
+   */
+  @Nonnull
+  Span setAttribute(@Nonnull String key, @Nullable Object value);
+}
@@ -0,0 +1,106 @@
+package org.basinmc.blackwater.trace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * <p>Receives timing information about the operations performed by a pipeline.</p>
+ *
+ * <p>Implementations are invoked from all threads which participate in the pipeline execution and
+ * are thus required to be thread safe.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see Tracing
+ */
+@FunctionalInterface
+public interface Tracer {
+
+  /**
+   * Creates a tracer which passes all spans to each of the supplied tracers.
+   *
+   * @param tracers a collection of tracers.
+   * @return a tracer.
+   */
+  @Nonnull
+  static Tracer composite(@Nonnull Collection<? extends Tracer> tracers) {
+    List<Tracer> delegates = new ArrayList<>(tracers);
+
+    if (delegates.isEmpty()) {
+      return noop();
+    }
+    if (delegates.size() == 1) {
+      return delegates.get(0);
+    }
+
+    return (category, name) -> {
+      List<Span> spans = new ArrayList<>(delegates.size());
+      delegates.forEach((t) -> spans.add(t.start(category, name)));
+
+      return new Span() {
+        @Override
+        public void close() {
+          // spans are closed in reverse order in order to retain their nesting
+          for (int i = spans.size() - 1; i >= 0; --i) {
+            spans.get(i).close();
+          }
+        }
+
+        @Override
+        public boolean isRecording() {
+          return spans.stream().anyMatch(Span::isRecording);
+        }
+
+        @Nonnull
+        @Override
+        public Span setAttribute(@Nonnull String key, @Nullable Object value) {
+          spans.forEach((s) -> s.setAttribute(key, value));
+          return this;
+        }
+      };
+    };
+  }
+
+  /**
+   * <p>Retrieves a tracer which emits Java Flight Recorder events for all spans.</p>
+   *
+   * <p>The events are only recorded while a flight recording which enables them is running and
+   * cost little more than a check of their respective state otherwise. When the running VM does
+   * not provide the flight recorder API, an empty optional is returned instead.</p>
+   *
+   * @return a tracer or an empty optional.
+   */
+  @Nonnull
+  static Optional<Tracer> flightRecorder() {
+    try {
+      Class.forName("jdk.jfr.Event", false, Tracer.class.getClassLoader());
+    } catch (ClassNotFoundException | LinkageError ex) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new FlightRecorderTracer());
+  }
+
+  /**
+   * Retrieves a tracer which does not record anything.
+   *
+   * @return a tracer.
+   */
+  @Nonnull
+  static Tracer noop() {
+    return (category, name) -> Span.noop();
+  }
+
+  /**
+   * Starts a new span.
+   *
+   * @param category a category which identifies the type of operation (such as "task").
+   * @param name a human readable name.
+   * @return a span.
+   */
+  @Nonnull
+  Span start(@Nonnull String category, @Nonnull String name);
+}
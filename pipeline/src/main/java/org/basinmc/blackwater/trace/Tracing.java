@@ -0,0 +1,83 @@
+package org.basinmc.blackwater.trace;
+
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Provides access to the tracer which is responsible for the calling thread.</p>
+ *
+ * <p>Pipelines activate their tracer while executing a task. This permits tasks (and the utilities
+ * they rely on) to record nested spans without requiring access to the pipeline itself.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class Tracing {
+
+  private static final Tracer NOOP = Tracer.noop();
+  private static final ThreadLocal<Tracer> current = new ThreadLocal<>();
+
+  private Tracing() {
+  }
+
+  /**
+   * Selects the tracer which is responsible for the calling thread until the returned scope is
+   * closed.
+   *
+   * @param tracer a tracer.
+   * @return a scope which restores the previously active tracer when closed.
+   */
+  @Nonnull
+  public static Scope activate(@Nonnull Tracer tracer) {
+    Tracer previous = current.get();
+    current.set(tracer);
+
+    return () -> {
+      if (previous == null) {
+        current.remove();
+      } else {
+        current.set(previous);
+      }
+    };
+  }
+
+  /**
+   * Retrieves the tracer which is responsible for the calling thread.
+   *
+   * @return a tracer (or a tracer which does not record anything if none is active).
+   */
+  @Nonnull
+  public static Tracer current() {
+    Tracer tracer = current.get();
+
+    if (tracer == null) {
+      return NOOP;
+    }
+
+    return tracer;
+  }
+
+  /**
+   * Starts a new span using the tracer which is responsible for the calling thread.
+   *
+   * @param category a category which identifies the type of operation.
+   * @param name a human readable name.
+   * @return a span.
+   * @see Tracer#start(String, String)
+   */
+  @Nonnull
+  public static Span start(@Nonnull String category, @Nonnull String name) {
+    return current().start(category, name);
+  }
+
+  /**
+   * Represents the activation of a tracer on a thread.
+   */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+
+    /**
+     * Restores the previously active tracer.
+     */
+    @Override
+    void close();
+  }
+}
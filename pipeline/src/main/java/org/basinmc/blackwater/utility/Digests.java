@@ -0,0 +1,167 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides utility methods for computing content digests of files and directories.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class Digests {
+
+  /**
+   * Defines the algorithm which is used to compute digests.
+   */
+  public static final String ALGORITHM = "SHA-256";
+
+  /**
+   * Defines the length of digests (in bytes) as produced by {@link #ALGORITHM}.
+   */
+  public static final int LENGTH = 32;
+
+  private Digests() {
+  }
+
+  /**
+   * <p>Computes a digest of the contents of the specified file or directory.</p>
+   *
+   * <p>Directories are digested based on the relative paths and contents of all files and
+   * directories they contain (in a stable order). As such, two directories produce the same digest
+   * if and only if their structure and file contents are identical regardless of the file system
+   * they are located on. File attributes such as timestamps are not taken into account.</p>
+   *
+   * @param path a file or directory.
+   * @return a digest.
+   * @throws IOException when reading the file or directory fails.
+   */
+  @Nonnull
+  public static byte[] digest(@Nonnull Path path) throws IOException {
+    MessageDigest digest = createDigest();
+
+    if (!Files.isDirectory(path)) {
+      update(digest, path);
+      return digest.digest();
+    }
+
+    Iterator<Path> it;
+    try (Stream<Path> stream = Files.walk(path)) {
+      it = stream
+          .filter((p) -> !path.equals(p))
+          .sorted(Comparator.comparing((p) -> relativize(path, p)))
+          .collect(Collectors.toList())
+          .iterator();
+    }
+
+    while (it.hasNext()) {
+      Path current = it.next();
+      boolean directory = Files.isDirectory(current);
+
+      digest.update(relativize(path, current).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) (directory ? 'd' : 'f'));
+
+      if (!directory) {
+        update(digest, current);
+      }
+
+      digest.update((byte) 0);
+    }
+
+    return digest.digest();
+  }
+
+  /**
+   * Computes a digest of the UTF-8 representation of the specified string.
+   *
+   * @param value an arbitrary string.
+   * @return a digest.
+   */
+  @Nonnull
+  public static byte[] digest(@Nonnull String value) {
+    return createDigest().digest(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Converts a digest into its hexadecimal representation.
+   *
+   * @param digest a digest.
+   * @return a lower case hexadecimal string.
+   */
+  @Nonnull
+  public static String toHexString(@Nonnull byte[] digest) {
+    StringBuilder builder = new StringBuilder(digest.length * 2);
+
+    for (byte b : digest) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16))
+          .append(Character.forDigit(b & 0xF, 16));
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Creates a new message digest instance.
+   *
+   * @return a digest.
+   */
+  @Nonnull
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("Digest algorithm " + ALGORITHM + " is unavailable", ex);
+    }
+  }
+
+  /**
+   * Converts a path into a file system independent relative path string.
+   *
+   * @param base a base directory.
+   * @param path a path within the base directory.
+   * @return a relative path string.
+   */
+  @Nonnull
+  private static String relativize(@Nonnull Path base, @Nonnull Path path) {
+    StringBuilder builder = new StringBuilder();
+
+    for (Path element : base.relativize(path)) {
+      if (builder.length() != 0) {
+        builder.append('/');
+      }
+
+      builder.append(element.toString());
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Passes the contents of a file to the supplied digest.
+   *
+   * @param digest a digest.
+   * @param file a file.
+   * @throws IOException when reading the file fails.
+   */
+  private static void update(@Nonnull MessageDigest digest, @Nonnull Path file)
+      throws IOException {
+    byte[] buffer = new byte[8192];
+
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      int length;
+
+      while ((length = inputStream.read(buffer)) != -1) {
+        digest.update(buffer, 0, length);
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides utility methods for computing the size of files and directories.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class FileSizes {
+
+  private FileSizes() {
+  }
+
+  /**
+   * <p>Computes the total size of the specified file or directory.</p>
+   *
+   * <p>The size of a directory is the sum of the sizes of all regular files it (recursively)
+   * contains. Paths which do not exist are considered empty.</p>
+   *
+   * @param path a file or directory.
+   * @return a size in bytes.
+   * @throws IOException when reading the file or directory attributes fails.
+   */
+  public static long size(@Nonnull Path path) throws IOException {
+    if (Files.notExists(path)) {
+      return 0;
+    }
+
+    if (!Files.isDirectory(path)) {
+      return Files.size(path);
+    }
+
+    long[] size = new long[1];
+    Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (attrs.isRegularFile()) {
+          size[0] += attrs.size();
+        }
+
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return size[0];
+  }
+
+  /**
+   * Computes the total size of the specified file or directory while ignoring errors.
+   *
+   * @param path a file or directory.
+   * @return a size in bytes (or zero if the size cannot be determined).
+   */
+  public static long sizeOrZero(@Nonnull Path path) {
+    try {
+      return size(path);
+    } catch (IOException ex) {
+      return 0;
+    }
+  }
+}
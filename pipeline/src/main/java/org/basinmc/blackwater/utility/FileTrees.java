@@ -0,0 +1,72 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import javax.annotation.Nonnull;
+
+/**
+ * Provides utility methods for operating on entire trees of files and directories.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class FileTrees {
+
+  private FileTrees() {
+  }
+
+  /**
+   * <p>Recursively copies a file or directory to the specified target location.</p>
+   *
+   * <p>Existing files within the target location are replaced while files which do not exist
+   * within the source are retained. Both paths may belong to different file systems.</p>
+   *
+   * @param source a source file or directory.
+   * @param target a target file or directory.
+   * @throws IOException when copying fails.
+   */
+  public static void copy(@Nonnull Path source, @Nonnull Path target) throws IOException {
+    if (!Files.isDirectory(source)) {
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+      return;
+    }
+
+    Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+          throws IOException {
+        Files.createDirectories(resolve(target, source.relativize(dir)));
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.copy(file, resolve(target, source.relativize(file)),
+            StandardCopyOption.REPLACE_EXISTING);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  /**
+   * Resolves a relative path (which may belong to a different file system) against a base path.
+   *
+   * @param base a base path.
+   * @param relative a relative path.
+   * @return a resolved path within the file system of the base path.
+   */
+  @Nonnull
+  public static Path resolve(@Nonnull Path base, @Nonnull Path relative) {
+    Path result = base;
+
+    for (Path element : relative) {
+      result = result.resolve(element.toString());
+    }
+
+    return result;
+  }
+}
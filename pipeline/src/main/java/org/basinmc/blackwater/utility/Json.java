@@ -0,0 +1,86 @@
+package org.basinmc.blackwater.utility;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Provides utility methods for generating JSON documents without relying on a third party
+ * library.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class Json {
+
+  private Json() {
+  }
+
+  /**
+   * Appends a JSON string literal to the supplied builder.
+   *
+   * @param builder a builder.
+   * @param value an arbitrary string.
+   * @return a reference to the builder.
+   */
+  @Nonnull
+  public static StringBuilder appendString(@Nonnull StringBuilder builder,
+      @Nonnull String value) {
+    builder.append('"');
+
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+
+      switch (c) {
+        case '"':
+          builder.append("\\\"");
+          break;
+        case '\\':
+          builder.append("\\\\");
+          break;
+        case '\n':
+          builder.append("\\n");
+          break;
+        case '\r':
+          builder.append("\\r");
+          break;
+        case '\t':
+          builder.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            builder.append(String.format("\\u%04x", (int) c));
+          } else {
+            builder.append(c);
+          }
+      }
+    }
+
+    return builder.append('"');
+  }
+
+  /**
+   * Appends a JSON value to the supplied builder.
+   *
+   * @param builder a builder.
+   * @param value an arbitrary value (numbers and booleans are appended as is while all other
+   * values are appended as strings).
+   * @return a reference to the builder.
+   */
+  @Nonnull
+  public static StringBuilder appendValue(@Nonnull StringBuilder builder,
+      @Nullable Object value) {
+    if (value == null) {
+      return builder.append("null");
+    }
+
+    if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+        || value instanceof Short || value instanceof Byte) {
+      return builder.append(value);
+    }
+
+    if (value instanceof Number && Double.isFinite(((Number) value).doubleValue())) {
+      return builder.append(((Number) value).doubleValue());
+    }
+
+    return appendString(builder, value.toString());
+  }
+}
@@ -0,0 +1,114 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * <p>Provides an object input stream which only resolves classes within a set of permitted
+ * packages.</p>
+ *
+ * <p>Deserializing arbitrary classes permits remote peers to instantiate any serializable type on
+ * the class path (some of which may execute code as a side effect of their deserialization). This
+ * stream rejects all classes (as well as proxy interfaces) which are not located within one of
+ * the permitted packages before they are loaded. Array types are evaluated based on their
+ * component type while primitive types are always permitted.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class RestrictedObjectInputStream extends ObjectInputStream {
+
+  /**
+   * Defines the packages which are permitted by default (e.g. common JDK types as well as all
+   * types provided by this project).
+   */
+  public static final List<String> DEFAULT_PACKAGES = Collections.unmodifiableList(Arrays.asList(
+      "java.io.",
+      "java.lang.",
+      "java.math.",
+      "java.net.",
+      "java.nio.",
+      "java.time.",
+      "java.util.",
+      "org.basinmc.blackwater."
+  ));
+
+  private final List<String> packages;
+
+  public RestrictedObjectInputStream(@Nonnull InputStream in,
+      @Nonnull Collection<String> packages) throws IOException {
+    super(in);
+    this.packages = new ArrayList<>(packages);
+  }
+
+  public RestrictedObjectInputStream(@Nonnull InputStream in) throws IOException {
+    this(in, DEFAULT_PACKAGES);
+  }
+
+  /**
+   * Evaluates whether the specified class (or array type) is located within one of the permitted
+   * packages.
+   *
+   * @param name a binary class name.
+   * @return true if permitted, false otherwise.
+   */
+  private boolean isPermitted(@Nonnull String name) {
+    int dimensions = 0;
+
+    while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+      ++dimensions;
+    }
+
+    if (dimensions != 0) {
+      // primitive arrays are encoded as a single character (such as "[B")
+      if (name.length() == dimensions + 1) {
+        return true;
+      }
+
+      if (name.charAt(dimensions) != 'L' || !name.endsWith(";")) {
+        return false;
+      }
+
+      name = name.substring(dimensions + 1, name.length() - 1);
+    }
+
+    String className = name;
+    return this.packages.stream().anyMatch(className::startsWith);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Class<?> resolveClass(@Nonnull ObjectStreamClass desc)
+      throws IOException, ClassNotFoundException {
+    if (!this.isPermitted(desc.getName())) {
+      throw new InvalidClassException(desc.getName(), "Type is not permitted");
+    }
+
+    return super.resolveClass(desc);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Class<?> resolveProxyClass(@Nonnull String[] interfaces)
+      throws IOException, ClassNotFoundException {
+    for (String name : interfaces) {
+      if (!this.isPermitted(name)) {
+        throw new InvalidClassException(name, "Proxy interface is not permitted");
+      }
+    }
+
+    return super.resolveProxyClass(interfaces);
+  }
+}
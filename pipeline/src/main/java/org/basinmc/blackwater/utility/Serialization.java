@@ -0,0 +1,99 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.task.error.TaskDependencyException;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+
+/**
+ * Provides utility methods for passing tasks, paths and their failures to other virtual machines.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class Serialization {
+
+  private Serialization() {
+  }
+
+  /**
+   * Evaluates whether the supplied object (including the entire graph it references) can be
+   * serialized.
+   *
+   * @param object an object.
+   * @return true if serializable, false otherwise.
+   */
+  public static boolean isSerializable(@Nullable Object object) {
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+
+      @Override
+      public void write(@Nonnull byte[] b, int off, int len) {
+      }
+    })) {
+      outputStream.writeObject(object);
+      return true;
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Converts a path into a representation which may be resolved by another virtual machine on a
+   * machine which shares the same file system layout.
+   *
+   * @param path a path.
+   * @return a path string or null if no path has been given.
+   * @throws IllegalArgumentException when the path is not located on the default file system.
+   */
+  @Nullable
+  public static String toPortablePath(@Nullable Path path) {
+    if (path == null) {
+      return null;
+    }
+
+    // file systems which wrap the default file system (such as the accounting file system) will
+    // expose the URI of their delegate
+    URI uri = path.toAbsolutePath().toUri();
+
+    if (!"file".equals(uri.getScheme())) {
+      throw new IllegalArgumentException(
+          "Path " + path + " is not located on the default file system");
+    }
+
+    return Paths.get(uri).toString();
+  }
+
+  /**
+   * <p>Ensures that an exception (including its causes) may be passed to another virtual
+   * machine.</p>
+   *
+   * <p>Tasks may attach arbitrary causes to their exceptions (some of which may not be
+   * serializable) in which case a copy which retains the message and stack trace of the original
+   * exception is returned instead.</p>
+   *
+   * @param ex an exception.
+   * @return the exception or a serializable copy of it.
+   */
+  @Nonnull
+  public static TaskException toSerializable(@Nonnull TaskException ex) {
+    if (isSerializable(ex)) {
+      return ex;
+    }
+
+    String message =
+        ex.getMessage() + (ex.getCause() != null ? " (caused by " + ex.getCause() + ")" : "");
+    TaskException copy = ex instanceof TaskDependencyException ? new TaskDependencyException(
+        message) : new TaskExecutionException(message);
+    copy.setStackTrace(ex.getStackTrace());
+    return copy;
+  }
+}
@@ -0,0 +1,180 @@
+package org.basinmc.blackwater.worker;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.task.ResourceClass;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.utility.Serialization;
+
+/**
+ * <p>Decorates a task in order to execute it within a worker process of a {@link WorkerPool}
+ * rather than the virtual machine of the pipeline.</p>
+ *
+ * <p>The decorated task is serialized and passed to the worker along with the paths of its
+ * context and must thus implement {@link Serializable}. Since workers do not have access to the
+ * artifact manager of the pipeline, tasks which rely on {@link Context#getArtifactManager()}
+ * cannot be forked. Temporary files and directories which are allocated by the task within the
+ * worker are deleted once its execution completes.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class ForkedTask implements Task {
+
+  private final WorkerPool pool;
+  private final Task task;
+
+  /**
+   * Constructs a new forked task.
+   *
+   * @param pool a worker pool.
+   * @param task a serializable task.
+   * @throws IllegalArgumentException when the task does not implement {@link Serializable}.
+   */
+  public ForkedTask(@Nonnull WorkerPool pool, @Nonnull Task task) {
+    if (!(task instanceof Serializable)) {
+      throw new IllegalArgumentException(
+          "Cannot fork task " + task.getName() + ": Task is not serializable");
+    }
+
+    this.pool = pool;
+    this.task = task;
+  }
+
+  /**
+   * Converts a context path into a representation which may be resolved by the worker process.
+   *
+   * @param path a path.
+   * @return a path string.
+   * @throws TaskParameterException when the path is not located on the default file system.
+   */
+  @Nullable
+  private static String toWorkerPath(@Nullable Path path) throws TaskParameterException {
+    try {
+      return Serialization.toPortablePath(path);
+    } catch (IllegalArgumentException ex) {
+      throw new TaskParameterException("Cannot pass path to worker: " + ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void execute(@NonNull Context context) throws TaskExecutionException {
+    Map<String, String> parameterPaths = new HashMap<>();
+
+    for (String name : this.task.getAvailableParameterNames()) {
+      Optional<Path> path = context.getParameterPath(name);
+
+      if (path.isPresent()) {
+        parameterPaths.put(name, toWorkerPath(path.get()));
+      }
+    }
+
+    WorkerRequest request = new WorkerRequest(
+        this.task,
+        toWorkerPath(context.getInputPath().orElse(null)),
+        toWorkerPath(context.getOutputPath().orElse(null)),
+        toWorkerPath(context.getPreviousOutputPath().orElse(null)),
+        parameterPaths
+    );
+
+    WorkerResponse response;
+
+    try {
+      response = this.pool.execute(request);
+    } catch (IOException ex) {
+      throw new TaskExecutionException(
+          "Failed to execute task " + this.task.getName() + " within worker: " + ex.getMessage(),
+          ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TaskExecutionException(
+          "Interrupted while waiting for worker to execute task " + this.task.getName(), ex);
+    }
+
+    if (response.failure != null) {
+      throw response.failure;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Set<String> getAvailableParameterNames() {
+    return this.task.getAvailableParameterNames();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Optional<String> getFingerprint() {
+    return this.task.getFingerprint();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public String getName() {
+    return this.task.getName();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @NonNull
+  @Override
+  public Set<String> getRequiredParameterNames() {
+    return this.task.getRequiredParameterNames();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return this.task.getResourceWeights();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isValidArtifact(@Nonnull Artifact artifact, @Nonnull Path contents) {
+    return this.task.isValidArtifact(artifact, contents);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresInputParameter() {
+    return this.task.requiresInputParameter();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean requiresOutputParameter() {
+    return this.task.requiresOutputParameter();
+  }
+}
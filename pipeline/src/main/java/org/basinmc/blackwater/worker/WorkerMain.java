@@ -0,0 +1,226 @@
+package org.basinmc.blackwater.worker;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.utility.Serialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Provides the entry point of worker processes.</p>
+ *
+ * <p>Workers connect back to the pool which spawned them and execute tasks on its behalf until
+ * the connection is closed. This class is not meant to be invoked directly.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ * @see WorkerPool
+ */
+public final class WorkerMain {
+
+  private static final Logger logger = LoggerFactory.getLogger(WorkerMain.class);
+
+  private WorkerMain() {
+  }
+
+  /**
+   * Connects to the spawning pool and processes requests until the connection is closed.
+   *
+   * @param arguments the port of the pool and the token of this worker.
+   * @throws Exception when the connection to the pool fails.
+   */
+  public static void main(String[] arguments) throws Exception {
+    if (arguments.length != 2) {
+      System.err.println("Usage: <port> <token>");
+      System.exit(2);
+      return;
+    }
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+        Integer.parseInt(arguments[0]))) {
+      ObjectOutputStream outputStream = new ObjectOutputStream(
+          new BufferedOutputStream(socket.getOutputStream()));
+      outputStream.writeUTF(arguments[1]);
+      outputStream.flush();
+
+      ObjectInputStream inputStream = new ObjectInputStream(
+          new BufferedInputStream(socket.getInputStream()));
+
+      while (true) {
+        WorkerRequest request;
+
+        try {
+          request = (WorkerRequest) inputStream.readObject();
+        } catch (EOFException ex) {
+          break;
+        }
+
+        outputStream.writeObject(execute(request));
+        outputStream.flush();
+        outputStream.reset();
+      }
+    }
+
+    // tasks may leave non-daemon threads behind which would otherwise keep the worker alive
+    System.exit(0);
+  }
+
+  /**
+   * Executes a single request.
+   *
+   * @param request a request.
+   * @return a response.
+   */
+  @Nonnull
+  private static WorkerResponse execute(@Nonnull WorkerRequest request) {
+    logger.info("Executing task {}", request.task.getName());
+    long start = System.nanoTime();
+    TaskExecutionException failure = null;
+
+    try (ContextImpl context = new ContextImpl(request)) {
+      request.task.execute(context);
+    } catch (TaskExecutionException ex) {
+      failure = ex;
+    } catch (IOException ex) {
+      failure = new TaskExecutionException(
+          "Failed to release temporary files: " + ex.getMessage(), ex);
+    } catch (RuntimeException ex) {
+      failure = new TaskExecutionException("Task failed unexpectedly: " + ex.getMessage(), ex);
+    }
+
+    return new WorkerResponse(
+        failure != null ? (TaskExecutionException) Serialization.toSerializable(failure) : null,
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Provides a task context which is backed by the paths of a request.
+   */
+  private static final class ContextImpl implements AutoCloseable, Task.Context {
+
+    private final Path inputPath;
+    private final Path outputPath;
+    private final Path previousOutputPath;
+    private final WorkerRequest request;
+    private final List<Path> temporaryPaths = new ArrayList<>();
+
+    private ContextImpl(@Nonnull WorkerRequest request) {
+      this.request = request;
+      this.inputPath = toPath(request.inputPath);
+      this.outputPath = toPath(request.outputPath);
+      this.previousOutputPath = toPath(request.previousOutputPath);
+    }
+
+    @Nullable
+    private static Path toPath(@Nullable String path) {
+      return path != null ? Paths.get(path) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Path allocateTemporaryDirectory() throws IOException {
+      Path path = Files.createTempDirectory("blackwater_worker_");
+      this.temporaryPaths.add(path);
+      return path;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Path allocateTemporaryFile() throws IOException {
+      Path path = Files.createTempFile("blackwater_worker_", ".tmp");
+      this.temporaryPaths.add(path);
+      return path;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+      for (Path path : this.temporaryPaths) {
+        if (Files.notExists(path)) {
+          continue;
+        }
+
+        try (Stream<Path> stream = Files.walk(path)) {
+          Iterator<Path> it = stream
+              .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+              .iterator();
+
+          while (it.hasNext()) {
+            Files.deleteIfExists(it.next());
+          }
+        }
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Optional<ArtifactManager> getArtifactManager() {
+      return Optional.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<Path> getInputPath() {
+      return Optional.ofNullable(this.inputPath);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Optional<Path> getOutputPath() {
+      return Optional.ofNullable(this.outputPath);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Optional<Path> getParameterPath(@NonNull String name) {
+      return Optional.ofNullable(toPath(this.request.parameterPaths.get(name)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @NonNull
+    @Override
+    public Optional<Path> getPreviousOutputPath() {
+      return Optional.ofNullable(this.previousOutputPath);
+    }
+  }
+}
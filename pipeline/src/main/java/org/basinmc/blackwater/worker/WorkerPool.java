@@ -0,0 +1,402 @@
+package org.basinmc.blackwater.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.basinmc.blackwater.utility.Digests;
+import org.basinmc.blackwater.utility.ProcessGobbler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Manages a pool of reusable worker virtual machines which execute tasks on behalf of the
+ * pipeline (see {@link ForkedTask}).</p>
+ *
+ * <p>Workers are spawned lazily (up to the configured pool size) and kept alive between tasks in
+ * order to amortize their startup costs. Each worker connects back to the pool via a socket which
+ * is bound to the loopback interface and has to present a randomly generated token. Everything a
+ * worker writes to its standard output or error streams is passed on to the logger of the
+ * pool.</p>
+ *
+ * <p>Note that the pool size only limits the amount of concurrently running workers. The pipeline
+ * parallelism (or resource permits) should be chosen accordingly in order to actually saturate the
+ * pool.</p>
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class WorkerPool implements AutoCloseable {
+
+  /**
+   * Defines the maximum amount of time a newly spawned worker is given to connect back to the
+   * pool.
+   */
+  public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final Logger logger = LoggerFactory.getLogger(WorkerPool.class);
+
+  private final Path javaExecutable;
+  private final String classPath;
+  private final List<String> jvmArguments;
+  private final int maxTasksPerWorker;
+
+  private final Semaphore permits;
+  private final ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+  private final Set<Worker> workers = Collections.synchronizedSet(new HashSet<>());
+  private final SecureRandom random = new SecureRandom();
+  private volatile boolean closed;
+
+  private WorkerPool(
+      @Nonnull Path javaExecutable,
+      @Nonnull String classPath,
+      @Nonnull List<String> jvmArguments,
+      int size,
+      int maxTasksPerWorker) {
+    this.javaExecutable = javaExecutable;
+    this.classPath = classPath;
+    this.jvmArguments = new ArrayList<>(jvmArguments);
+    this.maxTasksPerWorker = maxTasksPerWorker;
+    this.permits = new Semaphore(size, true);
+  }
+
+  /**
+   * Creates a new empty factory for worker pools.
+   *
+   * @return a factory.
+   */
+  @Nonnull
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+
+    List<Worker> workers;
+
+    synchronized (this.workers) {
+      workers = new ArrayList<>(this.workers);
+      this.workers.clear();
+    }
+
+    this.idleWorkers.clear();
+    workers.forEach(Worker::close);
+  }
+
+  /**
+   * Executes a request within an idle worker (spawning a new worker if necessary) and blocks until
+   * a response has been received.
+   *
+   * @param request a request.
+   * @return a response.
+   * @throws IOException when spawning or communicating with the worker fails.
+   * @throws InterruptedException when the thread is interrupted while waiting for a worker.
+   */
+  @Nonnull
+  WorkerResponse execute(@Nonnull WorkerRequest request)
+      throws IOException, InterruptedException {
+    this.permits.acquire();
+
+    try {
+      if (this.closed) {
+        throw new IOException("Worker pool has been closed");
+      }
+
+      Worker worker;
+
+      do {
+        worker = this.idleWorkers.poll();
+      } while (worker != null && !worker.isAlive());
+
+      if (worker == null) {
+        worker = this.spawn();
+      }
+
+      WorkerResponse response;
+
+      try {
+        response = worker.execute(request);
+      } catch (IOException ex) {
+        this.workers.remove(worker);
+        worker.close();
+        throw ex;
+      }
+
+      if (this.closed || (this.maxTasksPerWorker != 0
+          && worker.executions >= this.maxTasksPerWorker)) {
+        logger.debug("Retiring worker after {} executions", worker.executions);
+        this.workers.remove(worker);
+        worker.close();
+      } else {
+        this.idleWorkers.add(worker);
+      }
+
+      return response;
+    } finally {
+      this.permits.release();
+    }
+  }
+
+  /**
+   * Spawns a new worker and waits for it to connect back to the pool.
+   *
+   * @return a worker.
+   * @throws IOException when spawning the worker fails or it does not connect in time.
+   */
+  @Nonnull
+  private Worker spawn() throws IOException {
+    byte[] rawToken = new byte[32];
+    this.random.nextBytes(rawToken);
+    String token = Digests.toHexString(rawToken);
+
+    // every worker receives its own socket in order to avoid accepting connections on behalf of
+    // other (concurrently spawned) workers
+    try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      serverSocket.setSoTimeout((int) CONNECT_TIMEOUT.toMillis());
+
+      List<String> command = new ArrayList<>();
+      command.add(this.javaExecutable.toString());
+      command.addAll(this.jvmArguments);
+      command.add("-cp");
+      command.add(this.classPath);
+      command.add(WorkerMain.class.getName());
+      command.add(Integer.toString(serverSocket.getLocalPort()));
+      command.add(token);
+
+      logger.debug("Spawning worker: {}", command);
+      Process process = new ProcessBuilder(command)
+          .redirectErrorStream(true)
+          .start();
+      new ProcessGobbler(process, logger).start();
+
+      Socket socket = null;
+
+      try {
+        socket = serverSocket.accept();
+
+        ObjectOutputStream outputStream = new ObjectOutputStream(
+            new BufferedOutputStream(socket.getOutputStream()));
+        outputStream.flush();
+        ObjectInputStream inputStream = new ObjectInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+
+        if (!token.equals(inputStream.readUTF())) {
+          throw new IOException("Worker presented an invalid token");
+        }
+
+        Worker worker = new Worker(process, socket, outputStream, inputStream);
+        this.workers.add(worker);
+        return worker;
+      } catch (IOException ex) {
+        if (socket != null) {
+          socket.close();
+        }
+
+        process.destroyForcibly();
+
+        if (ex instanceof SocketTimeoutException) {
+          throw new IOException("Worker did not connect within " + CONNECT_TIMEOUT, ex);
+        }
+
+        throw ex;
+      }
+    }
+  }
+
+  /**
+   * Represents a single worker process and its connection.
+   */
+  private static final class Worker {
+
+    private final Process process;
+    private final Socket socket;
+    private final ObjectOutputStream outputStream;
+    private final ObjectInputStream inputStream;
+    private int executions;
+
+    private Worker(
+        @Nonnull Process process,
+        @Nonnull Socket socket,
+        @Nonnull ObjectOutputStream outputStream,
+        @Nonnull ObjectInputStream inputStream) {
+      this.process = process;
+      this.socket = socket;
+      this.outputStream = outputStream;
+      this.inputStream = inputStream;
+    }
+
+    /**
+     * Closes the connection to this worker (causing it to exit) and destroys the worker process if
+     * it does not exit in a timely manner.
+     */
+    private void close() {
+      try {
+        this.socket.close();
+      } catch (IOException ex) {
+        logger.warn("Failed to close worker connection: " + ex.getMessage(), ex);
+      }
+
+      try {
+        if (!this.process.waitFor(5, TimeUnit.SECONDS)) {
+          this.process.destroyForcibly();
+        }
+      } catch (InterruptedException ex) {
+        this.process.destroyForcibly();
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Passes a request to this worker and waits for its response.
+     *
+     * @param request a request.
+     * @return a response.
+     * @throws IOException when communicating with the worker fails (e.g. because it crashed).
+     */
+    @Nonnull
+    private WorkerResponse execute(@Nonnull WorkerRequest request) throws IOException {
+      ++this.executions;
+
+      this.outputStream.writeObject(request);
+      this.outputStream.flush();
+      this.outputStream.reset();
+
+      try {
+        return (WorkerResponse) this.inputStream.readObject();
+      } catch (ClassNotFoundException ex) {
+        throw new IOException("Worker responded with an unknown type: " + ex.getMessage(), ex);
+      }
+    }
+
+    private boolean isAlive() {
+      return this.process.isAlive() && !this.socket.isClosed();
+    }
+  }
+
+  /**
+   * Provides a factory for worker pools.
+   */
+  public static final class Builder {
+
+    private final List<String> jvmArguments = new ArrayList<>();
+    private Path javaExecutable = Paths.get(System.getProperty("java.home"), "bin", "java");
+    private String classPath = System.getProperty("java.class.path");
+    private int size = Runtime.getRuntime().availableProcessors();
+    private int maxTasksPerWorker;
+
+    private Builder() {
+    }
+
+    /**
+     * Constructs a new worker pool using the configuration within this builder. Workers are
+     * spawned lazily when tasks are submitted.
+     *
+     * @return a worker pool.
+     */
+    @Nonnull
+    public WorkerPool build() {
+      return new WorkerPool(this.javaExecutable, this.classPath, this.jvmArguments, this.size,
+          this.maxTasksPerWorker);
+    }
+
+    /**
+     * Selects the class path which is passed to worker processes. By default, the class path of
+     * the current virtual machine is used.
+     *
+     * @param classPath a class path (in platform specific notation).
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withClassPath(@Nonnull String classPath) {
+      this.classPath = classPath;
+      return this;
+    }
+
+    /**
+     * Selects the java executable which is used to spawn worker processes. By default, the
+     * executable of the current virtual machine is used.
+     *
+     * @param javaExecutable a path to a java executable.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withJavaExecutable(@Nonnull Path javaExecutable) {
+      this.javaExecutable = javaExecutable;
+      return this;
+    }
+
+    /**
+     * Appends an argument which is passed to the virtual machine of every worker (such as
+     * {@code -Xmx4g}).
+     *
+     * @param argument an argument.
+     * @return a reference to this builder.
+     */
+    @Nonnull
+    public Builder withJvmArgument(@Nonnull String argument) {
+      this.jvmArguments.add(argument);
+      return this;
+    }
+
+    /**
+     * <p>Selects the maximum amount of tasks a single worker executes before it is replaced by a
+     * fresh process.</p>
+     *
+     * <p>This is useful when tasks leak state (such as static caches or threads). By default,
+     * workers are reused indefinitely.</p>
+     *
+     * @param value a number of tasks or zero to disable recycling.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a negative value is passed.
+     */
+    @Nonnull
+    public Builder withMaxTasksPerWorker(int value) {
+      if (value < 0) {
+        throw new IllegalArgumentException("Maximum amount of tasks cannot be negative");
+      }
+
+      this.maxTasksPerWorker = value;
+      return this;
+    }
+
+    /**
+     * Selects the maximum amount of concurrently running workers. By default, one worker per
+     * available processor is permitted.
+     *
+     * @param size a pool size.
+     * @return a reference to this builder.
+     * @throws IllegalArgumentException when a value smaller than one is passed.
+     */
+    @Nonnull
+    public Builder withSize(int size) {
+      if (size < 1) {
+        throw new IllegalArgumentException("Pool size must be positive");
+      }
+
+      this.size = size;
+      return this;
+    }
+  }
+}
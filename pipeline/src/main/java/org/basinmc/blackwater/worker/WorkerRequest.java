@@ -0,0 +1,37 @@
+package org.basinmc.blackwater.worker;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.task.Task;
+
+/**
+ * Represents a request to execute a task within a worker process.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class WorkerRequest implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final Task task;
+  final String inputPath;
+  final String outputPath;
+  final String previousOutputPath;
+  final Map<String, String> parameterPaths;
+
+  WorkerRequest(
+      @Nonnull Task task,
+      @Nullable String inputPath,
+      @Nullable String outputPath,
+      @Nullable String previousOutputPath,
+      @Nonnull Map<String, String> parameterPaths) {
+    this.task = task;
+    this.inputPath = inputPath;
+    this.outputPath = outputPath;
+    this.previousOutputPath = previousOutputPath;
+    this.parameterPaths = new HashMap<>(parameterPaths);
+  }
+}
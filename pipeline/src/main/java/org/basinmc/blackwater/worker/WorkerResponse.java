@@ -0,0 +1,23 @@
+package org.basinmc.blackwater.worker;
+
+import java.io.Serializable;
+import javax.annotation.Nullable;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+
+/**
+ * Represents the outcome of a task execution within a worker process.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+final class WorkerResponse implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  final TaskExecutionException failure;
+  final long duration;
+
+  WorkerResponse(@Nullable TaskExecutionException failure, long duration) {
+    this.failure = failure;
+    this.duration = duration;
+  }
+}
@@ -0,0 +1,372 @@
+package org.basinmc.blackwater;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import org.basinmc.blackwater.PipelineResult.Status;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.artifact.file.FlatFileArtifactReference;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Provides test cases which evaluate whether {@link ClusterCoordinator} and {@link ClusterWorker}
+ * distribute tasks as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ClusterCoordinatorTest {
+
+  /**
+   * Evaluates whether tasks are executed by the connected workers and whether their outputs are
+   * published to the shared artifact backend.
+   */
+  @Test
+  public void testExecute() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path artifacts = directory.resolve("artifacts");
+    Path output = directory.resolve("output.txt");
+
+    ArtifactReference reference1 = new FlatFileArtifactReference("artifact1");
+    ArtifactReference reference2 = new FlatFileArtifactReference("artifact2");
+
+    ContentTask task1 = new ContentTask("a");
+    ContentTask task2 = new ContentTask("b");
+    ContentTask task3 = new ContentTask("c");
+
+    try (ClusterCoordinator coordinator = ClusterCoordinator.builder()
+        .withWorkerTimeout(Duration.ofSeconds(30))
+        .start();
+        ClusterWorker worker1 = createWorker(coordinator, "worker1", artifacts);
+        ClusterWorker worker2 = createWorker(coordinator, "worker2", artifacts)) {
+      // @formatter:off
+      Pipeline pipeline = Pipeline.builder()
+          .withArtifactManager(new FileArtifactManager(artifacts))
+          .withClusterCoordinator(coordinator)
+          .withParallelism(2)
+          .withTask(task1)
+            .withOutputArtifact(reference1)
+            .register()
+          .withTask(task2)
+            .withOutputArtifact(reference2)
+            .register()
+          .withTask(task3)
+            .withInputArtifact(reference1)
+            .withOutputFile(output)
+            .register()
+          .build();
+      // @formatter:on
+
+      PipelineResult result = pipeline.execute();
+      Assert.assertEquals(3, result.getTaskCount(Status.EXECUTED));
+      Assert.assertEquals("artifact1", result.getTasks().get(0).getPublishedArtifact()
+          .orElse(null));
+      Assert.assertEquals("ac", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+      Assert.assertTrue(Files.isRegularFile(artifacts.resolve("artifact2")));
+
+      // since tasks are serialized, the local instances are never executed
+      Assert.assertFalse(task1.executed);
+      Assert.assertFalse(task2.executed);
+      Assert.assertFalse(task3.executed);
+
+      result = pipeline.execute();
+      Assert.assertEquals(2, result.getTaskCount(Status.CACHED));
+      Assert.assertEquals(1, result.getTaskCount(Status.EXECUTED));
+
+      try {
+        // @formatter:off
+        Pipeline.builder()
+            .withClusterCoordinator(coordinator)
+            .withTask(new ContentTask(null))
+              .withOutputFile(output)
+              .register()
+            .build()
+            .execute();
+        // @formatter:on
+        Assert.fail("Expected remote failure to be propagated");
+      } catch (TaskException ex) {
+        Throwable cause = ex;
+
+        while (cause.getCause() != null) {
+          cause = cause.getCause();
+        }
+
+        Assert.assertEquals("Broken", cause.getMessage());
+      }
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        Iterator<Path> it = stream
+            .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+            .iterator();
+
+        while (it.hasNext()) {
+          Files.deleteIfExists(it.next());
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether remote tasks are given access to the previous version of their output
+   * artifact.
+   */
+  @Test
+  public void testPreviousOutput() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path artifacts = directory.resolve("artifacts");
+    ArtifactReference reference = new FlatFileArtifactReference("artifact");
+
+    try (ClusterCoordinator coordinator = ClusterCoordinator.builder()
+        .withWorkerTimeout(Duration.ofSeconds(30))
+        .start();
+        ClusterWorker ignore = createWorker(coordinator, "worker", artifacts)) {
+      for (int i = 0; i < 2; ++i) {
+        // @formatter:off
+        PipelineResult result = Pipeline.builder()
+            .withArtifactManager(new FileArtifactManager(artifacts))
+            .withClusterCoordinator(coordinator)
+            .withTask(new AppendTask())
+              .withOutputArtifact(reference)
+              .withForcedExecution(true)
+              .register()
+            .build()
+            .execute();
+        // @formatter:on
+
+        Assert.assertEquals(1, result.getTaskCount(Status.EXECUTED));
+      }
+
+      Assert.assertEquals("xx", new String(Files.readAllBytes(artifacts.resolve("artifact")),
+          StandardCharsets.UTF_8));
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        Iterator<Path> it = stream
+            .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+            .iterator();
+
+        while (it.hasNext()) {
+          Files.deleteIfExists(it.next());
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether workers within the same virtual machine (each of which relies on its own
+   * manager instance) may publish artifacts which share a lock stripe at the same time.
+   */
+  @Test
+  public void testSharedStripe() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path artifacts = directory.resolve("artifacts");
+
+    // both identifiers share the same hash code and are thus mapped to the same stripe
+    ArtifactReference reference1 = new FlatFileArtifactReference("Aa");
+    ArtifactReference reference2 = new FlatFileArtifactReference("BB");
+    Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+
+    try (ClusterCoordinator coordinator = ClusterCoordinator.builder()
+        .withWorkerTimeout(Duration.ofSeconds(30))
+        .start();
+        ClusterWorker worker1 = createWorker(coordinator, "worker1", artifacts);
+        ClusterWorker worker2 = createWorker(coordinator, "worker2", artifacts)) {
+      // @formatter:off
+      Pipeline pipeline = Pipeline.builder()
+          .withArtifactManager(new FileArtifactManager(artifacts))
+          .withClusterCoordinator(coordinator)
+          .withParallelism(2)
+          .withTask(new DirectoryTask())
+            .withOutputArtifact(reference1)
+            .withForcedExecution(true)
+            .register()
+          .withTask(new DirectoryTask())
+            .withOutputArtifact(reference2)
+            .withForcedExecution(true)
+            .register()
+          .build();
+      // @formatter:on
+
+      // replacing existing directories holds the stripe while their previous version is deleted
+      // thus widening the window in which both publications overlap
+      for (int i = 0; i < 3; ++i) {
+        PipelineResult result = pipeline.execute();
+        Assert.assertEquals(2, result.getTaskCount(Status.EXECUTED));
+      }
+
+      Assert.assertEquals(DirectoryTask.FILE_COUNT, countFiles(artifacts.resolve("Aa")));
+      Assert.assertEquals(DirectoryTask.FILE_COUNT, countFiles(artifacts.resolve("BB")));
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        Iterator<Path> it = stream
+            .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+            .iterator();
+
+        while (it.hasNext()) {
+          Files.deleteIfExists(it.next());
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether workers which present an invalid token are rejected.
+   */
+  @Test
+  public void testInvalidToken() throws Exception {
+    try (ClusterCoordinator coordinator = ClusterCoordinator.builder()
+        .withToken("secret")
+        .start()) {
+      try {
+        ClusterWorker.builder()
+            .withCoordinator(InetAddress.getLoopbackAddress(), coordinator.getPort())
+            .withToken("invalid")
+            .withSlots(1)
+            .start()
+            .close();
+        Assert.fail("Expected worker to be rejected");
+      } catch (IOException ex) {
+        Assert.assertEquals("Coordinator rejected worker token", ex.getMessage());
+      }
+
+      Assert.assertEquals(0, coordinator.getWorkerSlots());
+    }
+  }
+
+  private static long countFiles(Path directory) throws IOException {
+    try (Stream<Path> stream = Files.list(directory)) {
+      return stream.count();
+    }
+  }
+
+  private static ClusterWorker createWorker(ClusterCoordinator coordinator, String name,
+      Path artifacts) throws IOException {
+    return ClusterWorker.builder()
+        .withCoordinator(InetAddress.getLoopbackAddress(), coordinator.getPort())
+        .withToken(coordinator.getToken())
+        .withName(name)
+        .withArtifactManager(new FileArtifactManager(artifacts))
+        .withSlots(1)
+        .start();
+  }
+
+  /**
+   * Appends a fixed string to its previous output (if any).
+   */
+  private static final class AppendTask implements Serializable, Task {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void execute(@NonNull Context context) throws TaskExecutionException {
+      try {
+        Optional<Path> previous = context.getPreviousOutputPath();
+        String contents = previous.isPresent() ? new String(Files.readAllBytes(previous.get()),
+            StandardCharsets.UTF_8) : "";
+
+        Files.write(context.getRequiredOutputPath(),
+            (contents + "x").getBytes(StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new TaskExecutionException("Failed to write output: " + ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public boolean requiresOutputParameter() {
+      return true;
+    }
+  }
+
+  /**
+   * Writes a directory of unique files to its output and waits for its concurrent instance.
+   */
+  private static final class DirectoryTask implements Serializable, Task {
+
+    private static final long serialVersionUID = 1L;
+    private static final int FILE_COUNT = 500;
+    private static final CyclicBarrier barrier = new CyclicBarrier(2);
+
+    @Override
+    public void execute(@NonNull Context context) throws TaskExecutionException {
+      try {
+        Path output = context.getRequiredOutputPath();
+        Files.createDirectories(output);
+
+        // outputs differ between executions as identical outputs would not be published again
+        byte[] contents = Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i < FILE_COUNT; ++i) {
+          Files.write(output.resolve("file" + i), contents);
+        }
+
+        barrier.await(30, TimeUnit.SECONDS);
+      } catch (IOException ex) {
+        throw new TaskExecutionException("Failed to write output: " + ex.getMessage(), ex);
+      } catch (BrokenBarrierException | InterruptedException | TimeoutException ex) {
+        throw new TaskExecutionException("Failed to await concurrent task: " + ex.getMessage(),
+            ex);
+      }
+    }
+
+    @Override
+    public boolean requiresOutputParameter() {
+      return true;
+    }
+  }
+
+  /**
+   * Writes its input (if any) followed by a fixed string to its output or fails when no string
+   * has been given.
+   */
+  private static final class ContentTask implements Serializable, Task {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String content;
+    private boolean executed;
+
+    private ContentTask(String content) {
+      this.content = content;
+    }
+
+    @Override
+    public void execute(@NonNull Context context) throws TaskExecutionException {
+      this.executed = true;
+
+      if (this.content == null) {
+        throw new TaskExecutionException("Broken");
+      }
+
+      try {
+        Optional<Path> input = context.getInputPath();
+        String contents = input.isPresent() ? new String(Files.readAllBytes(input.get()),
+            StandardCharsets.UTF_8) : "";
+
+        Files.write(context.getRequiredOutputPath(),
+            (contents + this.content).getBytes(StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new TaskExecutionException("Failed to write output: " + ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public boolean requiresOutputParameter() {
+      return true;
+    }
+  }
+}
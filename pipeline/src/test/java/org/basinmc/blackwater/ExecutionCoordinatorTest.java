@@ -0,0 +1,174 @@
+package org.basinmc.blackwater;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Evaluates whether {@link ExecutionCoordinator} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ExecutionCoordinatorTest {
+
+  /**
+   * Evaluates whether concurrent identical executions are collapsed into a single execution.
+   */
+  @Test
+  public void testExecuteConcurrent() throws Exception {
+    ExecutionCoordinator coordinator = new ExecutionCoordinator();
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+
+    AtomicInteger executions = new AtomicInteger();
+    AtomicBoolean followerResult = new AtomicBoolean(true);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Thread leader = new Thread(() -> {
+      try {
+        coordinator.execute(manager, reference, "test", () -> {
+          executions.incrementAndGet();
+          started.countDown();
+
+          try {
+            release.await();
+          } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+          }
+        });
+      } catch (TaskException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    leader.start();
+    Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    Thread follower = new Thread(() -> {
+      try {
+        followerResult.set(
+            coordinator.execute(manager, reference, "test", executions::incrementAndGet));
+      } catch (TaskException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    follower.start();
+
+    while (follower.getState() != Thread.State.WAITING) {
+      Assert.assertTrue(follower.isAlive());
+      Thread.sleep(10);
+    }
+
+    release.countDown();
+    leader.join(5000);
+    follower.join(5000);
+
+    Assert.assertEquals(1, executions.get());
+    Assert.assertFalse(followerResult.get());
+
+    // once the execution has completed, identical executions are performed once again
+    Assert.assertTrue(coordinator.execute(manager, reference, "test", executions::incrementAndGet));
+    Assert.assertEquals(2, executions.get());
+  }
+
+  /**
+   * Evaluates whether executions with differing fingerprints or artifact managers are kept
+   * separate.
+   */
+  @Test
+  public void testExecuteDistinct() throws TaskException {
+    ExecutionCoordinator coordinator = new ExecutionCoordinator();
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+
+    AtomicInteger executions = new AtomicInteger();
+    ArtifactManager manager1 = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager2 = Mockito.mock(ArtifactManager.class);
+
+    Assert.assertTrue(coordinator.execute(manager1, reference, "test", () -> {
+      Assert.assertTrue(coordinator.execute(manager1, reference, "other", () -> {
+        Assert.assertTrue(
+            coordinator.execute(manager2, reference, "test", executions::incrementAndGet));
+        executions.incrementAndGet();
+      }));
+      executions.incrementAndGet();
+    }));
+
+    Assert.assertEquals(3, executions.get());
+  }
+
+  /**
+   * Evaluates whether executions are collapsed when they are performed through distinct artifact
+   * managers which refer to the same storage.
+   */
+  @Test
+  public void testExecuteSharedStorage() throws Exception {
+    ExecutionCoordinator coordinator = new ExecutionCoordinator();
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+
+    Path base = Paths.get("artifacts");
+    ArtifactManager manager1 = new FileArtifactManager(base);
+    ArtifactManager manager2 = new FileArtifactManager(base.toAbsolutePath().resolve("../artifacts")
+        .resolve("../artifacts"), 1);
+    ArtifactManager manager3 = new FileArtifactManager(Paths.get("other"));
+
+    AtomicInteger executions = new AtomicInteger();
+    AtomicBoolean followerResult = new AtomicBoolean(true);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Thread leader = new Thread(() -> {
+      try {
+        coordinator.execute(manager1, reference, "test", () -> {
+          executions.incrementAndGet();
+          started.countDown();
+
+          try {
+            release.await();
+          } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+          }
+        });
+      } catch (TaskException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    leader.start();
+    Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // managers which refer to a different storage are never coordinated
+    Assert.assertTrue(
+        coordinator.execute(manager3, reference, "test", executions::incrementAndGet));
+
+    Thread follower = new Thread(() -> {
+      try {
+        followerResult.set(
+            coordinator.execute(manager2, reference, "test", executions::incrementAndGet));
+      } catch (TaskException ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+    follower.start();
+
+    while (follower.getState() != Thread.State.WAITING) {
+      Assert.assertTrue(follower.isAlive());
+      Thread.sleep(10);
+    }
+
+    release.countDown();
+    leader.join(5000);
+    follower.join(5000);
+
+    Assert.assertEquals(2, executions.get());
+    Assert.assertFalse(followerResult.get());
+  }
+}
@@ -1,19 +1,47 @@
 package org.basinmc.blackwater;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactLock;
 import org.basinmc.blackwater.artifact.ArtifactManager;
 import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.artifact.file.FlatFileArtifactReference;
+import org.basinmc.blackwater.fs.AccountingFileSystem;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
 import org.basinmc.blackwater.task.Task.Context;
 import org.basinmc.blackwater.task.error.TaskDependencyException;
 import org.basinmc.blackwater.task.error.TaskException;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
 import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.trace.Span;
+import org.basinmc.blackwater.trace.Tracer;
+import org.basinmc.blackwater.utility.Digests;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.AdditionalAnswers;
@@ -39,7 +67,7 @@ public class PipelineTest {
     Mockito.when(reference.getIdentifier())
         .thenReturn("test-artifact");
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
 
     Task task1 = Mockito.mock(Task.class);
     Task task2 = Mockito.mock(Task.class);
@@ -98,7 +126,7 @@ public class PipelineTest {
     Mockito.when(reference.getIdentifier())
         .thenReturn("test-artifact");
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.empty());
     Mockito.doAnswer(AdditionalAnswers.<ArtifactReference, Path>answerVoid((r, p) -> {
@@ -191,7 +219,7 @@ public class PipelineTest {
     Mockito.when(artifact.getPath())
         .thenReturn(path);
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.of(artifact));
 
@@ -233,6 +261,166 @@ public class PipelineTest {
     Mockito.verify(artifact, Mockito.times(2)).getPath();
   }
 
+  /**
+   * Evaluates whether the pipeline retains a cached artifact when a task reproduces identical
+   * contents and subsequently permits dependant tasks to rely on their cached outputs.
+   */
+  @Test
+  public void testArtifactCreationUnchanged() throws TaskException, IOException {
+    Task task2 = this.executeDependantPipeline("test");
+
+    Mockito.verify(task2, Mockito.never()).execute(Mockito.any());
+  }
+
+  /**
+   * Evaluates whether the pipeline re-executes dependant tasks when a task produces contents which
+   * differ from its cached artifact.
+   */
+  @Test
+  public void testArtifactCreationChanged() throws TaskException, IOException {
+    Task task2 = this.executeDependantPipeline("changed");
+
+    Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+  }
+
+  /**
+   * Executes a pipeline consisting of a task which produces an artifact with the contents "test"
+   * and a dependant task which consumes the artifact in order to produce a valid cached artifact.
+   *
+   * @param cachedContents the contents of the cached version of the first artifact.
+   * @return a reference to the dependant task.
+   */
+  private Task executeDependantPipeline(String cachedContents) throws TaskException, IOException {
+    Path path1 = Paths.get("test1.file");
+    Path path2 = Paths.get("test2.file");
+
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference1.getIdentifier())
+        .thenReturn("test-artifact1");
+    Mockito.when(reference2.getIdentifier())
+        .thenReturn("test-artifact2");
+
+    Path cachedFile = Files.createTempFile("blackwater_test_", ".file");
+    byte[] cachedDigest;
+
+    try {
+      Files.write(cachedFile, cachedContents.getBytes(StandardCharsets.UTF_8));
+      cachedDigest = Digests.digest(cachedFile);
+    } finally {
+      Files.delete(cachedFile);
+    }
+
+    Artifact artifact1 = Mockito.mock(Artifact.class);
+    Artifact artifact2 = Mockito.mock(Artifact.class);
+    Mockito.when(artifact1.getPath())
+        .thenReturn(path1);
+    Mockito.when(artifact1.getDigest())
+        .thenReturn(cachedDigest);
+    Mockito.when(artifact1.getSize())
+        .thenReturn((long) cachedContents.length());
+    Mockito.when(artifact2.getPath())
+        .thenReturn(path2);
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.of(artifact1));
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.of(artifact2));
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Test 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Test 2");
+
+    Mockito.when(task1.isValidArtifact(artifact1, path1))
+        .thenReturn(false);
+    Mockito.when(task2.isValidArtifact(artifact2, path2))
+        .thenReturn(true);
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files
+        .write(ctx.getRequiredOutputPath(), "test".getBytes(StandardCharsets.UTF_8))))
+        .when(task1).execute(Mockito.any(Context.class));
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withInputArtifact(reference1)
+          .withOutputArtifact(reference2)
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    boolean changed = !"test".equals(cachedContents);
+
+    Mockito.verify(task1, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(manager, Mockito.times(changed ? 1 : 0))
+        .createArtifact(Mockito.eq(reference1), Mockito.any());
+    Mockito.verify(manager, Mockito.times(changed ? 1 : 0))
+        .createArtifact(Mockito.eq(reference2), Mockito.any());
+
+    return task2;
+  }
+
+  /**
+   * Evaluates whether the pipeline reuses an artifact which has been produced by another owner of
+   * the artifact lock while waiting for it.
+   */
+  @Test
+  public void testArtifactCreationConcurrent() throws TaskException, IOException {
+    Path path = Paths.get("test.file");
+
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference.getIdentifier())
+        .thenReturn("test-artifact");
+
+    Artifact artifact = Mockito.mock(Artifact.class);
+    Mockito.when(artifact.getPath())
+        .thenReturn(path);
+
+    ArtifactLock lock = Mockito.mock(ArtifactLock.class);
+    Mockito.when(lock.isContended())
+        .thenReturn(true);
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(artifact));
+    Mockito.doReturn(lock)
+        .when(manager).lockArtifact(reference);
+
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task.isValidArtifact(artifact, path))
+        .thenReturn(true);
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task)
+          .withOutputArtifact(reference)
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    Mockito.verify(task, Mockito.never()).execute(Mockito.any());
+    Mockito.verify(manager, Mockito.never()).createArtifact(Mockito.any(), Mockito.any());
+    Mockito.verify(lock, Mockito.times(1)).close();
+    Mockito.verify(artifact, Mockito.times(1)).close();
+  }
+
   /**
    * Evaluates whether the pipeline correctly retrieves an artifact from the artifact manager and
    * presents it to the dependant task.
@@ -249,7 +437,7 @@ public class PipelineTest {
     Mockito.when(artifact.getPath())
         .thenReturn(path);
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.of(artifact));
 
@@ -298,6 +486,71 @@ public class PipelineTest {
     Mockito.verify(artifact, Mockito.times(1)).getPath();
   }
 
+  /**
+   * Evaluates whether the pipeline resolves the input artifact and all artifact parameters of a
+   * task using a single batch lookup.
+   */
+  @Test
+  public void testArtifactRetrievalBatch() throws TaskException, IOException {
+    Path inputPath = Paths.get("input.file");
+    Path parameterPath = Paths.get("parameter.file");
+
+    ArtifactReference inputReference = Mockito.mock(ArtifactReference.class);
+    Mockito.when(inputReference.getIdentifier())
+        .thenReturn("input-artifact");
+    ArtifactReference parameterReference = Mockito.mock(ArtifactReference.class);
+    Mockito.when(parameterReference.getIdentifier())
+        .thenReturn("parameter-artifact");
+
+    Artifact inputArtifact = Mockito.mock(Artifact.class);
+    Mockito.when(inputArtifact.getPath())
+        .thenReturn(inputPath);
+    Artifact parameterArtifact = Mockito.mock(Artifact.class);
+    Mockito.when(parameterArtifact.getPath())
+        .thenReturn(parameterPath);
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    Mockito.when(manager.getArtifacts(Mockito.anyCollection()))
+        .thenAnswer((invocation) -> {
+          Map<ArtifactReference, Artifact> artifacts = new HashMap<>();
+          artifacts.put(inputReference, inputArtifact);
+          artifacts.put(parameterReference, parameterArtifact);
+          return artifacts;
+        });
+
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task.getAvailableParameterNames())
+        .thenReturn(Collections.singleton("test"));
+    Mockito.when(task.getRequiredParameterNames())
+        .thenReturn(Collections.singleton("test"));
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      Assert.assertEquals(Optional.of(inputPath), ctx.getInputPath());
+      Assert.assertEquals(Optional.of(parameterPath), ctx.getParameterPath("test"));
+    })).when(task).execute(Mockito.notNull());
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task)
+          .withInputArtifact(inputReference)
+          .withParameter("test", parameterReference)
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    Mockito.verify(task, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(manager, Mockito.times(1)).getArtifacts(
+        new HashSet<>(Arrays.asList(inputReference, parameterReference)));
+    Mockito.verify(manager, Mockito.never()).getArtifact(Mockito.any());
+    Mockito.verify(inputArtifact, Mockito.times(1)).close();
+    Mockito.verify(parameterArtifact, Mockito.times(1)).close();
+  }
+
   /**
    * Evaluates whether the pipeline correctly fails when the artifact manager cannot provide a
    * required artifact.
@@ -316,7 +569,7 @@ public class PipelineTest {
     Mockito.when(reference.getIdentifier())
         .thenReturn("test-artifact");
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.empty());
 
@@ -337,6 +590,8 @@ public class PipelineTest {
       Mockito.verify(task1, Mockito.never()).execute(Mockito.any());
       Mockito.verify(task2, Mockito.never()).execute(Mockito.any());
 
+      Mockito.verify(manager, Mockito.times(1))
+          .getArtifacts(Collections.singleton(reference));
       Mockito.verify(manager, Mockito.times(1))
           .getArtifact(reference);
       Mockito.verifyNoMoreInteractions(manager);
@@ -414,6 +669,935 @@ public class PipelineTest {
     o.verify(task3, Mockito.calls(1)).execute(Mockito.notNull());
   }
 
+  /**
+   * Evaluates whether the pipeline only executes the tasks which are required to produce a set of
+   * target artifacts.
+   */
+  @Test
+  public void testExecutionTargets() throws TaskException, IOException {
+    Path path = Paths.get("test.file");
+
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference3 = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference1.getIdentifier())
+        .thenReturn("reference1");
+
+    Artifact artifact = Mockito.mock(Artifact.class);
+    Mockito.when(artifact.getPath())
+        .thenReturn(path);
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.of(artifact));
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.empty());
+    Mockito.when(manager.getArtifact(reference3))
+        .thenReturn(Optional.empty());
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Task task3 = Mockito.mock(Task.class);
+    Task task4 = Mockito.mock(Task.class);
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withOutputArtifact(reference3)
+          .register()
+        .withTask(task3)
+          .withInputArtifact(reference1)
+          .withOutputArtifact(reference2)
+          .register()
+        .withTask(task4)
+          .withInputArtifact(reference2)
+          .withOutputArtifact(reference3)
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute(Collections.singleton(reference2));
+
+    InOrder o = Mockito.inOrder(task1, task3);
+
+    o.verify(task1, Mockito.calls(1)).execute(Mockito.notNull());
+    o.verify(task3, Mockito.calls(1)).execute(Mockito.notNull());
+    Mockito.verify(task2, Mockito.never()).execute(Mockito.any());
+    Mockito.verify(task4, Mockito.never()).execute(Mockito.any());
+  }
+
+  /**
+   * Evaluates whether the pipeline rejects target artifacts which are not produced by any of its
+   * tasks.
+   */
+  @Test(expected = TaskDependencyException.class)
+  public void testExecutionTargetsUnknown() throws TaskException {
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference.getIdentifier())
+        .thenReturn("test-artifact");
+
+    Task task = Mockito.mock(Task.class);
+
+    Pipeline pipeline = Pipeline.builder()
+        .withTask(task).register()
+        .build();
+
+    try {
+      pipeline.execute(Collections.singleton(reference));
+    } finally {
+      Mockito.verify(task, Mockito.never()).execute(Mockito.any());
+    }
+  }
+
+  /**
+   * Evaluates whether the pipeline splits its tasks into disjoint shards which retain dependent
+   * tasks within the same shard.
+   */
+  @Test
+  public void testExecutionShards() throws TaskException {
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Task task3 = Mockito.mock(Task.class);
+    Task task4 = Mockito.mock(Task.class);
+    Task task5 = Mockito.mock(Task.class);
+
+    // each shard is typically executed by a separate job and thus relies on its own pipeline
+    // (and the same version of the execution statistics)
+    // @formatter:off
+    Pipeline.Builder builder = Pipeline.builder()
+        .withTask(task1)
+          .withOutputFile(Paths.get("test1"))
+          .register()
+        .withTask(task2)
+          .withInputFile(Paths.get("test1"))
+          .withOutputFile(Paths.get("test2"))
+          .register()
+        .withTask(task3)
+          .withOutputFile(Paths.get("test3"))
+          .register()
+        .withTask(task4)
+          .withOutputFile(Paths.get("test4"))
+          .register()
+        .withTask(task5)
+          .register();
+    // @formatter:on
+
+    Assert.assertEquals(2, builder.build().execute(0, 2).getTasks().size());
+    Mockito.verify(task1, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task3, Mockito.never()).execute(Mockito.any());
+    Mockito.verify(task4, Mockito.never()).execute(Mockito.any());
+
+    Assert.assertEquals(2, builder.build().execute(1, 2).getTasks().size());
+    Mockito.verify(task1, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task3, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task4, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task5, Mockito.never()).execute(Mockito.any());
+
+    try {
+      builder.build().execute(2, 2);
+      Assert.fail("Expected out of bounds shard to be rejected");
+    } catch (IllegalArgumentException ignore) {
+    }
+  }
+
+  /**
+   * Evaluates whether shard assignments remain stable when the same pipeline executes multiple
+   * shards and whether sharded executions leave the statistics file untouched.
+   */
+  @Test
+  public void testExecutionShardsStatistics() throws TaskException, IOException {
+    Path statisticsFile = Files.createTempFile("blackwater_test_", ".properties");
+
+    try {
+      Task task1 = Mockito.mock(Task.class);
+      Task task2 = Mockito.mock(Task.class);
+      Task task3 = Mockito.mock(Task.class);
+
+      Mockito.when(task1.getName())
+          .thenReturn("Task 1");
+      Mockito.when(task2.getName())
+          .thenReturn("Task 2");
+      Mockito.when(task3.getName())
+          .thenReturn("Task 3");
+
+      // the first shard initially receives tasks 1 and 3 but would receive tasks 1 and 2 (leaving
+      // task 3 to the second shard) if the duration of task 1 were considered
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Thread.sleep(200)))
+          .when(task1).execute(Mockito.any(Context.class));
+
+      // @formatter:off
+      Pipeline pipeline = Pipeline.builder()
+          .withStatisticsFile(statisticsFile)
+          .withTask(task1)
+            .withOutputFile(Paths.get("test1"))
+            .register()
+          .withTask(task2)
+            .withOutputFile(Paths.get("test2"))
+            .register()
+          .withTask(task3)
+            .withOutputFile(Paths.get("test3"))
+            .register()
+          .build();
+      // @formatter:on
+
+      Assert.assertEquals(2, pipeline.execute(0, 2).getTasks().size());
+      Assert.assertEquals(1, pipeline.execute(1, 2).getTasks().size());
+
+      Mockito.verify(task1, Mockito.times(1)).execute(Mockito.notNull());
+      Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+      Mockito.verify(task3, Mockito.times(1)).execute(Mockito.notNull());
+      Assert.assertEquals(0, Files.size(statisticsFile));
+    } finally {
+      Files.deleteIfExists(statisticsFile);
+    }
+  }
+
+  /**
+   * Evaluates whether the pipeline executes independent tasks concurrently while retaining the
+   * order of dependant tasks.
+   */
+  @Test
+  public void testExecutionParallel() throws TaskException {
+    CountDownLatch latch = new CountDownLatch(2);
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Task task3 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+    Mockito.when(task3.getName())
+        .thenReturn("Task 3");
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      latch.countDown();
+      Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    })).when(task1).execute(Mockito.any(Context.class));
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      latch.countDown();
+      Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+    })).when(task2).execute(Mockito.any(Context.class));
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withParallelism(2)
+        .withTask(task1)
+          .withOutputFile(Paths.get("test1"))
+          .register()
+        .withTask(task2)
+          .withOutputFile(Paths.get("test2"))
+          .register()
+        .withTask(task3)
+          .withInputFile(Paths.get("test1"))
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    InOrder o = Mockito.inOrder(task1, task3);
+
+    o.verify(task1, Mockito.calls(1)).execute(Mockito.notNull());
+    o.verify(task3, Mockito.calls(1)).execute(Mockito.notNull());
+    Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+  }
+
+  /**
+   * Evaluates whether the pipeline refrains from executing tasks concurrently when insufficient
+   * resource permits are available.
+   */
+  @Test
+  public void testExecutionResourcePermits() throws TaskException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maximum = new AtomicInteger();
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+
+    for (Task task : Arrays.asList(task1, task2)) {
+      Mockito.when(task.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.IO, 1));
+
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+        maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(50);
+        running.decrementAndGet();
+      })).when(task).execute(Mockito.any(Context.class));
+    }
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withParallelism(2)
+        .withResourcePermits(ResourceClass.IO, 1)
+        .withTask(task1)
+          .withOutputFile(Paths.get("test1"))
+          .register()
+        .withTask(task2)
+          .withOutputFile(Paths.get("test2"))
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    Mockito.verify(task1, Mockito.times(1)).execute(Mockito.notNull());
+    Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+    Assert.assertEquals(1, maximum.get());
+  }
+
+  /**
+   * Evaluates whether the pipeline prioritizes independent tasks based on the durations of their
+   * previous executions.
+   */
+  @Test
+  public void testExecutionPriority() throws TaskException, IOException {
+    Path statisticsFile = Files.createTempFile("blackwater_test_", ".properties");
+
+    try {
+      Task task1 = Mockito.mock(Task.class);
+      Task task2 = Mockito.mock(Task.class);
+
+      Mockito.when(task1.getName())
+          .thenReturn("Task 1");
+      Mockito.when(task2.getName())
+          .thenReturn("Task 2");
+
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Thread.sleep(100)))
+          .when(task2).execute(Mockito.any(Context.class));
+
+      for (int i = 0; i < 2; ++i) {
+        // @formatter:off
+        Pipeline.builder()
+            .withStatisticsFile(statisticsFile)
+            .withTask(task1)
+              .withOutputFile(Paths.get("test1"))
+              .register()
+            .withTask(task2)
+              .withOutputFile(Paths.get("test2"))
+              .register()
+            .build()
+            .execute();
+        // @formatter:on
+      }
+
+      InOrder o = Mockito.inOrder(task1, task2);
+
+      o.verify(task1, Mockito.calls(1)).execute(Mockito.notNull());
+      o.verify(task2, Mockito.calls(1)).execute(Mockito.notNull());
+      o.verify(task2, Mockito.calls(1)).execute(Mockito.notNull());
+      o.verify(task1, Mockito.calls(1)).execute(Mockito.notNull());
+    } finally {
+      Files.deleteIfExists(statisticsFile);
+    }
+  }
+
+  /**
+   * Evaluates whether the pipeline correctly previews the execution of its tasks and evaluates
+   * cached artifacts concurrently.
+   */
+  @Test
+  public void testPlan() throws TaskException, IOException {
+    Path path = Paths.get("test.file");
+    CountDownLatch latch = new CountDownLatch(2);
+
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference3 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference4 = Mockito.mock(ArtifactReference.class);
+
+    Artifact artifact = Mockito.mock(Artifact.class);
+    Mockito.when(artifact.getPath())
+        .thenReturn(path);
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.of(artifact));
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.empty());
+    Mockito.when(manager.getArtifact(reference3))
+        .thenReturn(Optional.of(artifact));
+    Mockito.when(manager.getArtifact(reference4))
+        .thenReturn(Optional.of(artifact));
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Task task3 = Mockito.mock(Task.class);
+    Task task4 = Mockito.mock(Task.class);
+    Task task5 = Mockito.mock(Task.class);
+
+    // both validity checks will only complete when they are evaluated at the same time
+    Mockito.when(task1.isValidArtifact(artifact, path))
+        .then((i) -> {
+          latch.countDown();
+          return latch.await(5, TimeUnit.SECONDS);
+        });
+    Mockito.when(task3.isValidArtifact(artifact, path))
+        .then((i) -> {
+          latch.countDown();
+          return latch.await(5, TimeUnit.SECONDS);
+        });
+    Mockito.when(task4.isValidArtifact(artifact, path))
+        .thenReturn(false);
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withOutputArtifact(reference2)
+          .register()
+        .withTask(task3)
+          .withInputArtifact(reference2)
+          .withOutputArtifact(reference3)
+          .register()
+        .withTask(task4)
+          .withOutputArtifact(reference4)
+          .register()
+        .withTask(task5)
+          .register()
+        .build();
+    // @formatter:on
+
+    ExecutionPlan plan = pipeline.plan();
+
+    Assert.assertEquals(Arrays.asList(task2, task3, task4, task5), plan.getExecutedTasks());
+    Assert.assertEquals(Collections.singletonList(task1), plan.getSkippedTasks());
+    Assert.assertEquals(Arrays.asList(
+        ExecutionPlan.Reason.CACHED,
+        ExecutionPlan.Reason.MISSING,
+        ExecutionPlan.Reason.INPUT_CHANGED,
+        ExecutionPlan.Reason.EXPIRED,
+        ExecutionPlan.Reason.UNCACHED
+    ), plan.getSteps().stream().map(ExecutionPlan.Step::getReason).collect(Collectors.toList()));
+
+    Mockito.verify(task1, Mockito.never()).execute(Mockito.any());
+    Mockito.verify(task5, Mockito.never()).execute(Mockito.any());
+    Mockito.verify(manager, Mockito.never()).createArtifact(Mockito.any(), Mockito.any());
+  }
+
+  /**
+   * Evaluates whether the pipeline accounts for the file system operations of tasks when
+   * desired.
+   */
+  @Test
+  public void testIoAccounting() throws TaskException {
+    Map<String, Object> attributes = new HashMap<>();
+    Tracer tracer = (category, name) -> {
+      if (!"execute".equals(category)) {
+        return Span.noop();
+      }
+
+      return new Span() {
+        @Override
+        public void close() {
+        }
+
+        @Nonnull
+        @Override
+        public Span setAttribute(@Nonnull String key, @Nullable Object value) {
+          attributes.put(key, value);
+          return this;
+        }
+      };
+    };
+
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Task 1");
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      Path file = ctx.allocateTemporaryFile();
+      Assert.assertTrue(file.getFileSystem() instanceof AccountingFileSystem);
+
+      Files.write(file, "test".getBytes(StandardCharsets.UTF_8));
+    })).when(task).execute(Mockito.any(Context.class));
+
+    Pipeline.builder()
+        .withIoAccounting(true)
+        .withTracer(tracer)
+        .withTask(task).register()
+        .build()
+        .execute();
+
+    Mockito.verify(task, Mockito.times(1))
+        .execute(Mockito.notNull());
+    Assert.assertEquals(4L, attributes.get("bytesWritten"));
+    Assert.assertEquals(0L, attributes.get("bytesRead"));
+    Assert.assertEquals(1L, attributes.get("filesOpened"));
+  }
+
+  /**
+   * Evaluates whether the pipeline reports the outcome of each task within its result.
+   */
+  @Test
+  public void testResult() throws TaskException, IOException, ClassNotFoundException {
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference1.getIdentifier())
+        .thenReturn("test-artifact1");
+    Mockito.when(reference2.getIdentifier())
+        .thenReturn("test-artifact2");
+
+    Artifact artifact2 = Mockito.mock(Artifact.class);
+    Mockito.when(artifact2.getPath())
+        .thenReturn(Paths.get("test2.file"));
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.empty());
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.of(artifact2));
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+    Mockito.when(task2.isValidArtifact(artifact2, artifact2.getPath()))
+        .thenReturn(true);
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      Files.write(ctx.allocateTemporaryFile(), new byte[16]);
+      Files.write(ctx.getRequiredOutputPath(), "test".getBytes(StandardCharsets.UTF_8));
+    })).when(task1).execute(Mockito.any(Context.class));
+
+    // @formatter:off
+    PipelineResult result = Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withOutputArtifact(reference2)
+          .register()
+        .build()
+        .execute();
+    // @formatter:on
+
+    Assert.assertEquals(2, result.getTasks().size());
+    Assert.assertEquals(1, result.getTaskCount(PipelineResult.Status.EXECUTED));
+    Assert.assertEquals(1, result.getTaskCount(PipelineResult.Status.CACHED));
+    Assert.assertEquals(4, result.getTotalPublishedBytes());
+    Assert.assertEquals(16, result.getTotalTemporaryBytes());
+
+    PipelineResult.TaskResult result1 = result.getTasks().get(0);
+    Assert.assertEquals("Task 1", result1.getName());
+    Assert.assertEquals(PipelineResult.Status.EXECUTED, result1.getStatus());
+    Assert.assertEquals(Optional.of("test-artifact1"), result1.getPublishedArtifact());
+    Assert.assertTrue(result1.getWallTime() > 0);
+    Assert.assertFalse(result1.getIoStatistics().isPresent());
+
+    PipelineResult.TaskResult result2 = result.getTasks().get(1);
+    Assert.assertEquals(PipelineResult.Status.CACHED, result2.getStatus());
+    Assert.assertFalse(result2.getPublishedArtifact().isPresent());
+
+    String json = result.toJson();
+    Assert.assertTrue(json.contains("\"executed\":1,\"cached\":1,\"skipped\":0,\"failed\":0"));
+    Assert.assertTrue(json.contains("\"name\":\"Task 1\",\"status\":\"executed\""));
+    Assert.assertTrue(json.contains("\"published\":{\"test-artifact1\":4}"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(outputStream)) {
+      out.writeObject(result);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(
+        new ByteArrayInputStream(outputStream.toByteArray()))) {
+      Assert.assertEquals(json, ((PipelineResult) in.readObject()).toJson());
+    }
+  }
+
+  /**
+   * Evaluates whether result listeners are notified about failed executions.
+   */
+  @Test
+  public void testResultFailure() throws TaskException {
+    Path path = Paths.get("test.file");
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+
+    Mockito.doThrow(new TaskExecutionException("Test"))
+        .when(task1).execute(Mockito.any(Context.class));
+
+    AtomicReference<PipelineResult> result = new AtomicReference<>();
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withResultListener(result::set)
+        .withTask(task1)
+          .withOutputFile(path)
+          .register()
+        .withTask(task2)
+          .withInputFile(path)
+          .register()
+        .build();
+    // @formatter:on
+
+    try {
+      pipeline.execute();
+      Assert.fail("Expected execution to fail");
+    } catch (TaskExecutionException ignore) {
+    }
+
+    Assert.assertNotNull(result.get());
+    Assert.assertEquals(PipelineResult.Status.FAILED, result.get().getTasks().get(0).getStatus());
+    Assert.assertEquals(PipelineResult.Status.SKIPPED, result.get().getTasks().get(1).getStatus());
+  }
+
+  /**
+   * Evaluates whether fanned out tasks are executed once per input, cached independently and
+   * joined into their aggregate output.
+   */
+  @Test
+  public void testFanOut() throws TaskException, IOException {
+    Path base = Files.createTempDirectory("blackwater_test_");
+
+    try {
+      Path inputs = Files.createDirectory(base.resolve("inputs"));
+      Path aggregate = base.resolve("aggregate");
+      List<String> versions = Arrays.asList("1.12", "1.13", "1.14");
+
+      for (String version : versions) {
+        Files.write(inputs.resolve(version), version.getBytes(StandardCharsets.UTF_8));
+      }
+
+      Task task = Mockito.mock(Task.class);
+      Mockito.when(task.getName())
+          .thenReturn("Patch");
+      Mockito.when(task.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.when(task.isValidArtifact(Mockito.any(), Mockito.any()))
+          .thenReturn(true);
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files.write(
+          ctx.getRequiredOutputPath(),
+          ("patched " + new String(Files.readAllBytes(ctx.getRequiredInputPath()),
+              StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8))))
+          .when(task).execute(Mockito.any(Context.class));
+
+      // @formatter:off
+      Pipeline pipeline = Pipeline.builder()
+          .withArtifactManager(new FileArtifactManager(base.resolve("artifacts")))
+          .withParallelism(3)
+          .withFanOut(task)
+            .forEach(versions, (builder, version) -> builder.withInputFile(version,
+                inputs.resolve(version), new FlatFileArtifactReference("patched-" + version)))
+            .withAggregateFile(aggregate)
+            .register()
+          .build();
+      // @formatter:on
+
+      PipelineResult result = pipeline.execute();
+      Assert.assertEquals(4, result.getTaskCount(PipelineResult.Status.EXECUTED));
+      Assert.assertEquals(Arrays.asList("Patch[1.12]", "Patch[1.13]", "Patch[1.14]", "Patch[join]"),
+          result.getTasks().stream()
+              .map(PipelineResult.TaskResult::getName)
+              .collect(Collectors.toList()));
+
+      for (String version : versions) {
+        Assert.assertEquals("patched " + version,
+            new String(Files.readAllBytes(aggregate.resolve(version)), StandardCharsets.UTF_8));
+      }
+
+      Mockito.verify(task, Mockito.times(3)).execute(Mockito.any(Context.class));
+
+      result = pipeline.execute();
+      Assert.assertEquals(3, result.getTaskCount(PipelineResult.Status.CACHED));
+      Mockito.verify(task, Mockito.times(3)).execute(Mockito.any(Context.class));
+    } finally {
+      Iterator<Path> it = Files.walk(base)
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether fan-out registrations reject invalid configurations.
+   */
+  @Test
+  public void testFanOutValidation() throws TaskParameterException {
+    Task task = Mockito.mock(Task.class);
+    ArtifactReference reference = Mockito.mock(ArtifactReference.class);
+
+    try {
+      Pipeline.builder()
+          .withFanOut(task)
+          .register();
+      Assert.fail("Expected fan-out without inputs to be rejected");
+    } catch (TaskParameterException ignore) {
+    }
+
+    try {
+      Pipeline.builder()
+          .withFanOut(task)
+          .withInputFile("a", Paths.get("a"), reference)
+          .withInputFile("a", Paths.get("b"), reference);
+      Assert.fail("Expected duplicate slice key to be rejected");
+    } catch (IllegalArgumentException ignore) {
+    }
+
+    try {
+      Pipeline.builder()
+          .withFanOut(task)
+          .withInputFile("../a", Paths.get("a"), reference);
+      Assert.fail("Expected illegal slice key to be rejected");
+    } catch (IllegalArgumentException ignore) {
+    }
+  }
+
+  /**
+   * Evaluates whether sub-pipelines store their artifacts within their own namespace and are
+   * skipped as a whole while their aggregate fingerprint remains unchanged.
+   */
+  @Test
+  public void testSubPipeline() throws TaskException, IOException {
+    Path base = Files.createTempDirectory("blackwater_test_");
+
+    try {
+      ArtifactReference intermediate = new FlatFileArtifactReference("intermediate");
+      ArtifactReference binary = new FlatFileArtifactReference("binary");
+      ArtifactReference build = new FlatFileArtifactReference("build");
+
+      Task task1 = Mockito.mock(Task.class);
+      Task task2 = Mockito.mock(Task.class);
+      Task task3 = Mockito.mock(Task.class);
+
+      Mockito.when(task1.getFingerprint())
+          .thenReturn(Optional.of("task1"));
+      Mockito.when(task2.getFingerprint())
+          .thenReturn(Optional.of("task2"));
+      Mockito.when(task1.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.when(task2.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.when(task3.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files.write(
+          ctx.getRequiredOutputPath(), "intermediate".getBytes(StandardCharsets.UTF_8))))
+          .when(task1).execute(Mockito.any(Context.class));
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files.write(
+          ctx.getRequiredOutputPath(), Files.readAllBytes(ctx.getRequiredInputPath()))))
+          .when(task2).execute(Mockito.any(Context.class));
+
+      // @formatter:off
+      Pipeline subPipeline = Pipeline.builder()
+          .withTask(task1)
+            .withOutputArtifact(intermediate)
+            .register()
+          .withTask(task2)
+            .withInputArtifact(intermediate)
+            .withOutputArtifact(binary)
+            .register()
+          .build();
+
+      Pipeline pipeline = Pipeline.builder()
+          .withArtifactManager(new FileArtifactManager(base))
+          .withTask(subPipeline.asTask("linux", Collections.singleton(binary)))
+            .withOutputArtifact(build)
+            .register()
+          .withTask(task3)
+            .withInputArtifact(build)
+            .register()
+          .build();
+      // @formatter:on
+
+      pipeline.execute();
+
+      Mockito.verify(task1, Mockito.times(1)).execute(Mockito.any(Context.class));
+      Mockito.verify(task2, Mockito.times(1)).execute(Mockito.any(Context.class));
+      Assert.assertTrue(Files.exists(base.resolve("linux").resolve("binary")));
+      Assert.assertFalse(Files.exists(base.resolve("binary")));
+      Assert.assertEquals("intermediate", new String(
+          Files.readAllBytes(base.resolve("build").resolve("binary")), StandardCharsets.UTF_8));
+
+      PipelineResult result = pipeline.execute();
+
+      Assert.assertEquals(PipelineResult.Status.CACHED, result.getTasks().get(0).getStatus());
+      Assert.assertEquals("Pipeline[linux]", result.getTasks().get(0).getName());
+      Mockito.verify(task1, Mockito.times(1)).execute(Mockito.any(Context.class));
+      Mockito.verify(task1, Mockito.never()).isValidArtifact(Mockito.any(), Mockito.any());
+      Mockito.verify(task2, Mockito.never()).isValidArtifact(Mockito.any(), Mockito.any());
+      Mockito.verify(task3, Mockito.times(2)).execute(Mockito.any(Context.class));
+    } finally {
+      Iterator<Path> it = Files.walk(base)
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether sub-pipelines are re-executed when a plain file consumed by one of their
+   * tasks changes.
+   */
+  @Test
+  public void testSubPipelineInputFile() throws TaskException, IOException {
+    Path base = Files.createTempDirectory("blackwater_test_");
+
+    try {
+      Path input = base.resolve("input.txt");
+      Files.write(input, "input 1".getBytes(StandardCharsets.UTF_8));
+
+      ArtifactReference binary = new FlatFileArtifactReference("binary");
+      ArtifactReference build = new FlatFileArtifactReference("build");
+
+      Task task = Mockito.mock(Task.class);
+      Mockito.when(task.getFingerprint())
+          .thenReturn(Optional.of("task"));
+      Mockito.when(task.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files.write(
+          ctx.getRequiredOutputPath(), Files.readAllBytes(ctx.getRequiredInputPath()))))
+          .when(task).execute(Mockito.any(Context.class));
+
+      // @formatter:off
+      Pipeline subPipeline = Pipeline.builder()
+          .withTask(task)
+            .withInputFile(input)
+            .withOutputArtifact(binary)
+            .register()
+          .build();
+
+      Pipeline pipeline = Pipeline.builder()
+          .withArtifactManager(new FileArtifactManager(base.resolve("artifacts")))
+          .withTask(subPipeline.asTask("linux", Collections.singleton(binary)))
+            .withOutputArtifact(build)
+            .register()
+          .build();
+      // @formatter:on
+
+      pipeline.execute();
+      PipelineResult result = pipeline.execute();
+
+      Assert.assertEquals(PipelineResult.Status.CACHED, result.getTasks().get(0).getStatus());
+      Mockito.verify(task, Mockito.times(1)).execute(Mockito.any(Context.class));
+
+      Files.write(input, "input 2".getBytes(StandardCharsets.UTF_8));
+      result = pipeline.execute();
+
+      Assert.assertEquals(PipelineResult.Status.EXECUTED, result.getTasks().get(0).getStatus());
+      Mockito.verify(task, Mockito.times(2)).execute(Mockito.any(Context.class));
+      Assert.assertEquals("input 2", new String(Files.readAllBytes(
+          base.resolve("artifacts/build/binary")), StandardCharsets.UTF_8));
+    } finally {
+      Iterator<Path> it = Files.walk(base)
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether watching pipelines re-execute the tasks which are affected by file changes
+   * (as well as their dependants) but leave unrelated tasks alone.
+   */
+  @Test
+  public void testWatch() throws Exception {
+    Path base = Files.createTempDirectory("blackwater_test_");
+
+    try {
+      Path patches = Files.createDirectory(base.resolve("patches"));
+      Path unrelated = Files.createDirectory(base.resolve("unrelated"));
+      Path output = base.resolve("output");
+      Files.write(patches.resolve("1.patch"), new byte[]{1});
+
+      Task task1 = Mockito.mock(Task.class);
+      Task task2 = Mockito.mock(Task.class);
+      Task task3 = Mockito.mock(Task.class);
+      Mockito.when(task1.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.when(task2.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+      Mockito.when(task3.getResourceWeights())
+          .thenReturn(Collections.singletonMap(ResourceClass.CPU, 1));
+
+      CountDownLatch initial = new CountDownLatch(1);
+      CountDownLatch changed = new CountDownLatch(4);
+
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+        Files.write(ctx.getRequiredOutputPath(), new byte[]{1});
+        changed.countDown();
+      })).when(task1).execute(Mockito.any(Context.class));
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> changed.countDown()))
+          .when(task2).execute(Mockito.any(Context.class));
+      Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> initial.countDown()))
+          .when(task3).execute(Mockito.any(Context.class));
+
+      // @formatter:off
+      Pipeline pipeline = Pipeline.builder()
+          .withTask(task1)
+            .withInputFile(patches)
+            .withOutputFile(output)
+            .register()
+          .withTask(task2)
+            .withInputFile(output)
+            .register()
+          .withTask(task3)
+            .withInputFile(unrelated)
+            .register()
+          .build();
+      // @formatter:on
+
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      Thread thread = new Thread(() -> {
+        try {
+          pipeline.watch(Duration.ofMillis(50));
+        } catch (InterruptedException ignore) {
+        } catch (Throwable ex) {
+          failure.set(ex);
+        }
+      });
+      thread.start();
+
+      try {
+        Assert.assertTrue(initial.await(10, TimeUnit.SECONDS));
+        Files.write(patches.resolve("2.patch"), new byte[]{2});
+        Assert.assertTrue(changed.await(30, TimeUnit.SECONDS));
+      } finally {
+        thread.interrupt();
+        thread.join();
+      }
+
+      Assert.assertNull(failure.get());
+      Mockito.verify(task1, Mockito.times(2)).execute(Mockito.any(Context.class));
+      Mockito.verify(task2, Mockito.times(2)).execute(Mockito.any(Context.class));
+      Mockito.verify(task3, Mockito.times(1)).execute(Mockito.any(Context.class));
+    } finally {
+      Iterator<Path> it = Files.walk(base)
+          .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+          .iterator();
+
+      while (it.hasNext()) {
+        Files.deleteIfExists(it.next());
+      }
+    }
+  }
+
   /**
    * Evaluates whether the pipeline correctly fails when one of its tasks fails.
    */
@@ -461,7 +1645,7 @@ public class PipelineTest {
     Mockito.when(artifact.getPath())
         .thenReturn(testPath);
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.of(artifact));
 
@@ -572,7 +1756,7 @@ public class PipelineTest {
     Mockito.when(reference.getIdentifier())
         .thenReturn("test");
 
-    ArtifactManager manager = Mockito.mock(ArtifactManager.class);
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
     Mockito.when(manager.getArtifact(reference))
         .thenReturn(Optional.empty());
 
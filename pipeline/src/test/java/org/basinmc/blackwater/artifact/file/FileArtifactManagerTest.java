@@ -4,12 +4,20 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactLock;
 import org.basinmc.blackwater.artifact.ArtifactManager;
 import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.utility.Digests;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -164,4 +172,229 @@ public class FileArtifactManagerTest {
       Assert.assertEquals(TEST_VALUE, contents);
     }
   }
+
+  /**
+   * Evaluates whether the manager correctly replaces existing artifacts.
+   */
+  @Test
+  public void testReplace() throws IOException {
+    ArtifactReference reference = new FlatFileArtifactReference("test");
+    ArtifactManager manager = new FileArtifactManager(this.base);
+
+    for (String value : new String[]{"first", TEST_VALUE}) {
+      Path testFile = Files.createTempFile("blackwater_test_", ".tmp");
+
+      try {
+        Files.write(testFile, value.getBytes(StandardCharsets.UTF_8));
+        manager.createArtifact(reference, testFile);
+      } finally {
+        Files.deleteIfExists(testFile);
+      }
+    }
+
+    Artifact artifact = manager.getArtifact(reference)
+        .orElseThrow(AssertionError::new);
+    String contents = new String(Files.readAllBytes(artifact.getPath()), StandardCharsets.UTF_8);
+    Assert.assertEquals(TEST_VALUE, contents);
+
+    try (Stream<Path> stream = Files.list(this.base.resolve(".staging"))) {
+      Assert.assertEquals(0, stream.count());
+    }
+  }
+
+  /**
+   * Evaluates whether the manager correctly stores directories along with their contents.
+   */
+  @Test
+  public void testDirectoryStoreRetrieve() throws IOException {
+    ArtifactReference reference = new FlatFileArtifactReference("test");
+    ArtifactManager manager = new FileArtifactManager(this.base);
+
+    Path testDirectory = Files.createTempDirectory("blackwater_test_");
+
+    try {
+      Files.createDirectories(testDirectory.resolve("nested"));
+      Files.write(testDirectory.resolve("nested/file"), TEST_VALUE.getBytes(StandardCharsets.UTF_8));
+
+      manager.createArtifact(reference, testDirectory);
+      manager.createArtifact(reference, testDirectory);
+    } finally {
+      Files.deleteIfExists(testDirectory.resolve("nested/file"));
+      Files.deleteIfExists(testDirectory.resolve("nested"));
+      Files.deleteIfExists(testDirectory);
+    }
+
+    Artifact artifact = manager.getArtifact(reference)
+        .orElseThrow(AssertionError::new);
+    String contents = new String(Files.readAllBytes(artifact.getPath().resolve("nested/file")),
+        StandardCharsets.UTF_8);
+    Assert.assertEquals(TEST_VALUE, contents);
+  }
+
+  /**
+   * Evaluates whether concurrent lock holders are correctly serialized and informed about
+   * contention.
+   */
+  @Test
+  public void testLockContention() throws Exception {
+    ArtifactReference reference = new FlatFileArtifactReference("test");
+    FileArtifactManager manager = new FileArtifactManager(this.base);
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    AtomicBoolean contended = new AtomicBoolean();
+
+    try (ArtifactLock lock = manager.lockArtifact(reference)) {
+      Assert.assertFalse(lock.isContended());
+
+      // locks are reentrant for their owning thread
+      try (ArtifactLock nested = manager.lockArtifact(reference)) {
+        Assert.assertFalse(nested.isContended());
+      }
+
+      Thread thread = new Thread(() -> {
+        try (ArtifactLock other = manager.lockArtifact(reference)) {
+          contended.set(other.isContended());
+          acquired.countDown();
+        } catch (IOException ex) {
+          logger.error("Failed to acquire lock: " + ex.getMessage(), ex);
+        }
+      });
+      thread.start();
+
+      Assert.assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+    }
+
+    Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    Assert.assertTrue(contended.get());
+  }
+
+  /**
+   * Evaluates whether claims on unrelated artifacts never block each other (even when they would
+   * share a lock stripe).
+   */
+  @Test
+  public void testLockIndependence() throws Exception {
+    FileArtifactManager manager = new FileArtifactManager(this.base, 1);
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    AtomicBoolean contended = new AtomicBoolean(true);
+
+    try (ArtifactLock lock = manager.lockArtifact(new FlatFileArtifactReference("test1"))) {
+      Assert.assertFalse(lock.isContended());
+
+      Thread thread = new Thread(() -> {
+        try (ArtifactLock other = manager.lockArtifact(new FlatFileArtifactReference("test2"))) {
+          contended.set(other.isContended());
+          acquired.countDown();
+        } catch (IOException ex) {
+          logger.error("Failed to acquire lock: " + ex.getMessage(), ex);
+        }
+      });
+      thread.start();
+
+      Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    }
+
+    Assert.assertFalse(contended.get());
+  }
+
+  /**
+   * Evaluates whether multiple managers which share a base directory within the same virtual
+   * machine wait for each other rather than failing with overlapping file locks.
+   */
+  @Test
+  public void testLockSharedBase() throws Exception {
+    ArtifactReference reference = new FlatFileArtifactReference("test");
+    FileArtifactManager manager1 = new FileArtifactManager(this.base, 1);
+    FileArtifactManager manager2 = new FileArtifactManager(this.base, 1);
+
+    CountDownLatch acquired = new CountDownLatch(1);
+    AtomicBoolean contended = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    try (ArtifactLock lock = manager1.lockArtifact(reference)) {
+      Assert.assertFalse(lock.isContended());
+
+      Thread thread = new Thread(() -> {
+        try (ArtifactLock other = manager2.lockArtifact(reference)) {
+          contended.set(other.isContended());
+          acquired.countDown();
+        } catch (Throwable ex) {
+          failure.set(ex);
+        }
+      });
+      thread.start();
+
+      Assert.assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+      Assert.assertNull(failure.get());
+    }
+
+    Assert.assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    Assert.assertTrue(contended.get());
+
+    // publications of unrelated artifacts share the only available stripe and are thus required
+    // to wait while the stripe is held by another user of the same base directory
+    Path testFile = Files.createTempFile("blackwater_test_", ".tmp");
+    CountDownLatch published = new CountDownLatch(1);
+
+    try {
+      Files.write(testFile, TEST_VALUE.getBytes(StandardCharsets.UTF_8));
+
+      try (ArtifactLock stripe = new StripedFileLock(this.base.resolve(".locks"), 1)
+          .acquire("test1")) {
+        Thread thread = new Thread(() -> {
+          try {
+            manager2.createArtifact(new FlatFileArtifactReference("test2"), testFile);
+            published.countDown();
+          } catch (Throwable ex) {
+            failure.set(ex);
+          }
+        });
+        thread.start();
+
+        Assert.assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertNull(failure.get());
+      }
+
+      Assert.assertTrue(published.await(5, TimeUnit.SECONDS));
+      Assert.assertNull(failure.get());
+    } finally {
+      Files.deleteIfExists(testFile);
+    }
+
+    Assert.assertTrue(manager1.getArtifact(new FlatFileArtifactReference("test2")).isPresent());
+  }
+
+  /**
+   * Evaluates whether artifact digests are persisted at publication time and ignored once the
+   * artifact has been modified by a third party.
+   */
+  @Test
+  public void testDigest() throws IOException {
+    ArtifactReference reference = new FlatFileArtifactReference("test");
+    ArtifactManager manager = new FileArtifactManager(this.base);
+
+    Path testFile = Files.createTempFile("blackwater_test_", ".tmp");
+
+    try {
+      Files.write(testFile, TEST_VALUE.getBytes(StandardCharsets.UTF_8));
+      manager.createArtifact(reference, testFile);
+    } finally {
+      Files.deleteIfExists(testFile);
+    }
+
+    Path digestPath = this.base.resolve(".digests/test");
+    Artifact artifact = manager.getArtifact(reference)
+        .orElseThrow(AssertionError::new);
+
+    Assert.assertArrayEquals(Digests.digest(artifact.getPath()), Files.readAllBytes(digestPath));
+    Assert.assertArrayEquals(Files.readAllBytes(digestPath), artifact.getDigest());
+    Assert.assertEquals(TEST_VALUE.length(), artifact.getSize());
+
+    // the persisted digest is only trusted while it is at least as recent as the artifact itself
+    Files.write(digestPath, new byte[Digests.LENGTH]);
+    Files.setLastModifiedTime(artifact.getPath(),
+        FileTime.from(Files.getLastModifiedTime(digestPath).toInstant().plusSeconds(10)));
+    Assert.assertArrayEquals(Digests.digest(artifact.getPath()), artifact.getDigest());
+  }
 }
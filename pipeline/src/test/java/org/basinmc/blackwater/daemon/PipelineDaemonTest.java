@@ -0,0 +1,171 @@
+package org.basinmc.blackwater.daemon;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Provides test cases which evaluate whether {@link PipelineDaemon} and {@link
+ * PipelineDaemonClient} operate as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class PipelineDaemonTest {
+
+  /**
+   * Evaluates whether clients are able to list and execute the pipelines of a daemon and shut it
+   * down.
+   */
+  @Test
+  public void testExecute() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path portFile = directory.resolve("daemon.port");
+
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Test Task");
+    Task failingTask = Mockito.mock(Task.class);
+    Mockito.doThrow(new TaskExecutionException("Broken"))
+        .when(failingTask).execute(Mockito.any(Context.class));
+
+    Pipeline pipeline = Pipeline.builder()
+        .withTask(task).register()
+        .build();
+    Pipeline failingPipeline = Pipeline.builder()
+        .withTask(failingTask).register()
+        .build();
+    AutoCloseable resource = Mockito.mock(AutoCloseable.class);
+
+    try (PipelineDaemon daemon = PipelineDaemon.builder()
+        .withPipeline("test", pipeline)
+        .withPipeline("failing", failingPipeline)
+        .withPortFile(portFile)
+        .withResource(resource)
+        .start()) {
+      Assert.assertTrue(Files.isRegularFile(portFile));
+
+      PipelineDaemonClient client = PipelineDaemonClient.fromPortFile(portFile);
+      Assert.assertEquals(Arrays.asList("test", "failing"), client.list());
+
+      List<String> lines = new ArrayList<>();
+      Assert.assertTrue(client.run("test", lines::add));
+      Assert.assertEquals(2, lines.size());
+      Assert.assertTrue(lines.get(0).startsWith("TASK EXECUTED "));
+      Assert.assertTrue(lines.get(0).endsWith(" Test Task"));
+      Assert.assertTrue(lines.get(1).startsWith("RESULT {"));
+      Mockito.verify(task, Mockito.times(1)).execute(Mockito.any(Context.class));
+
+      lines.clear();
+      Assert.assertTrue(client.run("test", lines::add));
+      Mockito.verify(task, Mockito.times(2)).execute(Mockito.any(Context.class));
+
+      lines.clear();
+      Assert.assertFalse(client.run("failing", lines::add));
+      Assert.assertEquals(Collections.singletonList("ERROR Broken"), lines);
+
+      lines.clear();
+      Assert.assertFalse(client.run("unknown", lines::add));
+
+      try {
+        new PipelineDaemonClient(daemon.getPort(), "invalid").list();
+        Assert.fail("Expected request with invalid token to be rejected");
+      } catch (IOException ignore) {
+      }
+
+      client.shutdown();
+      daemon.awaitShutdown();
+
+      Assert.assertFalse(Files.exists(portFile));
+      Mockito.verify(resource, Mockito.times(1)).close();
+    } finally {
+      Files.deleteIfExists(portFile);
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Evaluates whether task results are streamed as soon as each task completes and whether
+   * running executions are awaited before the daemon releases its resources.
+   */
+  @Test
+  public void testStreamingShutdown() throws Exception {
+    CountDownLatch streamed = new CountDownLatch(1);
+    CountDownLatch shutdownRequested = new CountDownLatch(1);
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+
+    // the second task only completes once the result of the first task has reached the client and
+    // a shutdown has been requested in the meantime
+    Mockito.doAnswer((invocation) -> {
+      Assert.assertTrue(streamed.await(5, TimeUnit.SECONDS));
+      Assert.assertTrue(shutdownRequested.await(5, TimeUnit.SECONDS));
+      Thread.sleep(200);
+      return null;
+    }).when(task2).execute(Mockito.any(Context.class));
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withTask(task1).register()
+        .withTask(task2).register()
+        .build();
+    // @formatter:on
+    AutoCloseable resource = Mockito.mock(AutoCloseable.class);
+
+    try (PipelineDaemon daemon = PipelineDaemon.builder()
+        .withPipeline("test", pipeline)
+        .withResource(resource)
+        .start()) {
+      PipelineDaemonClient client = new PipelineDaemonClient(daemon.getPort(), daemon.getToken());
+      List<String> lines = new CopyOnWriteArrayList<>();
+      AtomicBoolean succeeded = new AtomicBoolean();
+
+      Thread thread = new Thread(() -> {
+        try {
+          succeeded.set(client.run("test", (line) -> {
+            lines.add(line);
+
+            if (line.endsWith(" Task 1")) {
+              streamed.countDown();
+            }
+          }));
+        } catch (IOException ex) {
+          throw new AssertionError(ex);
+        }
+      });
+      thread.start();
+
+      Assert.assertTrue(streamed.await(5, TimeUnit.SECONDS));
+      client.shutdown();
+      shutdownRequested.countDown();
+
+      daemon.awaitShutdown();
+      thread.join(5000);
+
+      Assert.assertTrue(succeeded.get());
+      Assert.assertEquals(3, lines.size());
+      Assert.assertTrue(lines.get(1).endsWith(" Task 2"));
+      Mockito.verify(task2, Mockito.times(1)).execute(Mockito.any(Context.class));
+      Mockito.verify(resource, Mockito.times(1)).close();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package org.basinmc.blackwater.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Evaluates whether {@link AccountingFileSystem} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class AccountingFileSystemTest {
+
+  private Path base;
+  private AccountingFileSystem fileSystem;
+
+  @Before
+  public void setUp() throws IOException {
+    this.base = Files.createTempDirectory("blackwater_test_");
+    this.fileSystem = new AccountingFileSystem();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> stream = Files.walk(this.base)) {
+      for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether wrapped paths retain their structure and belong to the accounting file
+   * system.
+   */
+  @Test
+  public void testPaths() throws IOException {
+    Path directory = this.fileSystem.wrap(this.base);
+    Path file = directory.resolve("test.txt");
+
+    Assert.assertSame(this.fileSystem, file.getFileSystem());
+    Assert.assertSame(this.fileSystem, file.getParent().getFileSystem());
+    Assert.assertEquals(directory, file.getParent());
+    Assert.assertEquals(this.base.resolve("test.txt").toString(), file.toString());
+    Assert.assertEquals(this.base.resolve("test.txt").toFile(), file.toFile());
+    Assert.assertEquals("test.txt", directory.relativize(file).toString());
+
+    Files.createDirectory(directory.resolve("nested"));
+    Files.write(file, new byte[0]);
+
+    List<Path> children;
+    try (Stream<Path> stream = Files.list(directory)) {
+      children = stream.sorted().collect(Collectors.toList());
+    }
+
+    Assert.assertEquals(2, children.size());
+    Assert.assertTrue(children.stream().allMatch((p) -> p.getFileSystem() == this.fileSystem));
+    Assert.assertTrue(Files.isDirectory(children.get(0)));
+    Assert.assertTrue(Files.isRegularFile(children.get(1)));
+  }
+
+  /**
+   * Evaluates whether transferred bytes, opened files and syncs are accounted for.
+   */
+  @Test
+  public void testStatistics() throws IOException {
+    Path directory = this.fileSystem.wrap(this.base);
+    Path file1 = directory.resolve("test1.txt");
+    Path file2 = directory.resolve("test2.txt");
+    Path file3 = directory.resolve("test3.txt");
+
+    Files.write(file1, "Hello World".getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals("Hello World", new String(Files.readAllBytes(file1),
+        StandardCharsets.UTF_8));
+
+    IoStatistics statistics = this.fileSystem.getStatistics();
+    Assert.assertEquals(11, statistics.getBytesWritten());
+    Assert.assertEquals(11, statistics.getBytesRead());
+    Assert.assertEquals(2, statistics.getFilesOpened());
+
+    Files.copy(file1, file2);
+    Assert.assertEquals(22, statistics.getBytesWritten());
+    Assert.assertEquals(22, statistics.getBytesRead());
+    Assert.assertTrue(Files.exists(this.base.resolve("test2.txt")));
+
+    try (FileChannel source = FileChannel.open(file2, StandardOpenOption.READ);
+        FileChannel target = FileChannel.open(file3, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE)) {
+      source.transferTo(0, source.size(), target);
+      target.write(ByteBuffer.wrap("!".getBytes(StandardCharsets.UTF_8)));
+      target.force(true);
+    }
+
+    Assert.assertEquals(34, statistics.getBytesWritten());
+    Assert.assertEquals(33, statistics.getBytesRead());
+    Assert.assertEquals(1, statistics.getSyncs());
+    Assert.assertEquals("Hello World!",
+        new String(Files.readAllBytes(this.base.resolve("test3.txt")), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,67 @@
+package org.basinmc.blackwater.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether {@link MetricRegistry} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class MetricRegistryTest {
+
+  /**
+   * Evaluates whether counters are correctly aggregated and exported in the Prometheus text
+   * format.
+   */
+  @Test
+  public void testWrite() throws IOException {
+    MetricRegistry registry = new MetricRegistry();
+
+    Counter counter = registry.counter("test_total", "Test\ncounter", "name");
+    counter.increment("a");
+    counter.add(41, "a");
+    counter.increment("b \"2\"");
+
+    registry.durationCounter("test_seconds_total", "Test duration").add(1_500_000_000L);
+
+    Assert.assertSame(counter, registry.counter("test_total", "Test counter", "name"));
+    Assert.assertEquals(42, counter.get("a"));
+    Assert.assertEquals(1, counter.get("b \"2\""));
+    Assert.assertEquals(0, counter.get("c"));
+    Assert.assertEquals(Long.valueOf(42),
+        registry.snapshot().get("test_total").get(Arrays.asList("a")));
+
+    StringWriter writer = new StringWriter();
+    registry.write(writer);
+    String metrics = writer.toString();
+
+    Assert.assertTrue(metrics.contains("# HELP test_total Test\\ncounter\n"));
+    Assert.assertTrue(metrics.contains("# TYPE test_total counter\n"));
+    Assert.assertTrue(metrics.contains("test_total{name=\"a\"} 42\n"));
+    Assert.assertTrue(metrics.contains("test_total{name=\"b \\\"2\\\"\"} 1\n"));
+    Assert.assertTrue(metrics.contains("test_seconds_total 1.5\n"));
+  }
+
+  /**
+   * Evaluates whether counters reject invalid label values.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testLabelMismatch() {
+    new MetricRegistry().counter("test_total", "Test counter", "name").increment();
+  }
+
+  /**
+   * Evaluates whether the registry rejects counters which conflict with previously registered
+   * counters.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testConflict() {
+    MetricRegistry registry = new MetricRegistry();
+    registry.counter("test_total", "Test counter", "name");
+    registry.counter("test_total", "Test counter", "other");
+  }
+}
@@ -0,0 +1,170 @@
+package org.basinmc.blackwater.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Optional;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.artifact.Artifact;
+import org.basinmc.blackwater.artifact.ArtifactManager;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+/**
+ * Evaluates whether {@link PipelineMetrics} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class PipelineMetricsTest {
+
+  /**
+   * Evaluates whether pipeline executions are correctly reflected within the counters.
+   */
+  @Test
+  public void testPipeline() throws IOException, TaskException {
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference1.getIdentifier())
+        .thenReturn("test-artifact1");
+    Mockito.when(reference2.getIdentifier())
+        .thenReturn("test-artifact2");
+
+    Artifact artifact2 = Mockito.mock(Artifact.class);
+    Mockito.when(artifact2.getPath())
+        .thenReturn(Paths.get("test2.file"));
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.empty());
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.of(artifact2));
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+    Task task3 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+    Mockito.when(task3.getName())
+        .thenReturn("Task 3");
+    Mockito.when(task2.isValidArtifact(artifact2, artifact2.getPath()))
+        .thenReturn(true);
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files
+        .write(ctx.getOutputPath().orElseThrow(AssertionError::new),
+            "test".getBytes(StandardCharsets.UTF_8))))
+        .when(task1).execute(Mockito.any(Context.class));
+
+    PipelineMetrics metrics = new PipelineMetrics();
+
+    // @formatter:off
+    Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTracer(metrics)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withOutputArtifact(reference2)
+          .register()
+        .withTask(task3)
+          .register()
+        .build()
+        .execute();
+    // @formatter:on
+
+    MetricRegistry registry = metrics.getRegistry();
+    String managerName = manager.getClass().getSimpleName();
+
+    Assert.assertEquals(2, registry.counter("blackwater_tasks_total", "", "status")
+        .get("executed"));
+    Assert.assertEquals(1, registry.counter("blackwater_tasks_total", "", "status")
+        .get("skipped"));
+    Assert.assertEquals(1, registry.counter("blackwater_cache_evaluations_total", "", "task",
+        "result").get("Task 1", "miss"));
+    Assert.assertEquals(1, registry.counter("blackwater_cache_evaluations_total", "", "task",
+        "result").get("Task 2", "hit"));
+    Assert.assertEquals(4, registry.counter("blackwater_published_bytes_total", "", "manager")
+        .get(managerName));
+    Assert.assertTrue(registry.counter("blackwater_temporary_bytes_total", "").get() >= 4);
+    Assert.assertEquals(0, registry.counter("blackwater_process_spawns_total", "").get());
+  }
+
+  /**
+   * Evaluates whether cache hits and misses reflect the final decision of the pipeline rather than
+   * the result of individual cache evaluations.
+   */
+  @Test
+  public void testCacheDecision() throws IOException, TaskException {
+    ArtifactReference reference1 = Mockito.mock(ArtifactReference.class);
+    ArtifactReference reference2 = Mockito.mock(ArtifactReference.class);
+    Mockito.when(reference1.getIdentifier())
+        .thenReturn("test-artifact1");
+    Mockito.when(reference2.getIdentifier())
+        .thenReturn("test-artifact2");
+
+    Artifact artifact1 = Mockito.mock(Artifact.class);
+    Artifact artifact2 = Mockito.mock(Artifact.class);
+    Mockito.when(artifact1.getPath())
+        .thenReturn(Paths.get("test1.file"));
+    Mockito.when(artifact2.getPath())
+        .thenReturn(Paths.get("test2.file"));
+
+    ArtifactManager manager = Mockito.mock(ArtifactManager.class, Mockito.CALLS_REAL_METHODS);
+    Mockito.when(manager.getArtifact(reference1))
+        .thenReturn(Optional.of(artifact1));
+    Mockito.when(manager.getArtifact(reference2))
+        .thenReturn(Optional.of(artifact2));
+
+    Task task1 = Mockito.mock(Task.class);
+    Task task2 = Mockito.mock(Task.class);
+
+    Mockito.when(task1.getName())
+        .thenReturn("Task 1");
+    Mockito.when(task2.getName())
+        .thenReturn("Task 2");
+    Mockito.when(task2.isValidArtifact(artifact2, artifact2.getPath()))
+        .thenReturn(true);
+
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> Files
+        .write(ctx.getOutputPath().orElseThrow(AssertionError::new),
+            "test".getBytes(StandardCharsets.UTF_8))))
+        .when(task1).execute(Mockito.any(Context.class));
+
+    PipelineMetrics metrics = new PipelineMetrics();
+
+    // the cached output of the second task is considered valid by the task itself but is
+    // nevertheless recreated since its input artifact changes during the execution
+    // @formatter:off
+    Pipeline.builder()
+        .withArtifactManager(manager)
+        .withTracer(metrics)
+        .withTask(task1)
+          .withOutputArtifact(reference1)
+          .register()
+        .withTask(task2)
+          .withInputArtifact(reference1)
+          .withOutputArtifact(reference2)
+          .register()
+        .build()
+        .execute();
+    // @formatter:on
+
+    Counter evaluations = metrics.getRegistry()
+        .counter("blackwater_cache_evaluations_total", "", "task", "result");
+
+    Mockito.verify(task2, Mockito.times(1)).execute(Mockito.notNull());
+    Assert.assertEquals(1, evaluations.get("Task 1", "miss"));
+    Assert.assertEquals(1, evaluations.get("Task 2", "miss"));
+    Assert.assertEquals(0, evaluations.get("Task 2", "hit"));
+  }
+}
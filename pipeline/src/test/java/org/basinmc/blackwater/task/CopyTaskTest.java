@@ -0,0 +1,135 @@
+package org.basinmc.blackwater.task;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.artifact.file.FlatFileArtifactReference;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.task.io.CopyTask;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Provides test cases which evaluate whether {@link CopyTask} performs as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class CopyTaskTest extends AbstractTaskTest {
+
+  /**
+   * Evaluates whether directories are copied and synchronized as expected.
+   */
+  @Test
+  public void testExecute() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path outputDirectory = this.getBase().resolve("output");
+
+    byte[] large = new byte[2 * 1024 * 1024];
+    new Random(42).nextBytes(large);
+
+    Files.createDirectories(inputDirectory.resolve("nested"));
+    Files.write(inputDirectory.resolve("test1"), "Test 1".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test2"), "Test 2".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/large"), large);
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputDirectory);
+
+    // @formatter:off
+    Task task = CopyTask.builder()
+        .withIncrementalSync()
+        .build();
+    // @formatter:on
+    task.execute(context);
+
+    Assert.assertArrayEquals(large, Files.readAllBytes(outputDirectory.resolve("nested/large")));
+    Assert.assertEquals(Files.getLastModifiedTime(inputDirectory.resolve("test1")),
+        Files.getLastModifiedTime(outputDirectory.resolve("test1")));
+
+    // files with identical size and timestamp are considered unchanged (unless their contents
+    // are compared) while extraneous files are removed
+    FileTime time = Files.getLastModifiedTime(outputDirectory.resolve("test1"));
+    Files.write(outputDirectory.resolve("test1"), "Test X".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(outputDirectory.resolve("test1"), time);
+    Files.createDirectories(outputDirectory.resolve("extraneous"));
+    Files.write(outputDirectory.resolve("extraneous/test3"),
+        "Test 3".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test2"), "Test 22".getBytes(StandardCharsets.UTF_8));
+
+    task.execute(context);
+
+    Assert.assertEquals("Test X", new String(Files.readAllBytes(outputDirectory.resolve("test1")),
+        StandardCharsets.UTF_8));
+    Assert.assertEquals("Test 22", new String(
+        Files.readAllBytes(outputDirectory.resolve("nested/test2")), StandardCharsets.UTF_8));
+    Assert.assertFalse(Files.exists(outputDirectory.resolve("extraneous")));
+
+    // @formatter:off
+    CopyTask.builder()
+        .withContentComparison()
+        .build()
+        .execute(context);
+    // @formatter:on
+
+    Assert.assertEquals("Test 1", new String(Files.readAllBytes(outputDirectory.resolve("test1")),
+        StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Evaluates whether unchanged files are taken from the previous version of an output artifact
+   * rather than being copied from their source again.
+   */
+  @Test
+  public void testExecuteArtifact() throws IOException, TaskException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path artifactDirectory = this.getBase().resolve("artifacts");
+    ArtifactReference reference = new FlatFileArtifactReference("copy");
+
+    Files.createDirectories(inputDirectory.resolve("nested"));
+    Files.write(inputDirectory.resolve("test1"), "Test 1".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test2"), "Test 2".getBytes(StandardCharsets.UTF_8));
+
+    // @formatter:off
+    Pipeline pipeline = Pipeline.builder()
+        .withArtifactManager(new FileArtifactManager(artifactDirectory))
+        .withTask(CopyTask.builder().withIncrementalSync().build())
+          .withInputFile(inputDirectory)
+          .withOutputArtifact(reference)
+          .withForcedExecution(true)
+          .register()
+        .build();
+    // @formatter:on
+
+    pipeline.execute();
+
+    Path artifact = artifactDirectory.resolve("copy");
+    Assert.assertEquals(Files.getLastModifiedTime(inputDirectory.resolve("test1")),
+        Files.getLastModifiedTime(artifact.resolve("test1")));
+
+    // files which match their previous copy in size and timestamp are taken from the artifact
+    // as-is and would thus retain any modification made to the artifact itself
+    FileTime time = Files.getLastModifiedTime(artifact.resolve("test1"));
+    Files.write(artifact.resolve("test1"), "Test X".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(artifact.resolve("test1"), time);
+    Files.write(inputDirectory.resolve("nested/test2"), "Test 22".getBytes(StandardCharsets.UTF_8));
+
+    pipeline.execute();
+
+    Assert.assertEquals("Test X", new String(Files.readAllBytes(artifact.resolve("test1")),
+        StandardCharsets.UTF_8));
+    Assert.assertEquals("Test 22", new String(Files.readAllBytes(artifact.resolve("nested/test2")),
+        StandardCharsets.UTF_8));
+  }
+}
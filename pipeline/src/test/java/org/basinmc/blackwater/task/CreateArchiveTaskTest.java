@@ -1,16 +1,29 @@
 package org.basinmc.blackwater.task;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import org.basinmc.blackwater.task.Task.Context;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
 import org.basinmc.blackwater.task.io.CreateArchiveTask;
@@ -51,7 +64,7 @@ public class CreateArchiveTaskTest extends AbstractTaskTest {
     try (FileSystem fs = FileSystems
         .newFileSystem(new URI("jar", outputFile.toUri().toString(), null),
             Collections.emptyMap())) {
-      Iterator<Path> it = Files.walk(fs.getPath(""))
+      Iterator<Path> it = Files.walk(fs.getPath("/"))
           .filter(Files::isRegularFile)
           .iterator();
 
@@ -68,4 +81,251 @@ public class CreateArchiveTaskTest extends AbstractTaskTest {
       Assert.assertEquals(3, fileCount);
     }
   }
+
+  /**
+   * Evaluates whether nested directories as well as files which exceed the in-memory compression
+   * threshold are archived with valid checksums.
+   */
+  @Test
+  public void testExecuteLarge() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path outputFile = this.getBase().resolve("output");
+
+    byte[] large = new byte[6 * 1024 * 1024];
+    new Random(42).nextBytes(large);
+
+    Files.createDirectories(inputDirectory.resolve("nested"));
+    Files.write(inputDirectory.resolve("nested/large"), large);
+
+    for (int i = 0; i < 64; ++i) {
+      Files.write(inputDirectory.resolve("nested/small" + i),
+          ("This is test " + i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputFile);
+
+    new CreateArchiveTask(4).execute(context);
+
+    try (ZipFile file = new ZipFile(outputFile.toFile())) {
+      Assert.assertEquals(66, file.size());
+      Assert.assertTrue(file.getEntry("nested/").isDirectory());
+
+      ZipEntry entry = file.getEntry("nested/large");
+      Assert.assertEquals(large.length, entry.getSize());
+
+      try (InputStream inputStream = file.getInputStream(entry)) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+
+        while ((length = inputStream.read(buffer)) != -1) {
+          outputStream.write(buffer, 0, length);
+        }
+
+        Assert.assertArrayEquals(large, outputStream.toByteArray());
+      }
+
+      for (int i = 0; i < 64; ++i) {
+        try (InputStream inputStream = file.getInputStream(file.getEntry("nested/small" + i))) {
+          byte[] buffer = new byte[64];
+          int length = inputStream.read(buffer);
+
+          Assert.assertEquals("This is test " + i,
+              new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether reproducible archives are identical regardless of file timestamps and
+   * whether entries with a stored extension are left uncompressed.
+   */
+  @Test
+  public void testExecuteReproducible() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path outputFile1 = this.getBase().resolve("output1");
+    Path outputFile2 = this.getBase().resolve("output2");
+
+    Files.createDirectories(inputDirectory.resolve("b"));
+    Files.write(inputDirectory.resolve("b/test.txt"),
+        "This is a test".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("a.jar"), "This is a test".getBytes(StandardCharsets.UTF_8));
+
+    // @formatter:off
+    Task task = CreateArchiveTask.builder()
+        .withCompressionLevel(9)
+        .withStoredExtensions("JAR")
+        .withReproducibleOutput()
+        .build();
+    // @formatter:on
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputFile1, outputFile2);
+
+    task.execute(context);
+    Files.setLastModifiedTime(inputDirectory.resolve("b/test.txt"),
+        FileTime.fromMillis(System.currentTimeMillis() - 86400000));
+    task.execute(context);
+
+    Assert.assertArrayEquals(Files.readAllBytes(outputFile1), Files.readAllBytes(outputFile2));
+    Assert.assertNotEquals(new CreateArchiveTask().getFingerprint(), task.getFingerprint());
+
+    try (ZipFile file = new ZipFile(outputFile1.toFile())) {
+      List<String> names = new ArrayList<>();
+      file.stream().forEach((e) -> names.add(e.getName()));
+
+      Assert.assertEquals(Arrays.asList("a.jar", "b/", "b/test.txt"), names);
+      Assert.assertEquals(ZipEntry.STORED, file.getEntry("a.jar").getMethod());
+      Assert.assertEquals(ZipEntry.DEFLATED, file.getEntry("b/test.txt").getMethod());
+    }
+  }
+
+  /**
+   * Evaluates whether incremental updates reuse the compressed data of unchanged entries within
+   * the previous archive while producing the same contents as a full rebuild.
+   */
+  @Test
+  public void testExecuteIncremental() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path previousFile = this.getBase().resolve("previous");
+    Path outputFile = this.getBase().resolve("output");
+    Path referenceFile = this.getBase().resolve("reference");
+
+    Files.createDirectories(inputDirectory);
+
+    for (int i = 0; i < 16; ++i) {
+      StringBuilder contents = new StringBuilder();
+
+      for (int j = 0; j < 256; ++j) {
+        contents.append("This is test ").append(i).append(" line ").append(j * 7919 % 1000)
+            .append('\n');
+      }
+
+      Files.write(inputDirectory.resolve("test" + i),
+          contents.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // @formatter:off
+    Task previousTask = CreateArchiveTask.builder()
+        .withCompressionLevel(1)
+        .withReproducibleOutput()
+        .withIncrementalUpdates()
+        .build();
+    Task task = CreateArchiveTask.builder()
+        .withCompressionLevel(9)
+        .withReproducibleOutput()
+        .withIncrementalUpdates()
+        .build();
+    // @formatter:on
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(previousFile, outputFile, referenceFile);
+    Mockito.when(context.getPreviousOutputPath())
+        .thenReturn(Optional.empty(), Optional.of(previousFile), Optional.empty());
+
+    // the previous archive is compressed using a different level but claims to match the settings
+    // of the actual task (its comment is of the same length) which permits us to tell reused
+    // entries apart from recompressed ones
+    previousTask.execute(context);
+
+    byte[] fingerprint = task.getFingerprint().orElseThrow(AssertionError::new)
+        .getBytes(StandardCharsets.UTF_8);
+    byte[] previous = Files.readAllBytes(previousFile);
+    System.arraycopy(fingerprint, 0, previous, previous.length - fingerprint.length,
+        fingerprint.length);
+    Files.write(previousFile, previous);
+
+    Files.write(inputDirectory.resolve("test3"), "Changed".getBytes(StandardCharsets.UTF_8));
+    Files.delete(inputDirectory.resolve("test7"));
+    Files.write(inputDirectory.resolve("test16"), "Added".getBytes(StandardCharsets.UTF_8));
+
+    task.execute(context);
+    task.execute(context);
+
+    Map<String, byte[]> previousEntries = readCompressedEntries(previousFile);
+    Map<String, byte[]> outputEntries = readCompressedEntries(outputFile);
+    Map<String, byte[]> referenceEntries = readCompressedEntries(referenceFile);
+
+    Assert.assertEquals(referenceEntries.keySet(), outputEntries.keySet());
+
+    for (int i = 0; i <= 16; ++i) {
+      String name = "test" + i;
+
+      if (i == 3 || i == 7 || i == 16) {
+        continue;
+      }
+
+      Assert.assertFalse(Arrays.equals(previousEntries.get(name), referenceEntries.get(name)));
+      Assert.assertArrayEquals(previousEntries.get(name), outputEntries.get(name));
+    }
+
+    Assert.assertArrayEquals(referenceEntries.get("test3"), outputEntries.get("test3"));
+    Assert.assertArrayEquals(referenceEntries.get("test16"), outputEntries.get("test16"));
+
+    try (ZipFile file = new ZipFile(outputFile.toFile())) {
+      Assert.assertEquals(16, file.size());
+      Assert.assertNull(file.getEntry("test7"));
+
+      for (int i = 0; i <= 16; ++i) {
+        if (i == 7) {
+          continue;
+        }
+
+        try (InputStream inputStream = file.getInputStream(file.getEntry("test" + i))) {
+          ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+          byte[] buffer = new byte[8192];
+          int length;
+
+          while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+          }
+
+          Assert.assertArrayEquals(Files.readAllBytes(inputDirectory.resolve("test" + i)),
+              outputStream.toByteArray());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the compressed data of all entries within an archive based on their local headers.
+   *
+   * @param path an archive.
+   * @return a map of entry names and their respective compressed data.
+   * @throws IOException when reading the archive fails.
+   */
+  private static Map<String, byte[]> readCompressedEntries(Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    Map<String, byte[]> entries = new HashMap<>();
+
+    while (buffer.getInt(buffer.position()) == 0x04034b50) {
+      int offset = buffer.position();
+      int compressedSize = buffer.getInt(offset + 18);
+      int nameLength = buffer.getShort(offset + 26) & 0xFFFF;
+      int extraLength = buffer.getShort(offset + 28) & 0xFFFF;
+
+      byte[] name = new byte[nameLength];
+      buffer.position(offset + 30);
+      buffer.get(name);
+      buffer.position(buffer.position() + extraLength);
+
+      byte[] data = new byte[compressedSize];
+      buffer.get(data);
+      entries.put(new String(name, StandardCharsets.UTF_8), data);
+    }
+
+    return entries;
+  }
 }
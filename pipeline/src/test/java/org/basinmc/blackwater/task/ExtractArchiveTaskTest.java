@@ -0,0 +1,235 @@
+package org.basinmc.blackwater.task;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.task.error.TaskParameterException;
+import org.basinmc.blackwater.task.io.CreateArchiveTask;
+import org.basinmc.blackwater.task.io.ExtractArchiveTask;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Provides test cases which evaluate whether {@link ExtractArchiveTask} performs as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ExtractArchiveTaskTest extends AbstractTaskTest {
+
+  /**
+   * Evaluates whether the task extracts all (selected) entries and retains identical files.
+   */
+  @Test
+  public void testExecute() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path archiveFile = this.getBase().resolve("archive.zip");
+    Path outputDirectory = this.getBase().resolve("output");
+    Path filteredDirectory = this.getBase().resolve("filtered");
+
+    Files.createDirectories(inputDirectory.resolve("nested"));
+    Files.write(inputDirectory.resolve("test1.txt"), "Test 1".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test2.txt"),
+        "Test 2".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test3.bin"),
+        "Test 3".getBytes(StandardCharsets.UTF_8));
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory, archiveFile);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(archiveFile, outputDirectory, filteredDirectory);
+
+    new CreateArchiveTask().execute(context);
+
+    // one file is already present while the other one is outdated
+    FileTime time = FileTime.fromMillis(86400000);
+    Files.createDirectories(outputDirectory.resolve("nested"));
+    Files.write(outputDirectory.resolve("nested/test2.txt"),
+        "Test 2".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(outputDirectory.resolve("nested/test2.txt"), time);
+    Files.write(outputDirectory.resolve("nested/test3.bin"),
+        "Test 4".getBytes(StandardCharsets.UTF_8));
+
+    new ExtractArchiveTask().execute(context);
+
+    Assert.assertEquals("Test 1", new String(
+        Files.readAllBytes(outputDirectory.resolve("test1.txt")), StandardCharsets.UTF_8));
+    Assert.assertEquals("Test 2", new String(
+        Files.readAllBytes(outputDirectory.resolve("nested/test2.txt")), StandardCharsets.UTF_8));
+    Assert.assertEquals("Test 3", new String(
+        Files.readAllBytes(outputDirectory.resolve("nested/test3.bin")), StandardCharsets.UTF_8));
+    Assert.assertEquals(time,
+        Files.getLastModifiedTime(outputDirectory.resolve("nested/test2.txt")));
+
+    // @formatter:off
+    ExtractArchiveTask.builder()
+        .withIncludes("nested/**")
+        .withExcludes("**.bin")
+        .build()
+        .execute(context);
+    // @formatter:on
+
+    Assert.assertTrue(Files.isRegularFile(filteredDirectory.resolve("nested/test2.txt")));
+    Assert.assertFalse(Files.exists(filteredDirectory.resolve("test1.txt")));
+    Assert.assertFalse(Files.exists(filteredDirectory.resolve("nested/test3.bin")));
+  }
+
+  /**
+   * Evaluates whether entries which would be extracted outside of the output directory are
+   * rejected.
+   */
+  @Test
+  public void testExecuteTraversal() throws IOException, TaskParameterException {
+    Path archiveFile = this.getBase().resolve("archive.zip");
+    Path outputDirectory = this.getBase().resolve("output");
+
+    try (OutputStream outputStream = Files.newOutputStream(archiveFile);
+        ZipOutputStream zipStream = new ZipOutputStream(outputStream)) {
+      zipStream.putNextEntry(new ZipEntry("../escaped.txt"));
+      zipStream.write("Test".getBytes(StandardCharsets.UTF_8));
+      zipStream.closeEntry();
+    }
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(archiveFile);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputDirectory);
+
+    try {
+      new ExtractArchiveTask().execute(context);
+      Assert.fail("Expected traversal to be rejected");
+    } catch (TaskExecutionException ignore) {
+    }
+
+    Assert.assertFalse(Files.exists(this.getBase().resolve("escaped.txt")));
+  }
+
+  /**
+   * Evaluates whether files are reused from the previous output and whether extraneous files are
+   * removed from an existing output directory.
+   */
+  @Test
+  public void testExecuteIncremental() throws IOException, TaskExecutionException {
+    Path inputDirectory = this.getBase().resolve("input");
+    Path archiveFile = this.getBase().resolve("archive.zip");
+    Path previousDirectory = this.getBase().resolve("previous");
+    Path outputDirectory = this.getBase().resolve("output");
+
+    Files.createDirectories(inputDirectory.resolve("nested"));
+    Files.write(inputDirectory.resolve("test1.txt"), "Test 1".getBytes(StandardCharsets.UTF_8));
+    Files.write(inputDirectory.resolve("nested/test2.txt"),
+        "Test 2".getBytes(StandardCharsets.UTF_8));
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(inputDirectory, archiveFile);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(archiveFile, outputDirectory);
+
+    new CreateArchiveTask().execute(context);
+
+    // the previous output contains an identical copy of one file while the actual output directory
+    // has been freshly allocated
+    FileTime time = FileTime.fromMillis(86400000);
+    Files.createDirectories(previousDirectory.resolve("nested"));
+    Files.write(previousDirectory.resolve("nested/test2.txt"),
+        "Test 2".getBytes(StandardCharsets.UTF_8));
+    Files.setLastModifiedTime(previousDirectory.resolve("nested/test2.txt"), time);
+    Files.write(previousDirectory.resolve("test1.txt"), "Test 3".getBytes(StandardCharsets.UTF_8));
+
+    Mockito.when(context.getPreviousOutputPath())
+        .thenReturn(Optional.of(previousDirectory));
+
+    new ExtractArchiveTask().execute(context);
+
+    Assert.assertEquals("Test 1", new String(
+        Files.readAllBytes(outputDirectory.resolve("test1.txt")), StandardCharsets.UTF_8));
+    Assert.assertEquals("Test 2", new String(
+        Files.readAllBytes(outputDirectory.resolve("nested/test2.txt")), StandardCharsets.UTF_8));
+    Assert.assertEquals(time,
+        Files.getLastModifiedTime(outputDirectory.resolve("nested/test2.txt")));
+    Assert.assertEquals("Test 3", new String(
+        Files.readAllBytes(previousDirectory.resolve("test1.txt")), StandardCharsets.UTF_8));
+
+    // files and directories which are not part of the archive are removed on subsequent runs
+    Files.createDirectories(outputDirectory.resolve("extraneous/nested"));
+    Files.write(outputDirectory.resolve("extraneous/nested/test4.txt"),
+        "Test 4".getBytes(StandardCharsets.UTF_8));
+    Files.write(outputDirectory.resolve("nested/test5.txt"),
+        "Test 5".getBytes(StandardCharsets.UTF_8));
+
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(archiveFile);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputDirectory);
+    Mockito.when(context.getPreviousOutputPath())
+        .thenReturn(Optional.empty());
+
+    new ExtractArchiveTask().execute(context);
+
+    Assert.assertFalse(Files.exists(outputDirectory.resolve("extraneous")));
+    Assert.assertFalse(Files.exists(outputDirectory.resolve("nested/test5.txt")));
+    Assert.assertTrue(Files.isRegularFile(outputDirectory.resolve("test1.txt")));
+    Assert.assertTrue(Files.isRegularFile(outputDirectory.resolve("nested/test2.txt")));
+  }
+
+  /**
+   * Evaluates whether malformed archives and entry names are rejected.
+   */
+  @Test
+  public void testExecuteMalformed() throws IOException, TaskParameterException {
+    Path archiveFile = this.getBase().resolve("archive.zip");
+    Path outputDirectory = this.getBase().resolve("output");
+
+    try (OutputStream outputStream = Files.newOutputStream(archiveFile);
+        ZipOutputStream zipStream = new ZipOutputStream(outputStream)) {
+      zipStream.putNextEntry(new ZipEntry("invalid\u0000.txt"));
+      zipStream.write("Test".getBytes(StandardCharsets.UTF_8));
+      zipStream.closeEntry();
+    }
+
+    Context context = Mockito.mock(Context.class);
+    Mockito.when(context.getRequiredInputPath())
+        .thenReturn(archiveFile);
+    Mockito.when(context.getRequiredOutputPath())
+        .thenReturn(outputDirectory);
+
+    try {
+      new ExtractArchiveTask().execute(context);
+      Assert.fail("Expected invalid entry name to be rejected");
+    } catch (TaskExecutionException ignore) {
+    }
+
+    // a name length which exceeds the central directory is reported as a malformed archive
+    // rather than a runtime exception
+    byte[] archive = Files.readAllBytes(archiveFile);
+    int offset = archive.length - 22;
+
+    while (offset >= 0 && !(archive[offset] == 'P' && archive[offset + 1] == 'K'
+        && archive[offset + 2] == 1 && archive[offset + 3] == 2)) {
+      --offset;
+    }
+
+    Assert.assertTrue(offset >= 0);
+    archive[offset + 28] = (byte) 0xFF;
+    archive[offset + 29] = (byte) 0xFF;
+    Files.write(archiveFile, archive, StandardOpenOption.TRUNCATE_EXISTING);
+
+    try {
+      new ExtractArchiveTask().execute(context);
+      Assert.fail("Expected malformed archive to be rejected");
+    } catch (TaskExecutionException ignore) {
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.basinmc.blackwater.trace;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+/**
+ * Evaluates whether {@link ChromeTraceExporter} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ChromeTraceExporterTest {
+
+  /**
+   * Evaluates whether spans are correctly exported in the trace event format.
+   */
+  @Test
+  public void testWrite() throws IOException {
+    ChromeTraceExporter exporter = new ChromeTraceExporter();
+
+    try (Span span = exporter.start("task", "Test \"1\"")) {
+      span.setAttribute("bytes", 42L);
+      span.setAttribute("artifact", "test-artifact");
+    }
+
+    StringWriter writer = new StringWriter();
+    exporter.write(writer);
+    String trace = writer.toString();
+
+    Assert.assertTrue(trace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+    Assert.assertTrue(trace.endsWith("]}"));
+    Assert.assertTrue(trace.contains("\"name\":\"thread_name\",\"ph\":\"M\""));
+    Assert.assertTrue(trace.contains("\"name\":\"Test \\\"1\\\"\",\"cat\":\"task\",\"ph\":\"X\""));
+    Assert.assertTrue(trace.contains("\"args\":{\"bytes\":42,\"artifact\":\"test-artifact\"}"));
+  }
+
+  /**
+   * Evaluates whether pipelines record spans for their tasks as well as spans which are recorded
+   * by the tasks themselves.
+   */
+  @Test
+  public void testPipeline() throws IOException, TaskException {
+    ChromeTraceExporter exporter = new ChromeTraceExporter();
+
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Test Task");
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      Tracing.start("process", "test-process").close();
+    })).when(task).execute(Mockito.any(Context.class));
+
+    Pipeline.builder()
+        .withTracer(exporter)
+        .withTask(task).register()
+        .build()
+        .execute();
+
+    StringWriter writer = new StringWriter();
+    exporter.write(writer);
+    String trace = writer.toString();
+
+    Assert.assertTrue(trace.contains("\"name\":\"Test Task\",\"cat\":\"task\""));
+    Assert.assertTrue(trace.contains("\"cat\":\"resolve\""));
+    Assert.assertTrue(trace.contains("\"cat\":\"execute\""));
+    Assert.assertTrue(trace.contains("\"cat\":\"cleanup\""));
+    Assert.assertTrue(trace.contains("\"name\":\"test-process\",\"cat\":\"process\""));
+  }
+}
@@ -0,0 +1,94 @@
+package org.basinmc.blackwater.trace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.Task.Context;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+/**
+ * Evaluates whether {@link FlightRecorderTracer} operates as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class FlightRecorderTracerTest {
+
+  /**
+   * Evaluates whether spans are discarded while no recording is running.
+   */
+  @Test
+  public void testDisabled() {
+    Tracer tracer = Tracer.flightRecorder().orElseThrow(AssertionError::new);
+
+    try (Span span = tracer.start("task", "Test Task")) {
+      Assert.assertFalse(span.isRecording());
+    }
+  }
+
+  /**
+   * Evaluates whether pipelines emit events for their tasks as well as for spans which are
+   * recorded by the tasks themselves.
+   */
+  @Test
+  public void testPipeline() throws IOException, TaskException {
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getName())
+        .thenReturn("Test Task");
+    Mockito.doAnswer(AdditionalAnswers.<Context>answerVoid((ctx) -> {
+      try (Span span = Tracing.start("wait", "test-process")) {
+        span.setAttribute("command", "test-process --test");
+        span.setAttribute("exitValue", 42);
+      }
+    })).when(task).execute(Mockito.any(Context.class));
+
+    Path file = Files.createTempFile("blackwater_", ".jfr");
+
+    try {
+      try (Recording recording = new Recording()) {
+        recording.enable("org.basinmc.blackwater.Task").withoutThreshold();
+        recording.enable("org.basinmc.blackwater.Cleanup").withoutThreshold();
+        recording.enable("org.basinmc.blackwater.ProcessWait").withoutThreshold();
+        recording.start();
+
+        Pipeline.builder()
+            .withTask(task).register()
+            .build()
+            .execute();
+
+        recording.stop();
+        recording.dump(file);
+      }
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+      Optional<RecordedEvent> taskEvent = events.stream()
+          .filter((e) -> "org.basinmc.blackwater.Task".equals(e.getEventType().getName()))
+          .findAny();
+      Assert.assertTrue(taskEvent.isPresent());
+      Assert.assertEquals("Test Task", taskEvent.get().getString("task"));
+
+      Optional<RecordedEvent> waitEvent = events.stream()
+          .filter((e) -> "org.basinmc.blackwater.ProcessWait".equals(e.getEventType().getName()))
+          .findAny();
+      Assert.assertTrue(waitEvent.isPresent());
+      Assert.assertEquals("test-process --test", waitEvent.get().getString("command"));
+      Assert.assertEquals(42, waitEvent.get().getInt("exitValue"));
+
+      Assert.assertTrue(events.stream()
+          .anyMatch((e) -> "org.basinmc.blackwater.Cleanup".equals(e.getEventType().getName())));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
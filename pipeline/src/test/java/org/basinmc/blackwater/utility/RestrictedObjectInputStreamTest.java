@@ -0,0 +1,70 @@
+package org.basinmc.blackwater.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import javax.annotation.Nonnull;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Evaluates whether {@link RestrictedObjectInputStream} only resolves permitted types.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class RestrictedObjectInputStreamTest {
+
+  /**
+   * Evaluates whether types (and arrays) within the permitted packages are resolved.
+   */
+  @Test
+  public void testPermitted() throws ClassNotFoundException, IOException {
+    ArrayList<Object> list = new ArrayList<>();
+    list.add("test");
+    list.add(new int[]{1, 2});
+    list.add(new String[]{"a", "b"});
+
+    try (ObjectInputStream inputStream = new RestrictedObjectInputStream(
+        serialize(list))) {
+      Assert.assertEquals(3, ((ArrayList<?>) inputStream.readObject()).size());
+    }
+  }
+
+  /**
+   * Evaluates whether types (and arrays) outside of the permitted packages are rejected.
+   */
+  @Test
+  public void testRejected() throws ClassNotFoundException, IOException {
+    try (ObjectInputStream inputStream = new RestrictedObjectInputStream(
+        serialize(new String[]{"a"}), Collections.singletonList("java.util."))) {
+      inputStream.readObject();
+      Assert.fail("Expected array of disallowed type to be rejected");
+    } catch (InvalidClassException ex) {
+      Assert.assertEquals("[Ljava.lang.String;", ex.classname);
+    }
+
+    try (ObjectInputStream inputStream = new RestrictedObjectInputStream(
+        serialize(new ArrayList<>()), Collections.singletonList("java.lang."))) {
+      inputStream.readObject();
+      Assert.fail("Expected disallowed type to be rejected");
+    } catch (InvalidClassException ex) {
+      Assert.assertEquals("java.util.ArrayList", ex.classname);
+    }
+  }
+
+  @Nonnull
+  private static ByteArrayInputStream serialize(@Nonnull Object object) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    try (ObjectOutputStream outputStream = new ObjectOutputStream(buffer)) {
+      outputStream.writeObject(object);
+    }
+
+    return new ByteArrayInputStream(buffer.toByteArray());
+  }
+}
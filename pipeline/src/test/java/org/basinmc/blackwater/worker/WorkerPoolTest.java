@@ -0,0 +1,206 @@
+package org.basinmc.blackwater.worker;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.basinmc.blackwater.Pipeline;
+import org.basinmc.blackwater.artifact.ArtifactReference;
+import org.basinmc.blackwater.artifact.file.FileArtifactManager;
+import org.basinmc.blackwater.artifact.file.FlatFileArtifactReference;
+import org.basinmc.blackwater.task.Task;
+import org.basinmc.blackwater.task.error.TaskException;
+import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Provides test cases which evaluate whether {@link WorkerPool} and {@link ForkedTask} operate
+ * as expected.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class WorkerPoolTest {
+
+  /**
+   * Evaluates whether forked tasks are executed within (reused) worker processes and whether
+   * their failures are passed back to the pipeline.
+   */
+  @Test
+  public void testExecute() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path output1 = directory.resolve("output1.txt");
+    Path output2 = directory.resolve("output2.txt");
+
+    try (WorkerPool pool = WorkerPool.builder()
+        .withSize(1)
+        .withJvmArgument("-Xmx64m")
+        .build()) {
+      // @formatter:off
+      Pipeline.builder()
+          .withTask(new ForkedTask(pool, new ProcessNameTask(false)))
+            .withOutputFile(output1)
+            .register()
+          .withTask(new ForkedTask(pool, new ProcessNameTask(false)))
+            .withOutputFile(output2)
+            .register()
+          .build()
+          .execute();
+      // @formatter:on
+
+      String processName = new String(Files.readAllBytes(output1), StandardCharsets.UTF_8);
+      Assert.assertNotEquals(ManagementFactory.getRuntimeMXBean().getName(), processName);
+      Assert.assertEquals(processName,
+          new String(Files.readAllBytes(output2), StandardCharsets.UTF_8));
+
+      try {
+        // @formatter:off
+        Pipeline.builder()
+            .withTask(new ForkedTask(pool, new ProcessNameTask(true)))
+              .withOutputFile(output1)
+              .register()
+            .build()
+            .execute();
+        // @formatter:on
+        Assert.fail("Expected failure within worker to be propagated");
+      } catch (TaskException ex) {
+        Throwable cause = ex;
+
+        while (cause.getCause() != null) {
+          cause = cause.getCause();
+        }
+
+        Assert.assertEquals("Broken", cause.getMessage());
+      }
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        Iterator<Path> it = stream
+            .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+            .iterator();
+
+        while (it.hasNext()) {
+          Files.deleteIfExists(it.next());
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether forked tasks are given access to the previous version of their output
+   * artifact.
+   */
+  @Test
+  public void testPreviousOutput() throws Exception {
+    Path directory = Files.createTempDirectory("blackwater_test_");
+    Path artifacts = directory.resolve("artifacts");
+    ArtifactReference reference = new FlatFileArtifactReference("artifact");
+
+    try (WorkerPool pool = WorkerPool.builder()
+        .withSize(1)
+        .withJvmArgument("-Xmx64m")
+        .build()) {
+      for (int i = 0; i < 2; ++i) {
+        // @formatter:off
+        Pipeline.builder()
+            .withArtifactManager(new FileArtifactManager(artifacts))
+            .withTask(new ForkedTask(pool, new AppendTask()))
+              .withOutputArtifact(reference)
+              .withForcedExecution(true)
+              .register()
+            .build()
+            .execute();
+        // @formatter:on
+      }
+
+      Assert.assertEquals("xx", new String(Files.readAllBytes(artifacts.resolve("artifact")),
+          StandardCharsets.UTF_8));
+    } finally {
+      try (Stream<Path> stream = Files.walk(directory)) {
+        Iterator<Path> it = stream
+            .sorted((p1, p2) -> p2.getNameCount() - p1.getNameCount())
+            .iterator();
+
+        while (it.hasNext()) {
+          Files.deleteIfExists(it.next());
+        }
+      }
+    }
+  }
+
+  /**
+   * Evaluates whether tasks which cannot be serialized are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonSerializableTask() {
+    try (WorkerPool pool = WorkerPool.builder().build()) {
+      new ForkedTask(pool, Mockito.mock(Task.class));
+    }
+  }
+
+  /**
+   * Appends a fixed string to its previous output (if any).
+   */
+  private static final class AppendTask implements Serializable, Task {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void execute(@NonNull Context context) throws TaskExecutionException {
+      try {
+        Optional<Path> previous = context.getPreviousOutputPath();
+        String contents = previous.isPresent() ? new String(Files.readAllBytes(previous.get()),
+            StandardCharsets.UTF_8) : "";
+
+        Files.write(context.getRequiredOutputPath(),
+            (contents + "x").getBytes(StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new TaskExecutionException("Failed to write output: " + ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public boolean requiresOutputParameter() {
+      return true;
+    }
+  }
+
+  /**
+   * Writes the name of the executing virtual machine to its output.
+   */
+  private static final class ProcessNameTask implements Serializable, Task {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean fail;
+
+    private ProcessNameTask(boolean fail) {
+      this.fail = fail;
+    }
+
+    @Override
+    public void execute(@NonNull Context context) throws TaskExecutionException {
+      if (this.fail) {
+        throw new TaskExecutionException("Broken");
+      }
+
+      try {
+        Files.write(context.getRequiredOutputPath(),
+            ManagementFactory.getRuntimeMXBean().getName().getBytes(StandardCharsets.UTF_8));
+      } catch (IOException ex) {
+        throw new TaskExecutionException("Failed to write output: " + ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public boolean requiresOutputParameter() {
+      return true;
+    }
+  }
+}
@@ -1,10 +1,15 @@
 package org.basinmc.blackwater.tasks.git;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
+import org.basinmc.blackwater.task.ResourceClass;
 import org.basinmc.blackwater.task.Task;
 import org.basinmc.blackwater.task.error.TaskExecutionException;
+import org.basinmc.blackwater.trace.Span;
+import org.basinmc.blackwater.trace.Tracing;
 import org.basinmc.blackwater.utility.ProcessGobbler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,25 +32,47 @@ abstract class AbstractExecutableTask implements Task {
   protected int execute(@Nonnull ProcessBuilder builder) throws TaskExecutionException {
     Logger logger = LoggerFactory.getLogger(this.getClass());
 
+    String command = String.join(" ", builder.command());
+
     try {
-      Process process = builder.start();
+      Process process;
+
+      try (Span span = Tracing.start("spawn", builder.command().get(0))) {
+        span.setAttribute("command", command);
+        process = builder.start();
+      }
 
       ProcessGobbler gobbler = new ProcessGobbler(process, logger);
       gobbler.start();
 
-      try {
-        if (!process.waitFor(5, TimeUnit.MINUTES)) {
-          process.destroyForcibly();
-          logger.error("Process has exceeded timeout of 5 minutes - Killed");
-          return -1;
+      try (Span span = Tracing.start("wait", builder.command().get(0))) {
+        span.setAttribute("command", command);
+
+        try {
+          if (!process.waitFor(5, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            logger.error("Process has exceeded timeout of 5 minutes - Killed");
+            return -1;
+          }
+        } catch (InterruptedException ex) {
+          logger.error("Interrupted while awaiting process exit", ex);
         }
-      } catch (InterruptedException ex) {
-        logger.error("Interrupted while awaiting process exit", ex);
-      }
 
-      return process.exitValue();
+        int exitValue = process.exitValue();
+        span.setAttribute("exitValue", exitValue);
+        return exitValue;
+      }
     } catch (IOException ex) {
       throw new TaskExecutionException("Failed to execute git: " + ex.getMessage(), ex);
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Nonnull
+  @Override
+  public Map<ResourceClass, Integer> getResourceWeights() {
+    return Collections.singletonMap(ResourceClass.PROCESS, 1);
+  }
 }